@@ -8,8 +8,15 @@
 
 package de.rcenvironment.components.outputwriter.execution;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedWriter;
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.text.SimpleDateFormat;
 import java.util.Date;
 import java.util.UUID;
@@ -22,16 +29,21 @@ import de.rcenvironment.core.component.datamanagement.api.ComponentDataManagemen
 import de.rcenvironment.core.component.execution.api.ComponentContext;
 import de.rcenvironment.core.component.execution.api.ConsoleRow;
 import de.rcenvironment.core.component.model.spi.DefaultComponent;
+import de.rcenvironment.core.datamodel.api.BigTableReader;
 import de.rcenvironment.core.datamodel.api.DataType;
 import de.rcenvironment.core.datamodel.api.TypedDatum;
+import de.rcenvironment.core.datamodel.api.TypedDatumService;
+import de.rcenvironment.core.datamodel.types.api.BigTableTD;
 import de.rcenvironment.core.datamodel.types.api.DirectoryReferenceTD;
 import de.rcenvironment.core.datamodel.types.api.FileReferenceTD;
+import de.rcenvironment.core.utils.common.TempFileServiceAccess;
 
 /**
  * The default Outputwriter backend.
  * 
  * @author Hendrik Abbenhaus
  * @author Sascha Zur
+ * @author agent (big table support)
  * 
  */
 public class OutputWriterComponent extends DefaultComponent {
@@ -44,6 +56,8 @@ public class OutputWriterComponent extends DefaultComponent {
 
     private ComponentDataManagementService dataManagementService;
 
+    private TypedDatumService typedDatumService;
+
     private String root = "";
 
     private String wfStartTimeStamp;
@@ -56,6 +70,7 @@ public class OutputWriterComponent extends DefaultComponent {
     @Override
     public void start() throws ComponentException {
         dataManagementService = componentContext.getService(ComponentDataManagementService.class);
+        typedDatumService = componentContext.getService(TypedDatumService.class);
 
         Date dt = new Date();
         SimpleDateFormat df = new SimpleDateFormat("yyyy-MM-dd_HH-mm-ss-S");
@@ -220,6 +235,14 @@ public class OutputWriterComponent extends DefaultComponent {
                 throw new ComponentException("Failed to write Directory output: " + incFile.getAbsolutePath(), e);
             }
             break;
+        case BigTable:
+            incFile = new File(path);
+            try {
+                writeBigTable((BigTableTD) input, incFile);
+            } catch (IOException e) {
+                throw new ComponentException("Failed to write Big Table output: " + incFile.getAbsolutePath(), e);
+            }
+            break;
         default:
             // Simple data type
             incFile = new File(path);
@@ -233,4 +256,37 @@ public class OutputWriterComponent extends DefaultComponent {
 
     }
 
+    /**
+     * Writes a big table as tab-separated text, one line per row. The rows are streamed from a local copy of the table, so the table is
+     * never held in memory as a whole.
+     * 
+     * @param bigTable the table to write
+     * @param targetFile the file to write to
+     * @throws IOException on read or write errors
+     */
+    private void writeBigTable(BigTableTD bigTable, File targetFile) throws IOException {
+        File tempFile = TempFileServiceAccess.getInstance().createTempFileFromPattern("bigtable-*.bin");
+        try {
+            dataManagementService.copyBigTableTDToLocalFile(componentContext, bigTable, tempFile);
+            try (BigTableReader reader = new BigTableReader(new BufferedInputStream(new FileInputStream(tempFile)),
+                typedDatumService.getBinarySerializer());
+                Writer writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(targetFile), StandardCharsets.UTF_8))) {
+                TypedDatum[] row;
+                while ((row = reader.readRow()) != null) {
+                    for (int i = 0; i < row.length; i++) {
+                        if (i > 0) {
+                            writer.write("\t");
+                        }
+                        if (row[i] != null && row[i].getDataType() != DataType.Empty) {
+                            writer.write(row[i].toString());
+                        }
+                    }
+                    writer.write("\r\n");
+                }
+            }
+        } finally {
+            TempFileServiceAccess.getInstance().disposeManagedTempDirOrFile(tempFile);
+        }
+    }
+
 }
@@ -27,7 +27,6 @@ import de.rcenvironment.core.component.execution.api.ConsoleRow.WorkflowLifecyle
 import de.rcenvironment.core.configuration.ConfigurationService;
 import de.rcenvironment.core.datamodel.api.DataType;
 import de.rcenvironment.core.datamodel.api.TypedDatum;
-import de.rcenvironment.core.datamodel.types.api.VectorTD;
 import de.rcenvironment.core.notification.DistributedNotificationService;
 import de.rcenvironment.core.scripting.python.PythonComponentConstants;
 import de.rcenvironment.core.scripting.python.PythonScriptContext;
@@ -154,19 +153,12 @@ public class PythonScriptExecutor extends DefaultScriptExecutor {
                             break;
                         case Vector:
                             List<Object> resultVector = (List<Object>) o;
-                            VectorTD vector = typedDatumFactory.createVector(resultVector.size());
+                            double[] vectorValues = new double[resultVector.size()];
                             int index = 0;
                             for (Object element : resultVector) {
-                                double convertedValue = 0;
-                                if (element instanceof Integer) {
-                                    convertedValue = (Integer) element;
-                                } else {
-                                    convertedValue = (Double) element;
-                                }
-                                vector.setFloatTDForElement(typedDatumFactory.createFloat(convertedValue), index);
-                                index++;
+                                vectorValues[index++] = ((Number) element).doubleValue();
                             }
-                            outputValue = vector;
+                            outputValue = typedDatumFactory.createVector(vectorValues);
                             break;
                         case SmallTable:
                             List<Object> rowArray = (List<Object>) o;
@@ -7,6 +7,10 @@
  */
 package de.rcenvironment.components.sql.execution;
 
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
 import java.io.Serializable;
 import java.sql.Connection;
 import java.sql.ResultSet;
@@ -24,10 +28,14 @@ import de.rcenvironment.components.sql.common.JDBCService;
 import de.rcenvironment.components.sql.common.SqlComponentConstants;
 import de.rcenvironment.components.sql.execution.ResultValueConverter.ResultSetMetaData;
 import de.rcenvironment.core.component.api.ComponentException;
+import de.rcenvironment.core.component.datamanagement.api.ComponentDataManagementService;
 import de.rcenvironment.core.component.execution.api.ComponentContext;
+import de.rcenvironment.core.datamodel.api.BigTableWriter;
 import de.rcenvironment.core.datamodel.api.DataType;
 import de.rcenvironment.core.datamodel.api.TypedDatum;
 import de.rcenvironment.core.datamodel.api.TypedDatumService;
+import de.rcenvironment.core.datamodel.types.api.BigTableTD;
+import de.rcenvironment.core.utils.common.TempFileServiceAccess;
 import de.rcenvironment.core.utils.common.channel.legacy.VariantArray;
 import de.rcenvironment.core.utils.common.variables.legacy.TypedValue;
 
@@ -36,6 +44,7 @@ import de.rcenvironment.core.utils.common.variables.legacy.TypedValue;
  * 
  * @author Markus Kunde
  * @author Christian Weiss
+ * @author agent (big table outputs)
  */
 public abstract class AbstractSQLComponent extends AbstractComponent {
 
@@ -45,6 +54,8 @@ public abstract class AbstractSQLComponent extends AbstractComponent {
     
     private static JDBCService jdbcService;
 
+    private static ComponentDataManagementService componentDataManagementService;
+
     private Connection connection;
 
     private Boolean hasDataInputs;
@@ -57,6 +68,10 @@ public abstract class AbstractSQLComponent extends AbstractComponent {
 
     private Set<String> fullDataOutputs;
 
+    private Boolean hasBigTableOutputs;
+
+    private Set<String> bigTableOutputs;
+
     private Boolean hasFullDataInputs;
 
     private Set<String> fullDataInputs;
@@ -76,6 +91,7 @@ public abstract class AbstractSQLComponent extends AbstractComponent {
     public void start() throws ComponentException {
         jdbcService = componentContext.getService(JDBCService.class);
         typedDatumService = componentContext.getService(TypedDatumService.class);
+        componentDataManagementService = componentContext.getService(ComponentDataManagementService.class);
         super.start();
     }
 
@@ -167,6 +183,21 @@ public abstract class AbstractSQLComponent extends AbstractComponent {
         return fullDataOutputs;
     }
 
+    protected boolean hasBigTableOutputs() {
+        if (hasBigTableOutputs == null) {
+            hasBigTableOutputs = hasDataOutputs(DataType.BigTable);
+        }
+        return hasBigTableOutputs;
+    }
+
+    protected Set<String> getBigTableOutputs() {
+        if (bigTableOutputs == null) {
+            bigTableOutputs = new HashSet<>();
+            bigTableOutputs.addAll(getDataOutputs(DataType.BigTable));
+        }
+        return bigTableOutputs;
+    }
+
     protected Set<String> getDataOutputs() {
         if (dataOutputs == null) {
             dataOutputs = new HashSet<>();
@@ -175,7 +206,7 @@ public abstract class AbstractSQLComponent extends AbstractComponent {
                     continue;
                 }
                 final DataType value = componentContext.getOutputDataType(outputName);
-                if (value != DataType.SmallTable) {
+                if (value != DataType.SmallTable && value != DataType.BigTable) {
                     dataOutputs.add(outputName);
                 }
             }
@@ -246,7 +277,7 @@ public abstract class AbstractSQLComponent extends AbstractComponent {
     }
     
     @Override
-    public boolean runInitialInComponent(boolean inputsConnected) {
+    public boolean runInitialInComponent(boolean inputsConnected) throws ComponentException {
         sqlSetup();
         if (isSqlInitQueryEnabled()) {
             final String sql = getSqlInitQuery();
@@ -264,12 +295,12 @@ public abstract class AbstractSQLComponent extends AbstractComponent {
         return true;
     }
 
-    private void runSqlSafe(final String sql) {
+    private void runSqlSafe(final String sql) throws ComponentException {
         Integer success = null;
         try {
             runSql(sql);
             success = 1;
-        } catch (final RuntimeException e) {
+        } catch (final RuntimeException | ComponentException e) {
             success = 0;
             logger.warn("Failed to execute SQL statement:", e);
             throw e;
@@ -279,7 +310,7 @@ public abstract class AbstractSQLComponent extends AbstractComponent {
         }
     }
         
-    protected abstract void runSql(final String sql);
+    protected abstract void runSql(final String sql) throws ComponentException;
 
 
     protected void sqlSetup() {
@@ -413,15 +444,15 @@ public abstract class AbstractSQLComponent extends AbstractComponent {
         closeConnection();
     }
 
-    protected void distributeResults(ResultSet resultSet) throws SQLException {
+    protected void distributeResults(ResultSet resultSet) throws SQLException, ComponentException {
         final ComponentContext componentContext = getComponentContext();
         if (!hasDataOutputs() && !hasFullDataOutputs()) {
             return;
         }
         final ResultSetMetaData metaData = ResultSetMetaData.parse(resultSet);
         /*
-         * Convert the WHOLE ResultSet to a list of TypedValue arrays.
-         * This needs to be changed if the primary use case is iteration over the ResultSet
+         * Iterate over the ResultSet lazily; only full data (SmallTable) outputs require the whole result to be held in memory, while big
+         * table outputs are streamed to a temporary file row by row.
          */
         final Iterable<TypedValue[]> rows = ResultValueConverter.convertToTypedValueListIterator(resultSet);
         /*
@@ -432,15 +463,11 @@ public abstract class AbstractSQLComponent extends AbstractComponent {
         if (storeFullRowList) {
             fullRowList = new LinkedList<TypedValue[]>();
         }
-        // determine the meta outputs
+        // determine the relevant columns which are those who are mapped to an output with equal
+        // name
+        final Map<String, Integer> relevantColumns = new HashMap<String, Integer>();
         if (hasDataOutputs()) {
-            /*
-             * Iterate over each row and write the values to the output.
-             */
             final Set<String> dataOuts = getDataOutputs();
-            // determine the relevant columns which are those who are mapped to an output with equal
-            // name
-            final Map<String, Integer> relevantColumns = new HashMap<String, Integer>();
             for (int columnIndex = 0; columnIndex < metaData.columnCount; ++columnIndex) {
                 final String columnName = metaData.columnLabels.get(columnIndex);
                 // output with equal name indicates a relevant column
@@ -448,8 +475,17 @@ public abstract class AbstractSQLComponent extends AbstractComponent {
                     relevantColumns.put(columnName, columnIndex);
                 }
             }
-            // only iterate over the rows if relevant columns exist or meta outputs exist
-            if (!relevantColumns.isEmpty() || !getMetaOutputs().isEmpty()) {
+        }
+        File bigTableFile = null;
+        BigTableWriter bigTableWriter = null;
+        try {
+            if (hasBigTableOutputs()) {
+                bigTableFile = TempFileServiceAccess.getInstance().createTempFileFromPattern("sql-result-*.bigtable");
+                bigTableWriter = new BigTableWriter(new BufferedOutputStream(new FileOutputStream(bigTableFile)), metaData.columnCount,
+                    typedDatumService.getBinarySerializer());
+            }
+            // only iterate over the rows if relevant columns, meta outputs, full data outputs, or big table outputs exist
+            if (!relevantColumns.isEmpty() || !getMetaOutputs().isEmpty() || storeFullRowList || bigTableWriter != null) {
                 // iterate over the rows
                 for (final TypedValue[] row : rows) {
                     // write the value of each relevant column into the output with equal name
@@ -463,19 +499,45 @@ public abstract class AbstractSQLComponent extends AbstractComponent {
                     if (storeFullRowList) {
                         fullRowList.add(row);
                     }
+                    if (bigTableWriter != null) {
+                        final TypedDatum[] cells = new TypedDatum[metaData.columnCount];
+                        for (int columnIndex = 0; columnIndex < metaData.columnCount; ++columnIndex) {
+                            cells[columnIndex] = DataTypeConverter.convert(row[columnIndex], typedDatumService);
+                        }
+                        bigTableWriter.writeRow(cells);
+                    }
                 }
             }
-        } else if (storeFullRowList) {
-            // store the row in the full row list if necessary
-            // iterate over the rows
-            for (final TypedValue[] row : rows) {
-                fullRowList.add(row);
+            if (hasFullDataOutputs()) {
+                final VariantArray value = ResultValueConverter.convertToVariantArray("VariantArray", fullRowList, metaData.columnCount);
+                for (final String outputName : getFullDataOutputs()) {
+                    componentContext.writeOutput(outputName, DataTypeConverter.convert(value, typedDatumService));
+                }
             }
-        }
-        if (hasFullDataOutputs()) {
-            final VariantArray value = ResultValueConverter.convertToVariantArray("VariantArray", fullRowList, metaData.columnCount);
-            for (final String outputName : getFullDataOutputs()) {
-                componentContext.writeOutput(outputName, DataTypeConverter.convert(value, typedDatumService));
+            if (bigTableWriter != null) {
+                bigTableWriter.close();
+                final BigTableTD bigTable = componentDataManagementService.createBigTableTDFromLocalFile(componentContext, bigTableFile,
+                    bigTableWriter.getRowCount(), bigTableWriter.getColumnCount());
+                for (final String outputName : getBigTableOutputs()) {
+                    componentContext.writeOutput(outputName, bigTable);
+                }
+            }
+        } catch (IOException e) {
+            throw new ComponentException("Failed to store the result set as big table", e);
+        } finally {
+            if (bigTableWriter != null) {
+                try {
+                    bigTableWriter.close();
+                } catch (IOException e) {
+                    logger.warn("Failed to close big table writer", e);
+                }
+            }
+            if (bigTableFile != null) {
+                try {
+                    TempFileServiceAccess.getInstance().disposeManagedTempDirOrFile(bigTableFile);
+                } catch (IOException e) {
+                    logger.warn("Failed to dispose temporary big table file: " + bigTableFile.getAbsolutePath(), e);
+                }
             }
         }
     }
@@ -13,6 +13,8 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 
+import de.rcenvironment.core.component.api.ComponentException;
+
 /**
  * Component to execute commands in a SQL database.
  * 
@@ -26,7 +28,7 @@ public class SQLCommandComponent extends AbstractSQLComponent {
     }
 
     @Override
-    protected void runSql(final String sql) {
+    protected void runSql(final String sql) throws ComponentException {
         // FIXME - split needs to be sensitive to in-string semicolons
         // furthermore this should be moved to AbstractSQLComponent to be applied to all configured sql statements
         final String[] sqlStatements = sql.split(";");
@@ -37,7 +39,7 @@ public class SQLCommandComponent extends AbstractSQLComponent {
         }
     }
 
-    private void runSqlStatement(final String sql) {
+    private void runSqlStatement(final String sql) throws ComponentException {
         // declare the jdbc assets to be able to close them in the finally-clause
         Connection jdbcConnection = null;
         Statement statement = null;
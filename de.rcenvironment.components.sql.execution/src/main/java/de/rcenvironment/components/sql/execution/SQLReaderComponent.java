@@ -14,6 +14,8 @@ import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.regex.Pattern;
 
+import de.rcenvironment.core.component.api.ComponentException;
+
 
 /**
  * Component to read data from a SQL database.
@@ -53,7 +55,7 @@ public class SQLReaderComponent extends AbstractSQLComponent {
     }
 
     @Override
-    protected void runSql(final String sql) {
+    protected void runSql(final String sql) throws ComponentException {
         // declare the jdbc assets to be able to close them in the finally-clause
         Connection jdbcConnection = null;
         Statement statement = null;
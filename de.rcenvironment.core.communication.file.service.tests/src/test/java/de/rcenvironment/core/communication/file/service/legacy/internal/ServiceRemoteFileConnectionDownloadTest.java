@@ -0,0 +1,205 @@
+/*
+ * Copyright (C) 2006-2014 DLR, Germany
+ * 
+ * All rights reserved
+ * 
+ * http://www.rcenvironment.de/
+ */
+
+package de.rcenvironment.core.communication.file.service.legacy.internal;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.easymock.EasyMock;
+import org.junit.Test;
+import org.osgi.framework.BundleContext;
+
+import de.rcenvironment.core.authentication.User;
+import de.rcenvironment.core.communication.common.NodeIdentifier;
+import de.rcenvironment.core.communication.fileaccess.api.RemoteFileConnection.FileType;
+import de.rcenvironment.core.communication.testutils.CommunicationServiceDefaultStub;
+
+/**
+ * Tests for the windowed chunk download of {@link ServiceRemoteFileConnection}. The remote side is simulated by a {@link FileService}
+ * that serves the chunks via a {@link SequentialChunkReader} and records the number of concurrent chunk requests.
+ * 
+ * @author agent
+ */
+@Deprecated
+public class ServiceRemoteFileConnectionDownloadTest {
+
+    private static final int CHUNK_SIZE = 8 * 1024;
+
+    private static final int CHUNK_COUNT = 40;
+
+    // not a multiple of the chunk size, so the last chunk is a partial one
+    private static final int FILE_SIZE = CHUNK_COUNT * CHUNK_SIZE - 100;
+
+    // only a safeguard against blocking forever if the expected number of concurrent requests is never reached
+    private static final int WINDOW_FILL_TIMEOUT_SEC = 10;
+
+    private static final int WINDOW_SIZE = 8;
+
+    private static final int READ_BUFFER_SIZE = 5000;
+
+    private static final String URI = "rce://node-id/" + UUID.randomUUID() + "/7";
+
+    private final byte[] fileContent;
+
+    public ServiceRemoteFileConnectionDownloadTest() {
+        fileContent = new byte[FILE_SIZE];
+        new Random().nextBytes(fileContent);
+    }
+
+    /**
+     * Verifies that mixed single-byte reads, skips and buffer reads return the original content.
+     * 
+     * @throws Exception on unexpected errors
+     */
+    @Test
+    public void testContentIntegrity() throws Exception {
+        RecordingFileService fileService = new RecordingFileService(1);
+        ServiceRemoteFileConnection connection = createConnection(fileService, WINDOW_SIZE);
+
+        final int skipCount = CHUNK_SIZE + 7;
+        assertEquals(fileContent[0] & 0xff, connection.read());
+        assertEquals(skipCount, connection.skip(skipCount));
+        int position = 1 + skipCount;
+        assertEquals(fileContent[position] & 0xff, connection.read());
+        position++;
+
+        byte[] remaining = readFully(connection);
+        byte[] expected = new byte[FILE_SIZE - position];
+        System.arraycopy(fileContent, position, expected, 0, expected.length);
+        assertArrayEquals(expected, remaining);
+        assertEquals(-1, connection.read());
+        connection.close();
+        assertTrue(fileService.closed);
+    }
+
+    /**
+     * Verifies that the configured number of chunk requests is kept outstanding, but never exceeded.
+     * 
+     * @throws Exception on unexpected errors
+     */
+    @Test
+    public void testOutstandingRequests() throws Exception {
+        assertEquals(1, downloadAndGetMaxOutstandingRequests(1));
+        assertEquals(WINDOW_SIZE, downloadAndGetMaxOutstandingRequests(WINDOW_SIZE));
+    }
+
+    private int downloadAndGetMaxOutstandingRequests(int windowSize) throws Exception {
+        RecordingFileService fileService = new RecordingFileService(windowSize);
+        ServiceRemoteFileConnection connection = createConnection(fileService, windowSize);
+        byte[] content = readFully(connection);
+        connection.close();
+        assertArrayEquals(fileContent, content);
+        return fileService.getMaxOutstandingRequests();
+    }
+
+    private ServiceRemoteFileConnection createConnection(final FileService fileService, int windowSize) throws Exception {
+        CommunicationServiceDefaultStub communicationService = new CommunicationServiceDefaultStub() {
+
+            @Override
+            public Object getService(Class<?> iface, NodeIdentifier nodeId, BundleContext bundleContext) {
+                return fileService;
+            }
+        };
+        return new ServiceRemoteFileConnection(EasyMock.createNiceMock(User.class), new URI(URI), communicationService,
+            EasyMock.createNiceMock(BundleContext.class), CHUNK_SIZE, windowSize);
+    }
+
+    private byte[] readFully(ServiceRemoteFileConnection connection) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        byte[] buffer = new byte[READ_BUFFER_SIZE];
+        int read;
+        while ((read = connection.read(buffer, 0, buffer.length)) > 0) {
+            output.write(buffer, 0, read);
+        }
+        return output.toByteArray();
+    }
+
+    /**
+     * {@link FileService} that serves the test content and records the maximum number of concurrent chunk requests. The first chunk
+     * requests are held back until the expected number of them is outstanding, so the maximum does not depend on thread timing.
+     * 
+     * @author agent
+     */
+    private class RecordingFileService implements FileService {
+
+        private final CountDownLatch expectedRequestsOutstanding;
+
+        private final SequentialChunkReader chunkReader = new SequentialChunkReader(new ByteArrayInputStream(fileContent));
+
+        private int outstandingRequests;
+
+        private int maxOutstandingRequests;
+
+        private volatile boolean closed;
+
+        RecordingFileService(int expectedOutstandingRequests) {
+            expectedRequestsOutstanding = new CountDownLatch(expectedOutstandingRequests);
+        }
+
+        @Override
+        public String open(User cert, FileType type, String file) throws IOException {
+            return "test";
+        }
+
+        @Override
+        public int read(String uuid) throws IOException {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public byte[] read(String uuid, Integer len) throws IOException {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public byte[] readChunk(String uuid, Long chunkIndex, Integer chunkSize) throws IOException {
+            synchronized (this) {
+                outstandingRequests++;
+                maxOutstandingRequests = Math.max(maxOutstandingRequests, outstandingRequests);
+            }
+            try {
+                expectedRequestsOutstanding.countDown();
+                expectedRequestsOutstanding.await(WINDOW_FILL_TIMEOUT_SEC, TimeUnit.SECONDS);
+                return chunkReader.readChunk(chunkIndex, chunkSize);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException(e);
+            } finally {
+                synchronized (this) {
+                    outstandingRequests--;
+                }
+            }
+        }
+
+        @Override
+        public long skip(String uuid, Long n) throws IOException {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void close(String uuid) throws IOException {
+            chunkReader.close();
+            closed = true;
+        }
+
+        private synchronized int getMaxOutstandingRequests() {
+            return maxOutstandingRequests;
+        }
+    }
+}
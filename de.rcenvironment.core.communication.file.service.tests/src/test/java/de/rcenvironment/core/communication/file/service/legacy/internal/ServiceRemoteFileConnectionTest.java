@@ -112,6 +112,14 @@ public class ServiceRemoteFileConnectionTest extends TestCase {
                 return new byte[0];
             }
 
+            @Override
+            public byte[] readChunk(String uuid, Long chunkIndex, Integer chunkSize) throws IOException {
+                if (uuid.equals(testUUID)) {
+                    return new byte[chunkSize];
+                }
+                return new byte[0];
+            }
+
             @Override
             public long skip(String uuid, Long n) throws IOException {
                 if (uuid.equals(testUUID)) {
@@ -63,6 +63,23 @@ public interface FileService {
      */
     byte[] read(String uuid, Integer len) throws IOException;
 
+    /**
+     * Reads a chunk of a file. Chunks are consecutive and numbered from zero; several chunk requests may be in flight at the same time,
+     * as each request is only served after all preceding chunks have been read. Unlike {@link #read(String, Integer)}, each chunk except
+     * the last one is filled completely.
+     * 
+     * @param uuid
+     *            The id of the file.
+     * @param chunkIndex
+     *            the zero-based index of the chunk.
+     * @param chunkSize
+     *            the size of each chunk; must be the same for all chunks of a file.
+     * @return the chunk data; empty if the chunk starts after the end of the file.
+     * @throws IOException
+     *             - if the file has been closed, if a preceding chunk was not requested in time, or if some other I/O error occurs.
+     */
+    byte[] readChunk(String uuid, Long chunkIndex, Integer chunkSize) throws IOException;
+
     /**
      * Skips over and discards bytes from a file.
      * 
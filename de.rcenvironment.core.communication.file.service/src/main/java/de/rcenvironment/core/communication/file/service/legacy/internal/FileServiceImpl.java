@@ -31,6 +31,7 @@ import de.rcenvironment.core.utils.incubator.Assertions;
  * Implementation of the {@link FileService}.
  * 
  * @author Doreen Seider
+ * @author agent (chunked reading)
  */
 @Deprecated
 public class FileServiceImpl implements FileService {
@@ -41,6 +42,11 @@ public class FileServiceImpl implements FileService {
 
     private static final String ERROR_PARAMETERS_NULL = "The parameter \"{0}\" must not be null.";
 
+    /**
+     * The maximum chunk size accepted by {@link #readChunk(String, Long, Integer)}, to limit the memory a (remote) caller can allocate.
+     */
+    private static final int MAXIMUM_CHUNK_SIZE = 16 * 1024 * 1024;
+
     private static final Log LOGGER = LogFactory.getLog(FileServiceImpl.class);
 
     /**
@@ -48,6 +54,11 @@ public class FileServiceImpl implements FileService {
      */
     private static Map<String, InputStream> inputStreamMap = Collections.synchronizedMap(new HashMap<String, InputStream>());
 
+    /**
+     * The {@link SequentialChunkReader}s of the open {@link InputStream} objects that are read chunk-wise.
+     */
+    private static Map<String, SequentialChunkReader> chunkReaderMap = new HashMap<String, SequentialChunkReader>();
+
     private FileDataService dataService;
 
     private MetaDataBackendService metaDataBackendService;
@@ -64,6 +75,12 @@ public class FileServiceImpl implements FileService {
     @AllowRemoteAccess
     public void close(String uuid) throws IOException {
         Assertions.isDefined(uuid, MessageFormat.format(ERROR_PARAMETERS_NULL, PARAMETER_UUID));
+        synchronized (chunkReaderMap) {
+            SequentialChunkReader chunkReader = chunkReaderMap.remove(uuid);
+            if (chunkReader != null) {
+                chunkReader.close();
+            }
+        }
         if (inputStreamMap.containsKey(uuid)) {
             inputStreamMap.get(uuid).close();
             inputStreamMap.remove(uuid);
@@ -137,6 +154,33 @@ public class FileServiceImpl implements FileService {
         }
     }
 
+    @Override
+    @AllowRemoteAccess
+    public byte[] readChunk(String uuid, Long chunkIndex, Integer chunkSize) throws IOException {
+
+        Assertions.isDefined(uuid, MessageFormat.format(ERROR_PARAMETERS_NULL, PARAMETER_UUID));
+        Assertions.isDefined(chunkIndex, MessageFormat.format(ERROR_PARAMETERS_NULL, "chunkIndex"));
+        Assertions.isDefined(chunkSize, MessageFormat.format(ERROR_PARAMETERS_NULL, "chunkSize"));
+        if (chunkSize <= 0 || chunkSize > MAXIMUM_CHUNK_SIZE) {
+            throw new IOException("Invalid chunk size: " + chunkSize);
+        }
+
+        SequentialChunkReader chunkReader;
+        synchronized (chunkReaderMap) {
+            chunkReader = chunkReaderMap.get(uuid);
+            if (chunkReader == null) {
+                InputStream inputStream = inputStreamMap.get(uuid);
+                if (inputStream == null) {
+                    throw new IOException(ERROR_INPUT_STREAM_NOT_FOUND + uuid);
+                }
+                chunkReader = new SequentialChunkReader(inputStream);
+                chunkReaderMap.put(uuid, chunkReader);
+            }
+        }
+        // not synchronized on the map, as requests for later chunks wait inside the reader
+        return chunkReader.readChunk(chunkIndex, chunkSize);
+    }
+
     @Override
     public long skip(String uuid, Long n) throws IOException {
 
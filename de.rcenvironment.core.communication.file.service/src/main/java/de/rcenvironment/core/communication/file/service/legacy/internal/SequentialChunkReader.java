@@ -0,0 +1,95 @@
+/*
+ * Copyright (C) 2006-2014 DLR, Germany
+ * 
+ * All rights reserved
+ * 
+ * http://www.rcenvironment.de/
+ */
+
+package de.rcenvironment.core.communication.file.service.legacy.internal;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.Arrays;
+
+/**
+ * Serves consecutive, indexed chunks of an {@link InputStream}. As a client may have several chunk requests in flight at the same time,
+ * the requests may arrive out of order; each request waits until all chunks with a lower index have been read.
+ * 
+ * @author agent
+ */
+class SequentialChunkReader {
+
+    /**
+     * The maximum time to wait for the requests of preceding chunks; guards against lost requests.
+     */
+    private static final long PRECEDING_CHUNK_TIMEOUT_MSEC = 60 * 1000;
+
+    private final InputStream inputStream;
+
+    private long nextChunkIndex;
+
+    private boolean endOfStream;
+
+    private boolean closed;
+
+    SequentialChunkReader(InputStream inputStream) {
+        this.inputStream = inputStream;
+    }
+
+    /**
+     * Reads the chunk with the given index. Each chunk is filled completely unless the end of the stream is reached.
+     * 
+     * @param chunkIndex the zero-based index of the chunk
+     * @param chunkSize the chunk size; must be the same for all chunks of a stream
+     * @return the chunk data; shorter than the chunk size for the last chunk, and empty for all chunks after the end of the stream
+     * @throws IOException on read errors, if the reader was closed, or if a preceding chunk was not requested in time
+     */
+    synchronized byte[] readChunk(long chunkIndex, int chunkSize) throws IOException {
+        long deadline = System.currentTimeMillis() + PRECEDING_CHUNK_TIMEOUT_MSEC;
+        while (!closed && chunkIndex != nextChunkIndex) {
+            if (chunkIndex < nextChunkIndex) {
+                throw new IOException("Chunk " + chunkIndex + " was already read");
+            }
+            long remainingTime = deadline - System.currentTimeMillis();
+            if (remainingTime <= 0) {
+                throw new IOException("Timeout while waiting for the request of chunk " + nextChunkIndex);
+            }
+            try {
+                wait(remainingTime);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for the request of chunk " + nextChunkIndex);
+            }
+        }
+        if (closed) {
+            throw new IOException("The input stream was closed");
+        }
+        byte[] buffer = new byte[chunkSize];
+        int total = 0;
+        while (!endOfStream && total < chunkSize) {
+            int read = inputStream.read(buffer, total, chunkSize - total);
+            if (read < 0) {
+                endOfStream = true;
+            } else {
+                total += read;
+            }
+        }
+        nextChunkIndex++;
+        notifyAll();
+        if (total == chunkSize) {
+            return buffer;
+        } else {
+            return Arrays.copyOf(buffer, total);
+        }
+    }
+
+    /**
+     * Marks this reader as closed, so all waiting and future requests fail. Does not close the underlying stream.
+     */
+    synchronized void close() {
+        closed = true;
+        notifyAll();
+    }
+}
@@ -9,23 +9,36 @@
 package de.rcenvironment.core.communication.file.service.legacy.internal;
 
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.lang.reflect.UndeclaredThrowableException;
 import java.net.URI;
 import java.text.MessageFormat;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 
+import org.apache.commons.logging.LogFactory;
 import org.osgi.framework.BundleContext;
 
 import de.rcenvironment.core.authentication.User;
 import de.rcenvironment.core.communication.api.CommunicationService;
 import de.rcenvironment.core.communication.common.CommunicationException;
 import de.rcenvironment.core.communication.fileaccess.api.RemoteFileConnection;
+import de.rcenvironment.core.utils.common.concurrent.SharedThreadPool;
+import de.rcenvironment.core.utils.common.concurrent.TaskDescription;
 import de.rcenvironment.core.utils.incubator.Assertions;
 
 /**
  * This class provides access remote files via the communication bundle service call concept.
  * 
+ * The file is downloaded in chunks of a fixed size. To hide the network latency, a configurable number of chunk requests is kept in
+ * flight; the received chunks are queued in request order and consumed by the read methods.
+ * 
  * @author Heinrich Wendel
  * @author Doreen Seider
+ * @author agent (windowed read-ahead)
  */
 @Deprecated
 public class ServiceRemoteFileConnection implements RemoteFileConnection {
@@ -36,6 +49,25 @@ public class ServiceRemoteFileConnection implements RemoteFileConnection {
 
     private static final String ERROR_PARAMETERS_NULL = "The parameter \"{0}\" must not be null.";
 
+    /**
+     * The property to set the download chunk size; if not set, the upload block size is used, so both directions use similar chunks.
+     */
+    private static final String DOWNLOAD_BLOCK_SIZE_PROPERTY = "communication.downloadBlockSize";
+
+    private static final String UPLOAD_BLOCK_SIZE_PROPERTY = "communication.uploadBlockSize";
+
+    private static final String DOWNLOAD_WINDOW_SIZE_PROPERTY = "communication.downloadWindowSize";
+
+    private static final int DEFAULT_CHUNK_SIZE = 256 * 1024;
+
+    private static final int MINIMUM_CHUNK_SIZE = 8 * 1024;
+
+    private static final int DEFAULT_WINDOW_SIZE = 4;
+
+    private static final int CHUNK_SIZE = determineChunkSize();
+
+    private static final int WINDOW_SIZE = determineWindowSize();
+
     /**
      * The {@link FileService} of the remote instance where the file is located.
      */
@@ -46,6 +78,26 @@ public class ServiceRemoteFileConnection implements RemoteFileConnection {
      */
     private final String remoteInputStreamUUID;
 
+    private final int chunkSize;
+
+    /**
+     * The maximum number of outstanding chunk requests.
+     */
+    private final int windowSize;
+
+    /**
+     * The outstanding chunk requests, in chunk order.
+     */
+    private final Deque<Future<byte[]>> pendingChunks = new ArrayDeque<Future<byte[]>>();
+
+    private long nextChunkIndex;
+
+    private byte[] currentChunk = new byte[0];
+
+    private int currentChunkPosition;
+
+    private boolean endOfStream;
+
     /**
      * Creates a new {@link ServiceRemoteFileConnection} of a remote file and initialize it.
      * 
@@ -55,7 +107,21 @@ public class ServiceRemoteFileConnection implements RemoteFileConnection {
      */
     public ServiceRemoteFileConnection(User user, URI uri, CommunicationService communicationService, BundleContext context)
         throws IOException {
+        this(user, uri, communicationService, context, CHUNK_SIZE, WINDOW_SIZE);
+    }
 
+    /**
+     * Creates a new {@link ServiceRemoteFileConnection} with explicit download parameters; intended for unit tests.
+     * 
+     * @param chunkSize the size of the requested chunks
+     * @param windowSize the maximum number of outstanding chunk requests
+     * @throws IOException if the file could not be accessed remotely.
+     */
+    ServiceRemoteFileConnection(User user, URI uri, CommunicationService communicationService, BundleContext context, int chunkSize,
+        int windowSize) throws IOException {
+
+        this.chunkSize = chunkSize;
+        this.windowSize = windowSize;
         try {
             fileService = (FileService) communicationService.getService(FileService.class,
                 RCEFileURIUtils.getNodeIdentifier(uri), context);
@@ -77,50 +143,42 @@ public class ServiceRemoteFileConnection implements RemoteFileConnection {
 
         Assertions.isDefined(b, MessageFormat.format(ERROR_PARAMETERS_NULL, "b"));
 
-        Byte[] objectB = new Byte[b.length];
-        for (int i = 0; i < b.length; i++) {
-            objectB[i] = new Byte(b[i]);
+        if (len == 0) {
+            return 0;
         }
-        int read = 0;
-        // the invocation handler of the proxy objects puts the
-        // communication exception into an undeclared throwable exception,
-        // because it is not part of the invoked method's signature
-        try {
-            byte[] buffer = (byte[]) fileService.read(remoteInputStreamUUID, new Integer(len));
-
-            if (buffer.length > 0) {
-                System.arraycopy(buffer, 0, b, off, buffer.length);
-                read = buffer.length;
-            } else {
-                read = MINUS_ONE;
-            }
-        } catch (UndeclaredThrowableException e) {
-            throw new IOException(e.getUndeclaredThrowable());
+        if (!fillCurrentChunk()) {
+            return MINUS_ONE;
         }
-
-        return read;
+        int count = Math.min(len, currentChunk.length - currentChunkPosition);
+        System.arraycopy(currentChunk, currentChunkPosition, b, off, count);
+        currentChunkPosition += count;
+        return count;
     }
 
     @Override
     public int read() throws IOException {
-        try {
-            return fileService.read(remoteInputStreamUUID);
-        } catch (UndeclaredThrowableException e) {
-            throw new IOException(e.getUndeclaredThrowable());
+        if (!fillCurrentChunk()) {
+            return MINUS_ONE;
         }
+        return currentChunk[currentChunkPosition++] & 0xff;
     }
 
     @Override
     public long skip(long n) throws IOException {
-        try {
-            return fileService.skip(remoteInputStreamUUID, n);
-        } catch (UndeclaredThrowableException e) {
-            throw new IOException(e.getUndeclaredThrowable());
+        // skipped locally, as the remote stream is read strictly sequentially by the outstanding chunk requests
+        long skipped = 0;
+        while (skipped < n && fillCurrentChunk()) {
+            int count = (int) Math.min(n - skipped, currentChunk.length - currentChunkPosition);
+            currentChunkPosition += count;
+            skipped += count;
         }
+        return skipped;
     }
 
     @Override
     public void close() throws IOException {
+        endOfStream = true;
+        cancelPendingChunks();
         try {
             fileService.close(remoteInputStreamUUID);
         } catch (UndeclaredThrowableException e) {
@@ -128,4 +186,114 @@ public class ServiceRemoteFileConnection implements RemoteFileConnection {
         }
     }
 
+    /**
+     * Makes sure that the current chunk has unread data, waiting for the next chunk if necessary.
+     * 
+     * @return false if the end of the stream was reached
+     */
+    private boolean fillCurrentChunk() throws IOException {
+        while (currentChunkPosition == currentChunk.length) {
+            if (endOfStream) {
+                return false;
+            }
+            requestChunks();
+            byte[] chunk = awaitChunk(pendingChunks.pollFirst());
+            if (chunk.length == 0) {
+                endOfStream = true;
+                cancelPendingChunks();
+                return false;
+            }
+            currentChunk = chunk;
+            currentChunkPosition = 0;
+            // keep the window full while the received chunk is consumed
+            requestChunks();
+        }
+        return true;
+    }
+
+    private void requestChunks() {
+        while (pendingChunks.size() < windowSize) {
+            final long chunkIndex = nextChunkIndex++;
+            pendingChunks.addLast(SharedThreadPool.getInstance().submit(new Callable<byte[]>() {
+
+                @Override
+                @TaskDescription("Remote file download: request chunk")
+                public byte[] call() throws IOException {
+                    return fileService.readChunk(remoteInputStreamUUID, chunkIndex, chunkSize);
+                }
+            }));
+        }
+    }
+
+    private byte[] awaitChunk(Future<byte[]> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for a remote file chunk");
+        } catch (ExecutionException e) {
+            endOfStream = true;
+            cancelPendingChunks();
+            // the invocation handler of the proxy objects puts the
+            // communication exception into an undeclared throwable exception,
+            // because it is not part of the invoked method's signature
+            Throwable cause = e.getCause();
+            if (cause instanceof UndeclaredThrowableException) {
+                cause = ((UndeclaredThrowableException) cause).getUndeclaredThrowable();
+            }
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            throw new IOException(cause);
+        }
+    }
+
+    private void cancelPendingChunks() {
+        for (Future<byte[]> future : pendingChunks) {
+            // not interrupted, as the remote call may be in progress
+            future.cancel(false);
+        }
+        pendingChunks.clear();
+    }
+
+    private static int determineChunkSize() {
+        String value = System.getProperty(DOWNLOAD_BLOCK_SIZE_PROPERTY);
+        String property = DOWNLOAD_BLOCK_SIZE_PROPERTY;
+        if (value == null) {
+            value = System.getProperty(UPLOAD_BLOCK_SIZE_PROPERTY);
+            property = UPLOAD_BLOCK_SIZE_PROPERTY;
+        }
+        if (value != null) {
+            try {
+                int parsedValue = Integer.parseInt(value);
+                if (parsedValue >= MINIMUM_CHUNK_SIZE) {
+                    return parsedValue;
+                }
+                LogFactory.getLog(ServiceRemoteFileConnection.class).error(
+                    "Invalid " + property + " setting: minimum value is " + MINIMUM_CHUNK_SIZE);
+            } catch (NumberFormatException e) {
+                LogFactory.getLog(ServiceRemoteFileConnection.class).error("Failed to parse " + property + " setting; using default", e);
+            }
+        }
+        return DEFAULT_CHUNK_SIZE;
+    }
+
+    private static int determineWindowSize() {
+        String value = System.getProperty(DOWNLOAD_WINDOW_SIZE_PROPERTY);
+        if (value != null) {
+            try {
+                int parsedValue = Integer.parseInt(value);
+                if (parsedValue >= 1) {
+                    return parsedValue;
+                }
+                LogFactory.getLog(ServiceRemoteFileConnection.class).error(
+                    "Invalid " + DOWNLOAD_WINDOW_SIZE_PROPERTY + " setting: minimum value is 1");
+            } catch (NumberFormatException e) {
+                LogFactory.getLog(ServiceRemoteFileConnection.class).error(
+                    "Failed to parse " + DOWNLOAD_WINDOW_SIZE_PROPERTY + " setting; using default", e);
+            }
+        }
+        return DEFAULT_WINDOW_SIZE;
+    }
+
 }
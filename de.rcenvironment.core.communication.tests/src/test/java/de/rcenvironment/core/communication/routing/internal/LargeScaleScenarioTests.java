@@ -23,6 +23,7 @@ import org.junit.Test;
 import de.rcenvironment.core.communication.common.CommunicationException;
 import de.rcenvironment.core.communication.common.NetworkGraphLink;
 import de.rcenvironment.core.communication.common.NodeIdentifier;
+import de.rcenvironment.core.communication.common.NodeIdentifierFactory;
 import de.rcenvironment.core.communication.model.NetworkResponse;
 import de.rcenvironment.core.communication.testutils.TestNetworkRequestHandler;
 import de.rcenvironment.core.communication.testutils.VirtualInstance;
@@ -42,6 +43,12 @@ public class LargeScaleScenarioTests extends AbstractLargeScaleTest {
 
     private static final int EPOCHS = 3;
 
+    private static final int[] ROUTING_TIMING_NODE_COUNTS = { 100, 200, 300, 400, 500 };
+
+    private static final int ROUTING_TIMING_LOOKUP_ROUNDS = 20;
+
+    private static final double NANOS_PER_MSEC = 1e6;
+
     /**
      * @throws Exception on uncaught exceptions
      */
@@ -601,6 +608,45 @@ public class LargeScaleScenarioTests extends AbstractLargeScaleTest {
 
     }
 
+    /**
+     * Measures the route computation and lookup times of a {@link TopologyMap} for large double ring topologies, and verifies the computed
+     * route lengths. Unlike the other tests, this operates on the topology map directly, as setting up hundreds of virtual instances is
+     * not feasible in a unit test.
+     */
+    @Test
+    public void testRoutingTableTimingsForLargeTopologies() {
+        for (int nodeCount : ROUTING_TIMING_NODE_COUNTS) {
+            NodeIdentifier[] nodeIds = new NodeIdentifier[nodeCount];
+            for (int i = 0; i < nodeCount; i++) {
+                nodeIds[i] = NodeIdentifierFactory.fromNodeId("timingNode" + i);
+            }
+            TopologyMap topologyMap = new TopologyMap(nodeIds[0]);
+            for (int i = 0; i < nodeCount; i++) {
+                int next = (i + 1) % nodeCount;
+                topologyMap.addLink(nodeIds[i], nodeIds[next], "c" + i + "_" + next);
+                topologyMap.addLink(nodeIds[next], nodeIds[i], "c" + next + "_" + i);
+            }
+
+            // the first lookup after a topology change computes the routing table
+            long start = System.nanoTime();
+            assertEquals(nodeCount, topologyMap.getIdsOfReachableNodes(false).size());
+            long tableComputationTime = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            for (int round = 0; round < ROUTING_TIMING_LOOKUP_ROUNDS; round++) {
+                for (int i = 1; i < nodeCount; i++) {
+                    NetworkRoute route = topologyMap.getShortestPath(nodeIds[0], nodeIds[i]);
+                    assertEquals(Math.min(i, nodeCount - i), route.getLength());
+                }
+            }
+            long lookupCount = (long) ROUTING_TIMING_LOOKUP_ROUNDS * (nodeCount - 1);
+            long averageLookupTime = (System.nanoTime() - start) / lookupCount;
+
+            log.info(String.format("Routing table for %d nodes: computation took %.2f msec, average route lookup took %d nsec",
+                nodeCount, tableComputationTime / NANOS_PER_MSEC, averageLookupTime));
+        }
+    }
+
     private void logIteration(int i) {
         log.debug("Starting test iteration " + i);
     }
@@ -228,6 +228,45 @@ public class TopologyMapTest extends TestCase {
         assertTrue(GRAPH_SHOULD_CONTAIN_CHANNEL, networkGraph.containsLinkBetween(NODE_4, NODE_5));
     }
 
+    /**
+     * Tests that an LSA that only changes node properties does not discard the routing table, while an LSA with changed links does.
+     */
+    public final void testRoutingTableOnlyDiscardedOnLinkChanges() {
+        networkGraph = new TopologyMap(NODE_1);
+        networkGraph.addLink(NODE_1, NODE_2, CONNECTION_ID_1);
+
+        LinkStateAdvertisement lsa =
+            LinkStateAdvertisement.createUpdateLsa(NODE_2, NODE_2_NAME, true, 1, networkGraph.hashCode(), true,
+                Arrays.asList(new TopologyLink[] {
+                    new TopologyLink(NODE_2, NODE_3, CONNECTION_ID_2)
+                }));
+        assertTrue(LSA_CAUSED_NO_UPDATE, networkGraph.update(lsa));
+        NetworkRoute route = networkGraph.getShortestPath(NODE_1, NODE_3);
+        assertEquals(2, route.getPath().size());
+
+        // same links, but a different display name and workflow host flag
+        lsa =
+            LinkStateAdvertisement.createUpdateLsa(NODE_2, NODE_4_NAME, false, 2, networkGraph.hashCode(), true,
+                Arrays.asList(new TopologyLink[] {
+                    new TopologyLink(NODE_2, NODE_3, CONNECTION_ID_2)
+                }));
+        assertTrue(LSA_CAUSED_NO_UPDATE, networkGraph.update(lsa));
+        assertSame(route, networkGraph.getShortestPath(NODE_1, NODE_3));
+        assertEquals(NODE_4_NAME, networkGraph.getNode(NODE_2).getDisplayName());
+
+        // a replaced link
+        lsa =
+            LinkStateAdvertisement.createUpdateLsa(NODE_2, NODE_2_NAME, true, 3, networkGraph.hashCode(), true,
+                Arrays.asList(new TopologyLink[] {
+                    new TopologyLink(NODE_2, NODE_3, CONNECTION_ID_3)
+                }));
+        assertTrue(LSA_CAUSED_NO_UPDATE, networkGraph.update(lsa));
+        NetworkRoute newRoute = networkGraph.getShortestPath(NODE_1, NODE_3);
+        assertNotSame(route, newRoute);
+        assertEquals(new TopologyLink(NODE_2, NODE_3, CONNECTION_ID_3), newRoute.getPath().get(1));
+        assertEquals(DIFFERENT_NUMBER_OF_EDGES_IN_GRAPH_EXPECTED, 2, networkGraph.getLinkCount());
+    }
+
     /**
      * Build graph and do manipulations with some {@link LinkStateAdvertisement}s.
      */
@@ -13,6 +13,9 @@ import java.util.ArrayList;
 import java.util.List;
 
 import junit.framework.TestCase;
+
+import org.apache.commons.logging.LogFactory;
+
 import de.rcenvironment.core.communication.common.CommunicationException;
 import de.rcenvironment.core.utils.common.security.AllowRemoteAccess;
 import de.rcenvironment.core.utils.common.security.MethodPermissionCheck;
@@ -24,6 +27,7 @@ import de.rcenvironment.core.utils.common.security.MethodPermissionCheckHasAnnot
  * @author Heinrich Wendel
  * @author Doreen Seider
  * @author Robert Mischke (added MethodPermissionCheck test)
+ * @author agent (throughput tests)
  */
 public class MethodCallerTest extends TestCase {
 
@@ -32,6 +36,12 @@ public class MethodCallerTest extends TestCase {
      */
     private static final String DUMMY_METHOD = "dummyFunction";
 
+    private static final int THROUGHPUT_WARMUP_CALLS = 10000;
+
+    private static final int THROUGHPUT_MEASURED_CALLS = 200000;
+
+    private static final double NANOS_PER_SECOND = 1e9;
+
     /**
      * Test object for calling methods.
      */
@@ -248,4 +258,38 @@ public class MethodCallerTest extends TestCase {
         // the method with annotation should succeed
         MethodCaller.callMethod(myTestObject, markedMethodName, params, permissionCheck);
     }
+
+    /**
+     * Measures the number of calls per second for repeated calls of the same method with a permission check; logs the result.
+     * 
+     * @throws CommunicationException on unexpected exceptions
+     */
+    public void testCallThroughput() throws CommunicationException {
+        MethodPermissionCheck permissionCheck = new MethodPermissionCheckHasAnnotation(AllowRemoteAccess.class);
+        List<Integer> params = new ArrayList<Integer>();
+        params.add(new Integer(1));
+        params.add(new Integer(2));
+
+        for (int i = 0; i < THROUGHPUT_WARMUP_CALLS; i++) {
+            MethodCaller.callMethod(myTestObject, "remoteCallAllowed", null, permissionCheck);
+            MethodCaller.callMethod(myTestObject, "add", params);
+        }
+
+        long startTime = System.nanoTime();
+        for (int i = 0; i < THROUGHPUT_MEASURED_CALLS; i++) {
+            MethodCaller.callMethod(myTestObject, "remoteCallAllowed", null, permissionCheck);
+        }
+        long permissionCheckedDuration = System.nanoTime() - startTime;
+
+        startTime = System.nanoTime();
+        for (int i = 0; i < THROUGHPUT_MEASURED_CALLS; i++) {
+            assertEquals(3, MethodCaller.callMethod(myTestObject, "add", params));
+        }
+        long parameterDuration = System.nanoTime() - startTime;
+
+        LogFactory.getLog(getClass()).info(String.format(
+            "MethodCaller throughput: %.0f calls/sec with permission check, %.0f calls/sec with two parameters",
+            THROUGHPUT_MEASURED_CALLS * NANOS_PER_SECOND / permissionCheckedDuration,
+            THROUGHPUT_MEASURED_CALLS * NANOS_PER_SECOND / parameterDuration));
+    }
 }
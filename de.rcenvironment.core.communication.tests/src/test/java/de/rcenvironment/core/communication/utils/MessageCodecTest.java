@@ -0,0 +1,198 @@
+/*
+ * Copyright (C) 2006-2014 DLR, Germany
+ * 
+ * All rights reserved
+ * 
+ * http://www.rcenvironment.de/
+ */
+
+package de.rcenvironment.core.communication.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.junit.Test;
+
+import de.rcenvironment.core.communication.common.NodeIdentifier;
+import de.rcenvironment.core.communication.common.NodeIdentifierFactory;
+import de.rcenvironment.core.communication.common.SerializationException;
+import de.rcenvironment.core.communication.routing.internal.LinkStateAdvertisement;
+import de.rcenvironment.core.communication.routing.internal.LinkStateAdvertisementBatch;
+import de.rcenvironment.core.communication.routing.internal.TopologyLink;
+import de.rcenvironment.core.communication.rpc.ServiceCallRequest;
+import de.rcenvironment.core.communication.rpc.ServiceCallResult;
+
+/**
+ * Tests for the {@link MessageCodec}s of the core communication message types, and their integration into {@link MessageUtils}. Also logs
+ * the encoded size and encoding/decoding time compared to standard Java serialization.
+ * 
+ * @author agent
+ */
+public class MessageCodecTest {
+
+    private static final int BENCHMARK_ITERATIONS = 10000;
+
+    private static final int LSA_BATCH_SIZE = 20;
+
+    private static final int LINKS_PER_LSA = 4;
+
+    private static final byte JAVA_SERIALIZATION_FIRST_BYTE = (byte) 0xAC;
+
+    private final NodeIdentifier node1 = NodeIdentifierFactory.fromNodeId("node1");
+
+    private final NodeIdentifier node2 = NodeIdentifierFactory.fromNodeId("node2");
+
+    private final Log log = LogFactory.getLog(getClass());
+
+    /**
+     * Tests the round-trip of a {@link ServiceCallRequest} with simple, codec-backed and Java-serialized parameters.
+     * 
+     * @throws SerializationException on unexpected errors
+     */
+    @Test
+    public void serviceCallRequestRoundTrip() throws SerializationException {
+        ServiceCallRequest request = createServiceCallRequest();
+        request.increaseHopCount();
+        byte[] serialized = MessageUtils.serializeObject(request);
+        assertTrue(serialized[0] != JAVA_SERIALIZATION_FIRST_BYTE);
+
+        ServiceCallRequest restored = MessageUtils.deserializeObject(serialized, ServiceCallRequest.class);
+        assertEquals(node1, restored.getRequestedPlatform());
+        assertEquals(node2, restored.getCallingPlatform());
+        assertEquals(request.getService(), restored.getService());
+        assertEquals(request.getServiceProperties(), restored.getServiceProperties());
+        assertEquals(request.getServiceMethod(), restored.getServiceMethod());
+        assertEquals(request.getParameterList(), restored.getParameterList());
+        // the restored request must continue counting from the transmitted value
+        assertEquals(2, restored.increaseHopCount().intValue());
+    }
+
+    /**
+     * Tests the round-trip of {@link ServiceCallResult}s with a return value, with an exception, and without either.
+     * 
+     * @throws SerializationException on unexpected errors
+     */
+    @Test
+    public void serviceCallResultRoundTrip() throws SerializationException {
+        ServiceCallResult restored = roundTrip(new ServiceCallResult("result"), ServiceCallResult.class);
+        assertEquals("result", restored.getReturnValue());
+        assertNull(restored.getThrowable());
+
+        restored = roundTrip(new ServiceCallResult(new IllegalStateException("failure")), ServiceCallResult.class);
+        assertNull(restored.getReturnValue());
+        assertTrue(restored.getThrowable() instanceof IllegalStateException);
+        assertEquals("failure", restored.getThrowable().getMessage());
+
+        restored = roundTrip(new ServiceCallResult(null), ServiceCallResult.class);
+        assertNull(restored.getReturnValue());
+        assertNull(restored.getThrowable());
+    }
+
+    /**
+     * Tests the round-trip of a {@link LinkStateAdvertisementBatch}.
+     * 
+     * @throws SerializationException on unexpected errors
+     */
+    @Test
+    public void lsaBatchRoundTrip() throws SerializationException {
+        LinkStateAdvertisementBatch batch = createLsaBatch();
+        LinkStateAdvertisementBatch restored = roundTrip(batch, LinkStateAdvertisementBatch.class);
+        assertEquals(batch.keySet(), restored.keySet());
+        for (NodeIdentifier key : batch.keySet()) {
+            LinkStateAdvertisement original = batch.get(key);
+            LinkStateAdvertisement copy = restored.get(key);
+            assertEquals(original.getOwner(), copy.getOwner());
+            assertEquals(original.getDisplayName(), copy.getDisplayName());
+            assertEquals(original.getIsWorkflowHost(), copy.getIsWorkflowHost());
+            assertEquals(original.getSequenceNumber(), copy.getSequenceNumber());
+            assertEquals(original.getGraphHashCode(), copy.getGraphHashCode());
+            assertEquals(original.isRouting(), copy.isRouting());
+            assertEquals(original.getReason(), copy.getReason());
+            assertEquals(original.getLinks(), copy.getLinks());
+        }
+    }
+
+    /**
+     * Verifies that data with an unknown codec id causes a {@link SerializationException}.
+     * 
+     * @throws SerializationException on expected errors
+     */
+    @Test(expected = SerializationException.class)
+    public void unknownCodecId() throws SerializationException {
+        byte[] serialized = MessageUtils.serializeObject(new ServiceCallResult("result"));
+        // overwrite the codec id following the format marker
+        serialized[1] = Byte.MAX_VALUE;
+        MessageUtils.deserializeObject(serialized);
+    }
+
+    /**
+     * Logs the encoded size and the encoding/decoding time per object for each codec-backed type, compared to Java serialization.
+     * 
+     * @throws Exception on unexpected errors
+     */
+    @Test
+    public void compareWithJavaSerialization() throws Exception {
+        logComparison(createServiceCallRequest());
+        logComparison(new ServiceCallResult(new ArrayList<String>(Arrays.asList("a", "b", "c"))));
+        logComparison(createLsaBatch());
+    }
+
+    private void logComparison(Serializable object) throws IOException, SerializationException {
+        byte[] javaSerialized = MessageCodecOutput.serializeWithJava(object);
+        byte[] codecSerialized = MessageUtils.serializeObject(object);
+
+        // note: the first iterations include JIT warm-up for both variants
+        long startTime = System.nanoTime();
+        for (int i = 0; i < BENCHMARK_ITERATIONS; i++) {
+            MessageCodecInput.deserializeWithJava(MessageCodecOutput.serializeWithJava(object));
+        }
+        long javaNanos = (System.nanoTime() - startTime) / BENCHMARK_ITERATIONS;
+        startTime = System.nanoTime();
+        for (int i = 0; i < BENCHMARK_ITERATIONS; i++) {
+            MessageUtils.deserializeObject(MessageUtils.serializeObject(object));
+        }
+        long codecNanos = (System.nanoTime() - startTime) / BENCHMARK_ITERATIONS;
+
+        log.info(String.format("%s: Java serialization: %d bytes, %d ns/round-trip; codec: %d bytes, %d ns/round-trip",
+            object.getClass().getSimpleName(), javaSerialized.length, javaNanos, codecSerialized.length, codecNanos));
+        assertTrue(codecSerialized.length < javaSerialized.length);
+    }
+
+    private <T extends Serializable> T roundTrip(T object, Class<T> clazz) throws SerializationException {
+        return MessageUtils.deserializeObject(MessageUtils.serializeObject(object), clazz);
+    }
+
+    private ServiceCallRequest createServiceCallRequest() {
+        List<Serializable> parameters = new ArrayList<Serializable>();
+        parameters.add("parameter");
+        parameters.add(Integer.valueOf(1));
+        parameters.add(Long.valueOf(2));
+        parameters.add(Boolean.TRUE);
+        parameters.add(null);
+        parameters.add(new ServiceCallResult("nested"));
+        parameters.add(new ArrayList<String>(Arrays.asList("java", "serialization")));
+        return new ServiceCallRequest(node1, node2, "de.rcenvironment.core.test.TestService", "(test=true)", "testMethod", parameters);
+    }
+
+    private LinkStateAdvertisementBatch createLsaBatch() {
+        LinkStateAdvertisementBatch batch = new LinkStateAdvertisementBatch();
+        for (int i = 0; i < LSA_BATCH_SIZE; i++) {
+            NodeIdentifier owner = NodeIdentifierFactory.fromNodeId("owner" + i);
+            List<TopologyLink> links = new ArrayList<TopologyLink>();
+            for (int j = 0; j < LINKS_PER_LSA; j++) {
+                links.add(new TopologyLink(owner, NodeIdentifierFactory.fromNodeId("neighbor" + j), "connection" + j));
+            }
+            batch.put(owner, LinkStateAdvertisement.createUpdateLsa(owner, "Node " + i, i % 2 == 0, i, i * i, true, links));
+        }
+        return batch;
+    }
+}
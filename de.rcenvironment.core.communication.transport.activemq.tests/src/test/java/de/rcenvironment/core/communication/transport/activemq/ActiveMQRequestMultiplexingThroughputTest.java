@@ -0,0 +1,207 @@
+/*
+ * Copyright (C) 2006-2014 DLR, Germany
+ * 
+ * All rights reserved
+ * 
+ * http://www.rcenvironment.de/
+ */
+package de.rcenvironment.core.communication.transport.activemq;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import de.rcenvironment.core.communication.channel.ServerContactPoint;
+import de.rcenvironment.core.communication.common.NodeIdentifier;
+import de.rcenvironment.core.communication.common.SerializationException;
+import de.rcenvironment.core.communication.configuration.IPWhitelistConnectionFilter;
+import de.rcenvironment.core.communication.messaging.RawMessageChannelEndpointHandler;
+import de.rcenvironment.core.communication.model.InitialNodeInformation;
+import de.rcenvironment.core.communication.model.MessageChannel;
+import de.rcenvironment.core.communication.model.NetworkContactPoint;
+import de.rcenvironment.core.communication.model.NetworkRequest;
+import de.rcenvironment.core.communication.model.NetworkResponse;
+import de.rcenvironment.core.communication.model.RawNetworkResponseHandler;
+import de.rcenvironment.core.communication.model.impl.InitialNodeInformationImpl;
+import de.rcenvironment.core.communication.model.impl.NetworkResponseImpl;
+import de.rcenvironment.core.communication.protocol.MessageMetaData;
+import de.rcenvironment.core.communication.protocol.NetworkRequestFactory;
+import de.rcenvironment.core.communication.protocol.ProtocolConstants;
+import de.rcenvironment.core.communication.testutils.AbstractTransportBasedTest;
+import de.rcenvironment.core.communication.testutils.TestConfiguration;
+import de.rcenvironment.core.communication.transport.jms.common.AbstractJmsMessageChannel;
+import de.rcenvironment.core.communication.transport.jms.common.JmsProtocolConstants;
+import de.rcenvironment.core.communication.utils.MessageUtils;
+
+/**
+ * Compares the request/response throughput of ActiveMQ message channels with and without request multiplexing (ie, a shared response
+ * queue and pooled sessions vs. a temporary response queue and session per request).
+ * 
+ * @author agent
+ */
+public class ActiveMQRequestMultiplexingThroughputTest extends AbstractTransportBasedTest {
+
+    private static final int WARMUP_REQUEST_COUNT = 100;
+
+    private static final int MEASURED_REQUEST_COUNT = 1000;
+
+    private static final int REQUEST_TIMEOUT_MSEC = 10000;
+
+    private static final int COMPLETION_TIMEOUT_SEC = 60;
+
+    private static final double NANOS_PER_MSEC = 1e6;
+
+    private static final String RESPONSE_SUFFIX = "#response";
+
+    private ServerContactPoint scp;
+
+    private NetworkContactPoint ncp;
+
+    private InitialNodeInformationImpl serverNodeInformation;
+
+    private InitialNodeInformationImpl clientNodeInformation;
+
+    @Override
+    protected TestConfiguration defineTestConfiguration() {
+        return new ActiveMQTestConfiguration();
+    }
+
+    /**
+     * Starts a server contact point that answers every request with a modified copy of its content.
+     * 
+     * @throws Exception on setup errors
+     */
+    @Before
+    public void startServer() throws Exception {
+        serverNodeInformation = new InitialNodeInformationImpl("serverId");
+        clientNodeInformation = new InitialNodeInformationImpl("clientNodeId");
+        ncp = contactPointGenerator.createContactPoint();
+        IPWhitelistConnectionFilter ipFilter = new IPWhitelistConnectionFilter();
+        ipFilter.configure(Arrays.asList(new String[] { "127.0.0.1" }));
+        scp = new ServerContactPoint(transportProvider, ncp, new EchoEndpointHandler(), ipFilter);
+        scp.start();
+    }
+
+    /**
+     * Shuts down the server contact point and restores the default multiplexing setting.
+     */
+    @After
+    public void stopServer() {
+        System.clearProperty(JmsProtocolConstants.SYSTEM_PROPERTY_DISABLE_REQUEST_MULTIPLEXING);
+        scp.shutDown();
+    }
+
+    /**
+     * Sends the same number of concurrent requests via a non-multiplexed and a multiplexed channel, verifies all responses and that only
+     * the multiplexed channel used a shared response queue, and logs the measured throughput of both.
+     * 
+     * @throws Exception on uncaught exceptions
+     */
+    @Test
+    public void compareThroughputWithAndWithoutMultiplexing() throws Exception {
+        System.setProperty(JmsProtocolConstants.SYSTEM_PROPERTY_DISABLE_REQUEST_MULTIPLEXING, "true");
+        MessageChannel perRequestChannel = transportProvider.connect(ncp, clientNodeInformation, true, null, null);
+        System.clearProperty(JmsProtocolConstants.SYSTEM_PROPERTY_DISABLE_REQUEST_MULTIPLEXING);
+        MessageChannel multiplexedChannel = transportProvider.connect(ncp, clientNodeInformation, true, null, null);
+
+        AbstractJmsMessageChannel perRequestJmsChannel = (AbstractJmsMessageChannel) perRequestChannel;
+        AbstractJmsMessageChannel multiplexedJmsChannel = (AbstractJmsMessageChannel) multiplexedChannel;
+        assertFalse("Request multiplexing was negotiated although it was disabled", perRequestJmsChannel.isRequestMultiplexingEnabled());
+        assertTrue("Request multiplexing was not negotiated", multiplexedJmsChannel.isRequestMultiplexingEnabled());
+
+        sendRequestsAndVerifyResponses(perRequestChannel, WARMUP_REQUEST_COUNT);
+        sendRequestsAndVerifyResponses(multiplexedChannel, WARMUP_REQUEST_COUNT);
+
+        long perRequestNanos = sendRequestsAndVerifyResponses(perRequestChannel, MEASURED_REQUEST_COUNT);
+        long multiplexedNanos = sendRequestsAndVerifyResponses(multiplexedChannel, MEASURED_REQUEST_COUNT);
+
+        assertEquals(0, perRequestJmsChannel.getMultiplexedRequestCount());
+        assertEquals(WARMUP_REQUEST_COUNT + MEASURED_REQUEST_COUNT, multiplexedJmsChannel.getMultiplexedRequestCount());
+
+        log.info(String.format("Request/response throughput for %d requests: per-request queues: %.1f msec (%.0f req/s), "
+            + "multiplexed: %.1f msec (%.0f req/s)", MEASURED_REQUEST_COUNT,
+            perRequestNanos / NANOS_PER_MSEC, MEASURED_REQUEST_COUNT * NANOS_PER_MSEC * 1000 / perRequestNanos,
+            multiplexedNanos / NANOS_PER_MSEC, MEASURED_REQUEST_COUNT * NANOS_PER_MSEC * 1000 / multiplexedNanos));
+
+        perRequestChannel.close();
+        multiplexedChannel.close();
+    }
+
+    private long sendRequestsAndVerifyResponses(MessageChannel channel, int count) throws Exception {
+        final CountDownLatch remaining = new CountDownLatch(count);
+        final AtomicInteger validResponses = new AtomicInteger();
+        final String requestString = "request via " + channel.getChannelId();
+        RawNetworkResponseHandler responseHandler = new RawNetworkResponseHandler() {
+
+            @Override
+            public void onResponseAvailable(NetworkResponse response) {
+                try {
+                    if (response.isSuccess() && (requestString + RESPONSE_SUFFIX).equals(response.getDeserializedContent())) {
+                        validResponses.incrementAndGet();
+                    }
+                } catch (SerializationException e) {
+                    log.warn("Failed to deserialize response", e);
+                }
+                remaining.countDown();
+            }
+
+            @Override
+            public void onChannelBroken(NetworkRequest request, MessageChannel connection) {
+                log.warn("Channel broken during throughput test: " + connection);
+            }
+        };
+
+        byte[] contentBytes = MessageUtils.serializeSafeObject(requestString);
+        long startTime = System.nanoTime();
+        for (int i = 0; i < count; i++) {
+            NetworkRequest request =
+                NetworkRequestFactory.createNetworkRequest(contentBytes, ProtocolConstants.VALUE_MESSAGE_TYPE_HEALTH_CHECK,
+                    clientNodeInformation.getNodeId(), serverNodeInformation.getNodeId());
+            channel.sendRequest(request, responseHandler, REQUEST_TIMEOUT_MSEC);
+        }
+        assertTrue("Timeout waiting for responses", remaining.await(COMPLETION_TIMEOUT_SEC, TimeUnit.SECONDS));
+        long duration = System.nanoTime() - startTime;
+        assertEquals(count, validResponses.get());
+        return duration;
+    }
+
+    /**
+     * Server-side endpoint handler that appends a fixed suffix to the (string) content of each request.
+     * 
+     * @author agent
+     */
+    private final class EchoEndpointHandler implements RawMessageChannelEndpointHandler {
+
+        @Override
+        public InitialNodeInformation exchangeNodeInformation(InitialNodeInformation nodeInformation) {
+            return serverNodeInformation;
+        }
+
+        @Override
+        public void onRemoteInitiatedChannelEstablished(MessageChannel connection, ServerContactPoint serverContactPoint) {}
+
+        @Override
+        public void onInboundChannelClosing(String idOfInboundChannel) {}
+
+        @Override
+        public NetworkResponse onRawRequestReceived(NetworkRequest request, NodeIdentifier sourceId) {
+            String responseString;
+            try {
+                responseString = request.getDeserializedContent() + RESPONSE_SUFFIX;
+            } catch (SerializationException e) {
+                throw new IllegalStateException("Failed to deserialize request", e);
+            }
+            byte[] responseBytes = MessageUtils.serializeSafeObject(responseString);
+            return new NetworkResponseImpl(responseBytes, MessageMetaData.create().getInnerMap());
+        }
+    }
+}
@@ -0,0 +1,165 @@
+/*
+ * Copyright (C) 2006-2014 DLR, Germany
+ * 
+ * All rights reserved
+ * 
+ * http://www.rcenvironment.de/
+ */
+
+package de.rcenvironment.core.communication.transport.jms.common;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.jms.BytesMessage;
+import javax.jms.JMSException;
+import javax.jms.Message;
+import javax.jms.MessageFormatException;
+import javax.jms.Session;
+
+import org.apache.activemq.command.ActiveMQBytesMessage;
+import org.junit.Before;
+import org.junit.Test;
+
+import de.rcenvironment.core.communication.common.CommunicationException;
+import de.rcenvironment.core.communication.model.NetworkRequest;
+import de.rcenvironment.core.communication.model.NetworkResponse;
+import de.rcenvironment.core.communication.model.impl.NetworkRequestImpl;
+import de.rcenvironment.core.communication.model.impl.NetworkResponseImpl;
+import de.rcenvironment.core.communication.protocol.ProtocolConstants;
+
+/**
+ * Round-trip tests for the binary {@link BytesMessage} format of {@link JmsProtocolUtils}.
+ * 
+ * @author agent
+ */
+public class JmsProtocolUtilsTest {
+
+    private static final byte[] TEST_PAYLOAD = new byte[] { 1, 2, 3, 0, -1 };
+
+    private Map<String, String> metadata;
+
+    private Session session;
+
+    /**
+     * Creates a minimal {@link Session} that only supports creating standalone {@link BytesMessage}s.
+     */
+    @Before
+    public void setUp() {
+        InvocationHandler sessionHandler = new InvocationHandler() {
+
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) {
+                if (method.getName().equals("createBytesMessage")) {
+                    return new ActiveMQBytesMessage();
+                }
+                throw new UnsupportedOperationException(method.getName());
+            }
+        };
+        session = (Session) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] { Session.class }, sessionHandler);
+        metadata = new HashMap<String, String>();
+        metadata.put("key1", "value1");
+        metadata.put("key2", "");
+    }
+
+    /**
+     * Tests that payload and metadata of a request survive the conversion to and from the binary format.
+     * 
+     * @throws Exception on unexpected errors
+     */
+    @Test
+    public void testRequestRoundTrip() throws Exception {
+        NetworkRequest request = new NetworkRequestImpl(TEST_PAYLOAD, metadata);
+        NetworkRequest restored = JmsProtocolUtils.createNetworkRequestFromMessage(toReceivedMessage(request));
+        assertArrayEquals(TEST_PAYLOAD, restored.getContentBytes());
+        // note: the request id stored in the metadata is regenerated on reconstruction, so only compare the custom entries
+        assertEquals("value1", restored.accessRawMetaData().get("key1"));
+        assertEquals("", restored.accessRawMetaData().get("key2"));
+    }
+
+    /**
+     * Tests that a request with an empty payload is rejected after the conversion.
+     * 
+     * @throws Exception on unexpected errors
+     */
+    @Test
+    public void testRequestWithEmptyPayload() throws Exception {
+        Message message = toReceivedMessage(new NetworkRequestImpl(new byte[0], metadata));
+        try {
+            JmsProtocolUtils.createNetworkRequestFromMessage(message);
+            fail("Exception expected");
+        } catch (CommunicationException e) {
+            assertEquals("Received message with zero-length payload", e.getMessage());
+        }
+    }
+
+    /**
+     * Tests that a request without a payload is rejected with a {@link MessageFormatException}.
+     * 
+     * @throws Exception on unexpected errors
+     */
+    @Test
+    public void testRequestWithNullPayload() throws Exception {
+        Message message = toReceivedMessage(new NetworkRequestImpl((byte[]) null, metadata));
+        try {
+            JmsProtocolUtils.createNetworkRequestFromMessage(message);
+            fail("Exception expected");
+        } catch (MessageFormatException e) {
+            assertEquals("Received request message without payload", e.getMessage());
+        }
+    }
+
+    /**
+     * Tests that non-empty, empty, and missing response payloads survive the conversion to and from the binary format.
+     * 
+     * @throws Exception on unexpected errors
+     */
+    @Test
+    public void testResponseRoundTrip() throws Exception {
+        NetworkRequest request = new NetworkRequestImpl(TEST_PAYLOAD, metadata);
+        assertArrayEquals(TEST_PAYLOAD, roundTripResponse(request, TEST_PAYLOAD).getContentBytes());
+        assertArrayEquals(new byte[0], roundTripResponse(request, new byte[0]).getContentBytes());
+        assertNull(roundTripResponse(request, null).getContentBytes());
+    }
+
+    /**
+     * Tests that a message with an unknown format version is rejected.
+     * 
+     * @throws Exception on unexpected errors
+     */
+    @Test
+    public void testUnsupportedFormatVersion() throws Exception {
+        BytesMessage message = session.createBytesMessage();
+        message.writeByte((byte) (JmsProtocolConstants.BINARY_MESSAGE_FORMAT_VERSION + 1));
+        message.reset();
+        try {
+            JmsProtocolUtils.createNetworkRequestFromMessage(message);
+            fail("Exception expected");
+        } catch (MessageFormatException e) {
+            assertEquals(0, e.getMessage().indexOf("Unsupported binary message format version"));
+        }
+    }
+
+    private NetworkResponse roundTripResponse(NetworkRequest request, byte[] payload) throws JMSException {
+        NetworkResponse response = new NetworkResponseImpl(payload, request.getRequestId(), ProtocolConstants.ResultCode.SUCCESS);
+        BytesMessage message = (BytesMessage) JmsProtocolUtils.createMessageFromNetworkResponse(response, session, true);
+        // switch the message to read-only mode, as on the receiving side
+        message.reset();
+        return JmsProtocolUtils.createNetworkResponseFromMessage(message, request);
+    }
+
+    private Message toReceivedMessage(NetworkRequest request) throws JMSException {
+        BytesMessage message = (BytesMessage) JmsProtocolUtils.createMessageFromNetworkRequest(request, session, true);
+        // switch the message to read-only mode, as on the receiving side
+        message.reset();
+        return message;
+    }
+}
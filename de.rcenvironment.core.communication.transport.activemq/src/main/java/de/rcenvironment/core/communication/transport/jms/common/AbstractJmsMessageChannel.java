@@ -52,6 +52,12 @@ public abstract class AbstractJmsMessageChannel extends AbstractMessageChannel i
 
     private String shutdownSecurityToken;
 
+    private volatile boolean requestMultiplexingEnabled = false;
+
+    private volatile boolean binaryMessageFormatEnabled = false;
+
+    private volatile JmsRequestMultiplexer requestMultiplexer;
+
     /**
      * @param transportContext
      */
@@ -76,18 +82,28 @@ public abstract class AbstractJmsMessageChannel extends AbstractMessageChannel i
                 }
 
                 try {
-                    // IMPORTANT: although this is not stated in the JMS JavaDoc, this ActiveMQ call can block the thread! - misc_ro
-                    final Session session = connection.createSession(false, Session.AUTO_ACKNOWLEDGE);
-                    try {
-                        final Queue destinationQueue = session.createQueue(outgoingRequestQueueName);
-                        // construct message
-                        Message jmsRequest = JmsProtocolUtils.createMessageFromNetworkRequest(request, session);
-                        Message jmsResponse = performRequestResponse(session, jmsRequest, destinationQueue, timeoutMsec);
-                        NetworkResponse response = JmsProtocolUtils.createNetworkResponseFromMessage(jmsResponse, request);
-                        responseHandler.onResponseAvailable(response);
-                    } finally {
-                        session.close();
+                    Message jmsResponse;
+                    JmsRequestMultiplexer multiplexer = getRequestMultiplexer();
+                    if (multiplexer != null) {
+                        jmsResponse = multiplexer.performRequestResponse(request, outgoingRequestQueueName, timeoutMsec);
+                        if (jmsResponse == null) {
+                            throw createResponseTimeoutException(timeoutMsec, "shared response queue");
+                        }
+                    } else {
+                        // IMPORTANT: although this is not stated in the JMS JavaDoc, this ActiveMQ call can block the thread! - misc_ro
+                        final Session session = connection.createSession(false, Session.AUTO_ACKNOWLEDGE);
+                        try {
+                            final Queue destinationQueue = session.createQueue(outgoingRequestQueueName);
+                            // construct message
+                            Message jmsRequest =
+                                JmsProtocolUtils.createMessageFromNetworkRequest(request, session, binaryMessageFormatEnabled);
+                            jmsResponse = performRequestResponse(session, jmsRequest, destinationQueue, timeoutMsec);
+                        } finally {
+                            session.close();
+                        }
                     }
+                    NetworkResponse response = JmsProtocolUtils.createNetworkResponseFromMessage(jmsResponse, request);
+                    responseHandler.onResponseAvailable(response);
                 } catch (TimeoutException e) {
                     // do not print the irrelevant stacktrace for this exception; only use message
                     log.warn(String.format("Timeout while waiting for response to request '%s' of type '%s': %s", request.getRequestId(),
@@ -180,6 +196,68 @@ public abstract class AbstractJmsMessageChannel extends AbstractMessageChannel i
         return shutdownSecurityToken;
     }
 
+    @Override
+    public void configureNegotiatedFeatures(JMSHandshakeInformation remoteHandshakeInformation) {
+        this.requestMultiplexingEnabled = remoteHandshakeInformation.isRequestMultiplexingSupported()
+            && !Boolean.getBoolean(JmsProtocolConstants.SYSTEM_PROPERTY_DISABLE_REQUEST_MULTIPLEXING);
+        this.binaryMessageFormatEnabled = remoteHandshakeInformation.isBinaryMessageFormatSupported()
+            && !Boolean.getBoolean(JmsProtocolConstants.SYSTEM_PROPERTY_DISABLE_BINARY_MESSAGE_FORMAT);
+        log.debug(String.format("Negotiated features of channel %s: request multiplexing: %s, binary message format: %s",
+            getChannelId(), requestMultiplexingEnabled, binaryMessageFormatEnabled));
+    }
+
+    /**
+     * @return the {@link JmsRequestMultiplexer} of this channel, or null if request multiplexing is not enabled for this channel; the
+     *         multiplexer is created on first use
+     * @throws JMSException on errors creating the multiplexer
+     */
+    protected JmsRequestMultiplexer getRequestMultiplexer() throws JMSException {
+        // fast path without synchronization
+        JmsRequestMultiplexer currentMultiplexer = requestMultiplexer; // volatile
+        if (currentMultiplexer != null || !requestMultiplexingEnabled) {
+            return currentMultiplexer;
+        }
+        synchronized (this) {
+            if (requestMultiplexer == null && requestMultiplexingEnabled) {
+                JmsRequestMultiplexer newMultiplexer =
+                    new JmsRequestMultiplexer(connection, getChannelId(), binaryMessageFormatEnabled);
+                newMultiplexer.start();
+                requestMultiplexer = newMultiplexer;
+            }
+            return requestMultiplexer;
+        }
+    }
+
+    /**
+     * @return true if request multiplexing was negotiated for this channel, and the channel was not closed yet
+     */
+    public boolean isRequestMultiplexingEnabled() {
+        return requestMultiplexingEnabled;
+    }
+
+    /**
+     * @return the number of requests sent via the shared response queue of this channel; intended for unit tests
+     */
+    public long getMultiplexedRequestCount() {
+        JmsRequestMultiplexer currentMultiplexer = requestMultiplexer; // volatile
+        if (currentMultiplexer == null) {
+            return 0;
+        }
+        return currentMultiplexer.getSentRequestCount();
+    }
+
+    /**
+     * Releases the pooled sessions and the shared response queue of this channel, if they were created. Subclasses should call this
+     * method when the channel is closed or broken.
+     */
+    protected synchronized void closeRequestMultiplexer() {
+        requestMultiplexingEnabled = false;
+        if (requestMultiplexer != null) {
+            requestMultiplexer.close();
+            requestMultiplexer = null;
+        }
+    }
+
     protected final Message performRequestResponse(final Session session, Message message,
         final Queue destinationQueue, int timeoutMsec) throws JMSException, TimeoutException {
         final TemporaryQueue tempResponseQueue = session.createTemporaryQueue();
@@ -217,16 +295,7 @@ public abstract class AbstractJmsMessageChannel extends AbstractMessageChannel i
                 return response;
             } else {
                 // null return value indicates timeout
-                MessageChannelState currentState = getState();
-                if (currentState == MessageChannelState.CLOSED || currentState == MessageChannelState.MARKED_AS_BROKEN) {
-                    throw new TimeoutException(String.format(
-                        "Received JMS exception while waiting for a response from message channel %s (on queue %s), "
-                            + "which is already %s", getChannelId(), tempResponseQueue.getQueueName(), currentState));
-                } else {
-                    throw new TimeoutException(String.format(
-                        "Timeout (%d ms) exceeded while waiting for a response from message channel %s (on queue %s), "
-                            + "which is in state %s", timeoutMsec, getChannelId(), tempResponseQueue.getQueueName(), currentState));
-                }
+                throw createResponseTimeoutException(timeoutMsec, tempResponseQueue.getQueueName());
             }
         } finally {
             // close the consumer as it blocks the temporary queue from deletion otherwise
@@ -234,4 +303,17 @@ public abstract class AbstractJmsMessageChannel extends AbstractMessageChannel i
         }
     }
 
+    private TimeoutException createResponseTimeoutException(int timeoutMsec, String responseQueueName) {
+        MessageChannelState currentState = getState();
+        if (currentState == MessageChannelState.CLOSED || currentState == MessageChannelState.MARKED_AS_BROKEN) {
+            return new TimeoutException(String.format(
+                "Received JMS exception while waiting for a response from message channel %s (on queue %s), "
+                    + "which is already %s", getChannelId(), responseQueueName, currentState));
+        } else {
+            return new TimeoutException(String.format(
+                "Timeout (%d ms) exceeded while waiting for a response from message channel %s (on queue %s), "
+                    + "which is in state %s", timeoutMsec, getChannelId(), responseQueueName, currentState));
+        }
+    }
+
 }
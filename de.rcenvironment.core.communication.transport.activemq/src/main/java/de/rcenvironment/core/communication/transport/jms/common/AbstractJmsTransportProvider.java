@@ -30,7 +30,6 @@ import de.rcenvironment.core.communication.model.InitialNodeInformation;
 import de.rcenvironment.core.communication.model.MessageChannel;
 import de.rcenvironment.core.communication.model.NetworkContactPoint;
 import de.rcenvironment.core.communication.protocol.ProtocolConstants;
-import de.rcenvironment.core.communication.transport.spi.HandshakeInformation;
 import de.rcenvironment.core.communication.transport.spi.NetworkTransportProvider;
 import de.rcenvironment.core.utils.common.concurrent.SharedThreadPool;
 import de.rcenvironment.core.utils.common.concurrent.ThreadPool;
@@ -79,6 +78,7 @@ public abstract class AbstractJmsTransportProvider implements NetworkTransportPr
             String destinationQueueName = remoteHandshakeInformation.getRemoteInitiatedRequestInboxQueueName();
             log.debug("Setting destination queue for remote-initiated message channel to " + destinationQueueName);
             remoteInitiatedConnection.setOutgoingRequestQueueName(destinationQueueName);
+            remoteInitiatedConnection.configureNegotiatedFeatures(remoteHandshakeInformation);
             return remoteInitiatedConnection;
         }
 
@@ -107,8 +107,10 @@ public abstract class AbstractJmsTransportProvider implements NetworkTransportPr
             ownHandshakeInformation.setProtocolVersionString(ProtocolConstants.PROTOCOL_COMPATIBILITY_VERSION);
             ownHandshakeInformation.setInitialNodeInformation(ownNodeInformation);
             ownHandshakeInformation.setChannelId(newChannel.getChannelId());
+            ownHandshakeInformation.setRequestMultiplexingSupported(true);
+            ownHandshakeInformation.setBinaryMessageFormatSupported(true);
 
-            HandshakeInformation remoteHandshakeInformation =
+            JMSHandshakeInformation remoteHandshakeInformation =
                 newChannel.performInitialHandshake(ownHandshakeInformation, inverseConnectionEndpointHandler);
 
             JmsProtocolUtils.failOnIncompatibleVersions(remoteHandshakeInformation.getProtocolVersionString(),
@@ -116,6 +118,7 @@ public abstract class AbstractJmsTransportProvider implements NetworkTransportPr
 
             InitialNodeInformation remoteNodeInformation = remoteHandshakeInformation.getInitialNodeInformation();
             newChannel.setRemoteNodeInformation(remoteNodeInformation);
+            newChannel.configureNegotiatedFeatures(remoteHandshakeInformation);
 
             log.debug("Successfully performed JMS handshake with remote node " + remoteNodeInformation.getLogDescription());
             // basic check against duplicate node ids; does not guard against non-neighbor nodes
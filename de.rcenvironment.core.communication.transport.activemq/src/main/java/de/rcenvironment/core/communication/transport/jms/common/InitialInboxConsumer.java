@@ -120,6 +120,8 @@ public final class InitialInboxConsumer extends AbstractJmsQueueConsumer impleme
             ownHandshakeInformation.setChannelId(remoteInitiatedChannel.getChannelId());
             ownHandshakeInformation.setInitialNodeInformation(ownNodeInformation);
             ownHandshakeInformation.setRemoteInitiatedRequestInboxQueueName(JmsProtocolConstants.QUEUE_NAME_C2B_REQUEST_INBOX);
+            ownHandshakeInformation.setRequestMultiplexingSupported(true);
+            ownHandshakeInformation.setBinaryMessageFormatSupported(true);
             log.debug("Remote-initiated connection established, sending handshake response to " + remoteNodeInformation);
 
             jmsResponse = JmsProtocolUtils.createHandshakeMessage(ownHandshakeInformation, session);
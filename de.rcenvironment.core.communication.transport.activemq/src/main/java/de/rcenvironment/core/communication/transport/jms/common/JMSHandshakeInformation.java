@@ -19,6 +19,10 @@ public class JMSHandshakeInformation extends HandshakeInformation {
 
     private String remoteInitiatedRequestInboxQueueName;
 
+    private boolean requestMultiplexingSupported;
+
+    private boolean binaryMessageFormatSupported;
+
     public String getRemoteInitiatedRequestInboxQueueName() {
         return remoteInitiatedRequestInboxQueueName;
     }
@@ -26,4 +30,26 @@ public class JMSHandshakeInformation extends HandshakeInformation {
     public void setRemoteInitiatedRequestInboxQueueName(String remoteInitiatedRequestInboxQueueName) {
         this.remoteInitiatedRequestInboxQueueName = remoteInitiatedRequestInboxQueueName;
     }
+
+    /**
+     * @return true if the sender of this handshake returns the correlation id of each request with its response
+     */
+    public boolean isRequestMultiplexingSupported() {
+        return requestMultiplexingSupported;
+    }
+
+    public void setRequestMultiplexingSupported(boolean requestMultiplexingSupported) {
+        this.requestMultiplexingSupported = requestMultiplexingSupported;
+    }
+
+    /**
+     * @return true if the sender of this handshake accepts requests in the binary message format
+     */
+    public boolean isBinaryMessageFormatSupported() {
+        return binaryMessageFormatSupported;
+    }
+
+    public void setBinaryMessageFormatSupported(boolean binaryMessageFormatSupported) {
+        this.binaryMessageFormatSupported = binaryMessageFormatSupported;
+    }
 }
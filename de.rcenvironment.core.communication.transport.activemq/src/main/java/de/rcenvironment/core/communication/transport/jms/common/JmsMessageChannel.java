@@ -32,4 +32,13 @@ public interface JmsMessageChannel extends MessageChannel {
      */
     void setShutdownSecurityToken(String token);
 
+    /**
+     * Enables the optional protocol features that the remote side announced in its handshake, unless they are disabled locally. This
+     * includes request multiplexing over a shared response queue (see {@link JmsRequestMultiplexer}) and the binary message format. Should
+     * be called before the channel is marked as established.
+     * 
+     * @param remoteHandshakeInformation the handshake information received from the remote side
+     */
+    void configureNegotiatedFeatures(JMSHandshakeInformation remoteHandshakeInformation);
+
 }
@@ -53,6 +53,20 @@ public abstract class JmsProtocolConstants {
      */
     public static final String MESSAGE_FIELD_CHANNEL_ID = "channel.id";
 
+    /**
+     * JMS property key for the handshake flag that signals that the sender copies the JMSCorrelationID of each received request into its
+     * response, which allows the receiver to multiplex its requests over a shared response queue. Nodes that do not send this flag are
+     * treated as not supporting it.
+     */
+    public static final String MESSAGE_FIELD_SUPPORTS_REQUEST_MULTIPLEXING = "features.requestMultiplexing";
+
+    /**
+     * JMS property key for the handshake flag that signals that the sender accepts requests in the binary {@link BytesMessage} format (a
+     * compact metadata header followed by the raw payload) instead of the legacy {@link ObjectMessage} format. Responses are always sent in
+     * the format of the request they belong to.
+     */
+    public static final String MESSAGE_FIELD_SUPPORTS_BINARY_MESSAGE_FORMAT = "features.binaryMessageFormat";
+
     /**
      * Message type value for the initial handshake request.
      */
@@ -88,4 +102,21 @@ public abstract class JmsProtocolConstants {
      * exceptions on the remote side.
      */
     public static final long WAIT_AFTER_SENDING_SHUTDOWN_MESSAGE_MSEC = 300;
+
+    /**
+     * The system property that disables request multiplexing for all message channels established afterwards; if set to "true", a new
+     * temporary response queue is created for each request instead. Intended for troubleshooting and performance comparison.
+     */
+    public static final String SYSTEM_PROPERTY_DISABLE_REQUEST_MULTIPLEXING = "jms.disableRequestMultiplexing";
+
+    /**
+     * The system property that disables the binary message format for all message channels established afterwards; if set to "true",
+     * requests are sent in the legacy {@link ObjectMessage} format even if the remote side supports the binary format.
+     */
+    public static final String SYSTEM_PROPERTY_DISABLE_BINARY_MESSAGE_FORMAT = "jms.disableBinaryMessageFormat";
+
+    /**
+     * The version marker written as the first byte of each binary (BytesMessage) request or response.
+     */
+    public static final byte BINARY_MESSAGE_FORMAT_VERSION = 1;
 }
@@ -7,10 +7,13 @@
  */
 package de.rcenvironment.core.communication.transport.jms.common;
 
+import java.util.HashMap;
 import java.util.Map;
 
+import javax.jms.BytesMessage;
 import javax.jms.JMSException;
 import javax.jms.Message;
+import javax.jms.MessageFormatException;
 import javax.jms.MessageProducer;
 import javax.jms.ObjectMessage;
 import javax.jms.Session;
@@ -55,6 +58,10 @@ public final class JmsProtocolUtils {
         initialMessage.setStringProperty(JmsProtocolConstants.MESSAGE_FIELD_CHANNEL_ID, handshakeInformation.getChannelId());
         initialMessage.setStringProperty(JmsProtocolConstants.MESSAGE_FIELD_REMOTE_INITIATED_REQUEST_INBOX,
             handshakeInformation.getRemoteInitiatedRequestInboxQueueName());
+        initialMessage.setBooleanProperty(JmsProtocolConstants.MESSAGE_FIELD_SUPPORTS_REQUEST_MULTIPLEXING,
+            handshakeInformation.isRequestMultiplexingSupported());
+        initialMessage.setBooleanProperty(JmsProtocolConstants.MESSAGE_FIELD_SUPPORTS_BINARY_MESSAGE_FORMAT,
+            handshakeInformation.isBinaryMessageFormatSupported());
 
         InitialNodeInformation initialNodeInformation = handshakeInformation.getInitialNodeInformation();
         if (initialNodeInformation != null) {
@@ -90,6 +97,11 @@ public final class JmsProtocolUtils {
         }
 
         result.setChannelId(message.getStringProperty(JmsProtocolConstants.MESSAGE_FIELD_CHANNEL_ID));
+        // note: returns false if the property is not present, which is the case for older nodes
+        result.setRequestMultiplexingSupported(message
+            .getBooleanProperty(JmsProtocolConstants.MESSAGE_FIELD_SUPPORTS_REQUEST_MULTIPLEXING));
+        result.setBinaryMessageFormatSupported(message
+            .getBooleanProperty(JmsProtocolConstants.MESSAGE_FIELD_SUPPORTS_BINARY_MESSAGE_FORMAT));
 
         byte[] handshakeRequestBytes = (byte[]) ((ObjectMessage) message).getObject();
         if (handshakeRequestBytes == null || handshakeRequestBytes.length == 0) {
@@ -129,33 +141,69 @@ public final class JmsProtocolUtils {
      * 
      * @param request the request to transform
      * @param session the JMS session to use
+     * @param useBinaryFormat true to create a {@link BytesMessage} with a compact metadata header followed by the raw payload; false to
+     *        create the legacy {@link ObjectMessage} form; the binary format must only be used if the receiver announced support for it
+     *        in the initial handshake
      * @return the equivalent JMS message
      * @throws JMSException on JMS errors
      */
-    public static Message createMessageFromNetworkRequest(final NetworkRequest request, Session session) throws JMSException {
+    public static Message createMessageFromNetworkRequest(final NetworkRequest request, Session session, boolean useBinaryFormat)
+        throws JMSException {
         Map<String, String> metadata = request.accessRawMetaData();
-        ObjectMessage jmsRequest = session.createObjectMessage();
-        jmsRequest.setObject(request.getContentBytes());
-        jmsRequest.setObjectProperty(JmsProtocolConstants.MESSAGE_FIELD_METADATA, metadata);
+        Message jmsRequest;
+        if (useBinaryFormat) {
+            BytesMessage bytesMessage = session.createBytesMessage();
+            bytesMessage.writeByte(JmsProtocolConstants.BINARY_MESSAGE_FORMAT_VERSION);
+            bytesMessage.writeInt(metadata.size());
+            for (Map.Entry<String, String> entry : metadata.entrySet()) {
+                bytesMessage.writeUTF(entry.getKey());
+                bytesMessage.writeUTF(entry.getValue());
+            }
+            writeBinaryPayload(bytesMessage, request.getContentBytes());
+            jmsRequest = bytesMessage;
+        } else {
+            ObjectMessage objectMessage = session.createObjectMessage();
+            objectMessage.setObject(request.getContentBytes());
+            objectMessage.setObjectProperty(JmsProtocolConstants.MESSAGE_FIELD_METADATA, metadata);
+            jmsRequest = objectMessage;
+        }
         jmsRequest.setStringProperty(JmsProtocolConstants.MESSAGE_FIELD_MESSAGE_TYPE, JmsProtocolConstants.MESSAGE_TYPE_REQUEST);
         return jmsRequest;
     }
 
     /**
-     * Restores a {@link NetworkRequest} from its JMS message form.
+     * Restores a {@link NetworkRequest} from its JMS message form. Both the binary and the legacy message format are accepted.
      * 
      * @param jmsRequest the JMS message
      * @return the reconstructed {@link NetworkRequest}
-     * @throws JMSException on JMS errors
+     * @throws JMSException on JMS errors, including a {@link MessageFormatException} if the message contains no payload
      * @throws CommunicationException on message format errors
      */
     public static NetworkRequest createNetworkRequestFromMessage(Message jmsRequest) throws JMSException, CommunicationException {
-        byte[] content = (byte[]) ((ObjectMessage) jmsRequest).getObject();
+        byte[] content;
+        Map<String, String> requestMetadata;
+        if (jmsRequest instanceof BytesMessage) {
+            BytesMessage bytesMessage = (BytesMessage) jmsRequest;
+            readAndCheckBinaryFormatVersion(bytesMessage);
+            int metadataSize = bytesMessage.readInt();
+            requestMetadata = new HashMap<String, String>();
+            for (int i = 0; i < metadataSize; i++) {
+                String key = bytesMessage.readUTF();
+                requestMetadata.put(key, bytesMessage.readUTF());
+            }
+            content = readBinaryPayload(bytesMessage);
+        } else {
+            content = (byte[]) ((ObjectMessage) jmsRequest).getObject();
+            @SuppressWarnings("unchecked") Map<String, String> legacyMetadata = (Map<String, String>) jmsRequest
+                .getObjectProperty(JmsProtocolConstants.MESSAGE_FIELD_METADATA);
+            requestMetadata = legacyMetadata;
+        }
+        if (content == null) {
+            throw new MessageFormatException("Received request message without payload");
+        }
         if (content.length == 0) {
             throw new CommunicationException("Received message with zero-length payload");
         }
-        @SuppressWarnings("unchecked") Map<String, String> requestMetadata = (Map<String, String>) jmsRequest
-            .getObjectProperty(JmsProtocolConstants.MESSAGE_FIELD_METADATA);
         NetworkRequest originalRequest = NetworkRequestFactory.reconstructNetworkRequest(content, requestMetadata);
         return originalRequest;
     }
@@ -165,15 +213,25 @@ public final class JmsProtocolUtils {
      * 
      * @param response the response to transform
      * @param session the JMS session to use
+     * @param useBinaryFormat true to create a {@link BytesMessage} containing the raw payload; false to create the legacy
+     *        {@link ObjectMessage} form; usually, this should match the format of the received request
      * @return the equivalent JMS message
      * @throws JMSException on JMS errors
      */
-    public static Message createMessageFromNetworkResponse(NetworkResponse response, Session session) throws JMSException {
-        ObjectMessage jmsResponse = session.createObjectMessage();
-        jmsResponse.setObject(response.getContentBytes());
+    public static Message createMessageFromNetworkResponse(NetworkResponse response, Session session, boolean useBinaryFormat)
+        throws JMSException {
         // TODO set "response" message type?
         // TODO add metadata?
-        return jmsResponse;
+        if (useBinaryFormat) {
+            BytesMessage jmsResponse = session.createBytesMessage();
+            jmsResponse.writeByte(JmsProtocolConstants.BINARY_MESSAGE_FORMAT_VERSION);
+            writeBinaryPayload(jmsResponse, response.getContentBytes());
+            return jmsResponse;
+        } else {
+            ObjectMessage jmsResponse = session.createObjectMessage();
+            jmsResponse.setObject(response.getContentBytes());
+            return jmsResponse;
+        }
     }
 
     /**
@@ -185,7 +243,14 @@ public final class JmsProtocolUtils {
      * @throws JMSException on JMS errors
      */
     public static NetworkResponse createNetworkResponseFromMessage(Message jmsResponse, final NetworkRequest request) throws JMSException {
-        byte[] content = (byte[]) ((ObjectMessage) jmsResponse).getObject();
+        byte[] content;
+        if (jmsResponse instanceof BytesMessage) {
+            BytesMessage bytesMessage = (BytesMessage) jmsResponse;
+            readAndCheckBinaryFormatVersion(bytesMessage);
+            content = readBinaryPayload(bytesMessage);
+        } else {
+            content = (byte[]) ((ObjectMessage) jmsResponse).getObject();
+        }
         NetworkResponse response = NetworkResponseFactory.generateSuccessResponse(request, content);
         return response;
     }
@@ -237,4 +302,33 @@ public final class JmsProtocolUtils {
         // set the maximum time that messages from this producer are preserved
         // producer.setTimeToLive(ProtocolConstants.JMS_MESSAGES_TTL_MSEC);
     }
+
+    private static void writeBinaryPayload(BytesMessage message, byte[] payload) throws JMSException {
+        if (payload == null) {
+            message.writeInt(-1);
+        } else {
+            message.writeInt(payload.length);
+            message.writeBytes(payload);
+        }
+    }
+
+    private static byte[] readBinaryPayload(BytesMessage message) throws JMSException {
+        int length = message.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] payload = new byte[length];
+        // note: readBytes() returns -1 instead of 0 when reading an empty array at the end of the message
+        if (length > 0 && message.readBytes(payload) != length) {
+            throw new MessageFormatException("Truncated payload in binary message; expected " + length + " bytes");
+        }
+        return payload;
+    }
+
+    private static void readAndCheckBinaryFormatVersion(BytesMessage message) throws JMSException {
+        byte version = message.readByte();
+        if (version != JmsProtocolConstants.BINARY_MESSAGE_FORMAT_VERSION) {
+            throw new MessageFormatException("Unsupported binary message format version: " + version);
+        }
+    }
 }
@@ -0,0 +1,265 @@
+/*
+ * Copyright (C) 2006-2014 DLR, Germany
+ * 
+ * All rights reserved
+ * 
+ * http://www.rcenvironment.de/
+ */
+package de.rcenvironment.core.communication.transport.jms.common;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.jms.Connection;
+import javax.jms.JMSException;
+import javax.jms.Message;
+import javax.jms.MessageConsumer;
+import javax.jms.MessageListener;
+import javax.jms.MessageProducer;
+import javax.jms.Queue;
+import javax.jms.Session;
+import javax.jms.TemporaryQueue;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import de.rcenvironment.core.communication.model.NetworkRequest;
+
+/**
+ * Performs the request/response exchanges of a single {@link JmsMessageChannel} over a pool of long-lived JMS sessions and producers, and
+ * a single shared reply queue. Responses are routed back to the waiting request threads by their JMSCorrelationID.
+ * 
+ * Compared to creating a new session, producer, temporary queue and consumer for each request, this avoids most of the JMS broker
+ * interaction per request. It requires the receiving side to copy the JMSCorrelationID of each request into its response; support for this
+ * is negotiated in the initial handshake (see {@link JMSHandshakeInformation#isRequestMultiplexingSupported()}).
+ * 
+ * @author agent
+ */
+public class JmsRequestMultiplexer {
+
+    /**
+     * The maximum number of idle sessions to keep for reuse; sessions returned to a full pool are closed.
+     */
+    private static final int MAX_IDLE_SESSIONS = 8;
+
+    private final Connection connection;
+
+    private final String channelId;
+
+    private final boolean useBinaryMessageFormat;
+
+    private final BlockingQueue<PooledSession> idleSessions = new LinkedBlockingQueue<PooledSession>(MAX_IDLE_SESSIONS);
+
+    private final ConcurrentMap<String, PendingResponse> pendingResponses = new ConcurrentHashMap<String, PendingResponse>();
+
+    private final AtomicLong correlationIdSequence = new AtomicLong();
+
+    private Session replySession;
+
+    private TemporaryQueue replyQueue;
+
+    private volatile boolean closed = false;
+
+    private final Log log = LogFactory.getLog(getClass());
+
+    /**
+     * A JMS {@link Session} with an associated anonymous {@link MessageProducer}; only used by one thread at a time.
+     * 
+     * @author agent
+     */
+    private static final class PooledSession {
+
+        private final Session session;
+
+        private final MessageProducer producer;
+
+        private Queue destinationQueue;
+
+        PooledSession(Connection connection) throws JMSException {
+            // IMPORTANT: although this is not stated in the JMS JavaDoc, this ActiveMQ call can block the thread! - misc_ro
+            session = connection.createSession(false, Session.AUTO_ACKNOWLEDGE);
+            producer = session.createProducer(null);
+            JmsProtocolUtils.configureMessageProducer(producer);
+        }
+
+        Queue getDestinationQueue(String queueName) throws JMSException {
+            if (destinationQueue == null || !destinationQueue.getQueueName().equals(queueName)) {
+                destinationQueue = session.createQueue(queueName);
+            }
+            return destinationQueue;
+        }
+
+        void close() {
+            try {
+                session.close();
+            } catch (JMSException e) {
+                LogFactory.getLog(JmsRequestMultiplexer.class).debug("Exception while closing pooled JMS session: " + e.toString());
+            }
+        }
+    }
+
+    /**
+     * Holder for the response to a single request; completed by the reply queue listener.
+     * 
+     * @author agent
+     */
+    private static final class PendingResponse {
+
+        private final CountDownLatch latch = new CountDownLatch(1);
+
+        private volatile Message response;
+
+        void complete(Message message) {
+            response = message;
+            latch.countDown();
+        }
+
+        Message await(int timeoutMsec) throws InterruptedException {
+            if (latch.await(timeoutMsec, TimeUnit.MILLISECONDS)) {
+                return response;
+            }
+            return null;
+        }
+    }
+
+    public JmsRequestMultiplexer(Connection connection, String channelId, boolean useBinaryMessageFormat) {
+        this.connection = connection;
+        this.channelId = channelId;
+        this.useBinaryMessageFormat = useBinaryMessageFormat;
+    }
+
+    /**
+     * Creates the shared reply queue and registers the listener that dispatches incoming responses.
+     * 
+     * @throws JMSException on JMS errors
+     */
+    public synchronized void start() throws JMSException {
+        if (replySession != null) {
+            throw new IllegalStateException("Already started");
+        }
+        replySession = connection.createSession(false, Session.AUTO_ACKNOWLEDGE);
+        replyQueue = replySession.createTemporaryQueue();
+        MessageConsumer replyConsumer = replySession.createConsumer(replyQueue);
+        replyConsumer.setMessageListener(new MessageListener() {
+
+            @Override
+            public void onMessage(Message message) {
+                dispatchResponse(message);
+            }
+        });
+        log.debug(String.format("Created shared response queue %s for channel %s", replyQueue.getQueueName(), channelId));
+    }
+
+    /**
+     * Sends the given request to the given queue and waits for the correlated response.
+     * 
+     * @param request the request to send
+     * @param destinationQueueName the name of the queue to send the request to
+     * @param timeoutMsec the maximum time to wait for the response
+     * @return the response message, or null if no response was received within the timeout, or if this multiplexer was closed while
+     *         waiting
+     * @throws JMSException on JMS errors
+     */
+    public Message performRequestResponse(NetworkRequest request, String destinationQueueName, int timeoutMsec) throws JMSException {
+        if (closed) {
+            return null;
+        }
+        String correlationId = Long.toString(correlationIdSequence.incrementAndGet());
+        PendingResponse pendingResponse = new PendingResponse();
+        pendingResponses.put(correlationId, pendingResponse);
+        try {
+            sendRequest(request, destinationQueueName, correlationId);
+            try {
+                return pendingResponse.await(timeoutMsec);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return null;
+            }
+        } finally {
+            pendingResponses.remove(correlationId);
+        }
+    }
+
+    /**
+     * @return the number of requests sent via this multiplexer so far; intended for unit tests
+     */
+    public long getSentRequestCount() {
+        return correlationIdSequence.get();
+    }
+
+    /**
+     * Releases all JMS resources held by this multiplexer, and releases all threads waiting for responses.
+     */
+    public synchronized void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        // release waiting threads; they will receive a null response
+        for (PendingResponse pendingResponse : pendingResponses.values()) {
+            pendingResponse.complete(null);
+        }
+        PooledSession pooledSession;
+        while ((pooledSession = idleSessions.poll()) != null) {
+            pooledSession.close();
+        }
+        if (replySession != null) {
+            try {
+                // the consumer must be closed (implicitly, via the session) before the temporary queue can be deleted
+                replySession.close();
+                replyQueue.delete();
+            } catch (JMSException e) {
+                // only log compact exception
+                log.debug(String.format("Exception on closing the shared response queue of channel %s: %s", channelId, e.toString()));
+            }
+        }
+    }
+
+    private void sendRequest(NetworkRequest request, String destinationQueueName, String correlationId) throws JMSException {
+        PooledSession pooledSession = idleSessions.poll();
+        if (pooledSession == null) {
+            pooledSession = new PooledSession(connection);
+        }
+        boolean success = false;
+        try {
+            Message jmsRequest = JmsProtocolUtils.createMessageFromNetworkRequest(request, pooledSession.session, useBinaryMessageFormat);
+            jmsRequest.setJMSCorrelationID(correlationId);
+            jmsRequest.setJMSReplyTo(replyQueue);
+            pooledSession.producer.send(pooledSession.getDestinationQueue(destinationQueueName), jmsRequest);
+            success = true;
+        } finally {
+            // do not reuse sessions that caused an error, or that were in use while this multiplexer was closed
+            if (!success || closed || !idleSessions.offer(pooledSession)) {
+                pooledSession.close();
+            }
+        }
+    }
+
+    private void dispatchResponse(Message message) {
+        String correlationId;
+        try {
+            correlationId = message.getJMSCorrelationID();
+        } catch (JMSException e) {
+            log.warn("Failed to read the correlation id of a response received via channel " + channelId + ": " + e.toString());
+            return;
+        }
+        if (correlationId == null) {
+            log.warn("Discarding a response without correlation id received via channel " + channelId);
+            return;
+        }
+        PendingResponse pendingResponse = pendingResponses.get(correlationId);
+        if (pendingResponse == null) {
+            // most likely, the request has already timed out
+            log.debug(String.format("Discarding a response for unknown or expired request %s received via channel %s", correlationId,
+                channelId));
+            return;
+        }
+        pendingResponse.complete(message);
+    }
+
+}
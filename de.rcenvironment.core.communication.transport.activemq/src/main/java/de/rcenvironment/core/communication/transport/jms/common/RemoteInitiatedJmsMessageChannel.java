@@ -43,6 +43,9 @@ public class RemoteInitiatedJmsMessageChannel extends AbstractJmsMessageChannel
     protected void onClosedOrBroken() {
         log.debug("Closing remote-initiated channel " + getChannelId());
 
+        // the JMS connection is shared with other channels, so the pooled sessions must be released explicitly
+        closeRequestMultiplexer();
+
         // on a clean shutdown, send "goodbye" message
         if (getState() == MessageChannelState.CLOSED) {
             sendShutdownMessageToRemoteRequestInbox();
@@ -7,6 +7,7 @@
  */
 package de.rcenvironment.core.communication.transport.jms.common;
 
+import javax.jms.BytesMessage;
 import javax.jms.Connection;
 import javax.jms.JMSException;
 import javax.jms.Message;
@@ -98,7 +99,11 @@ public final class RequestInboxConsumer extends
                         + request.accessRawMetaData());
                 }
                 try {
-                    Message jmsResponse = JmsProtocolUtils.createMessageFromNetworkResponse(response, session);
+                    // respond in the format of the request, as this is known to be supported by the sender
+                    boolean useBinaryFormat = message instanceof BytesMessage;
+                    Message jmsResponse = JmsProtocolUtils.createMessageFromNetworkResponse(response, session, useBinaryFormat);
+                    // allow the sender to route the response if it uses a shared response queue; null for non-multiplexed requests
+                    jmsResponse.setJMSCorrelationID(message.getJMSCorrelationID());
                     MessageProducer responseProducer = session.createProducer(message.getJMSReplyTo());
                     JmsProtocolUtils.configureMessageProducer(responseProducer);
                     responseProducer.send(jmsResponse);
@@ -24,7 +24,6 @@ import de.rcenvironment.core.communication.common.CommunicationException;
 import de.rcenvironment.core.communication.common.NodeIdentifier;
 import de.rcenvironment.core.communication.messaging.RawMessageChannelEndpointHandler;
 import de.rcenvironment.core.communication.model.BrokenMessageChannelListener;
-import de.rcenvironment.core.communication.transport.spi.HandshakeInformation;
 import de.rcenvironment.core.utils.common.concurrent.SharedThreadPool;
 import de.rcenvironment.core.utils.common.concurrent.TaskDescription;
 
@@ -80,6 +79,8 @@ public class SelfInitiatedJmsMessageChannel extends AbstractJmsMessageChannel {
     }
 
     private void tearDownJmsConnection(boolean isActiveShutdown) {
+        closeRequestMultiplexer();
+
         // on a clean shutdown, send "goodbye" message and wait
         if (isActiveShutdown) {
             sendShutdownMessageToRemoteRequestInbox();
@@ -99,7 +100,7 @@ public class SelfInitiatedJmsMessageChannel extends AbstractJmsMessageChannel {
         }
     }
 
-    HandshakeInformation performInitialHandshake(JMSHandshakeInformation ownHandshakeInformation,
+    JMSHandshakeInformation performInitialHandshake(JMSHandshakeInformation ownHandshakeInformation,
         RawMessageChannelEndpointHandler remoteInitiatedConnectionEndpointHandler) throws JMSException,
         CommunicationException, TimeoutException, IOException {
         Session initialSession = connection.createSession(false, Session.AUTO_ACKNOWLEDGE);
@@ -109,7 +109,7 @@ public final class ProtocolConstants {
      * connection attempt, the strings provided by both nodes are only checked for equality, and
      * possibly displayed as part of the error message if they do not match.
      */
-    public static final String PROTOCOL_COMPATIBILITY_VERSION = "6.0.0-beta-v5";
+    public static final String PROTOCOL_COMPATIBILITY_VERSION = "6.0.0-beta-v8";
 
     /**
      * Top-level type for remote service call (RPC) messages.
@@ -0,0 +1,108 @@
+/*
+ * Copyright (C) 2006-2014 DLR, Germany
+ * 
+ * All rights reserved
+ * 
+ * http://www.rcenvironment.de/
+ */
+
+package de.rcenvironment.core.communication.routing.internal;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map.Entry;
+
+import de.rcenvironment.core.communication.common.NodeIdentifier;
+import de.rcenvironment.core.communication.utils.MessageCodec;
+import de.rcenvironment.core.communication.utils.MessageCodecInput;
+import de.rcenvironment.core.communication.utils.MessageCodecOutput;
+
+/**
+ * {@link MessageCodec} for {@link LinkStateAdvertisementBatch}es, which make up most of the network traffic on topology changes. Only the
+ * fields relevant to the receiver are transmitted; the local state of {@link TopologyLink}s (creation time and reliability) is initialized
+ * on the receiving side.
+ * 
+ * @author agent
+ */
+public final class LinkStateAdvertisementBatchCodec implements MessageCodec<LinkStateAdvertisementBatch> {
+
+    private static final int CODEC_ID = 3;
+
+    @Override
+    public int getCodecId() {
+        return CODEC_ID;
+    }
+
+    @Override
+    public Class<LinkStateAdvertisementBatch> getHandledClass() {
+        return LinkStateAdvertisementBatch.class;
+    }
+
+    @Override
+    public void encode(LinkStateAdvertisementBatch batch, MessageCodecOutput output) throws IOException {
+        output.writeInt(batch.size());
+        for (Entry<NodeIdentifier, LinkStateAdvertisement> entry : batch.entrySet()) {
+            output.writeNodeIdentifier(entry.getKey());
+            LinkStateAdvertisement lsa = entry.getValue();
+            output.writeBoolean(lsa != null);
+            if (lsa != null) {
+                encodeLsa(lsa, output);
+            }
+        }
+    }
+
+    @Override
+    public LinkStateAdvertisementBatch decode(MessageCodecInput input) throws IOException {
+        int size = input.readInt();
+        LinkStateAdvertisementBatch batch = new LinkStateAdvertisementBatch();
+        for (int i = 0; i < size; i++) {
+            NodeIdentifier key = input.readNodeIdentifier();
+            LinkStateAdvertisement lsa = null;
+            if (input.readBoolean()) {
+                lsa = decodeLsa(input);
+            }
+            batch.put(key, lsa);
+        }
+        return batch;
+    }
+
+    private void encodeLsa(LinkStateAdvertisement lsa, MessageCodecOutput output) throws IOException {
+        output.writeNodeIdentifier(lsa.getOwner());
+        output.writeNullableString(lsa.getDisplayName());
+        output.writeBoolean(lsa.getIsWorkflowHost());
+        output.writeLong(lsa.getSequenceNumber());
+        output.writeInt(lsa.getGraphHashCode());
+        output.writeBoolean(lsa.isRouting());
+        output.writeNullableString(lsa.getReason());
+        Collection<TopologyLink> links = lsa.getLinks();
+        output.writeInt(links.size());
+        for (TopologyLink link : links) {
+            output.writeNodeIdentifier(link.getSource());
+            output.writeNodeIdentifier(link.getDestination());
+            output.writeNullableString(link.getConnectionId());
+            output.writeInt(link.getWeight());
+        }
+    }
+
+    private LinkStateAdvertisement decodeLsa(MessageCodecInput input) throws IOException {
+        NodeIdentifier owner = input.readNodeIdentifier();
+        String displayName = input.readNullableString();
+        boolean isWorkflowHost = input.readBoolean();
+        long sequenceNumber = input.readLong();
+        int graphHashCode = input.readInt();
+        boolean routing = input.readBoolean();
+        String reason = input.readNullableString();
+        int linkCount = input.readInt();
+        List<TopologyLink> links = new ArrayList<TopologyLink>(linkCount);
+        for (int i = 0; i < linkCount; i++) {
+            NodeIdentifier source = input.readNodeIdentifier();
+            NodeIdentifier destination = input.readNodeIdentifier();
+            TopologyLink link = new TopologyLink(source, destination, input.readNullableString());
+            link.setWeight(input.readInt());
+            links.add(link);
+        }
+        return new LinkStateAdvertisement(owner, displayName, isWorkflowHost, sequenceNumber, graphHashCode, routing, reason, links);
+    }
+}
@@ -0,0 +1,170 @@
+/*
+ * Copyright (C) 2006-2014 DLR, Germany
+ * 
+ * All rights reserved
+ * 
+ * http://www.rcenvironment.de/
+ */
+
+package de.rcenvironment.core.communication.routing.internal;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import de.rcenvironment.core.communication.common.NodeIdentifier;
+import edu.uci.ics.jung.algorithms.shortestpath.DijkstraShortestPath;
+import edu.uci.ics.jung.graph.DirectedSparseMultigraph;
+
+/**
+ * An immutable snapshot of the shortest routes from the local node to all other nodes of a {@link TopologyMap}. All routes are computed
+ * with a single run of the Dijkstra algorithm when the snapshot is created; afterwards, the snapshot can be queried without
+ * synchronization.
+ * 
+ * @author agent
+ */
+final class RoutingTable {
+
+    private final NodeIdentifier localNodeId;
+
+    private final Map<NodeIdentifier, NetworkRoute> routesByDestination;
+
+    private final Set<NodeIdentifier> knownNodeIds;
+
+    private final Set<NodeIdentifier> reachableNodeIds;
+
+    private final List<TopologyNode> reachableNodes;
+
+    private final long computationTime;
+
+    private RoutingTable(NodeIdentifier localNodeId, Map<NodeIdentifier, NetworkRoute> routesByDestination,
+        Set<NodeIdentifier> knownNodeIds, List<TopologyNode> reachableNodes, long computationTime) {
+        this.localNodeId = localNodeId;
+        this.routesByDestination = routesByDestination;
+        this.knownNodeIds = knownNodeIds;
+        this.reachableNodes = reachableNodes;
+        this.computationTime = computationTime;
+        Set<NodeIdentifier> reachableIds = new HashSet<NodeIdentifier>();
+        for (TopologyNode node : reachableNodes) {
+            reachableIds.add(node.getNodeIdentifier());
+        }
+        this.reachableNodeIds = Collections.unmodifiableSet(reachableIds);
+    }
+
+    /**
+     * Computes the routes from the given local node to all reachable nodes. The caller must ensure that the graph is not modified during
+     * this call.
+     * 
+     * @param networkModel the graph to compute the routes for
+     * @param localNode the node to compute the routes from
+     * @return the new {@link RoutingTable}
+     */
+    static RoutingTable compute(DirectedSparseMultigraph<TopologyNode, TopologyLink> networkModel, TopologyNode localNode) {
+        long start = System.nanoTime();
+
+        NodeIdentifier localNodeId = localNode.getNodeIdentifier();
+        // no internal caching, as the algorithm instance is only used once
+        DijkstraShortestPath<TopologyNode, TopologyLink> alg = new DijkstraShortestPath<TopologyNode, TopologyLink>(networkModel, false);
+        Map<TopologyNode, TopologyLink> incomingEdgeMap = alg.getIncomingEdgeMap(localNode);
+
+        Map<NodeIdentifier, TopologyLink> incomingLinksById = new HashMap<NodeIdentifier, TopologyLink>();
+        for (Map.Entry<TopologyNode, TopologyLink> entry : incomingEdgeMap.entrySet()) {
+            incomingLinksById.put(entry.getKey().getNodeIdentifier(), entry.getValue());
+        }
+        Map<NodeIdentifier, List<TopologyLink>> pathsByDestination = new HashMap<NodeIdentifier, List<TopologyLink>>();
+        for (NodeIdentifier nodeId : incomingLinksById.keySet()) {
+            resolvePath(nodeId, incomingLinksById, localNodeId, pathsByDestination);
+        }
+
+        Set<NodeIdentifier> knownNodeIds = new HashSet<NodeIdentifier>();
+        for (TopologyNode node : networkModel.getVertices()) {
+            knownNodeIds.add(node.getNodeIdentifier());
+        }
+
+        long computationTime = System.nanoTime() - start;
+
+        Map<NodeIdentifier, NetworkRoute> routes = new HashMap<NodeIdentifier, NetworkRoute>();
+        for (Map.Entry<NodeIdentifier, List<TopologyLink>> entry : pathsByDestination.entrySet()) {
+            List<TopologyLink> path = entry.getValue();
+            if (path.isEmpty()) {
+                continue; // the local node
+            }
+            routes.put(entry.getKey(), createRoute(localNodeId, entry.getKey(), path, computationTime));
+        }
+
+        return new RoutingTable(localNodeId, routes, Collections.unmodifiableSet(knownNodeIds),
+            Collections.unmodifiableList(new ArrayList<TopologyNode>(incomingEdgeMap.keySet())), computationTime);
+    }
+
+    /**
+     * @param destination the destination node
+     * @return the shortest route to the destination; an empty route if the node is known, but not reachable, or if it is the local node;
+     *         null if the node is not part of the topology
+     */
+    public NetworkRoute getRouteTo(NodeIdentifier destination) {
+        NetworkRoute route = routesByDestination.get(destination);
+        if (route != null) {
+            return route;
+        }
+        if (knownNodeIds.contains(destination)) {
+            return createRoute(localNodeId, destination, new ArrayList<TopologyLink>(), computationTime);
+        }
+        return null;
+    }
+
+    /**
+     * @return the ids of all reachable nodes, including the local node
+     */
+    public Set<NodeIdentifier> getReachableNodeIds() {
+        return reachableNodeIds;
+    }
+
+    /**
+     * @return all reachable nodes, including the local node
+     */
+    public List<TopologyNode> getReachableNodes() {
+        return reachableNodes;
+    }
+
+    /**
+     * @return the time it took to compute this table, in nanoseconds
+     */
+    public long getComputationTime() {
+        return computationTime;
+    }
+
+    private static List<TopologyLink> resolvePath(NodeIdentifier nodeId, Map<NodeIdentifier, TopologyLink> incomingLinksById,
+        NodeIdentifier localNodeId, Map<NodeIdentifier, List<TopologyLink>> pathsByDestination) {
+        List<TopologyLink> path = pathsByDestination.get(nodeId);
+        if (path != null) {
+            return path;
+        }
+        TopologyLink incomingLink = incomingLinksById.get(nodeId);
+        if (incomingLink == null || nodeId.equals(localNodeId)) {
+            path = Collections.emptyList();
+        } else {
+            // extend the (memoized) path to the predecessor
+            List<TopologyLink> predecessorPath =
+                resolvePath(incomingLink.getSource(), incomingLinksById, localNodeId, pathsByDestination);
+            path = new ArrayList<TopologyLink>(predecessorPath.size() + 1);
+            path.addAll(predecessorPath);
+            path.add(incomingLink);
+        }
+        pathsByDestination.put(nodeId, path);
+        return path;
+    }
+
+    private static NetworkRoute createRoute(NodeIdentifier source, NodeIdentifier destination, List<TopologyLink> path,
+        long computationTime) {
+        List<NodeIdentifier> nodes = new ArrayList<NodeIdentifier>(path.size());
+        for (TopologyLink link : path) {
+            nodes.add(link.getDestination());
+        }
+        return new NetworkRoute(source, destination, Collections.unmodifiableList(path), Collections.unmodifiableList(nodes),
+            computationTime);
+    }
+}
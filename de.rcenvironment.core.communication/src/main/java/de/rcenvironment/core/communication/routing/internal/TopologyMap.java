@@ -13,7 +13,6 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
-import java.util.Map;
 import java.util.Set;
 
 import org.apache.commons.logging.Log;
@@ -33,6 +32,9 @@ import edu.uci.ics.jung.graph.DirectedSparseMultigraph;
  * corresponds to a RCE instance and an edge represents a connection/link ({@link TopologyLink}) between two RCE instances. The graph is a
  * directed sparse multigraph {@link DirectedSparseMultigraph}.
  * 
+ * Route lookups from the local node are answered from an immutable {@link RoutingTable} snapshot, which is discarded on each modification
+ * of the graph and lazily recomputed on the next lookup. These lookups do not require synchronization as long as the snapshot is valid.
+ * 
  * TODO review: reduce synchronization
  * 
  * @see <a href="http://jung.sourceforge.net/doc/api/index.html">JUNG2</a>
@@ -57,6 +59,11 @@ public final class TopologyMap {
 
     private final NodeIdentifier localNodeId;
 
+    /**
+     * The current routing table snapshot, or null if the graph was modified since it was computed.
+     */
+    private volatile RoutingTable routingTable;
+
     /**
      * The constructor.
      * 
@@ -122,21 +129,26 @@ public final class TopologyMap {
             return false;
         }
 
-        // TODO Maybe removing and re-inserting is not the best way to update the graph.
-        // remove node and edges
+        // the outgoing links of the LSA owner before the update
+        Set<TopologyLink> oldLinks = new HashSet<TopologyLink>();
         if (lsaRootPresent) {
-            for (TopologyNode successor : networkModel.getSuccessors(lsaRoot)) {
-                for (TopologyLink link : networkModel.findEdgeSet(lsaRoot, successor)) {
-                    removeLink(link);
-                }
-            }
+            oldLinks.addAll(networkModel.getOutEdges(lsaRoot));
         }
 
         // the LSA tells something about a node that has new or updated information
         if (LinkStateAdvertisement.REASON_STARTUP.equals(lsa.getReason())
             || LinkStateAdvertisement.REASON_UPDATE.equals(lsa.getReason())) {
 
-            // add node and set properties
+            // only modify the graph (and therefore, discard the routing table) for actually changed links; the node properties
+            // set below are not used for route computation
+            Set<TopologyLink> newLinks = new HashSet<TopologyLink>(lsa.getLinks());
+            for (TopologyLink link : oldLinks) {
+                if (!newLinks.contains(link)) {
+                    removeLink(link);
+                }
+            }
+
+            // add node (if not present yet) and set properties
             TopologyNode node = addNode(lsaOwner);
             node.setRouting(lsa.isRouting());
             node.setLastSequenceNumber(lsa.getSequenceNumber());
@@ -144,8 +156,11 @@ public final class TopologyMap {
             node.setDisplayName(lsa.getDisplayName());
             node.setIsWorkflowHost(lsa.getIsWorkflowHost());
 
-            // add links (and remote nodes)
-            for (TopologyLink link : lsa.getLinks()) {
+            // add new links (and remote nodes)
+            for (TopologyLink link : newLinks) {
+                if (oldLinks.contains(link)) {
+                    continue;
+                }
                 if (!containsNode(link.getDestination())) {
                     addNode(link.getDestination());
                 }
@@ -160,6 +175,9 @@ public final class TopologyMap {
             // TODO check: are both incoming and outgoing links removed from topology map?
             LOGGER.debug("Received a shutdown notice for node " + lsaRoot.getNodeIdentifier()
                 + "; removing it from local topology");
+            for (TopologyLink link : oldLinks) {
+                removeLink(link);
+            }
             removeNode(lsaRoot);
         }
 
@@ -168,7 +186,7 @@ public final class TopologyMap {
 
     /**
      * Computes the shortest path from the source node to the destination node. The Dijkstra shortest path algorithm is used to determine
-     * the shortest path.
+     * the shortest path. Routes from the local node are taken from the current {@link RoutingTable} snapshot.
      * 
      * @see <a href="http://jung.sourceforge.net/doc/api/edu/uci/ics/jung/algorithms/shortestpath/DijkstraShortestPath.html">
      *      DijkstraShortestPath</a>
@@ -176,9 +194,18 @@ public final class TopologyMap {
      * @param destination The destination platform
      * @return The shortest path between source and destination.
      */
-    public synchronized NetworkRoute getShortestPath(NodeIdentifier source, NodeIdentifier destination) {
-        // TODO optimization: provide method that only returns the next step (if rest is irrelevant)
-        // TODO optimization: add caching!
+    public NetworkRoute getShortestPath(NodeIdentifier source, NodeIdentifier destination) {
+        if (!localNodeId.equals(source)) {
+            return computeShortestPath(source, destination);
+        }
+        NetworkRoute route = getRoutingTable().getRouteTo(destination);
+        if (route == null) {
+            LOGGER.warn("Could not determine route to node " + destination + " as it is not part of the known topology");
+        }
+        return route;
+    }
+
+    private synchronized NetworkRoute computeShortestPath(NodeIdentifier source, NodeIdentifier destination) {
         long elapsed = 0;
 
         List<TopologyLink> path = new ArrayList<TopologyLink>();
@@ -214,22 +241,18 @@ public final class TopologyMap {
      * @param restrictToWorkflowHostsAndSelf No description available.
      * @return Set of platform identifiers.
      */
-    public synchronized Set<NodeIdentifier> getIdsOfReachableNodes(boolean restrictToWorkflowHostsAndSelf) {
+    public Set<NodeIdentifier> getIdsOfReachableNodes(boolean restrictToWorkflowHostsAndSelf) {
+        RoutingTable currentRoutingTable = getRoutingTable();
+        if (!restrictToWorkflowHostsAndSelf) {
+            return new HashSet<NodeIdentifier>(currentRoutingTable.getReachableNodeIds());
+        }
         Set<NodeIdentifier> result = new HashSet<NodeIdentifier>();
-        // get the map of reachable nodes by (ab)using the Dijkstra algorithm;
-        // TODO is there a more efficient approach available in JUNG?
-        DijkstraShortestPath<TopologyNode, TopologyLink> alg =
-            new DijkstraShortestPath<TopologyNode, TopologyLink>(networkModel);
-        Map<TopologyNode, Number> distanceMap = alg.getDistanceMap(getNode(localNodeId));
-        for (TopologyNode node : distanceMap.keySet()) {
-            if (restrictToWorkflowHostsAndSelf) {
-                boolean isLocalNode = localNodeId.equals(node.getNodeIdentifier());
-                if (!(isLocalNode || node.getIsWorkflowHost())) {
-                    continue;
-                }
+        // note: the workflow host flag is read from the live node objects, as it may be changed without modifying the graph
+        for (TopologyNode node : currentRoutingTable.getReachableNodes()) {
+            boolean isLocalNode = localNodeId.equals(node.getNodeIdentifier());
+            if (isLocalNode || node.getIsWorkflowHost()) {
+                result.add(node.getNodeIdentifier());
             }
-            // TODO remove typecast once NetworkIdentifier vs. NodeIdentifier is done
-            result.add((NodeIdentifier) node.getNodeIdentifier());
         }
         return result;
     }
@@ -498,6 +521,7 @@ public final class TopologyMap {
             LOGGER.warn(String.format("Link edge %s was not added to graph -- duplicate?", networkLink));
             return false;
         }
+        invalidateRoutingTable();
         return true;
         // old:
         // if (sourceNode != null && destinationNode != null && !sourceNode.equals(destinationNode))
@@ -527,6 +551,7 @@ public final class TopologyMap {
      */
     public synchronized boolean removeLink(TopologyLink link) {
         if (containsLink(link)) {
+            invalidateRoutingTable();
             return networkModel.removeEdge(link);
         } else {
             LOGGER.warn("Edge removal requested for non-existant link: " + link);
@@ -540,7 +565,9 @@ public final class TopologyMap {
      * @param node The node
      */
     public synchronized void removeNode(TopologyNode node) {
-        networkModel.removeVertex(node);
+        if (networkModel.removeVertex(node)) {
+            invalidateRoutingTable();
+        }
     }
 
     /**
@@ -562,6 +589,7 @@ public final class TopologyMap {
         if (existingNetworkNode == null) {
             TopologyNode node = new TopologyNode(nodeId);
             networkModel.addVertex(node);
+            invalidateRoutingTable();
             return node;
         }
         return existingNetworkNode;
@@ -679,6 +707,34 @@ public final class TopologyMap {
         return localNodeId;
     }
 
+    /**
+     * @return the current {@link RoutingTable}; computed if the graph was modified since the last call
+     */
+    private RoutingTable getRoutingTable() {
+        // fast path without synchronization
+        RoutingTable currentRoutingTable = routingTable; // volatile
+        if (currentRoutingTable != null) {
+            return currentRoutingTable;
+        }
+        synchronized (this) {
+            if (routingTable == null) {
+                TopologyNode localNode = getNode(localNodeId);
+                if (localNode == null) {
+                    throw new IllegalStateException("Consistency error: The local node is not part of the known topology");
+                }
+                routingTable = RoutingTable.compute(networkModel, localNode);
+            }
+            return routingTable;
+        }
+    }
+
+    /**
+     * Discards the current {@link RoutingTable}; must be called (while holding the monitor) on every modification of the graph.
+     */
+    private void invalidateRoutingTable() {
+        routingTable = null;
+    }
+
     /**
      * @return a new {@link NetworkGraph} containing all (unfiltered) nodes and links of this {@link TopologyMap}
      */
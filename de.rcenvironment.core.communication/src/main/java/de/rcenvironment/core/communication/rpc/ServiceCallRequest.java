@@ -128,4 +128,20 @@ public class ServiceCallRequest implements Serializable {
         return ++myHopCount;
     }
 
+    /**
+     * @return the current hop count; for {@link ServiceCallRequestCodec}
+     */
+    int getHopCount() {
+        return myHopCount;
+    }
+
+    /**
+     * Restores the hop count of a decoded request; for {@link ServiceCallRequestCodec}.
+     * 
+     * @param hopCount the hop count to set
+     */
+    void setHopCount(int hopCount) {
+        myHopCount = hopCount;
+    }
+
 }
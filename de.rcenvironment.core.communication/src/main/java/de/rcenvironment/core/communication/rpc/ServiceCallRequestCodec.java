@@ -0,0 +1,81 @@
+/*
+ * Copyright (C) 2006-2014 DLR, Germany
+ * 
+ * All rights reserved
+ * 
+ * http://www.rcenvironment.de/
+ */
+
+package de.rcenvironment.core.communication.rpc;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+import de.rcenvironment.core.communication.common.NodeIdentifier;
+import de.rcenvironment.core.communication.utils.MessageCodec;
+import de.rcenvironment.core.communication.utils.MessageCodecInput;
+import de.rcenvironment.core.communication.utils.MessageCodecOutput;
+
+/**
+ * {@link MessageCodec} for {@link ServiceCallRequest}s. Parameters are written as nested values, so parameters of types with their own
+ * codec (for example, notifications) are encoded compactly as well.
+ * 
+ * @author agent
+ */
+public final class ServiceCallRequestCodec implements MessageCodec<ServiceCallRequest> {
+
+    private static final int CODEC_ID = 1;
+
+    @Override
+    public int getCodecId() {
+        return CODEC_ID;
+    }
+
+    @Override
+    public Class<ServiceCallRequest> getHandledClass() {
+        return ServiceCallRequest.class;
+    }
+
+    @Override
+    public void encode(ServiceCallRequest request, MessageCodecOutput output) throws IOException {
+        output.writeNodeIdentifier(request.getRequestedPlatform());
+        output.writeNodeIdentifier(request.getCallingPlatform());
+        output.writeNullableString(request.getService());
+        output.writeNullableString(request.getServiceProperties());
+        output.writeNullableString(request.getServiceMethod());
+        output.writeInt(request.getHopCount());
+        List<? extends Serializable> parameters = request.getParameterList();
+        if (parameters == null) {
+            output.writeInt(-1);
+        } else {
+            output.writeInt(parameters.size());
+            for (Serializable parameter : parameters) {
+                output.writeValue(parameter);
+            }
+        }
+    }
+
+    @Override
+    public ServiceCallRequest decode(MessageCodecInput input) throws IOException {
+        NodeIdentifier requestedPlatform = input.readNodeIdentifier();
+        NodeIdentifier callingPlatform = input.readNodeIdentifier();
+        String service = input.readNullableString();
+        String serviceProperties = input.readNullableString();
+        String serviceMethod = input.readNullableString();
+        int hopCount = input.readInt();
+        int parameterCount = input.readInt();
+        List<Serializable> parameters = null;
+        if (parameterCount >= 0) {
+            parameters = new ArrayList<Serializable>(parameterCount);
+            for (int i = 0; i < parameterCount; i++) {
+                parameters.add(input.readValue());
+            }
+        }
+        ServiceCallRequest request =
+            new ServiceCallRequest(requestedPlatform, callingPlatform, service, serviceProperties, serviceMethod, parameters);
+        request.setHopCount(hopCount);
+        return request;
+    }
+}
@@ -0,0 +1,51 @@
+/*
+ * Copyright (C) 2006-2014 DLR, Germany
+ * 
+ * All rights reserved
+ * 
+ * http://www.rcenvironment.de/
+ */
+
+package de.rcenvironment.core.communication.rpc;
+
+import java.io.IOException;
+
+import de.rcenvironment.core.communication.utils.MessageCodec;
+import de.rcenvironment.core.communication.utils.MessageCodecInput;
+import de.rcenvironment.core.communication.utils.MessageCodecOutput;
+
+/**
+ * {@link MessageCodec} for {@link ServiceCallResult}s. The return value or exception is written as a nested value, so only the (rare)
+ * exception case and return values without a compact form use Java serialization.
+ * 
+ * @author agent
+ */
+public final class ServiceCallResultCodec implements MessageCodec<ServiceCallResult> {
+
+    private static final int CODEC_ID = 2;
+
+    @Override
+    public int getCodecId() {
+        return CODEC_ID;
+    }
+
+    @Override
+    public Class<ServiceCallResult> getHandledClass() {
+        return ServiceCallResult.class;
+    }
+
+    @Override
+    public void encode(ServiceCallResult result, MessageCodecOutput output) throws IOException {
+        if (result.getThrowable() != null) {
+            // the constructor detects Throwables and restores them as such
+            output.writeValue(result.getThrowable());
+        } else {
+            output.writeValue(result.getReturnValue());
+        }
+    }
+
+    @Override
+    public ServiceCallResult decode(MessageCodecInput input) throws IOException {
+        return new ServiceCallResult(input.readValue());
+    }
+}
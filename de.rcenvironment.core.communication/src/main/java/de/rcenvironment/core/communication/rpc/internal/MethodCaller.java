@@ -9,12 +9,17 @@
 package de.rcenvironment.core.communication.rpc.internal;
 
 import java.io.Serializable;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.apache.commons.logging.LogFactory;
 
@@ -28,6 +33,10 @@ import de.rcenvironment.core.utils.common.security.MethodPermissionCheck;
  * 
  * This class has some restrictions: - Primitives are not supported. - It only detects public functions. - It can not handle null arguments.
  * 
+ * Resolved methods are cached per service class as {@link MethodInvoker}s, which call the method through a {@link MethodHandle} (if
+ * accessible) and remember the results of {@link MethodPermissionCheck}s. Permission checks are therefore expected to return the same
+ * result for the same method each time.
+ * 
  * For a more detailed overview see: - http://www.ddj.com/dept/java/184403978
  * 
  * @author Heinrich Wendel
@@ -38,7 +47,134 @@ public final class MethodCaller {
 
     private static final String ERROR_METHOD_CALL_FAILED = "Could not call method: ";
 
-    private static Map<String, Method> cache = new HashMap<String, Method>();
+    /**
+     * The common type of all adapted method handles: (Object service, Object[] parameters) -> Object.
+     */
+    private static final MethodType INVOKER_METHOD_TYPE = MethodType.methodType(Object.class, Object.class, Object[].class);
+
+    private static final ConcurrentMap<Class<?>, ConcurrentMap<MethodSignature, MethodInvoker>> INVOKER_CACHE =
+        new ConcurrentHashMap<Class<?>, ConcurrentMap<MethodSignature, MethodInvoker>>();
+
+    /**
+     * Cache key for a method name and the runtime classes of the actual parameters.
+     * 
+     * @author agent
+     */
+    private static final class MethodSignature {
+
+        private final String methodName;
+
+        private final Class<?>[] parameterTypes;
+
+        private final int hashCode;
+
+        MethodSignature(String methodName, Class<?>[] parameterTypes) {
+            this.methodName = methodName;
+            this.parameterTypes = parameterTypes;
+            this.hashCode = methodName.hashCode() * 31 + Arrays.hashCode(parameterTypes);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof MethodSignature)) {
+                return false;
+            }
+            MethodSignature other = (MethodSignature) obj;
+            return methodName.equals(other.methodName) && Arrays.equals(parameterTypes, other.parameterTypes);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+
+    /**
+     * A resolved method, with its adapted {@link MethodHandle} and the cached results of permission checks.
+     * 
+     * @author agent
+     */
+    private static final class MethodInvoker {
+
+        private final Method method;
+
+        // null if the method is not accessible via a public lookup; reflection is used then
+        private final MethodHandle methodHandle;
+
+        private final boolean hasPrimitiveParameters;
+
+        private final ConcurrentMap<MethodPermissionCheck, Boolean> permissionCheckResults =
+            new ConcurrentHashMap<MethodPermissionCheck, Boolean>();
+
+        MethodInvoker(Method method) {
+            this.method = method;
+            this.methodHandle = createMethodHandle(method);
+            boolean primitiveFound = false;
+            for (Class<?> parameterType : method.getParameterTypes()) {
+                primitiveFound |= parameterType.isPrimitive();
+            }
+            this.hasPrimitiveParameters = primitiveFound;
+        }
+
+        boolean isPermitted(MethodPermissionCheck permissionCheck) {
+            Boolean result = permissionCheckResults.get(permissionCheck);
+            if (result == null) {
+                result = permissionCheck.checkPermission(method);
+                permissionCheckResults.put(permissionCheck, result);
+            }
+            return result;
+        }
+
+        Object invoke(Object service, Object[] parameters) throws CommunicationException {
+            if (methodHandle == null) {
+                return invokeViaReflection(service, parameters);
+            }
+            if (hasPrimitiveParameters) {
+                // null arguments for primitive parameters would fail inside the handle and be mistaken for an exception of the
+                // method itself, so check them beforehand
+                for (Object parameter : parameters) {
+                    if (parameter == null) {
+                        throw new CommunicationException(ERROR_METHOD_CALL_FAILED + method + " - invalid arguments.");
+                    }
+                }
+            }
+            // CHECKSTYLE:DISABLE (IllegalCatch) - MethodHandle.invokeExact() declares "throws Throwable"
+            try {
+                return (Object) methodHandle.invokeExact(service, parameters);
+            } catch (Throwable e) {
+                // thrown by the called method; returned to the caller like in the reflection case
+                return e;
+            }
+            // CHECKSTYLE:ENABLE (IllegalCatch)
+        }
+
+        private Object invokeViaReflection(Object service, Object[] parameters) throws CommunicationException {
+            try {
+                return method.invoke(service, parameters);
+            } catch (IllegalArgumentException e) {
+                throw new CommunicationException(ERROR_METHOD_CALL_FAILED + method + " - invalid arguments.");
+            } catch (IllegalAccessException e) {
+                throw new CommunicationException(ERROR_METHOD_CALL_FAILED + method + " - it could not be not accessed.");
+            } catch (InvocationTargetException e) {
+                return e.getCause();
+            }
+        }
+
+        private static MethodHandle createMethodHandle(Method method) {
+            MethodHandle handle;
+            try {
+                handle = MethodHandles.publicLookup().unreflect(method);
+            } catch (IllegalAccessException e) {
+                // e.g. a public method of a non-public class
+                return null;
+            }
+            if (Modifier.isStatic(method.getModifiers())) {
+                // add an ignored receiver parameter for a uniform call signature
+                handle = MethodHandles.dropArguments(handle, 0, Object.class);
+            }
+            return handle.asSpreader(Object[].class, method.getParameterTypes().length).asType(INVOKER_METHOD_TYPE);
+        }
+    }
 
     private MethodCaller() {}
 
@@ -68,16 +204,15 @@ public final class MethodCaller {
      * @return the return object of the call.
      * @throws CommunicationException if calling the method failed.
      */
-    @SuppressWarnings("unchecked")
     public static Object callMethod(Object service, String methodName, List<? extends Serializable> parameters,
         MethodPermissionCheck permissionCheck)
         throws CommunicationException {
 
         // Extract parameters
-        Class<? extends Serializable>[] parameterTypes = null;
-        Object[] parameterList = null;
+        Class<?>[] parameterTypes;
+        Object[] parameterList;
         if (parameters != null) {
-            parameterTypes = new Class[parameters.size()];
+            parameterTypes = new Class<?>[parameters.size()];
             parameterList = new Object[parameters.size()];
             for (int i = 0; i < parameters.size(); i++) {
                 if (parameters.get(i) == null) {
@@ -88,46 +223,60 @@ public final class MethodCaller {
                 parameterList[i] = parameters.get(i);
             }
         } else {
-            parameterTypes = new Class[0];
-            parameterList = new Class[0];
+            parameterTypes = new Class<?>[0];
+            parameterList = new Object[0];
         }
 
-        String uid = createUniqueIdentifier(service.getClass(), methodName, parameterTypes);
-        Method method = null;
-
-        // Check in cache
-        if (cache.containsKey(uid)) {
-            method = cache.get(uid);
-
-            // Otherwise do a new lookup
-        } else {
+        Class<?> serviceClass = service.getClass();
+        MethodInvoker invoker = getInvoker(serviceClass, methodName, parameterTypes);
 
-            method = lookupMethod(service.getClass(), methodName, parameterTypes);
-            if (method == null) {
-                throw new CommunicationException(ERROR_METHOD_CALL_FAILED + uid + " - it could not be not found.");
+        if (permissionCheck != null) {
+            if (!invoker.isPermitted(permissionCheck)) {
+                LogFactory.getLog(MethodCaller.class).error("RPC permission check failed for method " + invoker.method
+                    + " of service " + serviceClass + " - aborting request");
+                throw new CommunicationException(ERROR_METHOD_CALL_FAILED
+                    + createUniqueIdentifier(serviceClass, methodName, parameterTypes) + " - permission denied");
             }
-
-            // Add to cache
-            cache.put(uid, method);
         }
 
-        if (permissionCheck != null) {
-            if (!permissionCheck.checkPermission(method)) {
-                LogFactory.getLog(MethodCaller.class).error("RPC permission check failed for method " + method
-                    + " of service " + service.getClass() + " - aborting request");
-                throw new CommunicationException(ERROR_METHOD_CALL_FAILED + uid + " - permission denied");
+        return invoker.invoke(service, parameterList);
+    }
+
+    /**
+     * Discards all cached method information for the given service class; intended to be called when a service is unregistered.
+     * 
+     * @param serviceClass the implementation class of the service
+     */
+    public static void clearCache(Class<?> serviceClass) {
+        INVOKER_CACHE.remove(serviceClass);
+    }
+
+    private static MethodInvoker getInvoker(Class<?> serviceClass, String methodName, Class<?>[] parameterTypes)
+        throws CommunicationException {
+        ConcurrentMap<MethodSignature, MethodInvoker> classCache = INVOKER_CACHE.get(serviceClass);
+        if (classCache == null) {
+            classCache = new ConcurrentHashMap<MethodSignature, MethodInvoker>();
+            ConcurrentMap<MethodSignature, MethodInvoker> existing = INVOKER_CACHE.putIfAbsent(serviceClass, classCache);
+            if (existing != null) {
+                classCache = existing;
             }
         }
-
-        try {
-            return method.invoke(service, parameterList);
-        } catch (IllegalArgumentException e) {
-            throw new CommunicationException(ERROR_METHOD_CALL_FAILED + uid + " - invalid arguments.");
-        } catch (IllegalAccessException e) {
-            throw new CommunicationException(ERROR_METHOD_CALL_FAILED + uid + " - it could not be not accessed.");
-        } catch (InvocationTargetException e) {
-            return e.getCause();
+        MethodSignature signature = new MethodSignature(methodName, parameterTypes);
+        MethodInvoker invoker = classCache.get(signature);
+        if (invoker == null) {
+            Method method = lookupMethod(serviceClass, methodName, parameterTypes);
+            if (method == null) {
+                throw new CommunicationException(ERROR_METHOD_CALL_FAILED
+                    + createUniqueIdentifier(serviceClass, methodName, parameterTypes) + " - it could not be not found.");
+            }
+            // concurrent resolution of the same method is harmless; the first one wins
+            invoker = new MethodInvoker(method);
+            MethodInvoker existing = classCache.putIfAbsent(signature, invoker);
+            if (existing != null) {
+                invoker = existing;
+            }
         }
+        return invoker;
     }
 
     /**
@@ -141,7 +290,7 @@ public final class MethodCaller {
      * 
      * @return A matching method or null.
      */
-    private static Method lookupMethod(Class<?> clazz, String javaMethodName, Class<? extends Serializable>[] parameterTypes) {
+    private static Method lookupMethod(Class<?> clazz, String javaMethodName, Class<?>[] parameterTypes) {
 
         Method method = null;
 
@@ -177,7 +326,7 @@ public final class MethodCaller {
      * 
      * @return true or false.
      */
-    private static boolean parameterTypesMatch(Class<?>[] parameterTypesOne, Class<? extends Serializable>[] parameterTypesTwo) {
+    private static boolean parameterTypesMatch(Class<?>[] parameterTypesOne, Class<?>[] parameterTypesTwo) {
         if (parameterTypesOne.length == parameterTypesTwo.length) {
             for (int i = 0; i < parameterTypesOne.length; i++) {
                 if (!parameterTypesOne[i].isAssignableFrom(parameterTypesTwo[i])) {
@@ -250,7 +399,7 @@ public final class MethodCaller {
      * 
      * @return A hash String.
      */
-    private static String createUniqueIdentifier(Class<?> clazz, String javaMethodName, Class<? extends Serializable>[] parameterTypes) {
+    private static String createUniqueIdentifier(Class<?> clazz, String javaMethodName, Class<?>[] parameterTypes) {
         String hash = "";
         hash += clazz.getCanonicalName();
         hash += "." + javaMethodName;
@@ -10,12 +10,18 @@ package de.rcenvironment.core.communication.rpc.internal;
 
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.osgi.framework.BundleContext;
 import org.osgi.framework.InvalidSyntaxException;
+import org.osgi.framework.ServiceEvent;
+import org.osgi.framework.ServiceListener;
 import org.osgi.framework.ServiceReference;
 
 import de.rcenvironment.core.communication.api.PlatformService;
@@ -33,6 +39,8 @@ import de.rcenvironment.core.utils.incubator.Assertions;
 /**
  * Implementation of the {@link ServiceCallHandler}.
  * 
+ * Resolved services are cached by service name and filter; cache entries are discarded when their service is unregistered.
+ * 
  * @author Heinrich Wendel
  * @author Doreen Seider
  * @author Robert Mischke
@@ -59,14 +67,45 @@ public class OSGiServiceCallHandlerImpl implements ServiceCallHandler {
 
     private BundleContext bundleContext;
 
+    private final Map<String, ResolvedService> resolvedServices = new ConcurrentHashMap<String, ResolvedService>();
+
+    // incremented on each service unregistration; used to detect unregistrations that happened during a lookup
+    private final AtomicLong unregistrationCounter = new AtomicLong();
+
     private PlatformService platformService;
 
     private CallbackService callbackService;
 
     private CallbackProxyService callbackProxyService;
 
+    /**
+     * A service object with the {@link ServiceReference} it was acquired from.
+     * 
+     * @author agent
+     */
+    private static final class ResolvedService {
+
+        private final ServiceReference reference;
+
+        private final Object serviceObject;
+
+        ResolvedService(ServiceReference reference, Object serviceObject) {
+            this.reference = reference;
+            this.serviceObject = serviceObject;
+        }
+    }
+
     protected void activate(BundleContext context) {
         bundleContext = context;
+        bundleContext.addServiceListener(new ServiceListener() {
+
+            @Override
+            public void serviceChanged(ServiceEvent event) {
+                if (event.getType() == ServiceEvent.UNREGISTERING) {
+                    discardResolvedService(event.getServiceReference());
+                }
+            }
+        });
     }
 
     protected void bindPlatformService(PlatformService newPlatformService) {
@@ -122,9 +161,7 @@ public class OSGiServiceCallHandlerImpl implements ServiceCallHandler {
         // uuid += COLON + serviceCallRequest.getServiceProperties();
         // }
 
-        Object service =
-            lookupService(serviceCallRequest.getService(), serviceCallRequest.getServiceProperties(), SERVICE_RESOLUTION_NUM_RETRIES,
-                SERVICE_RESOLUTION_RETRY_DELAY_MSEC);
+        Object service = getService(serviceCallRequest.getService(), serviceCallRequest.getServiceProperties());
 
         Object returnValue = null;
         try {
@@ -146,6 +183,44 @@ public class OSGiServiceCallHandlerImpl implements ServiceCallHandler {
 
     }
 
+    /**
+     * Returns the cached service object for the given service name and filter, or looks it up (see
+     * {@link #lookupService(String, String, int, int, ServiceReference[])}) if there is no cached entry.
+     * 
+     * @param service The name of the service to get.
+     * @param filter The desired properties of the service.
+     * @return the service object
+     * @throws CommunicationException if the service could not be got.
+     */
+    private Object getService(String service, String filter) throws CommunicationException {
+        String cacheKey = service + COLON + filter;
+        ResolvedService resolvedService = resolvedServices.get(cacheKey);
+        if (resolvedService != null) {
+            return resolvedService.serviceObject;
+        }
+        long unregistrationsBefore = unregistrationCounter.get();
+        ServiceReference[] serviceReferences = new ServiceReference[1];
+        Object serviceObject = lookupService(service, filter, SERVICE_RESOLUTION_NUM_RETRIES, SERVICE_RESOLUTION_RETRY_DELAY_MSEC,
+            serviceReferences);
+        // do not cache the result if a service was unregistered in the meantime, as it may have been the resolved one
+        if (unregistrationCounter.get() == unregistrationsBefore) {
+            resolvedServices.put(cacheKey, new ResolvedService(serviceReferences[0], serviceObject));
+        }
+        return serviceObject;
+    }
+
+    private void discardResolvedService(ServiceReference reference) {
+        unregistrationCounter.incrementAndGet();
+        Iterator<ResolvedService> iterator = resolvedServices.values().iterator();
+        while (iterator.hasNext()) {
+            ResolvedService resolvedService = iterator.next();
+            if (resolvedService.reference.equals(reference)) {
+                iterator.remove();
+                MethodCaller.clearCache(resolvedService.serviceObject.getClass());
+            }
+        }
+    }
+
     /**
      * 
      * Gets the service from the OSGi service registry.
@@ -154,11 +229,12 @@ public class OSGiServiceCallHandlerImpl implements ServiceCallHandler {
      * @param filter The desired properties of the service.
      * @param numAttempts the number of attempts before the service is considered unavailable
      * @param delayBetweenAttemptsMsec the delay (in milliseconds) between attempts to acquire the service
+     * @param referenceHolder a single-element array that receives the {@link ServiceReference} of the returned service
      * @return the service object
      * @throws CommunicationException if the service could not be got.
      */
-    protected Object lookupService(String service, String filter, int numAttempts, int delayBetweenAttemptsMsec)
-        throws CommunicationException {
+    protected Object lookupService(String service, String filter, int numAttempts, int delayBetweenAttemptsMsec,
+        ServiceReference[] referenceHolder) throws CommunicationException {
 
         ServiceReference[] serviceReferences = null;
 
@@ -180,6 +256,7 @@ public class OSGiServiceCallHandlerImpl implements ServiceCallHandler {
                 serviceObject = bundleContext.getService(serviceReferences[0]);
                 if (serviceObject != null) {
                     // success
+                    referenceHolder[0] = serviceReferences[0];
                     return serviceObject;
                 }
             }
@@ -0,0 +1,54 @@
+/*
+ * Copyright (C) 2006-2014 DLR, Germany
+ * 
+ * All rights reserved
+ * 
+ * http://www.rcenvironment.de/
+ */
+
+package de.rcenvironment.core.communication.utils;
+
+import java.io.IOException;
+import java.io.Serializable;
+
+/**
+ * A hand-written serializer for a single, frequently transmitted message class. Registered codecs are used by {@link MessageUtils} instead
+ * of standard Java serialization, both for top-level objects and for nested values written via {@link MessageCodecOutput#writeValue}.
+ * 
+ * Codec ids are part of the wire format; they must be unique across all registered codecs and must not change once released. Changing the
+ * encoding of an existing codec requires a change of the protocol compatibility version.
+ * 
+ * @param <T> the handled class
+ * 
+ * @author agent
+ */
+public interface MessageCodec<T extends Serializable> {
+
+    /**
+     * @return the unique, stable id of this codec as written to the wire
+     */
+    int getCodecId();
+
+    /**
+     * @return the class handled by this codec; only objects of exactly this class (not subclasses) are encoded with this codec
+     */
+    Class<T> getHandledClass();
+
+    /**
+     * Writes the given object.
+     * 
+     * @param object the object to encode; never null
+     * @param output the output to write to
+     * @throws IOException on write errors, or if a nested value fails to serialize
+     */
+    void encode(T object, MessageCodecOutput output) throws IOException;
+
+    /**
+     * Restores an object written by {@link #encode(Serializable, MessageCodecOutput)}.
+     * 
+     * @param input the input to read from
+     * @return the restored object
+     * @throws IOException on read errors or invalid data
+     */
+    T decode(MessageCodecInput input) throws IOException;
+}
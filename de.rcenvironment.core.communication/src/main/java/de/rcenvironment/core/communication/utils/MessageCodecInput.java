@@ -0,0 +1,112 @@
+/*
+ * Copyright (C) 2006-2014 DLR, Germany
+ * 
+ * All rights reserved
+ * 
+ * http://www.rcenvironment.de/
+ */
+
+package de.rcenvironment.core.communication.utils;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.Serializable;
+import java.io.StreamCorruptedException;
+import java.nio.charset.StandardCharsets;
+
+import de.rcenvironment.core.communication.common.NodeIdentifier;
+import de.rcenvironment.core.communication.common.NodeIdentifierFactory;
+
+/**
+ * The input stream passed to {@link MessageCodec}s; the counterpart of {@link MessageCodecOutput}.
+ * 
+ * @author agent
+ */
+public class MessageCodecInput extends DataInputStream {
+
+    public MessageCodecInput(byte[] data, int offset) {
+        super(new ByteArrayInputStream(data, offset, data.length - offset));
+    }
+
+    /**
+     * Reads a string written by {@link MessageCodecOutput#writeNullableString(String)}.
+     * 
+     * @return the string; may be null
+     * @throws IOException on read errors
+     */
+    public String readNullableString() throws IOException {
+        int length = readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Reads a {@link NodeIdentifier} written by {@link MessageCodecOutput#writeNodeIdentifier(NodeIdentifier)}.
+     * 
+     * @return the {@link NodeIdentifier}; may be null
+     * @throws IOException on read errors
+     */
+    public NodeIdentifier readNodeIdentifier() throws IOException {
+        String idString = readNullableString();
+        if (idString == null) {
+            return null;
+        }
+        return NodeIdentifierFactory.fromNodeId(idString);
+    }
+
+    /**
+     * Reads a value written by {@link MessageCodecOutput#writeValue(Serializable)}.
+     * 
+     * @return the value; may be null
+     * @throws IOException on read errors, or if the value fails to deserialize
+     */
+    public Serializable readValue() throws IOException {
+        byte tag = readByte();
+        switch (tag) {
+        case MessageCodecOutput.VALUE_TAG_NULL:
+            return null;
+        case MessageCodecOutput.VALUE_TAG_STRING:
+            return readNullableString();
+        case MessageCodecOutput.VALUE_TAG_INTEGER:
+            return readInt();
+        case MessageCodecOutput.VALUE_TAG_LONG:
+            return readLong();
+        case MessageCodecOutput.VALUE_TAG_BOOLEAN:
+            return readBoolean();
+        case MessageCodecOutput.VALUE_TAG_CODEC:
+            return readCodecContent();
+        case MessageCodecOutput.VALUE_TAG_JAVA_SERIALIZATION:
+            byte[] bytes = new byte[readInt()];
+            readFully(bytes);
+            return (Serializable) deserializeWithJava(bytes);
+        default:
+            throw new StreamCorruptedException("Invalid value tag: " + tag);
+        }
+    }
+
+    Serializable readCodecContent() throws IOException {
+        int codecId = readShort();
+        MessageCodec<?> codec = MessageCodecRegistry.getCodecForId(codecId);
+        if (codec == null) {
+            throw new StreamCorruptedException("No message codec registered for id " + codecId);
+        }
+        return codec.decode(this);
+    }
+
+    static Object deserializeWithJava(byte[] bytes) throws IOException {
+        ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(bytes));
+        try {
+            return ois.readObject();
+        } catch (ClassNotFoundException e) {
+            throw new IOException(e);
+        } finally {
+            ois.close();
+        }
+    }
+}
@@ -0,0 +1,147 @@
+/*
+ * Copyright (C) 2006-2014 DLR, Germany
+ * 
+ * All rights reserved
+ * 
+ * http://www.rcenvironment.de/
+ */
+
+package de.rcenvironment.core.communication.utils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+
+import de.rcenvironment.core.communication.common.NodeIdentifier;
+
+/**
+ * The output stream passed to {@link MessageCodec}s. Besides the standard {@link DataOutputStream} methods, it provides methods for common
+ * RCE types, and for nested values of arbitrary types.
+ * 
+ * @author agent
+ */
+public class MessageCodecOutput extends DataOutputStream {
+
+    static final byte VALUE_TAG_NULL = 0;
+
+    static final byte VALUE_TAG_STRING = 1;
+
+    static final byte VALUE_TAG_INTEGER = 2;
+
+    static final byte VALUE_TAG_LONG = 3;
+
+    static final byte VALUE_TAG_BOOLEAN = 4;
+
+    static final byte VALUE_TAG_CODEC = 5;
+
+    static final byte VALUE_TAG_JAVA_SERIALIZATION = 6;
+
+    private static final int INITIAL_JAVA_SERIALIZATION_BUFFER_SIZE = 256;
+
+    private final ByteArrayOutputStream buffer;
+
+    public MessageCodecOutput(int initialSize) {
+        this(new ByteArrayOutputStream(initialSize));
+    }
+
+    private MessageCodecOutput(ByteArrayOutputStream buffer) {
+        super(buffer);
+        this.buffer = buffer;
+    }
+
+    /**
+     * Writes a string that may be null, and is not subject to the length limit of {@link #writeUTF(String)}.
+     * 
+     * @param value the string to write; may be null
+     * @throws IOException on write errors
+     */
+    public void writeNullableString(String value) throws IOException {
+        if (value == null) {
+            writeInt(-1);
+        } else {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            writeInt(bytes.length);
+            write(bytes);
+        }
+    }
+
+    /**
+     * Writes a {@link NodeIdentifier} that may be null. Only the id string is written; the associated node information is attached again
+     * on reading.
+     * 
+     * @param nodeId the {@link NodeIdentifier} to write; may be null
+     * @throws IOException on write errors
+     */
+    public void writeNodeIdentifier(NodeIdentifier nodeId) throws IOException {
+        if (nodeId == null) {
+            writeNullableString(null);
+        } else {
+            writeNullableString(nodeId.getIdString());
+        }
+    }
+
+    /**
+     * Writes an arbitrary value. Common simple types and types with a registered {@link MessageCodec} are written in compact form; all
+     * other types fall back to standard Java serialization.
+     * 
+     * @param value the value to write; may be null
+     * @throws IOException on write errors, or if the value fails to serialize
+     */
+    public void writeValue(Serializable value) throws IOException {
+        if (value == null) {
+            writeByte(VALUE_TAG_NULL);
+            return;
+        }
+        Class<?> valueClass = value.getClass();
+        if (valueClass == String.class) {
+            writeByte(VALUE_TAG_STRING);
+            writeNullableString((String) value);
+        } else if (valueClass == Integer.class) {
+            writeByte(VALUE_TAG_INTEGER);
+            writeInt((Integer) value);
+        } else if (valueClass == Long.class) {
+            writeByte(VALUE_TAG_LONG);
+            writeLong((Long) value);
+        } else if (valueClass == Boolean.class) {
+            writeByte(VALUE_TAG_BOOLEAN);
+            writeBoolean((Boolean) value);
+        } else {
+            MessageCodec<Serializable> codec = MessageCodecRegistry.getCodecForClass(valueClass);
+            if (codec != null) {
+                writeByte(VALUE_TAG_CODEC);
+                writeCodecContent(codec, value);
+            } else {
+                writeByte(VALUE_TAG_JAVA_SERIALIZATION);
+                byte[] bytes = serializeWithJava(value);
+                writeInt(bytes.length);
+                write(bytes);
+            }
+        }
+    }
+
+    /**
+     * @return the bytes written so far
+     */
+    public byte[] toByteArray() {
+        return buffer.toByteArray();
+    }
+
+    void writeCodecContent(MessageCodec<Serializable> codec, Serializable value) throws IOException {
+        writeShort(codec.getCodecId());
+        codec.encode(value, this);
+    }
+
+    static byte[] serializeWithJava(Object object) throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream(INITIAL_JAVA_SERIALIZATION_BUFFER_SIZE);
+        ObjectOutputStream oos = new ObjectOutputStream(baos);
+        try {
+            oos.writeObject(object);
+        } finally {
+            oos.close();
+        }
+        return baos.toByteArray();
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright (C) 2006-2014 DLR, Germany
+ * 
+ * All rights reserved
+ * 
+ * http://www.rcenvironment.de/
+ */
+
+package de.rcenvironment.core.communication.utils;
+
+import java.io.Serializable;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.commons.logging.LogFactory;
+
+import de.rcenvironment.core.communication.routing.internal.LinkStateAdvertisementBatchCodec;
+import de.rcenvironment.core.communication.rpc.ServiceCallRequestCodec;
+import de.rcenvironment.core.communication.rpc.ServiceCallResultCodec;
+
+/**
+ * Central registry of the {@link MessageCodec}s used by {@link MessageUtils}. The codecs for the core communication message types are
+ * registered by default; other bundles can register codecs for their own frequently transmitted types.
+ * 
+ * All methods are safe for concurrent usage.
+ * 
+ * @author agent
+ */
+public final class MessageCodecRegistry {
+
+    private static final Map<Class<?>, MessageCodec<?>> CODECS_BY_CLASS = new ConcurrentHashMap<Class<?>, MessageCodec<?>>();
+
+    private static final Map<Integer, MessageCodec<?>> CODECS_BY_ID = new ConcurrentHashMap<Integer, MessageCodec<?>>();
+
+    static {
+        register(new ServiceCallRequestCodec());
+        register(new ServiceCallResultCodec());
+        register(new LinkStateAdvertisementBatchCodec());
+    }
+
+    private MessageCodecRegistry() {}
+
+    /**
+     * Registers a codec. Registering another instance of an already-registered codec class has no effect.
+     * 
+     * @param codec the codec to register
+     * @throws IllegalArgumentException if a different codec with the same id or for the same class is already registered
+     */
+    public static synchronized void register(MessageCodec<?> codec) {
+        MessageCodec<?> existingForId = CODECS_BY_ID.get(codec.getCodecId());
+        MessageCodec<?> existingForClass = CODECS_BY_CLASS.get(codec.getHandledClass());
+        if (existingForId != null && existingForId == existingForClass && existingForId.getClass() == codec.getClass()) {
+            return;
+        }
+        if (existingForId != null || existingForClass != null) {
+            throw new IllegalArgumentException(String.format("Conflicting message codec registration for id %d / class %s",
+                codec.getCodecId(), codec.getHandledClass().getName()));
+        }
+        CODECS_BY_ID.put(codec.getCodecId(), codec);
+        CODECS_BY_CLASS.put(codec.getHandledClass(), codec);
+        LogFactory.getLog(MessageCodecRegistry.class).debug(
+            String.format("Registered message codec %d for %s", codec.getCodecId(), codec.getHandledClass().getName()));
+    }
+
+    /**
+     * Removes a registered codec; intended for bundle shutdown. Note that messages using this codec can not be decoded anymore afterwards.
+     * 
+     * @param codec the codec to unregister
+     */
+    public static synchronized void unregister(MessageCodec<?> codec) {
+        CODECS_BY_ID.remove(codec.getCodecId());
+        CODECS_BY_CLASS.remove(codec.getHandledClass());
+    }
+
+    /**
+     * @param clazz the class to look up
+     * @return the codec for exactly this class, or null if there is none
+     */
+    @SuppressWarnings("unchecked")
+    static MessageCodec<Serializable> getCodecForClass(Class<?> clazz) {
+        return (MessageCodec<Serializable>) CODECS_BY_CLASS.get(clazz);
+    }
+
+    /**
+     * @param codecId the id to look up
+     * @return the codec with this id, or null if there is none
+     */
+    static MessageCodec<?> getCodecForId(int codecId) {
+        return CODECS_BY_ID.get(codecId);
+    }
+}
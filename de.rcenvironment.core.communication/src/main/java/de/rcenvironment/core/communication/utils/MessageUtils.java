@@ -23,12 +23,21 @@ import de.rcenvironment.core.utils.common.StatsCounter;
 /**
  * Message-related utilities like serialization/deserialization.
  * 
+ * Objects of classes with a registered {@link MessageCodec} (see {@link MessageCodecRegistry}) are written with that codec, prefixed by
+ * {@link #CODEC_FORMAT_MARKER}; all other objects use standard Java serialization. As Java serialization streams always start with a fixed
+ * magic number, both formats can be distinguished by their first byte.
+ * 
  * @author Robert Mischke
  */
 public final class MessageUtils {
 
     private static final int INITIAL_SERIALIZATION_BUFFER_SIZE = 512;
 
+    /**
+     * The first byte of codec-encoded data; must differ from the first byte of Java serialization streams (0xAC).
+     */
+    private static final byte CODEC_FORMAT_MARKER = 0x52;
+
     private MessageUtils() {}
 
     /**
@@ -93,7 +102,14 @@ public final class MessageUtils {
 
     private static byte[] serialize(Serializable object) throws SerializationException {
         StatsCounter.countClass("MessageUtils.serialize()", object);
-        
+
+        if (object != null) {
+            MessageCodec<Serializable> codec = MessageCodecRegistry.getCodecForClass(object.getClass());
+            if (codec != null) {
+                return serializeWithCodec(codec, object);
+            }
+        }
+
         ObjectOutputStream oos = null;
         ByteArrayOutputStream baos = null;
         try {
@@ -115,6 +131,11 @@ public final class MessageUtils {
         if (data.length == 0) {
             throw new SerializationException("Empty array passed for deserialization");
         }
+        if (data[0] == CODEC_FORMAT_MARKER) {
+            Object object = deserializeWithCodec(data);
+            StatsCounter.countClass("MessageUtils.deserialize()", object);
+            return object;
+        }
         ObjectInputStream ois = null;
         try {
             ois = new ObjectInputStream(new ByteArrayInputStream(data));
@@ -130,4 +151,27 @@ public final class MessageUtils {
         }
     }
 
+    private static byte[] serializeWithCodec(MessageCodec<Serializable> codec, Serializable object) throws SerializationException {
+        MessageCodecOutput output = new MessageCodecOutput(INITIAL_SERIALIZATION_BUFFER_SIZE);
+        try {
+            output.writeByte(CODEC_FORMAT_MARKER);
+            output.writeCodecContent(codec, object);
+        } catch (IOException ex) {
+            throw new SerializationException(ex);
+        }
+        return output.toByteArray();
+    }
+
+    private static Object deserializeWithCodec(byte[] data) throws SerializationException {
+        MessageCodecInput input = new MessageCodecInput(data, 1);
+        try {
+            return input.readCodecContent();
+        } catch (IOException ex) {
+            throw new SerializationException(ex);
+        } catch (RuntimeException ex) {
+            // protect against malformed or malicious data causing unexpected exceptions in codecs
+            throw new SerializationException(ex);
+        }
+    }
+
 }
@@ -0,0 +1,326 @@
+/*
+ * Copyright (C) 2006-2014 DLR, Germany
+ * 
+ * All rights reserved
+ * 
+ * http://www.rcenvironment.de/
+ */
+
+package de.rcenvironment.core.component.datamanagement.internal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Test cases for {@link DataReferenceCache}.
+ * 
+ * @author agent
+ */
+public class DataReferenceCacheTest {
+
+    private static final int CONTENT_SIZE = 100;
+
+    private static final int TIMEOUT_SEC = 10;
+
+    private static final String REFERENCE_A = "a";
+
+    private static final String REFERENCE_B = "b";
+
+    private static final String REFERENCE_C = "c";
+
+    private static final String REFERENCE_D = "d";
+
+    /**
+     * Temporary folder for the cache and the target locations.
+     */
+    @Rule
+    public TemporaryFolder tempFolder = new TemporaryFolder();
+
+    private File cacheDir;
+
+    private File targetDir;
+
+    private int targetCounter;
+
+    /**
+     * A {@link DataReferenceCache.Downloader} that writes the reference name as content and counts its downloads.
+     * 
+     * @author agent
+     */
+    private static class CountingDownloader implements DataReferenceCache.Downloader {
+
+        private final String reference;
+
+        private final AtomicInteger downloadCount;
+
+        CountingDownloader(String reference, AtomicInteger downloadCount) {
+            this.reference = reference;
+            this.downloadCount = downloadCount;
+        }
+
+        @Override
+        public void download(File location) throws IOException {
+            downloadCount.incrementAndGet();
+            FileUtils.writeStringToFile(location, createContent(reference));
+        }
+    }
+
+    /**
+     * Common setup.
+     * 
+     * @throws IOException on setup errors
+     */
+    @Before
+    public void setUp() throws IOException {
+        cacheDir = tempFolder.newFolder("cache");
+        targetDir = tempFolder.newFolder("targets");
+    }
+
+    /**
+     * Tests that only the first request of a reference downloads it, and that subsequent requests are served from the cache.
+     * 
+     * @throws IOException on unexpected errors
+     */
+    @Test
+    public void testHitAndMiss() throws IOException {
+        DataReferenceCache cache = new DataReferenceCache(cacheDir, CONTENT_SIZE * 10, false);
+        AtomicInteger downloadCount = new AtomicInteger();
+
+        copyAndVerify(cache, REFERENCE_A, downloadCount);
+        assertEquals(1, downloadCount.get());
+        copyAndVerify(cache, REFERENCE_A, downloadCount);
+        copyAndVerify(cache, REFERENCE_A, downloadCount);
+        assertEquals(1, downloadCount.get());
+        assertEquals(1, cache.getEntryCount());
+        assertEquals(CONTENT_SIZE, cache.getTotalSize());
+    }
+
+    /**
+     * Tests that the least recently used entry is evicted when the maximum size is exceeded.
+     * 
+     * @throws IOException on unexpected errors
+     */
+    @Test
+    public void testLeastRecentlyUsedEviction() throws IOException {
+        DataReferenceCache cache = new DataReferenceCache(cacheDir, CONTENT_SIZE * 3, false);
+        AtomicInteger downloadCount = new AtomicInteger();
+
+        copyAndVerify(cache, REFERENCE_A, downloadCount);
+        copyAndVerify(cache, REFERENCE_B, downloadCount);
+        copyAndVerify(cache, REFERENCE_C, downloadCount);
+        // access A, so B becomes the least recently used entry
+        copyAndVerify(cache, REFERENCE_A, downloadCount);
+        assertEquals(3, downloadCount.get());
+
+        copyAndVerify(cache, REFERENCE_D, downloadCount);
+        assertEquals(4, downloadCount.get());
+        assertEquals(3, cache.getEntryCount());
+        assertEquals(CONTENT_SIZE * 3, cache.getTotalSize());
+
+        copyAndVerify(cache, REFERENCE_A, downloadCount);
+        copyAndVerify(cache, REFERENCE_C, downloadCount);
+        copyAndVerify(cache, REFERENCE_D, downloadCount);
+        assertEquals(4, downloadCount.get());
+        copyAndVerify(cache, REFERENCE_B, downloadCount);
+        assertEquals(5, downloadCount.get());
+        assertEquals(3, cache.getEntryCount());
+    }
+
+    /**
+     * Tests that an entry is not evicted while its content is copied to a target location, even if it is the least recently used one,
+     * and that content larger than the cache is still delivered.
+     * 
+     * @throws Exception on unexpected errors
+     */
+    @Test
+    public void testEntriesPinnedWhileInUse() throws Exception {
+        final CountDownLatch materializing = new CountDownLatch(1);
+        final CountDownLatch proceed = new CountDownLatch(1);
+        final File blockedTarget = new File(targetDir, "blocked");
+        final DataReferenceCache cache = new DataReferenceCache(cacheDir, CONTENT_SIZE, false) {
+
+            @Override
+            void materialize(File source, File target) throws IOException {
+                if (target.equals(blockedTarget)) {
+                    materializing.countDown();
+                    awaitLatch(proceed);
+                }
+                super.materialize(source, target);
+            }
+        };
+        final AtomicInteger downloadCount = new AtomicInteger();
+        final List<Throwable> errors = new ArrayList<Throwable>();
+
+        Thread blockedThread = new Thread() {
+
+            @Override
+            public void run() {
+                try {
+                    cache.copyToTarget(REFERENCE_A, blockedTarget, new CountingDownloader(REFERENCE_A, downloadCount));
+                } catch (IOException | RuntimeException e) {
+                    synchronized (errors) {
+                        errors.add(e);
+                    }
+                }
+            }
+        };
+        blockedThread.start();
+        awaitLatch(materializing);
+
+        // B exceeds the maximum size together with the pinned entry A; as A cannot be evicted, B is evicted after its use
+        copyAndVerify(cache, REFERENCE_B, downloadCount);
+        assertEquals(1, cache.getEntryCount());
+        assertEquals(CONTENT_SIZE, cache.getTotalSize());
+
+        proceed.countDown();
+        blockedThread.join(TimeUnit.SECONDS.toMillis(TIMEOUT_SEC));
+        assertFalse(blockedThread.isAlive());
+        assertEquals(0, errors.size());
+        assertEquals(createContent(REFERENCE_A), FileUtils.readFileToString(blockedTarget));
+
+        assertEquals(2, downloadCount.get());
+        copyAndVerify(cache, REFERENCE_A, downloadCount);
+        assertEquals(2, downloadCount.get());
+
+        // content larger than the whole cache is delivered, but not retained
+        DataReferenceCache smallCache = new DataReferenceCache(tempFolder.newFolder("smallCache"), CONTENT_SIZE / 2, false);
+        copyAndVerify(smallCache, REFERENCE_C, downloadCount);
+        assertEquals(0, smallCache.getEntryCount());
+        assertEquals(0, smallCache.getTotalSize());
+    }
+
+    /**
+     * Tests that concurrent requests for a reference that is not cached yet result in a single download.
+     * 
+     * @throws Exception on unexpected errors
+     */
+    @Test
+    public void testConcurrentMisses() throws Exception {
+        final int threadCount = 8;
+        final DataReferenceCache cache = new DataReferenceCache(cacheDir, CONTENT_SIZE * 10, false);
+        final AtomicInteger downloadCount = new AtomicInteger();
+        final CountDownLatch downloadStarted = new CountDownLatch(1);
+        final CountDownLatch downloadProceed = new CountDownLatch(1);
+        final DataReferenceCache.Downloader blockingDownloader = new DataReferenceCache.Downloader() {
+
+            @Override
+            public void download(File location) throws IOException {
+                downloadCount.incrementAndGet();
+                downloadStarted.countDown();
+                awaitLatch(downloadProceed);
+                FileUtils.writeStringToFile(location, createContent(REFERENCE_A));
+            }
+        };
+        final CyclicBarrier barrier = new CyclicBarrier(threadCount);
+        final List<Throwable> errors = new ArrayList<Throwable>();
+        List<Thread> threads = new ArrayList<Thread>();
+        List<File> targets = new ArrayList<File>();
+
+        for (int i = 0; i < threadCount; i++) {
+            final File target = createTarget();
+            targets.add(target);
+            Thread thread = new Thread() {
+
+                @Override
+                public void run() {
+                    try {
+                        barrier.await(TIMEOUT_SEC, TimeUnit.SECONDS);
+                        cache.copyToTarget(REFERENCE_A, target, blockingDownloader);
+                    } catch (Exception e) {
+                        synchronized (errors) {
+                            errors.add(e);
+                        }
+                    }
+                }
+            };
+            threads.add(thread);
+            thread.start();
+        }
+        awaitLatch(downloadStarted);
+        downloadProceed.countDown();
+        for (Thread thread : threads) {
+            thread.join(TimeUnit.SECONDS.toMillis(TIMEOUT_SEC));
+            assertFalse(thread.isAlive());
+        }
+
+        assertEquals(0, errors.size());
+        assertEquals(1, downloadCount.get());
+        for (File target : targets) {
+            assertEquals(createContent(REFERENCE_A), FileUtils.readFileToString(target));
+        }
+        assertEquals(1, cache.getEntryCount());
+    }
+
+    /**
+     * Tests that a failed download is reported to the caller, leaves no entry, and is retried on the next request.
+     * 
+     * @throws IOException on unexpected errors
+     */
+    @Test
+    public void testFailedDownload() throws IOException {
+        DataReferenceCache cache = new DataReferenceCache(cacheDir, CONTENT_SIZE * 10, false);
+        try {
+            cache.copyToTarget(REFERENCE_A, createTarget(), new DataReferenceCache.Downloader() {
+
+                @Override
+                public void download(File location) throws IOException {
+                    FileUtils.writeStringToFile(location, "partial");
+                    throw new IOException("Simulated download failure");
+                }
+            });
+            fail("Exception expected");
+        } catch (IOException e) {
+            assertEquals("Simulated download failure", e.getMessage());
+        }
+        assertEquals(0, cache.getEntryCount());
+        assertEquals(0, cacheDir.list().length);
+
+        AtomicInteger downloadCount = new AtomicInteger();
+        copyAndVerify(cache, REFERENCE_A, downloadCount);
+        assertEquals(1, downloadCount.get());
+    }
+
+    private void copyAndVerify(DataReferenceCache cache, String reference, AtomicInteger downloadCount) throws IOException {
+        File target = createTarget();
+        cache.copyToTarget(reference, target, new CountingDownloader(reference, downloadCount));
+        assertEquals(createContent(reference), FileUtils.readFileToString(target));
+    }
+
+    private File createTarget() {
+        return new File(targetDir, "target" + (targetCounter++));
+    }
+
+    private static String createContent(String reference) {
+        StringBuilder builder = new StringBuilder();
+        while (builder.length() < CONTENT_SIZE) {
+            builder.append(reference);
+        }
+        return builder.substring(0, CONTENT_SIZE);
+    }
+
+    private static void awaitLatch(CountDownLatch latch) throws IOException {
+        try {
+            if (!latch.await(TIMEOUT_SEC, TimeUnit.SECONDS)) {
+                throw new IOException("Timeout while waiting for a test thread");
+            }
+        } catch (InterruptedException e) {
+            throw new IOException(e);
+        }
+    }
+}
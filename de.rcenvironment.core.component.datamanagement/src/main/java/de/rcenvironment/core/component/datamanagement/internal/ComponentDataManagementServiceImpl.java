@@ -21,14 +21,17 @@ import de.rcenvironment.core.datamanagement.DataManagementService;
 import de.rcenvironment.core.datamanagement.commons.MetaDataSet;
 import de.rcenvironment.core.datamodel.api.TypedDatumFactory;
 import de.rcenvironment.core.datamodel.api.TypedDatumService;
+import de.rcenvironment.core.datamodel.types.api.BigTableTD;
 import de.rcenvironment.core.datamodel.types.api.DirectoryReferenceTD;
 import de.rcenvironment.core.datamodel.types.api.FileReferenceTD;
+import de.rcenvironment.core.utils.common.TempFileServiceAccess;
 
 /**
  * Implementation of {@link ComponentDataManagemenService}.
  * 
  * @author Sascha Zur
  * @author Doreen Seider
+ * @author agent (reference cache)
  */
 public class ComponentDataManagementServiceImpl implements ComponentDataManagementService {
 
@@ -36,6 +39,10 @@ public class ComponentDataManagementServiceImpl implements ComponentDataManageme
 
     private DataManagementService dataManagementService;
 
+    private DataReferenceCache referenceCache;
+
+    private boolean referenceCacheInitialized;
+
     @Override
     public String createTaggedReferenceFromLocalFile(ComponentContext componentContext, File file, String filename) throws IOException {
         MetaDataSet mds = new MetaDataSet();
@@ -128,23 +135,95 @@ public class ComponentDataManagementServiceImpl implements ComponentDataManageme
         return typedDatumFactory.createDirectoryReference(reference, dirname);
     }
 
+    @Override
+    public BigTableTD createBigTableTDFromLocalFile(ComponentContext componentContext, File file, long rowCount, int columnCount)
+        throws IOException {
+        if (!file.exists()) {
+            throw new IOException("File doesn't exist: " + file.getAbsolutePath());
+        }
+        String reference;
+        try {
+            MetaDataSet mds = new MetaDataSet();
+            ComponentDataManagementUtil.setComponentMetaData(mds, componentContext);
+            reference = dataManagementService.createReferenceFromLocalFile(createUser(), file, mds,
+                componentContext.getDefaultStorageNodeId());
+        } catch (InterruptedException e) {
+            // reduce exception types
+            throw new IOException(e);
+        }
+        return typedDatumFactory.createBigTable(reference, rowCount, columnCount);
+    }
+
+    @Override
+    public void copyBigTableTDToLocalFile(ComponentContext componentContext, BigTableTD bigTable, File targetFile)
+        throws IOException {
+        copyReferenceToLocalFileCached(bigTable.getBigTableReference(), targetFile, componentContext.getDefaultStorageNodeId());
+    }
+
     @Override
     public void copyFileReferenceTDToLocalFile(ComponentContext componentContext, FileReferenceTD fileReference, File targetFile)
         throws IOException {
-        copyReferenceToLocalFile(fileReference.getFileReference(), targetFile, componentContext.getDefaultStorageNodeId());
+        copyReferenceToLocalFileCached(fileReference.getFileReference(), targetFile, componentContext.getDefaultStorageNodeId());
     }
 
     @Override
     public void copyDirectoryReferenceTDToLocalDirectory(ComponentContext componentContext, DirectoryReferenceTD dirReference,
         File targetDir) throws IOException {
-        dataManagementService.copyReferenceToLocalDirectory(createUser(), dirReference.getDirectoryReference(), targetDir,
+        copyDirectoryReferenceToLocalDirectoryCached(dirReference.getDirectoryReference(), targetDir,
             componentContext.getDefaultStorageNodeId());
     }
 
     @Override
     public void copyDirectoryReferenceTDToLocalDirectory(DirectoryReferenceTD dirReference, File targetDir, NodeIdentifier node)
         throws IOException {
-        dataManagementService.copyReferenceToLocalDirectory(createUser(), dirReference.getDirectoryReference(), targetDir, node);
+        copyDirectoryReferenceToLocalDirectoryCached(dirReference.getDirectoryReference(), targetDir, node);
+    }
+
+    // input staging: the same reference is often copied to several components (or iterations) on this node
+    private void copyReferenceToLocalFileCached(final String reference, File targetFile, final NodeIdentifier nodeId)
+        throws IOException {
+        DataReferenceCache cache = getReferenceCache();
+        if (cache == null) {
+            copyReferenceToLocalFile(reference, targetFile, nodeId);
+            return;
+        }
+        cache.copyToTarget(reference, targetFile, new DataReferenceCache.Downloader() {
+
+            @Override
+            public void download(File location) throws IOException {
+                copyReferenceToLocalFile(reference, location, nodeId);
+            }
+        });
+    }
+
+    private void copyDirectoryReferenceToLocalDirectoryCached(final String reference, File targetDir, final NodeIdentifier nodeId)
+        throws IOException {
+        DataReferenceCache cache = getReferenceCache();
+        if (cache == null) {
+            dataManagementService.copyReferenceToLocalDirectory(createUser(), reference, targetDir, nodeId);
+            return;
+        }
+        // directories are cached in extracted form, so a cache hit also saves the extraction
+        cache.copyToTarget(reference, targetDir, new DataReferenceCache.Downloader() {
+
+            @Override
+            public void download(File location) throws IOException {
+                dataManagementService.copyReferenceToLocalDirectory(createUser(), reference, location, nodeId);
+            }
+        });
+    }
+
+    private synchronized DataReferenceCache getReferenceCache() throws IOException {
+        if (!referenceCacheInitialized) {
+            long maximumSize = DataReferenceCache.getConfiguredMaximumSize();
+            if (maximumSize > 0) {
+                File cacheDir = TempFileServiceAccess.getInstance().createManagedTempDir("data reference cache");
+                referenceCache = new DataReferenceCache(cacheDir, maximumSize,
+                    Boolean.getBoolean(DataReferenceCache.USE_HARD_LINKS_PROPERTY));
+            }
+            referenceCacheInitialized = true;
+        }
+        return referenceCache;
     }
 
     // bridge code
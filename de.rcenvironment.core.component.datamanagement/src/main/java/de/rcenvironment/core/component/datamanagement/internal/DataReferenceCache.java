@@ -0,0 +1,284 @@
+/*
+ * Copyright (C) 2006-2014 DLR, Germany
+ * 
+ * All rights reserved
+ * 
+ * http://www.rcenvironment.de/
+ */
+
+package de.rcenvironment.core.component.datamanagement.internal;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import de.rcenvironment.core.utils.common.StatsCounter;
+
+/**
+ * A node-local, size-bounded cache of downloaded data management references. As references are immutable, the cached content of a
+ * reference never becomes stale; the least recently used entries are evicted when the total size exceeds the configured maximum.
+ * Concurrent requests for a reference that is not cached yet are served by a single download.
+ * 
+ * Cached content is copied into the target location by default. Hard links avoid this copy, but as they share the content with the
+ * cache, a tool that modifies its input files in place would also modify the cache; therefore, they must be enabled explicitly.
+ * 
+ * @author agent
+ */
+public class DataReferenceCache {
+
+    /**
+     * The property to set the maximum total size of the cache in bytes; 0 disables the cache.
+     */
+    public static final String MAXIMUM_SIZE_PROPERTY = "datamanagement.referenceCacheSize";
+
+    /**
+     * The property to enable hard links from the target locations into the cache.
+     */
+    public static final String USE_HARD_LINKS_PROPERTY = "datamanagement.referenceCacheUseHardLinks";
+
+    private static final long DEFAULT_MAXIMUM_SIZE = 1024L * 1024 * 1024;
+
+    private static final String STATS_COUNTER_CATEGORY = "Data reference cache";
+
+    /**
+     * A cached file or directory; pinned while its content is copied to a target location, so it is not evicted meanwhile.
+     * 
+     * @author agent
+     */
+    private static final class Entry {
+
+        private final File file;
+
+        private final long size;
+
+        private int pinCount;
+
+        Entry(File file, long size) {
+            this.file = file;
+            this.size = size;
+        }
+    }
+
+    /**
+     * Downloads the content of a reference on a cache miss.
+     * 
+     * @author agent
+     */
+    public interface Downloader {
+
+        /**
+         * @param location the file or directory to download the content to; does not exist yet
+         * @throws IOException on download errors
+         */
+        void download(File location) throws IOException;
+    }
+
+    private final File cacheDir;
+
+    private final long maximumSize;
+
+    private final boolean useHardLinks;
+
+    // access-ordered, so iteration starts with the least recently used entry
+    private final Map<String, Entry> entries = new LinkedHashMap<String, Entry>(16, 0.75f, true);
+
+    // the downloads in progress by reference; each download yields the new entry, pinned for the requesting thread
+    private final Map<String, FutureTask<Entry>> downloadsInProgress = new HashMap<String, FutureTask<Entry>>();
+
+    private long totalSize;
+
+    private int downloadCounter;
+
+    private final Log log = LogFactory.getLog(getClass());
+
+    public DataReferenceCache(File cacheDir, long maximumSize, boolean useHardLinks) {
+        this.cacheDir = cacheDir;
+        this.maximumSize = maximumSize;
+        this.useHardLinks = useHardLinks;
+    }
+
+    /**
+     * @return the maximum cache size configured by the {@link #MAXIMUM_SIZE_PROPERTY} system property
+     */
+    public static long getConfiguredMaximumSize() {
+        String value = System.getProperty(MAXIMUM_SIZE_PROPERTY);
+        if (value != null) {
+            try {
+                return Long.parseLong(value);
+            } catch (NumberFormatException e) {
+                LogFactory.getLog(DataReferenceCache.class).error(
+                    "Failed to parse " + MAXIMUM_SIZE_PROPERTY + " setting; using default", e);
+            }
+        }
+        return DEFAULT_MAXIMUM_SIZE;
+    }
+
+    /**
+     * Copies the content of the given reference to the target location. On a cache miss, the content is downloaded with the given
+     * {@link Downloader} and added to the cache; if a download of the same reference is already in progress, its result is awaited
+     * instead.
+     * 
+     * @param reference the reference key
+     * @param target the target file or directory
+     * @param downloader the {@link Downloader} to use on a cache miss
+     * @throws IOException on download or copy errors
+     */
+    public void copyToTarget(String reference, File target, Downloader downloader) throws IOException {
+        Entry entry = null;
+        while (entry == null) {
+            FutureTask<Entry> download = null;
+            FutureTask<Entry> otherDownload = null;
+            synchronized (this) {
+                entry = entries.get(reference);
+                if (entry != null) {
+                    StatsCounter.count(STATS_COUNTER_CATEGORY, "Hits");
+                    entry.pinCount++;
+                } else {
+                    otherDownload = downloadsInProgress.get(reference);
+                    if (otherDownload == null) {
+                        StatsCounter.count(STATS_COUNTER_CATEGORY, "Misses");
+                        download = createDownload(reference, downloader);
+                        downloadsInProgress.put(reference, download);
+                    } else {
+                        StatsCounter.count(STATS_COUNTER_CATEGORY, "Misses awaiting a download in progress");
+                    }
+                }
+            }
+            if (download != null) {
+                download.run();
+                entry = awaitDownload(download);
+            } else if (otherDownload != null) {
+                // the entry is pinned for the downloading thread; look it up again (it may even be evicted already)
+                awaitDownload(otherDownload);
+            }
+        }
+        try {
+            materialize(entry.file, target);
+        } finally {
+            release(entry);
+        }
+    }
+
+    /**
+     * @return the number of cached references; intended for unit tests
+     */
+    synchronized int getEntryCount() {
+        return entries.size();
+    }
+
+    /**
+     * @return the total size of the cached content; intended for unit tests
+     */
+    synchronized long getTotalSize() {
+        return totalSize;
+    }
+
+    private FutureTask<Entry> createDownload(final String reference, final Downloader downloader) {
+        final File location;
+        synchronized (this) {
+            location = new File(cacheDir, "download-" + (downloadCounter++));
+        }
+        return new FutureTask<Entry>(new Callable<Entry>() {
+
+            @Override
+            public Entry call() throws IOException {
+                try {
+                    downloader.download(location);
+                } catch (IOException | RuntimeException e) {
+                    FileUtils.deleteQuietly(location);
+                    synchronized (DataReferenceCache.this) {
+                        downloadsInProgress.remove(reference);
+                    }
+                    throw e;
+                }
+                // the entry must be added before the download is completed, so waiting threads find it
+                return addEntry(reference, location);
+            }
+        });
+    }
+
+    private synchronized Entry addEntry(String reference, File location) {
+        long size = FileUtils.sizeOf(location);
+        Entry entry = new Entry(location, size);
+        entry.pinCount++;
+        downloadsInProgress.remove(reference);
+        // content larger than the cache is evicted as soon as it is released, so it is still used once
+        entries.put(reference, entry);
+        totalSize += size;
+        return entry;
+    }
+
+    private Entry awaitDownload(FutureTask<Entry> download) throws IOException {
+        try {
+            return download.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for the download of a data reference", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IOException("Failed to download data reference", e.getCause());
+        }
+    }
+
+    private synchronized void release(Entry entry) {
+        entry.pinCount--;
+        evictIfNecessary();
+    }
+
+    /**
+     * Copies or links the cached content to the target location; package-private so unit tests can intercept it.
+     * 
+     * @param source the cached file or directory
+     * @param target the target file or directory
+     * @throws IOException on copy errors
+     */
+    void materialize(File source, File target) throws IOException {
+        if (source.isDirectory()) {
+            if (!target.isDirectory() && !target.mkdirs()) {
+                throw new IOException("Failed to create directory " + target.getAbsolutePath());
+            }
+            for (File child : source.listFiles()) {
+                materialize(child, new File(target, child.getName()));
+            }
+        } else if (useHardLinks) {
+            try {
+                Files.deleteIfExists(target.toPath());
+                Files.createLink(target.toPath(), source.toPath());
+            } catch (IOException | UnsupportedOperationException e) {
+                // e.g. across file systems
+                FileUtils.copyFile(source, target);
+            }
+        } else {
+            FileUtils.copyFile(source, target);
+        }
+    }
+
+    private void evictIfNecessary() {
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (totalSize > maximumSize && iterator.hasNext()) {
+            Entry entry = iterator.next();
+            if (entry.pinCount == 0) {
+                iterator.remove();
+                totalSize -= entry.size;
+                FileUtils.deleteQuietly(entry.file);
+                StatsCounter.count(STATS_COUNTER_CATEGORY, "Evictions");
+                if (log.isDebugEnabled()) {
+                    log.debug(String.format("Evicted %s (%d bytes) from the data reference cache", entry.file.getName(), entry.size));
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright (C) 2006-2014 DLR, Germany
+ * 
+ * All rights reserved
+ * 
+ * http://www.rcenvironment.de/
+ */
+
+package de.rcenvironment.core.component.execution.api;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import de.rcenvironment.core.communication.common.NodeIdentifierFactory;
+import de.rcenvironment.core.component.execution.internal.InternalTDImpl;
+import de.rcenvironment.core.component.model.endpoint.api.EndpointDatum;
+import de.rcenvironment.core.component.model.endpoint.impl.EndpointDatumImpl;
+import de.rcenvironment.core.datamodel.api.DataType;
+import de.rcenvironment.core.datamodel.api.TypedDatumFactory;
+import de.rcenvironment.core.datamodel.testutils.TypedDatumServiceDefaultStub;
+import de.rcenvironment.core.datamodel.types.api.FloatTD;
+
+/**
+ * Tests the binary batch format of {@link EndpointDatumSerializer}.
+ * 
+ * @author agent
+ */
+public class EndpointDatumSerializerTest {
+
+    private static final int BATCH_SIZE = 100;
+
+    private static final int MAX_BYTES_PER_FLOAT_DATUM = 24;
+
+    private static final long DATA_MANAGEMENT_ID = 5L;
+
+    private static final String INPUT_NAME = "x";
+
+    private static final String INPUT_EXECUTION_ID = "comp-exe-id";
+
+    private static final String WORKFLOW_EXECUTION_ID = "wf-exe-id";
+
+    private static TypedDatumFactory typedDatumFactory;
+
+    /**
+     * Binds the {@link TypedDatumServiceDefaultStub} to the static serializer fields.
+     */
+    @SuppressWarnings("deprecation")
+    @BeforeClass
+    public static void setUpBeforeClass() {
+        TypedDatumServiceDefaultStub typedDatumService = new TypedDatumServiceDefaultStub();
+        new EndpointDatumSerializer().bindTypedDatumService(typedDatumService);
+        typedDatumFactory = typedDatumService.getFactory();
+    }
+
+    /**
+     * Tests a round-trip of a batch with typed and internal values, and verifies that repeated identifiers do not increase the size of the
+     * serialized form proportionally.
+     */
+    @Test
+    public void testBatchRoundTrip() {
+        List<EndpointDatum> endpointDatums = new ArrayList<>();
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            EndpointDatumImpl endpointDatum = createEndpointDatum();
+            endpointDatum.setValue(typedDatumFactory.createFloat(i));
+            if (i == 0) {
+                endpointDatum.setDataManagementId(DATA_MANAGEMENT_ID);
+            }
+            endpointDatums.add(endpointDatum);
+        }
+        EndpointDatumImpl internalEndpointDatum = createEndpointDatum();
+        internalEndpointDatum.setValue(new InternalTDImpl(InternalTDImpl.InternalTDType.WorkflowFinish));
+        endpointDatums.add(internalEndpointDatum);
+
+        byte[] serialized = EndpointDatumSerializer.serializeEndpointDatums(endpointDatums);
+        // identifiers are only written once, so each further datum only needs a few bytes besides its value
+        assertTrue(serialized.length < BATCH_SIZE * MAX_BYTES_PER_FLOAT_DATUM);
+
+        List<EndpointDatum> restored = EndpointDatumSerializer.deserializeEndpointDatums(serialized);
+        assertEquals(endpointDatums.size(), restored.size());
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            EndpointDatum endpointDatum = restored.get(i);
+            assertEquals(INPUT_NAME, endpointDatum.getInputName());
+            assertEquals(INPUT_EXECUTION_ID, endpointDatum.getInputComponentExecutionIdentifier());
+            assertEquals(WORKFLOW_EXECUTION_ID, endpointDatum.getWorkflowExecutionIdentifier());
+            assertEquals(internalEndpointDatum.getInputsNodeId(), endpointDatum.getInputsNodeId());
+            assertEquals(internalEndpointDatum.getWorkflowNodeId(), endpointDatum.getWorkflowNodeId());
+            assertEquals(i, ((FloatTD) endpointDatum.getValue()).getFloatValue(), 0.0);
+        }
+        assertEquals(Long.valueOf(DATA_MANAGEMENT_ID), restored.get(0).getDataManagementId());
+        assertNull(restored.get(1).getDataManagementId());
+        // node identifiers are shared within a batch
+        assertSame(restored.get(0).getInputsNodeId(), restored.get(1).getInputsNodeId());
+
+        EndpointDatum restoredInternal = restored.get(BATCH_SIZE);
+        assertEquals(DataType.Internal, restoredInternal.getValue().getDataType());
+        assertEquals(((InternalTDImpl) internalEndpointDatum.getValue()).getIdentifier(),
+            ((InternalTDImpl) restoredInternal.getValue()).getIdentifier());
+    }
+
+    private EndpointDatumImpl createEndpointDatum() {
+        EndpointDatumImpl endpointDatum = new EndpointDatumImpl();
+        endpointDatum.setIdentifier(INPUT_NAME);
+        endpointDatum.setInputsComponentExecutionIdentifier(INPUT_EXECUTION_ID);
+        endpointDatum.setInputsNode(NodeIdentifierFactory.fromNodeId("input-node"));
+        endpointDatum.setWorkflowExecutionIdentifier(WORKFLOW_EXECUTION_ID);
+        endpointDatum.setWorkfowNodeId(NodeIdentifierFactory.fromNodeId("workflow-node"));
+        return endpointDatum;
+    }
+}
@@ -0,0 +1,195 @@
+/*
+ * Copyright (C) 2006-2014 DLR, Germany
+ * 
+ * All rights reserved
+ * 
+ * http://www.rcenvironment.de/
+ */
+
+package de.rcenvironment.core.component.execution.internal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import de.rcenvironment.core.communication.common.NodeIdentifierFactory;
+import de.rcenvironment.core.component.execution.api.ComponentState;
+import de.rcenvironment.core.component.execution.api.ConsoleRow;
+import de.rcenvironment.core.component.execution.api.EndpointDatumSerializer;
+import de.rcenvironment.core.component.execution.api.WorkflowExecutionControllerCallback;
+import de.rcenvironment.core.component.model.endpoint.api.EndpointDatum;
+import de.rcenvironment.core.component.model.endpoint.impl.EndpointDatumImpl;
+
+/**
+ * Unit test for {@link BatchingProcessedInputsForwarder}.
+ * 
+ * @author agent
+ */
+public class BatchingProcessedInputsForwarderTest {
+
+    private static final String INPUT_NAME = "x";
+
+    private static final String INPUT_EXECUTION_ID = "comp-exe-id";
+
+    // generous upper bound for receiving a batch that is due, to tolerate slow test machines
+    private static final int RECEIVE_TIMEOUT_MSEC = 5000;
+
+    private CollectingCallback callback;
+
+    private BatchingProcessedInputsForwarder forwarder;
+
+    /**
+     * A {@link WorkflowExecutionControllerCallback} that deserializes and collects the received batches. Also provides a Semaphore for
+     * convenient waiting.
+     * 
+     * @author agent
+     */
+    private static final class CollectingCallback implements WorkflowExecutionControllerCallback {
+
+        private final List<List<EndpointDatum>> receivedBatches = new ArrayList<List<EndpointDatum>>();
+
+        private final Semaphore receiveCountSemaphore = new Semaphore(0);
+
+        @Override
+        public void onInputsProcessed(byte[] serializedEndpointDatums) {
+            synchronized (receivedBatches) {
+                receivedBatches.add(EndpointDatumSerializer.deserializeEndpointDatums(serializedEndpointDatums));
+            }
+            receiveCountSemaphore.release();
+        }
+
+        @Override
+        public void onInputProcessed(String serializedEndpointDatum) {
+            throw new AssertionError("Single processed inputs are not expected anymore");
+        }
+
+        @Override
+        public void onComponentStateChanged(String compExeId, ComponentState oldState, ComponentState newState,
+            Integer executionCount, String executionCountOnResets) {}
+
+        @Override
+        public void onComponentStateChanged(String compExeId, ComponentState oldState, ComponentState newState,
+            Integer executionCount, String executionCountOnResets, Throwable t) {}
+
+        @Override
+        public void processConsoleRows(ConsoleRow[] rows) {}
+
+        private List<EndpointDatum> getBatch(int index) {
+            synchronized (receivedBatches) {
+                return receivedBatches.get(index);
+            }
+        }
+
+        private int getBatchCount() {
+            synchronized (receivedBatches) {
+                return receivedBatches.size();
+            }
+        }
+    }
+
+    /**
+     * Test setup.
+     */
+    @Before
+    public void setUp() {
+        callback = new CollectingCallback();
+        forwarder = new BatchingProcessedInputsForwarder(callback);
+    }
+
+    /**
+     * Tests that full batches are sent immediately, that the remaining {@link EndpointDatum}s are sent once the maximum latency has
+     * elapsed, and that all of them arrive in order and unchanged after passing
+     * {@link WorkflowExecutionControllerCallback#onInputsProcessed(byte[])}.
+     * 
+     * @throws InterruptedException on Thread interruption
+     */
+    @Test
+    public void testSizeLimitAndRoundTrip() throws InterruptedException {
+        final int numFullBatches = 2;
+        final int numRemaining = 5;
+        final int numEndpointDatums = numFullBatches * BatchingProcessedInputsForwarder.MAX_BATCH_SIZE + numRemaining;
+
+        long startTime = System.currentTimeMillis();
+        for (int i = 0; i < numEndpointDatums; i++) {
+            forwarder.onInputProcessed(createEndpointDatum(i));
+        }
+
+        assertTrue("Full batches not received",
+            callback.receiveCountSemaphore.tryAcquire(numFullBatches, RECEIVE_TIMEOUT_MSEC, TimeUnit.MILLISECONDS));
+        assertTrue("Remaining batch not received",
+            callback.receiveCountSemaphore.tryAcquire(RECEIVE_TIMEOUT_MSEC, TimeUnit.MILLISECONDS));
+        assertTrue("Remaining batch received before the maximum latency elapsed",
+            System.currentTimeMillis() - startTime >= BatchingProcessedInputsForwarder.MAX_BATCH_LATENCY_MSEC);
+
+        assertEquals(numFullBatches + 1, callback.getBatchCount());
+        long expectedDataManagementId = 0;
+        for (int b = 0; b <= numFullBatches; b++) {
+            List<EndpointDatum> batch = callback.getBatch(b);
+            if (b < numFullBatches) {
+                assertEquals(BatchingProcessedInputsForwarder.MAX_BATCH_SIZE, batch.size());
+            } else {
+                assertEquals(numRemaining, batch.size());
+            }
+            for (EndpointDatum endpointDatum : batch) {
+                assertEquals(INPUT_NAME, endpointDatum.getInputName());
+                assertEquals(INPUT_EXECUTION_ID, endpointDatum.getInputComponentExecutionIdentifier());
+                assertEquals(Long.valueOf(expectedDataManagementId), endpointDatum.getDataManagementId());
+                assertEquals(InternalTDImpl.InternalTDType.WorkflowFinish, ((InternalTDImpl) endpointDatum.getValue()).getType());
+                expectedDataManagementId++;
+            }
+        }
+    }
+
+    /**
+     * Tests that a single {@link EndpointDatum} is held back for the maximum latency, and that
+     * {@link BatchingProcessedInputsForwarder#flush()} sends the current batch without waiting for the latency, and returns only once it
+     * has been sent.
+     * 
+     * @throws InterruptedException on Thread interruption
+     */
+    @Test
+    public void testLatencyLimitAndFlush() throws InterruptedException {
+        long startTime = System.currentTimeMillis();
+        forwarder.onInputProcessed(createEndpointDatum(0));
+        assertTrue("Batch not received", callback.receiveCountSemaphore.tryAcquire(RECEIVE_TIMEOUT_MSEC, TimeUnit.MILLISECONDS));
+        assertTrue("Batch received before the maximum latency elapsed",
+            System.currentTimeMillis() - startTime >= BatchingProcessedInputsForwarder.MAX_BATCH_LATENCY_MSEC);
+
+        forwarder.onInputProcessed(createEndpointDatum(1));
+        forwarder.onInputProcessed(createEndpointDatum(2));
+        long flushStartTime = System.currentTimeMillis();
+        forwarder.flush();
+        assertTrue("Flush waited for the maximum latency",
+            System.currentTimeMillis() - flushStartTime < BatchingProcessedInputsForwarder.MAX_BATCH_LATENCY_MSEC);
+        assertEquals("Flushed batch not sent when flush() returned", 2, callback.getBatchCount());
+        assertTrue(callback.receiveCountSemaphore.tryAcquire());
+        assertEquals(2, callback.getBatch(1).size());
+
+        // neither the timer of the flushed batch nor an empty flush may send another batch
+        forwarder.flush();
+        assertFalse(callback.receiveCountSemaphore.tryAcquire(BatchingProcessedInputsForwarder.MAX_BATCH_LATENCY_MSEC * 2,
+            TimeUnit.MILLISECONDS));
+        assertEquals(2, callback.getBatchCount());
+    }
+
+    // internal values need no TypedDatumService for serialization
+    private EndpointDatum createEndpointDatum(long dataManagementId) {
+        EndpointDatumImpl endpointDatum = new EndpointDatumImpl();
+        endpointDatum.setIdentifier(INPUT_NAME);
+        endpointDatum.setInputsComponentExecutionIdentifier(INPUT_EXECUTION_ID);
+        endpointDatum.setInputsNode(NodeIdentifierFactory.fromNodeId("input-node"));
+        endpointDatum.setWorkflowExecutionIdentifier("wf-exe-id");
+        endpointDatum.setWorkfowNodeId(NodeIdentifierFactory.fromNodeId("workflow-node"));
+        endpointDatum.setDataManagementId(dataManagementId);
+        endpointDatum.setValue(new InternalTDImpl(InternalTDImpl.InternalTDType.WorkflowFinish));
+        return endpointDatum;
+    }
+}
@@ -0,0 +1,443 @@
+/*
+ * Copyright (C) 2006-2014 DLR, Germany
+ * 
+ * All rights reserved
+ * 
+ * http://www.rcenvironment.de/
+ */
+
+package de.rcenvironment.core.component.execution.internal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import de.rcenvironment.core.communication.common.CommunicationException;
+import de.rcenvironment.core.communication.common.NodeIdentifier;
+import de.rcenvironment.core.communication.common.NodeIdentifierFactory;
+import de.rcenvironment.core.component.execution.api.ComponentExecutionException;
+import de.rcenvironment.core.component.execution.impl.ComponentExecutionContextImpl;
+import de.rcenvironment.core.datamanagement.DistributedMetaDataService;
+import de.rcenvironment.core.datamanagement.commons.ComponentInstance;
+import de.rcenvironment.core.datamanagement.commons.ComponentRun;
+import de.rcenvironment.core.datamanagement.commons.EndpointDatumRecord;
+import de.rcenvironment.core.datamanagement.commons.WorkflowRun;
+import de.rcenvironment.core.datamanagement.commons.WorkflowRunDescription;
+import de.rcenvironment.core.datamanagement.commons.WorkflowRunDescriptionCursor;
+import de.rcenvironment.core.datamanagement.commons.WorkflowRunTimline;
+import de.rcenvironment.core.datamodel.api.FinalComponentState;
+import de.rcenvironment.core.datamodel.api.TimelineIntervalType;
+
+/**
+ * Test cases for the batched storage of inputs and outputs by {@link ComponentExecutionStorageBridge}.
+ * 
+ * @author agent
+ */
+public class ComponentExecutionStorageBridgeTest {
+
+    // must match the constants of ComponentExecutionStorageBridge
+    private static final int TYPED_DATUM_ID_BLOCK_SIZE = 20;
+
+    private static final int MAX_BATCH_SIZE = 50;
+
+    private static final int MAX_PENDING_BATCHES = 4;
+
+    private static final int TIMEOUT_MSEC = 10000;
+
+    private static final int POLL_INTERVAL_MSEC = 10;
+
+    private static final String INPUT = "in";
+
+    private static final String OUTPUT = "out";
+
+    private static final Long INPUT_DM_ID = 10L;
+
+    private static final Long OUTPUT_DM_ID = 20L;
+
+    private static final Long COMPONENT_RUN_DM_ID = 30L;
+
+    private static final String DATUM = "datum";
+
+    private RecordingMetaDataService metaDataService;
+
+    private ComponentExecutionStorageBridge bridge;
+
+    /**
+     * {@link DistributedMetaDataService} that records the calls of the batched storage methods, and can delay or fail the storage of
+     * batches.
+     * 
+     * @author agent
+     */
+    private static class RecordingMetaDataService implements DistributedMetaDataService {
+
+        private final List<EndpointDatumRecord> storedEndpointData = new ArrayList<EndpointDatumRecord>();
+
+        private final List<Integer> batchSizes = new ArrayList<Integer>();
+
+        private final List<Long> releasedTypedDatumIds = new ArrayList<Long>();
+
+        private final AtomicInteger batchesEntered = new AtomicInteger();
+
+        private long nextTypedDatumId = 1;
+
+        private int reservationCount;
+
+        private int failingBatchIndex = -1;
+
+        private CountDownLatch storageGate;
+
+        private Integer storedCountOnRunFinished;
+
+        private Integer storedCountOnFinalState;
+
+        private FinalComponentState finalState;
+
+        @Override
+        public synchronized List<Long> reserveTypedDatumIds(Integer count, NodeIdentifier storageNodeId) {
+            reservationCount++;
+            List<Long> ids = new ArrayList<Long>();
+            for (int i = 0; i < count; i++) {
+                ids.add(nextTypedDatumId++);
+            }
+            return ids;
+        }
+
+        @Override
+        public void addEndpointData(Long componentRunId, List<EndpointDatumRecord> endpointData, NodeIdentifier storageNodeId)
+            throws CommunicationException {
+            assertEquals(COMPONENT_RUN_DM_ID, componentRunId);
+            int batchIndex = batchesEntered.getAndIncrement();
+            CountDownLatch gate;
+            synchronized (this) {
+                gate = storageGate;
+            }
+            if (gate != null) {
+                try {
+                    gate.await(TIMEOUT_MSEC, TimeUnit.MILLISECONDS);
+                } catch (InterruptedException e) {
+                    throw new CommunicationException(e);
+                }
+            }
+            synchronized (this) {
+                if (batchIndex == failingBatchIndex) {
+                    throw new CommunicationException("Simulated storage failure");
+                }
+                storedEndpointData.addAll(endpointData);
+                batchSizes.add(endpointData.size());
+            }
+        }
+
+        @Override
+        public synchronized void releaseTypedDatumIds(List<Long> typedDatumIds, NodeIdentifier storageNodeId) {
+            releasedTypedDatumIds.addAll(typedDatumIds);
+        }
+
+        @Override
+        public Long addComponentRun(Long componentInstanceId, String nodeId, Integer count, Long starttime,
+            NodeIdentifier storageNodeId) {
+            return COMPONENT_RUN_DM_ID;
+        }
+
+        @Override
+        public synchronized void setComponentRunFinished(Long componentRunId, Long endtime, NodeIdentifier storageNodeId) {
+            storedCountOnRunFinished = storedEndpointData.size();
+        }
+
+        @Override
+        public synchronized void setComponentInstanceFinalState(Long componentInstanceId, FinalComponentState state,
+            NodeIdentifier storageNodeId) {
+            storedCountOnFinalState = storedEndpointData.size();
+            finalState = state;
+        }
+
+        synchronized List<EndpointDatumRecord> getStoredEndpointData() {
+            return new ArrayList<EndpointDatumRecord>(storedEndpointData);
+        }
+
+        synchronized List<Integer> getBatchSizes() {
+            return new ArrayList<Integer>(batchSizes);
+        }
+
+        synchronized List<Long> getReleasedTypedDatumIds() {
+            return new ArrayList<Long>(releasedTypedDatumIds);
+        }
+
+        synchronized void setStorageGate(CountDownLatch storageGate) {
+            this.storageGate = storageGate;
+        }
+
+        synchronized void setFailingBatchIndex(int failingBatchIndex) {
+            this.failingBatchIndex = failingBatchIndex;
+        }
+
+        @Override
+        public void addInputDatum(Long componentRunId, Long typedDatumId, Long endpointInstanceId, Integer count,
+            NodeIdentifier storageNodeId) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Long addOutputDatum(Long componentRunId, Long endpointInstanceId, String datum, Integer count,
+            NodeIdentifier storageNodeId) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void addComponentRunProperties(Long componentRunId, Map<String, String> properties, NodeIdentifier storageNodeId) {}
+
+        @Override
+        public Long addTimelineInterval(Long workflowRunId, TimelineIntervalType intervalType, long starttime, Long relatedComponentId,
+            NodeIdentifier storageNodeId) {
+            return null;
+        }
+
+        @Override
+        public void setTimelineIntervalFinished(Long timelineIntervalId, long endtime, NodeIdentifier storageNodeId) {}
+
+        @Override
+        public void setOrUpdateHistoryDataItem(Long componentRunId, String historyDataItem, NodeIdentifier storageNodeId) {}
+
+        @Override
+        public Set<WorkflowRunDescription> getWorkflowRunDescriptions() {
+            return null;
+        }
+
+        @Override
+        public List<WorkflowRunDescription> getWorkflowRunDescriptions(WorkflowRunDescriptionCursor cursor, Integer maxCount,
+            NodeIdentifier storageNodeId) {
+            return null;
+        }
+
+        @Override
+        public WorkflowRun getWorkflowRun(Long workflowRunId, NodeIdentifier storageNodeId) {
+            return null;
+        }
+
+        @Override
+        public Collection<ComponentInstance> getComponentInstances(Long workflowRunId, NodeIdentifier storageNodeId) {
+            return null;
+        }
+
+        @Override
+        public Collection<ComponentRun> getComponentRuns(Long componentInstanceId, NodeIdentifier storageNodeId) {
+            return null;
+        }
+
+        @Override
+        public WorkflowRunTimline getWorkflowTimeline(Long workflowRunId, NodeIdentifier storageNodeId) {
+            return null;
+        }
+
+        @Override
+        public Boolean deleteWorkflowRun(Long workflowRunId, NodeIdentifier storageNodeId) {
+            return null;
+        }
+
+        @Override
+        public Integer deleteWorkflowRuns(List<Long> workflowRunIds, NodeIdentifier storageNodeId) {
+            return null;
+        }
+
+        @Override
+        public Boolean deleteWorkflowRunFiles(Long workflowRunId, NodeIdentifier storageNodeId) {
+            return null;
+        }
+    }
+
+    /**
+     * Common setup.
+     * 
+     * @throws ComponentExecutionException on unexpected errors
+     */
+    @Before
+    public void setUp() throws ComponentExecutionException {
+        metaDataService = new RecordingMetaDataService();
+        ComponentExecutionContextImpl compExeCtx = new ComponentExecutionContextImpl() {
+
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            public NodeIdentifier getNodeId() {
+                return NodeIdentifierFactory.fromNodeId("node");
+            }
+        };
+        compExeCtx.setInstanceName("comp");
+        compExeCtx.setInstanceDataManagementId(1L);
+        Map<String, Long> inputDmIds = new HashMap<String, Long>();
+        inputDmIds.put(INPUT, INPUT_DM_ID);
+        compExeCtx.setInputDataManagementIds(inputDmIds);
+        Map<String, Long> outputDmIds = new HashMap<String, Long>();
+        outputDmIds.put(OUTPUT, OUTPUT_DM_ID);
+        compExeCtx.setOutputDataManagementIds(outputDmIds);
+        bridge = new ComponentExecutionStorageBridge(metaDataService, compExeCtx, 0);
+        bridge.addComponentExecution(compExeCtx, 1);
+    }
+
+    /**
+     * Tests that inputs and outputs are stored in batches in the order they were added, and that all of them are stored before the
+     * component run is set finished.
+     * 
+     * @throws ComponentExecutionException on unexpected errors
+     */
+    @Test
+    public void testOrderAndFlushOnFinish() throws ComponentExecutionException {
+        final int count = 60;
+        List<Long> outputIds = new ArrayList<Long>();
+        for (int i = 0; i < count; i++) {
+            Long typedDatumId = bridge.addOutput(OUTPUT, DATUM + i);
+            outputIds.add(typedDatumId);
+            bridge.addInput(INPUT, typedDatumId);
+        }
+        assertEquals(count, new HashSet<Long>(outputIds).size());
+        bridge.setComponentExecutionFinished();
+
+        List<EndpointDatumRecord> stored = metaDataService.getStoredEndpointData();
+        assertEquals(2 * count, stored.size());
+        assertEquals(Integer.valueOf(2 * count), metaDataService.storedCountOnRunFinished);
+        for (int i = 0; i < count; i++) {
+            EndpointDatumRecord output = stored.get(2 * i);
+            assertTrue(output.isOutput());
+            assertEquals(OUTPUT_DM_ID, output.getEndpointInstanceId());
+            assertEquals(outputIds.get(i), output.getTypedDatumId());
+            assertEquals(Integer.valueOf(i), output.getCount());
+            assertEquals(DATUM + i, output.getDatum());
+            EndpointDatumRecord input = stored.get(2 * i + 1);
+            assertFalse(input.isOutput());
+            assertEquals(INPUT_DM_ID, input.getEndpointInstanceId());
+            assertEquals(outputIds.get(i), input.getTypedDatumId());
+            assertEquals(Integer.valueOf(i), input.getCount());
+        }
+        List<Integer> batchSizes = metaDataService.getBatchSizes();
+        assertEquals(Integer.valueOf(MAX_BATCH_SIZE), batchSizes.get(0));
+        assertEquals(Integer.valueOf(MAX_BATCH_SIZE), batchSizes.get(1));
+        assertEquals(Integer.valueOf(2 * count - 2 * MAX_BATCH_SIZE), batchSizes.get(2));
+        assertEquals(count / TYPED_DATUM_ID_BLOCK_SIZE, metaDataService.reservationCount);
+    }
+
+    /**
+     * Tests that the component blocks when adding outputs if {@link #MAX_PENDING_BATCHES} batches are pending, and continues once
+     * batches are stored.
+     * 
+     * @throws Exception on unexpected errors
+     */
+    @Test
+    public void testBackpressure() throws Exception {
+        final int count = MAX_BATCH_SIZE * (MAX_PENDING_BATCHES + 2);
+        final CountDownLatch storageGate = new CountDownLatch(1);
+        metaDataService.setStorageGate(storageGate);
+        final AtomicInteger addedCount = new AtomicInteger();
+        final List<Throwable> errors = new ArrayList<Throwable>();
+        Thread writer = new Thread() {
+
+            @Override
+            public void run() {
+                try {
+                    for (int i = 0; i < count; i++) {
+                        bridge.addOutput(OUTPUT, DATUM + i);
+                        addedCount.incrementAndGet();
+                    }
+                } catch (ComponentExecutionException e) {
+                    synchronized (errors) {
+                        errors.add(e);
+                    }
+                }
+            }
+        };
+        writer.start();
+
+        // the first batch is being stored and three more are queued; the writer blocks when enqueueing the fifth
+        final int expectedBlockedCount = MAX_BATCH_SIZE * MAX_PENDING_BATCHES + MAX_BATCH_SIZE - 1;
+        long deadline = System.currentTimeMillis() + TIMEOUT_MSEC;
+        while (!(addedCount.get() == expectedBlockedCount && writer.getState() == Thread.State.WAITING)
+            && System.currentTimeMillis() < deadline) {
+            Thread.sleep(POLL_INTERVAL_MSEC);
+        }
+        assertEquals(expectedBlockedCount, addedCount.get());
+        assertEquals(Thread.State.WAITING, writer.getState());
+        assertEquals(1, metaDataService.batchesEntered.get());
+        assertEquals(0, metaDataService.getStoredEndpointData().size());
+
+        storageGate.countDown();
+        writer.join(TIMEOUT_MSEC);
+        assertFalse(writer.isAlive());
+        assertEquals(0, errors.size());
+        bridge.setComponentExecutionFinished();
+        assertEquals(count, metaDataService.getStoredEndpointData().size());
+    }
+
+    /**
+     * Tests that a failed batch is reported when the component run is finished, that the following batches are stored nevertheless,
+     * and that the reserved ids of the failed outputs are released together with the unused ones.
+     * 
+     * @throws ComponentExecutionException on unexpected errors
+     */
+    @Test
+    public void testErrorReportingAndRelease() throws ComponentExecutionException {
+        final int count = MAX_BATCH_SIZE + 5;
+        metaDataService.setFailingBatchIndex(0);
+        List<Long> outputIds = new ArrayList<Long>();
+        for (int i = 0; i < count; i++) {
+            outputIds.add(bridge.addOutput(OUTPUT, DATUM + i));
+        }
+        try {
+            bridge.setComponentExecutionFinished();
+            fail("Exception expected");
+        } catch (ComponentExecutionException e) {
+            assertTrue(e.getCause() instanceof CommunicationException);
+        }
+        assertNull(metaDataService.storedCountOnRunFinished);
+        assertEquals(count - MAX_BATCH_SIZE, metaDataService.getStoredEndpointData().size());
+
+        // the error is reported once only
+        bridge.setFinalComponentState(FinalComponentState.FAILED);
+        assertEquals(FinalComponentState.FAILED, metaDataService.finalState);
+
+        Set<Long> expectedReleasedIds = new HashSet<Long>(outputIds.subList(0, MAX_BATCH_SIZE));
+        int reservedCount = metaDataService.reservationCount * TYPED_DATUM_ID_BLOCK_SIZE;
+        for (long id = count + 1; id <= reservedCount; id++) {
+            expectedReleasedIds.add(id);
+        }
+        List<Long> releasedIds = metaDataService.getReleasedTypedDatumIds();
+        assertEquals(expectedReleasedIds.size(), releasedIds.size());
+        assertEquals(expectedReleasedIds, new HashSet<Long>(releasedIds));
+    }
+
+    /**
+     * Tests that data of a component run that was not finished properly is stored before the final state, and that unused reserved
+     * ids are released.
+     * 
+     * @throws ComponentExecutionException on unexpected errors
+     */
+    @Test
+    public void testFlushOnFinalState() throws ComponentExecutionException {
+        final int count = 3;
+        for (int i = 0; i < count; i++) {
+            bridge.addOutput(OUTPUT, DATUM + i);
+        }
+        bridge.setFinalComponentState(FinalComponentState.CANCELLED);
+        assertEquals(Integer.valueOf(count), metaDataService.storedCountOnFinalState);
+        assertEquals(FinalComponentState.CANCELLED, metaDataService.finalState);
+        assertEquals(TYPED_DATUM_ID_BLOCK_SIZE - count, metaDataService.getReleasedTypedDatumIds().size());
+        assertEquals(Long.valueOf(count + 1), metaDataService.getReleasedTypedDatumIds().get(0));
+
+        // released ids are not released again
+        bridge.setFinalComponentState(FinalComponentState.CANCELLED);
+        assertEquals(TYPED_DATUM_ID_BLOCK_SIZE - count, metaDataService.getReleasedTypedDatumIds().size());
+    }
+}
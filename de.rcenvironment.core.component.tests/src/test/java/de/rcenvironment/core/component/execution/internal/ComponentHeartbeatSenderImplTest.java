@@ -0,0 +1,246 @@
+/*
+ * Copyright (C) 2006-2014 DLR, Germany
+ * 
+ * All rights reserved
+ * 
+ * http://www.rcenvironment.de/
+ */
+
+package de.rcenvironment.core.component.execution.internal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.osgi.framework.BundleContext;
+
+import de.rcenvironment.core.communication.common.NodeIdentifier;
+import de.rcenvironment.core.communication.common.NodeIdentifierFactory;
+import de.rcenvironment.core.communication.testutils.CommunicationServiceDefaultStub;
+import de.rcenvironment.core.component.execution.api.ComponentHeartbeatProcessor;
+import de.rcenvironment.core.component.execution.impl.ComponentExecutionContextImpl;
+
+/**
+ * Tests the batching of heartbeats per workflow controller node and the reachability tracking of {@link ComponentHeartbeatSenderImpl}.
+ * 
+ * @author agent
+ */
+public class ComponentHeartbeatSenderImplTest {
+
+    private static final String WF_1 = "wf-1";
+
+    private static final String WF_2 = "wf-2";
+
+    private static final String WF_3 = "wf-3";
+
+    private static final int TIMEOUT_SEC = 10;
+
+    private final NodeIdentifier nodeA = NodeIdentifierFactory.fromNodeId("node-a");
+
+    private final NodeIdentifier nodeB = NodeIdentifierFactory.fromNodeId("node-b");
+
+    private final NodeIdentifier unreachableNode = NodeIdentifierFactory.fromNodeId("unreachable-node");
+
+    private final NodeIdentifier hangingNode = NodeIdentifierFactory.fromNodeId("hanging-node");
+
+    private final Map<NodeIdentifier, RecordingHeartbeatProcessor> processors =
+        new HashMap<NodeIdentifier, RecordingHeartbeatProcessor>();
+
+    private ComponentHeartbeatSenderImpl sender;
+
+    /**
+     * {@link ComponentHeartbeatProcessor} that records the received batches, fails like an unreachable node, or blocks like a hanging
+     * node until released.
+     * 
+     * @author agent
+     */
+    private static final class RecordingHeartbeatProcessor implements ComponentHeartbeatProcessor {
+
+        private final List<Map<String, Set<String>>> batches = new ArrayList<Map<String, Set<String>>>();
+
+        private final CountDownLatch callStarted = new CountDownLatch(1);
+
+        private final CountDownLatch release = new CountDownLatch(1);
+
+        private volatile boolean reachable = true;
+
+        private volatile boolean hanging;
+
+        @Override
+        public void onComponentHeartbeatsReceived(Map<String, Set<String>> compExeIdsByWfExeId) {
+            callStarted.countDown();
+            if (!reachable) {
+                throw new IllegalStateException("Simulated unreachable node");
+            }
+            if (hanging) {
+                try {
+                    release.await(TIMEOUT_SEC, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            synchronized (batches) {
+                batches.add(compExeIdsByWfExeId);
+            }
+        }
+
+        List<Map<String, Set<String>>> getBatches() {
+            synchronized (batches) {
+                return new ArrayList<Map<String, Set<String>>>(batches);
+            }
+        }
+    }
+
+    /**
+     * Sets up the {@link ComponentHeartbeatSenderImpl} with a {@link CommunicationServiceDefaultStub} that returns a
+     * {@link RecordingHeartbeatProcessor} per node.
+     */
+    @Before
+    public void setUp() {
+        for (NodeIdentifier node : Arrays.asList(nodeA, nodeB, unreachableNode, hangingNode)) {
+            processors.put(node, new RecordingHeartbeatProcessor());
+        }
+        processors.get(unreachableNode).reachable = false;
+        processors.get(hangingNode).hanging = true;
+        sender = new ComponentHeartbeatSenderImpl();
+        sender.bindCommunicationService(new CommunicationServiceDefaultStub() {
+
+            @Override
+            public Object getService(Class<?> iface, NodeIdentifier nodeId, BundleContext bundleContext) {
+                assertEquals(ComponentHeartbeatProcessor.class, iface);
+                return processors.get(nodeId);
+            }
+        });
+    }
+
+    /**
+     * Tests that the heartbeats of all components are sent as one batch per workflow controller node, grouped by workflow, and that
+     * unregistered components are not included anymore.
+     * 
+     * @throws Exception on unexpected failures
+     */
+    @Test
+    public void testGroupingByWorkflowControllerNode() throws Exception {
+        sender.register(createContext("comp-1", WF_1, nodeA), new AtomicBoolean(true));
+        sender.register(createContext("comp-2", WF_1, nodeA), new AtomicBoolean(true));
+        sender.register(createContext("comp-3", WF_2, nodeA), new AtomicBoolean(true));
+        sender.register(createContext("comp-4", WF_3, nodeB), new AtomicBoolean(true));
+
+        sendHeartbeatsAndWait();
+
+        List<Map<String, Set<String>>> batchesA = processors.get(nodeA).getBatches();
+        assertEquals(1, batchesA.size());
+        Map<String, Set<String>> expectedA = new HashMap<String, Set<String>>();
+        expectedA.put(WF_1, new HashSet<String>(Arrays.asList("comp-1", "comp-2")));
+        expectedA.put(WF_2, new HashSet<String>(Arrays.asList("comp-3")));
+        assertEquals(expectedA, batchesA.get(0));
+
+        List<Map<String, Set<String>>> batchesB = processors.get(nodeB).getBatches();
+        assertEquals(1, batchesB.size());
+        Map<String, Set<String>> expectedB = new HashMap<String, Set<String>>();
+        expectedB.put(WF_3, new HashSet<String>(Arrays.asList("comp-4")));
+        assertEquals(expectedB, batchesB.get(0));
+
+        sender.unregister("comp-2");
+        sender.unregister("comp-4");
+        sendHeartbeatsAndWait();
+
+        batchesA = processors.get(nodeA).getBatches();
+        assertEquals(2, batchesA.size());
+        expectedA.put(WF_1, new HashSet<String>(Arrays.asList("comp-1")));
+        assertEquals(expectedA, batchesA.get(1));
+        // no empty batches for nodes without registered components
+        assertEquals(1, processors.get(nodeB).getBatches().size());
+    }
+
+    /**
+     * Tests that the reachable flag of a component is cleared if its batch cannot be sent, without affecting the components of other
+     * workflow controller nodes, and set again once sending succeeds.
+     * 
+     * @throws Exception on unexpected failures
+     */
+    @Test
+    public void testReachableFlagOnFailure() throws Exception {
+        AtomicBoolean reachableFlagA = new AtomicBoolean(true);
+        AtomicBoolean reachableFlagUnreachable1 = new AtomicBoolean(true);
+        AtomicBoolean reachableFlagUnreachable2 = new AtomicBoolean(true);
+        sender.register(createContext("comp-1", WF_1, nodeA), reachableFlagA);
+        sender.register(createContext("comp-2", WF_2, unreachableNode), reachableFlagUnreachable1);
+        sender.register(createContext("comp-3", WF_2, unreachableNode), reachableFlagUnreachable2);
+
+        sendHeartbeatsAndWait();
+
+        assertTrue(reachableFlagA.get());
+        assertFalse(reachableFlagUnreachable1.get());
+        assertFalse(reachableFlagUnreachable2.get());
+        assertEquals(1, processors.get(nodeA).getBatches().size());
+
+        processors.get(unreachableNode).reachable = true;
+        sendHeartbeatsAndWait();
+
+        assertTrue(reachableFlagA.get());
+        assertTrue(reachableFlagUnreachable1.get());
+        assertTrue(reachableFlagUnreachable2.get());
+        assertEquals(1, processors.get(unreachableNode).getBatches().size());
+    }
+
+    /**
+     * Tests that a hanging workflow controller node neither blocks the periodic task nor delays the heartbeats to other nodes, and that no
+     * further batch is started for it while the previous one is pending.
+     * 
+     * @throws Exception on unexpected failures
+     */
+    @Test
+    public void testHangingNodeDoesNotDelayOtherNodes() throws Exception {
+        RecordingHeartbeatProcessor hangingProcessor = processors.get(hangingNode);
+        AtomicBoolean reachableFlagA = new AtomicBoolean(true);
+        sender.register(createContext("comp-1", WF_1, nodeA), reachableFlagA);
+        sender.register(createContext("comp-2", WF_2, hangingNode), new AtomicBoolean(true));
+
+        List<Future<?>> sendTasks = sender.sendHeartbeats();
+        assertEquals(2, sendTasks.size());
+        assertTrue(hangingProcessor.callStarted.await(TIMEOUT_SEC, TimeUnit.SECONDS));
+
+        // the next round sends to the healthy node only
+        sendHeartbeatsAndWait();
+        assertEquals(2, processors.get(nodeA).getBatches().size());
+        assertTrue(reachableFlagA.get());
+        assertEquals(0, hangingProcessor.getBatches().size());
+
+        hangingProcessor.release.countDown();
+        for (Future<?> sendTask : sendTasks) {
+            sendTask.get(TIMEOUT_SEC, TimeUnit.SECONDS);
+        }
+        assertEquals(1, hangingProcessor.getBatches().size());
+        sendHeartbeatsAndWait();
+        assertEquals(2, hangingProcessor.getBatches().size());
+    }
+
+    private void sendHeartbeatsAndWait() throws Exception {
+        for (Future<?> sendTask : sender.sendHeartbeats()) {
+            sendTask.get(TIMEOUT_SEC, TimeUnit.SECONDS);
+        }
+    }
+
+    private ComponentExecutionContextImpl createContext(String compExeId, String wfExeId, NodeIdentifier wfNodeId) {
+        ComponentExecutionContextImpl compExeCtx = new ComponentExecutionContextImpl();
+        compExeCtx.setExecutionIdentifier(compExeId);
+        compExeCtx.setWorkflowExecutionIdentifier(wfExeId);
+        compExeCtx.setWorkflowNodeId(wfNodeId);
+        return compExeCtx;
+    }
+}
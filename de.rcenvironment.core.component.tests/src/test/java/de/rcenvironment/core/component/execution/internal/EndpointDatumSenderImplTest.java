@@ -0,0 +1,229 @@
+/*
+ * Copyright (C) 2006-2014 DLR, Germany
+ * 
+ * All rights reserved
+ * 
+ * http://www.rcenvironment.de/
+ */
+
+package de.rcenvironment.core.component.execution.internal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.osgi.framework.BundleContext;
+
+import de.rcenvironment.core.communication.common.NodeIdentifier;
+import de.rcenvironment.core.communication.common.NodeIdentifierFactory;
+import de.rcenvironment.core.communication.testutils.CommunicationServiceDefaultStub;
+import de.rcenvironment.core.component.execution.api.EndpointDatumSerializer;
+import de.rcenvironment.core.component.model.endpoint.api.EndpointDatum;
+import de.rcenvironment.core.component.model.endpoint.impl.EndpointDatumImpl;
+
+/**
+ * Tests the per-node ordering and batching of {@link EndpointDatumSenderImpl}.
+ * 
+ * @author agent
+ */
+public class EndpointDatumSenderImplTest {
+
+    private static final int DATUMS_PER_NODE = 50;
+
+    private static final int TIMEOUT_SEC = 10;
+
+    private final NodeIdentifier slowNode = NodeIdentifierFactory.fromNodeId("slow-node");
+
+    private final NodeIdentifier fastNode = NodeIdentifierFactory.fromNodeId("fast-node");
+
+    private final Map<NodeIdentifier, RecordingEndpointDatumProcessor> processors =
+        new HashMap<NodeIdentifier, RecordingEndpointDatumProcessor>();
+
+    private EndpointDatumSenderImpl sender;
+
+    /**
+     * {@link EndpointDatumProcessor} that records the data management ids of the received batches, and optionally blocks on the first
+     * batch until it is released.
+     * 
+     * @author agent
+     */
+    private static final class RecordingEndpointDatumProcessor implements EndpointDatumProcessor {
+
+        private final List<List<Long>> batches = new ArrayList<List<Long>>();
+
+        private final CountDownLatch firstBatchReceived = new CountDownLatch(1);
+
+        private final CountDownLatch allDatumsReceived = new CountDownLatch(DATUMS_PER_NODE);
+
+        private final CountDownLatch releaseFirstBatch;
+
+        RecordingEndpointDatumProcessor(boolean blockOnFirstBatch) {
+            if (blockOnFirstBatch) {
+                releaseFirstBatch = new CountDownLatch(1);
+            } else {
+                releaseFirstBatch = new CountDownLatch(0);
+            }
+        }
+
+        @Override
+        public void onEndpointDatumReceived(String serializedEndpointDatum) {
+            throw new UnsupportedOperationException("Only batches are expected");
+        }
+
+        @Override
+        public void onEndpointDatumsReceived(byte[] serializedEndpointDatums) {
+            List<Long> batch = new ArrayList<Long>();
+            for (EndpointDatum endpointDatum : EndpointDatumSerializer.deserializeEndpointDatums(serializedEndpointDatums)) {
+                batch.add(endpointDatum.getDataManagementId());
+            }
+            synchronized (batches) {
+                batches.add(batch);
+            }
+            firstBatchReceived.countDown();
+            for (int i = 0; i < batch.size(); i++) {
+                allDatumsReceived.countDown();
+            }
+            try {
+                releaseFirstBatch.await(TIMEOUT_SEC, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        List<List<Long>> getBatches() {
+            synchronized (batches) {
+                return new ArrayList<List<Long>>(batches);
+            }
+        }
+
+        List<Long> getReceivedIds() {
+            List<Long> result = new ArrayList<Long>();
+            for (List<Long> batch : getBatches()) {
+                result.addAll(batch);
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Sets up the {@link EndpointDatumSenderImpl} with a {@link CommunicationServiceDefaultStub} that returns a
+     * {@link RecordingEndpointDatumProcessor} per node.
+     */
+    @Before
+    public void setUp() {
+        processors.put(slowNode, new RecordingEndpointDatumProcessor(true));
+        processors.put(fastNode, new RecordingEndpointDatumProcessor(false));
+        sender = new EndpointDatumSenderImpl();
+        sender.bindCommunicationService(new CommunicationServiceDefaultStub() {
+
+            @Override
+            public Set<NodeIdentifier> getReachableNodes() {
+                return new HashSet<NodeIdentifier>(Arrays.asList(slowNode, fastNode));
+            }
+
+            @Override
+            public Object getService(Class<?> iface, NodeIdentifier nodeId, BundleContext bundleContext) {
+                return processors.get(nodeId);
+            }
+        });
+    }
+
+    /**
+     * Tests that a blocked delivery to one node does not delay the delivery to another node, that the order is preserved per node, and
+     * that the datums queued during a blocked delivery are sent as a single batch.
+     * 
+     * @throws InterruptedException on interruption
+     */
+    @Test
+    public void testPerNodeOrderingAndBatchCoalescing() throws InterruptedException {
+        RecordingEndpointDatumProcessor slowProcessor = processors.get(slowNode);
+        RecordingEndpointDatumProcessor fastProcessor = processors.get(fastNode);
+        List<Long> expectedIds = new ArrayList<Long>();
+        for (long i = 0; i < DATUMS_PER_NODE; i++) {
+            expectedIds.add(i);
+        }
+
+        // the delivery of the first datum blocks until released
+        sender.sendEndpointDatumOrderedAsync(createEndpointDatum(slowNode, 0));
+        assertTrue(slowProcessor.firstBatchReceived.await(TIMEOUT_SEC, TimeUnit.SECONDS));
+
+        for (int i = 0; i < DATUMS_PER_NODE; i++) {
+            if (i > 0) {
+                sender.sendEndpointDatumOrderedAsync(createEndpointDatum(slowNode, i));
+            }
+            sender.sendEndpointDatumOrderedAsync(createEndpointDatum(fastNode, i));
+        }
+
+        // all datums for the other node are delivered while the first node is blocked
+        assertTrue(fastProcessor.allDatumsReceived.await(TIMEOUT_SEC, TimeUnit.SECONDS));
+        assertEquals(expectedIds, fastProcessor.getReceivedIds());
+        assertEquals(1, slowProcessor.getBatches().size());
+
+        slowProcessor.releaseFirstBatch.countDown();
+        assertTrue(slowProcessor.allDatumsReceived.await(TIMEOUT_SEC, TimeUnit.SECONDS));
+        assertEquals(expectedIds, slowProcessor.getReceivedIds());
+        // all datums queued during the blocked delivery were sent as one batch
+        List<List<Long>> slowBatches = slowProcessor.getBatches();
+        assertEquals(2, slowBatches.size());
+        assertEquals(DATUMS_PER_NODE - 1, slowBatches.get(1).size());
+    }
+
+    /**
+     * Tests that the queue of a node is discarded once all its datums are sent, and that later datums for the node are still delivered.
+     * 
+     * @throws InterruptedException on interruption
+     */
+    @Test
+    public void testIdleQueuesDiscarded() throws InterruptedException {
+        RecordingEndpointDatumProcessor fastProcessor = processors.get(fastNode);
+        List<Long> expectedIds = new ArrayList<Long>();
+        for (long i = 0; i < DATUMS_PER_NODE; i++) {
+            expectedIds.add(i);
+        }
+
+        for (int i = 0; i < DATUMS_PER_NODE / 2; i++) {
+            sender.sendEndpointDatumOrderedAsync(createEndpointDatum(fastNode, i));
+        }
+        waitUntilNoNodeSendQueueLeft();
+
+        for (int i = DATUMS_PER_NODE / 2; i < DATUMS_PER_NODE; i++) {
+            sender.sendEndpointDatumOrderedAsync(createEndpointDatum(fastNode, i));
+        }
+        assertTrue(fastProcessor.allDatumsReceived.await(TIMEOUT_SEC, TimeUnit.SECONDS));
+        assertEquals(expectedIds, fastProcessor.getReceivedIds());
+        waitUntilNoNodeSendQueueLeft();
+    }
+
+    private void waitUntilNoNodeSendQueueLeft() throws InterruptedException {
+        final int pollIntervalMsec = 10;
+        long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(TIMEOUT_SEC);
+        while (sender.getNodeSendQueueCount() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(pollIntervalMsec);
+        }
+        assertEquals(0, sender.getNodeSendQueueCount());
+    }
+
+    private EndpointDatum createEndpointDatum(NodeIdentifier inputsNode, long sequenceNumber) {
+        EndpointDatumImpl endpointDatum = new EndpointDatumImpl();
+        endpointDatum.setIdentifier("x");
+        endpointDatum.setValue(new InternalTDImpl(InternalTDImpl.InternalTDType.WorkflowFinish));
+        endpointDatum.setInputsComponentExecutionIdentifier("comp-exe-id");
+        endpointDatum.setInputsNode(inputsNode);
+        endpointDatum.setWorkflowExecutionIdentifier("wf-exe-id");
+        endpointDatum.setWorkfowNodeId(NodeIdentifierFactory.fromNodeId("workflow-node"));
+        // the data management id is used to track the order of delivery
+        endpointDatum.setDataManagementId(sequenceNumber);
+        return endpointDatum;
+    }
+}
@@ -0,0 +1,447 @@
+/*
+ * Copyright (C) 2006-2014 DLR, Germany
+ * 
+ * All rights reserved
+ * 
+ * http://www.rcenvironment.de/
+ */
+
+package de.rcenvironment.core.component.execution.internal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import de.rcenvironment.core.component.execution.api.ComponentExecutionException;
+import de.rcenvironment.core.component.execution.api.WorkflowGraphHop;
+import de.rcenvironment.core.component.execution.impl.ComponentExecutionContextImpl;
+import de.rcenvironment.core.component.execution.internal.ComponentExecutionControllerImpl.ComponentStateMachineEvent;
+import de.rcenvironment.core.component.execution.internal.ComponentExecutionControllerImpl.ComponentStateMachineEventType;
+import de.rcenvironment.core.component.execution.internal.ExecutionScheduler.State;
+import de.rcenvironment.core.component.model.endpoint.api.EndpointDatum;
+import de.rcenvironment.core.component.model.endpoint.api.EndpointDefinition.InputDatumHandling;
+import de.rcenvironment.core.component.model.endpoint.api.EndpointDefinition.InputExecutionContraint;
+import de.rcenvironment.core.component.model.endpoint.api.EndpointDescriptionsManager;
+import de.rcenvironment.core.component.model.endpoint.api.EndpointGroupDefinition;
+import de.rcenvironment.core.component.model.endpoint.impl.EndpointDatumImpl;
+import de.rcenvironment.core.component.model.endpoint.impl.EndpointDefinitionImpl;
+import de.rcenvironment.core.component.model.endpoint.impl.EndpointDefinitionsProviderImpl;
+import de.rcenvironment.core.component.model.endpoint.impl.EndpointGroupDefinitionImpl;
+import de.rcenvironment.core.datamodel.api.DataType;
+import de.rcenvironment.core.datamodel.api.EndpointType;
+import de.rcenvironment.core.datamodel.api.TypedDatum;
+import de.rcenvironment.core.datamodel.api.TypedDatumFactory;
+import de.rcenvironment.core.datamodel.testutils.TypedDatumServiceDefaultStub;
+import de.rcenvironment.core.datamodel.types.api.IntegerTD;
+
+/**
+ * Test cases for the input readiness tracking of {@link ExecutionScheduler}.
+ * 
+ * @author agent
+ */
+public class ExecutionSchedulerTest {
+
+    private static final String COMPONENT_EXECUTION_ID = "comp-exe-id";
+
+    private static final String INPUT_1 = "in1";
+
+    private static final String INPUT_2 = "in2";
+
+    private static final String INPUT_3 = "in3";
+
+    private static final String OR_GROUP = "orGroup";
+
+    private final TypedDatumFactory typedDatumFactory = new TypedDatumServiceDefaultStub().getFactory();
+
+    private Set<EndpointDefinitionImpl> inputDefinitions;
+
+    private Set<EndpointGroupDefinitionImpl> groupDefinitions;
+
+    private RecordingExecutionScheduler scheduler;
+
+    /**
+     * {@link ExecutionScheduler} that records the events posted to the state machine instead of forwarding them.
+     * 
+     * @author agent
+     */
+    private static final class RecordingExecutionScheduler extends ExecutionScheduler {
+
+        private final List<ComponentStateMachineEvent> events = new ArrayList<>();
+
+        private RecordingExecutionScheduler(ComponentExecutionContextImpl compExeContext) {
+            super(compExeContext, null);
+        }
+
+        @Override
+        protected void postStateMachineEvent(ComponentStateMachineEvent event) {
+            synchronized (events) {
+                events.add(event);
+            }
+        }
+
+        private List<ComponentStateMachineEventType> getEventTypes() {
+            List<ComponentStateMachineEventType> types = new ArrayList<>();
+            synchronized (events) {
+                for (ComponentStateMachineEvent event : events) {
+                    types.add(event.getType());
+                }
+            }
+            return types;
+        }
+    }
+
+    /**
+     * Common setup.
+     */
+    @Before
+    public void setUp() {
+        inputDefinitions = new HashSet<>();
+        groupDefinitions = new HashSet<>();
+    }
+
+    /**
+     * Tests that the component waits until all required inputs have a value and that a value is consumed by the execution.
+     * 
+     * @throws Exception on unexpected failure
+     */
+    @Test
+    public void testRequiredInputs() throws Exception {
+        addInput(INPUT_1, InputDatumHandling.Single, InputExecutionContraint.Required, null);
+        addInput(INPUT_2, InputDatumHandling.Single, InputExecutionContraint.Required, null);
+        createAndStartScheduler();
+
+        assertEquals(State.IDLING, scheduler.getSchedulingState());
+        scheduler.onEndpointDatumReceived(createEndpointDatum(INPUT_1, 1));
+        assertEquals(0, scheduler.getEventTypes().size());
+        scheduler.onEndpointDatumReceived(createEndpointDatum(INPUT_2, 2));
+        assertEquals(Arrays.asList(ComponentStateMachineEventType.SCHEDULING_STATE_CHANGED), scheduler.getEventTypes());
+
+        assertEquals(State.PROCESS_INPUT_DATA, scheduler.getSchedulingState());
+        Map<String, EndpointDatum> datums = scheduler.getEndpointDatums();
+        assertEquals(2, datums.size());
+        assertValue(1, datums.get(INPUT_1));
+        assertValue(2, datums.get(INPUT_2));
+
+        // the values were consumed, so a new value at one input is not sufficient
+        assertEquals(State.IDLING, scheduler.getSchedulingState());
+        scheduler.onEndpointDatumReceived(createEndpointDatum(INPUT_1, 3));
+        assertEquals(State.IDLING, scheduler.getSchedulingState());
+    }
+
+    /**
+     * Tests that a not required input does not block the execution, but its value is passed along if available.
+     * 
+     * @throws Exception on unexpected failure
+     */
+    @Test
+    public void testNotRequiredInput() throws Exception {
+        addInput(INPUT_1, InputDatumHandling.Single, InputExecutionContraint.Required, null);
+        addInput(INPUT_2, InputDatumHandling.Single, InputExecutionContraint.NotRequired, null);
+        createAndStartScheduler();
+
+        scheduler.onEndpointDatumReceived(createEndpointDatum(INPUT_1, 1));
+        assertEquals(State.PROCESS_INPUT_DATA, scheduler.getSchedulingState());
+        Map<String, EndpointDatum> datums = scheduler.getEndpointDatums();
+        assertEquals(1, datums.size());
+        assertValue(1, datums.get(INPUT_1));
+
+        scheduler.onEndpointDatumReceived(createEndpointDatum(INPUT_2, 2));
+        assertEquals(State.IDLING, scheduler.getSchedulingState());
+        scheduler.onEndpointDatumReceived(createEndpointDatum(INPUT_1, 3));
+        assertEquals(State.PROCESS_INPUT_DATA, scheduler.getSchedulingState());
+        datums = scheduler.getEndpointDatums();
+        assertEquals(2, datums.size());
+        assertValue(3, datums.get(INPUT_1));
+        assertValue(2, datums.get(INPUT_2));
+    }
+
+    /**
+     * Tests that each input of an input group of type 'or' is sufficient for an execution.
+     * 
+     * @throws Exception on unexpected failure
+     */
+    @Test
+    public void testOrGroup() throws Exception {
+        addGroup(OR_GROUP, EndpointGroupDefinition.Type.Or);
+        addInput(INPUT_1, InputDatumHandling.Single, InputExecutionContraint.None, OR_GROUP);
+        addInput(INPUT_2, InputDatumHandling.Single, InputExecutionContraint.None, OR_GROUP);
+        createAndStartScheduler();
+
+        assertEquals(State.IDLING, scheduler.getSchedulingState());
+        scheduler.onEndpointDatumReceived(createEndpointDatum(INPUT_2, 2));
+        assertEquals(State.PROCESS_INPUT_DATA, scheduler.getSchedulingState());
+        Map<String, EndpointDatum> datums = scheduler.getEndpointDatums();
+        assertEquals(1, datums.size());
+        assertValue(2, datums.get(INPUT_2));
+
+        scheduler.onEndpointDatumReceived(createEndpointDatum(INPUT_1, 1));
+        assertEquals(State.PROCESS_INPUT_DATA, scheduler.getSchedulingState());
+        datums = scheduler.getEndpointDatums();
+        assertEquals(1, datums.size());
+        assertValue(1, datums.get(INPUT_1));
+        assertEquals(State.IDLING, scheduler.getSchedulingState());
+    }
+
+    /**
+     * Tests that the values of a queued input result in one execution each, in the order received, and that the value of a constant
+     * input is passed to each of them.
+     * 
+     * @throws Exception on unexpected failure
+     */
+    @Test
+    public void testQueuedAndConstantInputs() throws Exception {
+        final int valueCount = 5;
+        addInput(INPUT_1, InputDatumHandling.Queue, InputExecutionContraint.Required, null);
+        addInput(INPUT_2, InputDatumHandling.Constant, InputExecutionContraint.Required, null);
+        createAndStartScheduler();
+
+        for (int i = 0; i < valueCount; i++) {
+            scheduler.onEndpointDatumReceived(createEndpointDatum(INPUT_1, i));
+        }
+        assertEquals(State.IDLING, scheduler.getSchedulingState());
+        scheduler.onEndpointDatumReceived(createEndpointDatum(INPUT_2, valueCount));
+
+        for (int i = 0; i < valueCount; i++) {
+            assertEquals(State.PROCESS_INPUT_DATA, scheduler.getSchedulingState());
+            Map<String, EndpointDatum> datums = scheduler.getEndpointDatums();
+            assertValue(i, datums.get(INPUT_1));
+            assertValue(valueCount, datums.get(INPUT_2));
+        }
+        assertEquals(State.IDLING, scheduler.getSchedulingState());
+        assertEquals(Arrays.asList(ComponentStateMachineEventType.SCHEDULING_STATE_CHANGED), scheduler.getEventTypes());
+    }
+
+    /**
+     * Tests that a second value at a constant input is rejected.
+     * 
+     * @throws Exception on unexpected failure
+     */
+    @Test
+    public void testSecondValueAtConstantInput() throws Exception {
+        addInput(INPUT_1, InputDatumHandling.Constant, InputExecutionContraint.Required, null);
+        createAndStartScheduler();
+
+        scheduler.onEndpointDatumReceived(createEndpointDatum(INPUT_1, 1));
+        scheduler.onEndpointDatumReceived(createEndpointDatum(INPUT_1, 2));
+        assertSchedulingFailed();
+    }
+
+    /**
+     * Tests that a new value at an input of type 'single' is rejected if the current one was not consumed yet, also if the values were
+     * received before the scheduler was started.
+     * 
+     * @throws Exception on unexpected failure
+     */
+    @Test
+    public void testUnconsumedValueAtSingleInput() throws Exception {
+        addInput(INPUT_1, InputDatumHandling.Single, InputExecutionContraint.Required, null);
+        addInput(INPUT_2, InputDatumHandling.Single, InputExecutionContraint.Required, null);
+        createScheduler();
+
+        scheduler.onEndpointDatumReceived(createEndpointDatum(INPUT_1, 1));
+        scheduler.onEndpointDatumReceived(createEndpointDatum(INPUT_1, 2));
+        assertEquals(0, scheduler.getEventTypes().size());
+        scheduler.start();
+        assertSchedulingFailed();
+
+        // no further events once failed
+        scheduler.onEndpointDatumReceived(createEndpointDatum(INPUT_2, 3));
+        assertEquals(1, scheduler.getEventTypes().size());
+    }
+
+    /**
+     * Tests that the component is finished once all inputs received the finish datum.
+     * 
+     * @throws Exception on unexpected failure
+     */
+    @Test
+    public void testFinish() throws Exception {
+        addInput(INPUT_1, InputDatumHandling.Single, InputExecutionContraint.Required, null);
+        addInput(INPUT_2, InputDatumHandling.Queue, InputExecutionContraint.Required, null);
+        createAndStartScheduler();
+
+        scheduler.onEndpointDatumReceived(createInternalEndpointDatum(INPUT_1, InternalTDImpl.InternalTDType.WorkflowFinish));
+        assertEquals(State.IDLING, scheduler.getSchedulingState());
+        scheduler.onEndpointDatumReceived(createInternalEndpointDatum(INPUT_2, InternalTDImpl.InternalTDType.WorkflowFinish));
+        assertEquals(Arrays.asList(ComponentStateMachineEventType.SCHEDULING_STATE_CHANGED), scheduler.getEventTypes());
+        assertEquals(State.FINISHED, scheduler.getSchedulingState());
+    }
+
+    /**
+     * Tests that a reset datum addressed to the component results in a reset, which discards the values of constant inputs.
+     * 
+     * @throws Exception on unexpected failure
+     */
+    @Test
+    public void testReset() throws Exception {
+        addInput(INPUT_1, InputDatumHandling.Single, InputExecutionContraint.Required, null);
+        addInput(INPUT_2, InputDatumHandling.Constant, InputExecutionContraint.Required, null);
+        addInput(INPUT_3, InputDatumHandling.Single, InputExecutionContraint.NotRequired, null);
+        createAndStartScheduler();
+
+        scheduler.onEndpointDatumReceived(createEndpointDatum(INPUT_2, 1));
+        scheduler.onEndpointDatumReceived(createEndpointDatum(INPUT_1, 2));
+        assertEquals(State.PROCESS_INPUT_DATA, scheduler.getSchedulingState());
+        scheduler.getEndpointDatums();
+
+        Queue<WorkflowGraphHop> hops = new LinkedList<>();
+        hops.add(new WorkflowGraphHop(COMPONENT_EXECUTION_ID, "out", "other-comp-exe-id", "in"));
+        InternalTDImpl resetDatum = new InternalTDImpl(InternalTDImpl.InternalTDType.NestedLoopReset, hops);
+        scheduler.onEndpointDatumReceived(createEndpointDatum(INPUT_3, resetDatum));
+        assertEquals(State.RESET, scheduler.getSchedulingState());
+        assertEquals(resetDatum, scheduler.getResetDatum());
+
+        // the constant input accepts a new value after the reset and is required again
+        scheduler.onEndpointDatumReceived(createEndpointDatum(INPUT_1, 3));
+        assertEquals(State.IDLING, scheduler.getSchedulingState());
+        scheduler.onEndpointDatumReceived(createEndpointDatum(INPUT_2, 4));
+        assertEquals(State.PROCESS_INPUT_DATA, scheduler.getSchedulingState());
+        Map<String, EndpointDatum> datums = scheduler.getEndpointDatums();
+        assertValue(3, datums.get(INPUT_1));
+        assertValue(4, datums.get(INPUT_2));
+        assertEquals(1, scheduler.getEventTypes().size());
+    }
+
+    /**
+     * Tests that values posted concurrently to a queued input while the component is waiting result in exactly one notification of the
+     * state machine, and that all values are returned in the order they were posted by each thread.
+     * 
+     * @throws Exception on unexpected failure
+     */
+    @Test
+    public void testConcurrentPostings() throws Exception {
+        final int threadCount = 8;
+        final int valuesPerThread = 200;
+        addInput(INPUT_1, InputDatumHandling.Queue, InputExecutionContraint.Required, null);
+        createAndStartScheduler();
+        assertEquals(State.IDLING, scheduler.getSchedulingState());
+
+        final CountDownLatch startSignal = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < threadCount; t++) {
+            final int threadIndex = t;
+            Thread thread = new Thread(new Runnable() {
+
+                @Override
+                public void run() {
+                    try {
+                        startSignal.await();
+                    } catch (InterruptedException e) {
+                        throw new RuntimeException(e);
+                    }
+                    for (int i = 0; i < valuesPerThread; i++) {
+                        scheduler.onEndpointDatumReceived(createEndpointDatum(INPUT_1, threadIndex * valuesPerThread + i));
+                    }
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        startSignal.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(Arrays.asList(ComponentStateMachineEventType.SCHEDULING_STATE_CHANGED), scheduler.getEventTypes());
+        int[] lastValueOfThread = new int[threadCount];
+        Arrays.fill(lastValueOfThread, -1);
+        int executionCount = 0;
+        while (scheduler.getSchedulingState() == State.PROCESS_INPUT_DATA) {
+            int value = (int) ((IntegerTD) scheduler.getEndpointDatums().get(INPUT_1).getValue()).getIntValue();
+            int threadIndex = value / valuesPerThread;
+            assertTrue(value > lastValueOfThread[threadIndex]);
+            lastValueOfThread[threadIndex] = value;
+            executionCount++;
+        }
+        assertEquals(threadCount * valuesPerThread, executionCount);
+    }
+
+    private void addInput(String name, InputDatumHandling inputHandling, InputExecutionContraint executionConstraint, String group) {
+        Map<String, Object> rawDefinition = new HashMap<>();
+        rawDefinition.put("name", name);
+        rawDefinition.put("dataTypes", Arrays.asList(DataType.Integer.name()));
+        rawDefinition.put("defaultDataType", DataType.Integer.name());
+        rawDefinition.put("defaultInputHandling", inputHandling.name());
+        rawDefinition.put("defaultInputExecutionConstraint", executionConstraint.name());
+        if (group != null) {
+            rawDefinition.put("group", group);
+        }
+        EndpointDefinitionImpl definition = new EndpointDefinitionImpl();
+        definition.setRawEndpointDefinition(rawDefinition);
+        definition.setEndpointType(EndpointType.INPUT);
+        inputDefinitions.add(definition);
+    }
+
+    private void addGroup(String identifier, EndpointGroupDefinition.Type type) {
+        Map<String, Object> rawDefinition = new HashMap<>();
+        rawDefinition.put("identifier", identifier);
+        rawDefinition.put("type", type.name());
+        EndpointGroupDefinitionImpl definition = new EndpointGroupDefinitionImpl();
+        definition.setRawEndpointGroupDefinition(rawDefinition);
+        groupDefinitions.add(definition);
+    }
+
+    private void createScheduler() throws ComponentExecutionException {
+        EndpointDefinitionsProviderImpl provider = new EndpointDefinitionsProviderImpl();
+        provider.setEndpointDefinitions(inputDefinitions);
+        provider.setEndpointGroups(groupDefinitions);
+        EndpointDescriptionsManager inputManager = new EndpointDescriptionsManager(provider, EndpointType.INPUT);
+        for (EndpointDefinitionImpl definition : inputDefinitions) {
+            inputManager.addConnectedDataType(definition.getName(), DataType.Integer);
+        }
+
+        ComponentExecutionContextImpl compExeContext = new ComponentExecutionContextImpl();
+        compExeContext.setExecutionIdentifier(COMPONENT_EXECUTION_ID);
+        compExeContext.setInstanceName("comp");
+        compExeContext.setWorkflowExecutionIdentifier("wf-exe-id");
+        compExeContext.setWorkflowInstanceName("wf");
+        scheduler = new RecordingExecutionScheduler(compExeContext);
+        scheduler.initialize(inputManager);
+    }
+
+    private void createAndStartScheduler() throws ComponentExecutionException {
+        createScheduler();
+        scheduler.start();
+    }
+
+    private void assertSchedulingFailed() {
+        List<ComponentStateMachineEvent> events = scheduler.events;
+        assertEquals(1, events.size());
+        assertEquals(ComponentStateMachineEventType.SCHEDULING_FAILED, events.get(0).getType());
+        assertNotNull(events.get(0).getThrowable());
+    }
+
+    private EndpointDatum createEndpointDatum(String inputName, long value) {
+        return createEndpointDatum(inputName, typedDatumFactory.createInteger(value));
+    }
+
+    private EndpointDatum createInternalEndpointDatum(String inputName, InternalTDImpl.InternalTDType type) {
+        return createEndpointDatum(inputName, new InternalTDImpl(type));
+    }
+
+    private EndpointDatum createEndpointDatum(String inputName, TypedDatum value) {
+        EndpointDatumImpl endpointDatum = new EndpointDatumImpl();
+        endpointDatum.setIdentifier(inputName);
+        endpointDatum.setValue(value);
+        endpointDatum.setInputsComponentExecutionIdentifier(COMPONENT_EXECUTION_ID);
+        return endpointDatum;
+    }
+
+    private void assertValue(long expected, EndpointDatum endpointDatum) {
+        assertEquals(expected, ((IntegerTD) endpointDatum.getValue()).getIntValue());
+    }
+}
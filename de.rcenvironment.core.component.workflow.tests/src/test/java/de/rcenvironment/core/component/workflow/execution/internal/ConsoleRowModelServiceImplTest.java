@@ -0,0 +1,159 @@
+/*
+ * Copyright (C) 2006-2014 DLR, Germany
+ * 
+ * All rights reserved
+ * 
+ * http://www.rcenvironment.de/
+ */
+
+package de.rcenvironment.core.component.workflow.execution.internal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import de.rcenvironment.core.component.execution.api.ConsoleRow;
+import de.rcenvironment.core.component.execution.api.ConsoleRowBuilder;
+import de.rcenvironment.core.component.workflow.execution.api.ConsoleModelSnapshot;
+import de.rcenvironment.core.component.workflow.execution.api.ConsoleRowFilter;
+import de.rcenvironment.core.component.workflow.execution.api.ConsoleRowModelService;
+
+/**
+ * Test cases for {@link ConsoleRowModelServiceImpl}.
+ * 
+ * @author agent
+ */
+public class ConsoleRowModelServiceImplTest {
+
+    private static final String WORKFLOW = "wf";
+
+    private static final String COMPONENT_1 = "comp1";
+
+    private static final String COMPONENT_2 = "comp2";
+
+    private ConsoleRowModelServiceImpl model;
+
+    private List<ConsoleRow> displayedRows;
+
+    private int lastKnownSequenceId;
+
+    /**
+     * Common setup.
+     */
+    @Before
+    public void setUp() {
+        model = new ConsoleRowModelServiceImpl();
+        displayedRows = new ArrayList<ConsoleRow>();
+        lastKnownSequenceId = ConsoleRowModelService.INITIAL_SEQUENCE_ID;
+    }
+
+    /**
+     * Tests that snapshots following a complete one only contain the added rows, and that name lists are only set on changes.
+     */
+    @Test
+    public void testIncrementalSnapshots() {
+        model.processConsoleRows(Arrays.asList(createRow(COMPONENT_1, ConsoleRow.Type.STDOUT, "a")));
+        ConsoleModelSnapshot snapshot = applySnapshot();
+        assertFalse(snapshot.isFilteredRowListIncremental());
+        assertEquals(Arrays.asList(WORKFLOW), snapshot.getWorkflowList());
+        assertEquals(Arrays.asList(COMPONENT_1), snapshot.getComponentList());
+        assertNull(model.getSnapshotIfModifiedSince(lastKnownSequenceId));
+
+        model.processConsoleRows(Arrays.asList(createRow(COMPONENT_2, ConsoleRow.Type.STDOUT, "b"),
+            createRow(COMPONENT_1, ConsoleRow.Type.STDERR, "c")));
+        snapshot = applySnapshot();
+        assertTrue(snapshot.isFilteredRowListIncremental());
+        assertEquals(2, snapshot.getFilteredRows().size());
+        assertFalse(snapshot.hasWorkflowListChanged());
+        assertEquals(Arrays.asList(COMPONENT_1, COMPONENT_2), snapshot.getComponentList());
+        assertPayloads("a", "b", "c");
+    }
+
+    /**
+     * Tests that a filter change results in a complete snapshot of the rows accepted by the new filter.
+     */
+    @Test
+    public void testFilterChange() {
+        model.processConsoleRows(Arrays.asList(createRow(COMPONENT_1, ConsoleRow.Type.STDOUT, "a"),
+            createRow(COMPONENT_2, ConsoleRow.Type.STDOUT, "b"), createRow(COMPONENT_1, ConsoleRow.Type.STDERR, "c"),
+            createRow(COMPONENT_1, ConsoleRow.Type.STDOUT, "d")));
+        applySnapshot();
+
+        ConsoleRowFilter filter = new ConsoleRowFilter();
+        filter.setComponent(COMPONENT_1);
+        filter.setIncludeStderr(false);
+        model.setRowFilter(filter);
+        ConsoleModelSnapshot snapshot = applySnapshot();
+        assertFalse(snapshot.isFilteredRowListIncremental());
+        assertPayloads("a", "d");
+
+        model.processConsoleRows(Arrays.asList(createRow(COMPONENT_2, ConsoleRow.Type.STDOUT, "e"),
+            createRow(COMPONENT_1, ConsoleRow.Type.STDOUT, "f")));
+        snapshot = applySnapshot();
+        assertTrue(snapshot.isFilteredRowListIncremental());
+        assertPayloads("a", "d", "f");
+
+        filter = new ConsoleRowFilter();
+        filter.setIncludeStdout(false);
+        model.setRowFilter(filter);
+        applySnapshot();
+        assertPayloads("c");
+    }
+
+    /**
+     * Tests that the oldest rows are discarded from incremental snapshots once the retention limit is exceeded.
+     */
+    @Test
+    public void testRetentionLimit() {
+        final int batchSize = 1000;
+        final int batchCount = 40;
+        int rowCount = 0;
+        for (int i = 0; i < batchCount; i++) {
+            List<ConsoleRow> batch = new ArrayList<ConsoleRow>();
+            for (int j = 0; j < batchSize; j++) {
+                batch.add(createRow(COMPONENT_1, ConsoleRow.Type.STDOUT, Integer.toString(rowCount++)));
+            }
+            model.processConsoleRows(batch);
+            applySnapshot();
+        }
+
+        ConsoleModelSnapshot snapshot = model.getSnapshotIfModifiedSince(ConsoleRowModelService.INITIAL_SEQUENCE_ID);
+        assertEquals(snapshot.getFilteredRowCount(), displayedRows.size());
+        assertEquals(new ArrayList<ConsoleRow>(snapshot.getFilteredRows()), displayedRows);
+        assertEquals(Integer.toString(rowCount - 1), displayedRows.get(displayedRows.size() - 1).getPayload());
+    }
+
+    private ConsoleModelSnapshot applySnapshot() {
+        ConsoleModelSnapshot snapshot = model.getSnapshotIfModifiedSince(lastKnownSequenceId);
+        lastKnownSequenceId = snapshot.getSequenceId();
+        if (snapshot.hasFilteredRowListChanged()) {
+            if (snapshot.isFilteredRowListIncremental()) {
+                displayedRows.addAll(snapshot.getFilteredRows());
+                displayedRows.subList(0, displayedRows.size() - snapshot.getFilteredRowCount()).clear();
+            } else {
+                displayedRows = new ArrayList<ConsoleRow>(snapshot.getFilteredRows());
+            }
+        }
+        return snapshot;
+    }
+
+    private void assertPayloads(String... payloads) {
+        assertEquals(payloads.length, displayedRows.size());
+        for (int i = 0; i < payloads.length; i++) {
+            assertEquals(payloads[i], displayedRows.get(i).getPayload());
+        }
+    }
+
+    private ConsoleRow createRow(String component, ConsoleRow.Type type, String payload) {
+        return new ConsoleRowBuilder().setExecutionIdentifiers(WORKFLOW, component).setInstanceNames(WORKFLOW, component).setType(type)
+            .setPayload(payload).build();
+    }
+}
@@ -34,12 +34,27 @@ public interface ConsoleModelSnapshot {
     boolean hasFilteredRowListChanged();
 
     /**
-     * Get the current list of filtered {@link ConsoleRow}s.
+     * Get the current list of filtered {@link ConsoleRow}s, or the rows added to it.
      * @return the contained {@link ConsoleRow}s; only set if {@link #hasFilteredRowListChanged()}
-     *         is true; otherwise null.
+     *         is true; otherwise null. If {@link #isFilteredRowListIncremental()} is true, only
+     *         the rows added since the sequence id this snapshot was requested for.
      */
     Collection<ConsoleRow> getFilteredRows();
 
+    /**
+     * @return true if {@link #getFilteredRows()} only contains the rows added since the sequence
+     *         id this snapshot was requested for; the caller should append them to the rows it
+     *         already has, and then discard its oldest rows to keep
+     *         {@link #getFilteredRowCount()} rows
+     */
+    boolean isFilteredRowListIncremental();
+
+    /**
+     * @return the total number of rows in the current list of filtered {@link ConsoleRow}s; only
+     *         set if {@link #hasFilteredRowListChanged()} is true
+     */
+    int getFilteredRowCount();
+
     /**
      * @return true if the workflow list has potentially changed
      */
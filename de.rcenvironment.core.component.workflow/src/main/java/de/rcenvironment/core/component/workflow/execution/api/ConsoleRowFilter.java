@@ -123,6 +123,41 @@ public class ConsoleRowFilter implements Cloneable {
         searchTermPattern = Pattern.compile(searchTerm, Pattern.CASE_INSENSITIVE);
     }
 
+    /**
+     * @return the component filter value; null if filtering by component is disabled
+     */
+    public String getComponent() {
+        return component;
+    }
+
+    /**
+     * Allows to skip rows by their type before applying {@link #accept(ConsoleRow)}.
+     * 
+     * @param type the {@link ConsoleRow.Type} to decide on
+     * @return false if this filter rejects all {@link ConsoleRow}s of the given type
+     */
+    public boolean mayAccept(ConsoleRow.Type type) {
+        boolean mayAccept;
+        // must be consistent with the type check in accept(ConsoleRow)
+        switch (type) {
+        case STDOUT:
+            mayAccept = includeStdout;
+            break;
+        case STDERR:
+            mayAccept = includeStderr;
+            break;
+        case COMPONENT_OUTPUT:
+            mayAccept = includeMetaInfo;
+            break;
+        case LIFE_CYCLE_EVENT:
+            mayAccept = includeLifecycleEvents;
+            break;
+        default:
+            mayAccept = false;
+        }
+        return mayAccept;
+    }
+
     /**
      * @param row the {@link ConsoleRow} to decide on
      * @return true if the {@link ConsoleRow} matches this filter
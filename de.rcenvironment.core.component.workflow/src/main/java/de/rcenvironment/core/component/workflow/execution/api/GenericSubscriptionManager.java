@@ -139,7 +139,8 @@ public class GenericSubscriptionManager {
                 eventProcessor.setNumberOfLastMissingNotification(notifId, node.getIdString(), lastMissedNumber);
                 Log log = LogFactory.getLog(getClass());
                 log.debug(String.format("Starting to fetch stored notifications for id %s from node %s", notifId, node));
-                Map<String, List<Notification>> storedNotifications = sns.getNotifications(notifId, node);
+                // only the missed notifications are fetched; all later ones are received via the new subscription
+                Map<String, List<Notification>> storedNotifications = sns.getNotifications(notifId, 0, lastMissedNumber, node);
                 log.debug(String.format("Received %d stored notification entries for id %s from node %s", storedNotifications.size(),
                     notifId, node));
                 for (Entry<String, List<Notification>> e : storedNotifications.entrySet()) {
@@ -8,6 +8,7 @@
  
 package de.rcenvironment.core.component.workflow.execution.api;
 
+import java.util.Collection;
 import java.util.Map;
 
 import de.rcenvironment.core.component.execution.api.ExecutionController;
@@ -16,6 +17,7 @@ import de.rcenvironment.core.component.execution.api.ExecutionController;
  * Workflow-specific {@link ExecutionController}.
  * 
  * @author Doreen Seider
+ * @author agent (heartbeat batching)
  */
 public interface WorkflowExecutionController extends ExecutionController {
 
@@ -31,4 +33,11 @@ public interface WorkflowExecutionController extends ExecutionController {
      */
     void setComponentExecutionAuthTokens(Map<String, String> executionAuthTokens);
     
+    /**
+     * Called periodically with the heartbeats of the components of the workflow executed on the same node, as a single batch.
+     * 
+     * @param compExeIds execution identifiers of the components still alive
+     */
+    void onComponentHeartbeatsReceived(Collection<String> compExeIds);
+    
 }
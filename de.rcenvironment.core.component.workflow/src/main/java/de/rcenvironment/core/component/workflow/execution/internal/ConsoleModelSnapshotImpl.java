@@ -22,6 +22,10 @@ class ConsoleModelSnapshotImpl implements ConsoleModelSnapshot {
 
     private Collection<ConsoleRow> filteredRows;
 
+    private boolean filteredRowsIncremental;
+
+    private int filteredRowCount;
+
     private int sequenceId;
 
     private Collection<String> componentList;
@@ -42,6 +46,16 @@ class ConsoleModelSnapshotImpl implements ConsoleModelSnapshot {
         return filteredRows;
     }
 
+    @Override
+    public boolean isFilteredRowListIncremental() {
+        return filteredRowsIncremental;
+    }
+
+    @Override
+    public int getFilteredRowCount() {
+        return filteredRowCount;
+    }
+
     @Override
     public boolean hasWorkflowListChanged() {
         return workflowList != null;
@@ -67,6 +81,17 @@ class ConsoleModelSnapshotImpl implements ConsoleModelSnapshot {
      */
     void setFilteredRows(Collection<ConsoleRow> filteredRows) {
         this.filteredRows = filteredRows;
+        this.filteredRowCount = filteredRows.size();
+    }
+
+    /**
+     * @param filteredRows the filtered rows added since the sequence id this snapshot was requested for
+     * @param filteredRowCount the total number of filtered rows
+     */
+    void setAddedFilteredRows(Collection<ConsoleRow> filteredRows, int filteredRowCount) {
+        this.filteredRows = filteredRows;
+        this.filteredRowsIncremental = true;
+        this.filteredRowCount = filteredRowCount;
     }
 
     /**
@@ -9,10 +9,7 @@
 package de.rcenvironment.core.component.workflow.execution.internal;
 
 import java.util.ArrayList;
-import java.util.Deque;
-import java.util.LinkedList;
 import java.util.List;
-import java.util.SortedSet;
 import java.util.TreeSet;
 import java.util.concurrent.CountDownLatch;
 
@@ -31,6 +28,10 @@ import de.rcenvironment.core.utils.common.concurrent.TaskDescription;
 /**
  * Default {@link ConsoleRowModelService} implementation.
  * 
+ * The rows are kept in a {@link ConsoleRowStore}; the filtered list only holds the row numbers of the accepted rows. On a filter change,
+ * only the rows of the filtered component or of the included types are checked, starting with the most recent ones. Snapshots for callers
+ * that already know the filtered list as of their sequence id only contain the rows added since then.
+ * 
  * @author Doreen Seider (initial version)
  * @author Robert Mischke (current)
  */
@@ -53,7 +54,7 @@ public class ConsoleRowModelServiceImpl implements ConsoleRowModelService, Conso
     // TODO make non-static
     private static CountDownLatch initialSubscriptionLatch;
 
-    private Deque<ConsoleRow> allRows;
+    private ConsoleRowStore rowStore;
 
     /**
      * Note: The current concept is based on a single client view using this model; if required, this could be changed to a map of
@@ -61,11 +62,8 @@ public class ConsoleRowModelServiceImpl implements ConsoleRowModelService, Conso
      */
     private ConsoleRowFilter currentFilter;
 
-    private Deque<ConsoleRow> filteredRows;
-
-    private SortedSet<String> workflows;
-
-    private SortedSet<String> components;
+    // the row numbers of the filtered rows within the row store, in ascending order
+    private ConsoleRowStore.RowNumberQueue filteredRowNumbers;
 
     /**
      * Incremented on each model change; used for efficient change testing. Initialized with "+1" so a query with INITIAL_SEQUENCE_ID as
@@ -77,6 +75,9 @@ public class ConsoleRowModelServiceImpl implements ConsoleRowModelService, Conso
 
     private int filteredListLastChanged;
 
+    // the sequence id of the last filter change or reset; callers with older sequence ids need a complete filtered list
+    private int filteredListLastRebuilt;
+
     private int workflowListLastChanged;
 
     private int componentListLastChanged;
@@ -154,16 +155,21 @@ public class ConsoleRowModelServiceImpl implements ConsoleRowModelService, Conso
         // create & return snapshot object
         ConsoleModelSnapshotImpl snapshot = new ConsoleModelSnapshotImpl();
         if (filteredListLastChanged > sequenceId) {
-            // if modifed, set a copy of the filtered list
-            snapshot.setFilteredRows(new ArrayList<ConsoleRow>(filteredRows));
+            if (sequenceId >= filteredListLastRebuilt) {
+                // the caller knows the filtered list as of its sequence id, so only set the rows added since then
+                snapshot.setAddedFilteredRows(getFilteredRows(findFirstFilteredRowAddedAfter(sequenceId)), filteredRowNumbers.size());
+            } else {
+                // if modifed, set a copy of the filtered list
+                snapshot.setFilteredRows(getFilteredRows(0));
+            }
         }
-        // if modified, set a copy of the workflow list
+        // if modified, set a sorted copy of the workflow list
         if (workflowListLastChanged > sequenceId) {
-            snapshot.setWorkflowList(new ArrayList<String>(workflows));
+            snapshot.setWorkflowList(new ArrayList<String>(new TreeSet<String>(rowStore.getWorkflowNames())));
         }
-        // if modified, set a copy of the component list
+        // if modified, set a sorted copy of the component list
         if (componentListLastChanged > sequenceId) {
-            snapshot.setComponentList(new ArrayList<String>(components));
+            snapshot.setComponentList(new ArrayList<String>(new TreeSet<String>(rowStore.getComponentNames())));
         }
         snapshot.setSequenceId(sequenceIdCounter);
 
@@ -178,31 +184,28 @@ public class ConsoleRowModelServiceImpl implements ConsoleRowModelService, Conso
     @Override
     public synchronized void processConsoleRows(List<ConsoleRow> rows) {
         sequenceIdCounter++;
+        int workflowCount = rowStore.getWorkflowNames().size();
+        int componentCount = rowStore.getComponentNames().size();
         for (ConsoleRow row : rows) {
             if (accept(row)) {
-                // add unfiltered
-                allRows.addLast(row);
+                // add unfiltered; evicts the oldest row when the retention limit is reached
+                long rowNumber = rowStore.add(row, sequenceIdCounter);
                 // add to filtered list if filter matches
                 if (currentFilter.accept(row)) {
-                    filteredRows.addLast(row);
+                    filteredRowNumbers.addLast(rowNumber);
                     filteredListLastChanged = sequenceIdCounter;
                 }
-                // add to the set of workflows
-                // note: currently, workflows are only purged on clearAll
-                if (workflows.add(row.getWorkflowName())) {
-                    workflowListLastChanged = sequenceIdCounter;
-                }
-                // add to the set of components
-                // note: currently, components are only purged on clearAll
-                if (components.add(row.getComponentName())) {
-                    componentListLastChanged = sequenceIdCounter;
-                }
             }
         }
+        // note: currently, workflows and components are only purged on clearAll
+        if (rowStore.getWorkflowNames().size() != workflowCount) {
+            workflowListLastChanged = sequenceIdCounter;
+        }
+        if (rowStore.getComponentNames().size() != componentCount) {
+            componentListLastChanged = sequenceIdCounter;
+        }
 
-        // trim model to retention limits
-        trimUnfilteredModel();
-        // trim filtered list to max capacity
+        // trim filtered list to max capacity and to the retained rows
         trimFilteredList();
     }
 
@@ -222,16 +225,9 @@ public class ConsoleRowModelServiceImpl implements ConsoleRowModelService, Conso
         // use a clone to prevent external modification
         currentFilter = newFilter.clone();
         // rebuild filtered list with new filter
-        filteredRows = new LinkedList<ConsoleRow>();
-        for (ConsoleRow row : allRows) {
-            // add to filtered list if filter matches
-            if (currentFilter.accept(row)) {
-                filteredRows.addLast(row);
-            }
-        }
+        rebuildFilteredList();
         filteredListLastChanged = sequenceIdCounter;
-        // trim filtered list to max capacity
-        trimFilteredList();
+        filteredListLastRebuilt = sequenceIdCounter;
     }
 
     /**
@@ -244,27 +240,93 @@ public class ConsoleRowModelServiceImpl implements ConsoleRowModelService, Conso
     }
 
     private void resetModel() {
-        allRows = new LinkedList<ConsoleRow>();
-        filteredRows = new LinkedList<ConsoleRow>();
+        // TODO could be expanded to retention limits per type etc.
+        rowStore = new ConsoleRowStore(MAX_UNFILTERED_ROWS_RETENTION);
+        filteredRowNumbers = new ConsoleRowStore.RowNumberQueue();
         filteredListLastChanged = sequenceIdCounter;
-        workflows = new TreeSet<String>();
+        filteredListLastRebuilt = sequenceIdCounter;
         workflowListLastChanged = sequenceIdCounter;
-        components = new TreeSet<String>();
         componentListLastChanged = sequenceIdCounter;
         currentFilter = new ConsoleRowFilter();
     }
 
-    private void trimUnfilteredModel() {
-        // TODO could be expanded to retention limits per type etc.
-        while (allRows.size() > MAX_UNFILTERED_ROWS_RETENTION) {
-            allRows.removeFirst();
+    private void rebuildFilteredList() {
+        // determine the candidate rows from the indexes of the row store; these sets of row numbers are disjoint
+        List<ConsoleRowStore.RowNumberQueue> candidates = new ArrayList<ConsoleRowStore.RowNumberQueue>();
+        if (currentFilter.getComponent() != null) {
+            ConsoleRowStore.RowNumberQueue componentRowNumbers = rowStore.getRowNumbersOfComponent(currentFilter.getComponent());
+            if (componentRowNumbers != null) {
+                candidates.add(componentRowNumbers);
+            }
+        } else {
+            for (ConsoleRow.Type type : ConsoleRow.Type.values()) {
+                if (currentFilter.mayAccept(type)) {
+                    candidates.add(rowStore.getRowNumbersOfType(type));
+                }
+            }
+        }
+
+        // merge the candidates in descending order, so only the most recent rows are checked until the filtered list is full
+        int[] positions = new int[candidates.size()];
+        for (int i = 0; i < positions.length; i++) {
+            positions[i] = candidates.get(i).size() - 1;
+        }
+        long[] acceptedRowNumbers = new long[MAX_SNAPSHOT_SIZE];
+        int acceptedCount = 0;
+        while (acceptedCount < MAX_SNAPSHOT_SIZE) {
+            int nextCandidate = -1;
+            long nextRowNumber = -1;
+            for (int i = 0; i < positions.length; i++) {
+                if (positions[i] >= 0 && candidates.get(i).get(positions[i]) > nextRowNumber) {
+                    nextCandidate = i;
+                    nextRowNumber = candidates.get(i).get(positions[i]);
+                }
+            }
+            if (nextCandidate < 0) {
+                break;
+            }
+            positions[nextCandidate]--;
+            if (currentFilter.accept(rowStore.get(nextRowNumber))) {
+                acceptedRowNumbers[acceptedCount++] = nextRowNumber;
+            }
+        }
+
+        filteredRowNumbers = new ConsoleRowStore.RowNumberQueue();
+        for (int i = acceptedCount - 1; i >= 0; i--) {
+            filteredRowNumbers.addLast(acceptedRowNumbers[i]);
         }
     }
 
     private void trimFilteredList() {
-        while (filteredRows.size() > MAX_SNAPSHOT_SIZE) {
-            filteredRows.removeFirst();
+        long firstRetainedRowNumber = rowStore.getFirstRowNumber();
+        while (filteredRowNumbers.size() > 0
+            && (filteredRowNumbers.size() > MAX_SNAPSHOT_SIZE || filteredRowNumbers.get(0) < firstRetainedRowNumber)) {
+            filteredRowNumbers.removeFirst();
+            filteredListLastChanged = sequenceIdCounter;
+        }
+    }
+
+    private int findFirstFilteredRowAddedAfter(int sequenceId) {
+        // binary search; the sequence ids of the filtered rows are ascending
+        int low = 0;
+        int high = filteredRowNumbers.size();
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (rowStore.getSequenceId(filteredRowNumbers.get(middle)) > sequenceId) {
+                high = middle;
+            } else {
+                low = middle + 1;
+            }
+        }
+        return low;
+    }
+
+    private List<ConsoleRow> getFilteredRows(int fromIndex) {
+        List<ConsoleRow> rows = new ArrayList<ConsoleRow>(filteredRowNumbers.size() - fromIndex);
+        for (int i = fromIndex; i < filteredRowNumbers.size(); i++) {
+            rows.add(rowStore.get(filteredRowNumbers.get(i)));
         }
+        return rows;
     }
 
     /**
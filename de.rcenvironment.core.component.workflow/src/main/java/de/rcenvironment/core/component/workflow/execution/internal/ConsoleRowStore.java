@@ -0,0 +1,234 @@
+/*
+ * Copyright (C) 2006-2014 DLR, Germany
+ * 
+ * All rights reserved
+ * 
+ * http://www.rcenvironment.de/
+ */
+
+package de.rcenvironment.core.component.workflow.execution.internal;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import de.rcenvironment.core.component.execution.api.ConsoleRow;
+
+/**
+ * Ring buffer of the most recent {@link ConsoleRow}s, used by {@link ConsoleRowModelServiceImpl}. Each stored row is assigned an
+ * ascending row number; a row is located by its row number without any lookup structure, and appending a row (which evicts the oldest
+ * one if the store is full) takes constant time.
+ * 
+ * Besides the rows themselves, the store keeps columns of per-row data: the model sequence id the row was added at, and the interned id
+ * of its component name. For filtering, it maintains the row numbers of the retained rows per component name and per
+ * {@link ConsoleRow.Type}. Workflow and component names are interned, so the lists of known names are maintained without collecting the
+ * names of each row into sorted sets.
+ * 
+ * This class is not thread-safe; callers are expected to synchronize externally.
+ * 
+ * @author agent
+ */
+final class ConsoleRowStore {
+
+    private final ConsoleRow[] rows;
+
+    private final int[] sequenceIds;
+
+    private final int[] componentNameIds;
+
+    // the row number of the next row to add; the row number of the oldest row is nextRowNumber - size
+    private long nextRowNumber;
+
+    private int size;
+
+    private final Map<String, Integer> workflowNameIdMap = new HashMap<String, Integer>();
+
+    private final List<String> workflowNames = new ArrayList<String>();
+
+    private final Map<String, Integer> componentNameIdMap = new HashMap<String, Integer>();
+
+    private final List<String> componentNames = new ArrayList<String>();
+
+    // the row numbers of all retained rows, by interned component name id
+    private final List<RowNumberQueue> rowNumbersByComponent = new ArrayList<RowNumberQueue>();
+
+    // the row numbers of all retained rows, by type ordinal
+    private final RowNumberQueue[] rowNumbersByType;
+
+    /**
+     * An ascending sequence of row numbers that is appended to at the end and trimmed at the start.
+     * 
+     * @author agent
+     */
+    static final class RowNumberQueue {
+
+        private static final int INITIAL_CAPACITY = 16;
+
+        private long[] elements = new long[INITIAL_CAPACITY];
+
+        private int head;
+
+        private int size;
+
+        /**
+         * @param rowNumber the row number to append; must be greater than all contained row numbers
+         */
+        void addLast(long rowNumber) {
+            if (size == elements.length) {
+                long[] newElements = new long[elements.length * 2];
+                for (int i = 0; i < size; i++) {
+                    newElements[i] = get(i);
+                }
+                elements = newElements;
+                head = 0;
+            }
+            elements[(head + size) % elements.length] = rowNumber;
+            size++;
+        }
+
+        void removeFirst() {
+            head = (head + 1) % elements.length;
+            size--;
+        }
+
+        long get(int index) {
+            return elements[(head + index) % elements.length];
+        }
+
+        int size() {
+            return size;
+        }
+    }
+
+    /**
+     * @param capacity the maximum number of rows to retain
+     */
+    ConsoleRowStore(int capacity) {
+        rows = new ConsoleRow[capacity];
+        sequenceIds = new int[capacity];
+        componentNameIds = new int[capacity];
+        rowNumbersByType = new RowNumberQueue[ConsoleRow.Type.values().length];
+        for (int i = 0; i < rowNumbersByType.length; i++) {
+            rowNumbersByType[i] = new RowNumberQueue();
+        }
+    }
+
+    /**
+     * Appends a row, evicting the oldest one if the store is full.
+     * 
+     * @param row the row to add
+     * @param sequenceId the model sequence id the row is added at
+     * @return the row number of the added row
+     */
+    long add(ConsoleRow row, int sequenceId) {
+        if (size == rows.length) {
+            evictOldest();
+        }
+        long rowNumber = nextRowNumber;
+        int slot = getSlot(rowNumber);
+        rows[slot] = row;
+        sequenceIds[slot] = sequenceId;
+        intern(row.getWorkflowName(), workflowNameIdMap, workflowNames);
+        int componentNameId = intern(row.getComponentName(), componentNameIdMap, componentNames);
+        componentNameIds[slot] = componentNameId;
+        if (componentNameId == rowNumbersByComponent.size()) {
+            rowNumbersByComponent.add(new RowNumberQueue());
+        }
+        rowNumbersByComponent.get(componentNameId).addLast(rowNumber);
+        rowNumbersByType[row.getType().ordinal()].addLast(rowNumber);
+        nextRowNumber++;
+        size++;
+        return rowNumber;
+    }
+
+    /**
+     * @param rowNumber the row number of a retained row
+     * @return the row
+     */
+    ConsoleRow get(long rowNumber) {
+        return rows[getSlot(rowNumber)];
+    }
+
+    /**
+     * @param rowNumber the row number of a retained row
+     * @return the model sequence id the row was added at
+     */
+    int getSequenceId(long rowNumber) {
+        return sequenceIds[getSlot(rowNumber)];
+    }
+
+    /**
+     * @return the row number of the oldest retained row; if the store is empty, the row number the next row will be assigned
+     */
+    long getFirstRowNumber() {
+        return nextRowNumber - size;
+    }
+
+    /**
+     * @return the row number the next row will be assigned
+     */
+    long getNextRowNumber() {
+        return nextRowNumber;
+    }
+
+    /**
+     * @param componentName the component name
+     * @return the row numbers of the retained rows of the given component name, or null if no row of this component name was added
+     */
+    RowNumberQueue getRowNumbersOfComponent(String componentName) {
+        Integer componentNameId = componentNameIdMap.get(componentName);
+        if (componentNameId == null) {
+            return null;
+        }
+        return rowNumbersByComponent.get(componentNameId);
+    }
+
+    /**
+     * @param type the row type
+     * @return the row numbers of the retained rows of the given type
+     */
+    RowNumberQueue getRowNumbersOfType(ConsoleRow.Type type) {
+        return rowNumbersByType[type.ordinal()];
+    }
+
+    /**
+     * @return the distinct workflow names of all rows ever added, in the order of their first occurrence; note that names of evicted rows
+     *         are not removed
+     */
+    List<String> getWorkflowNames() {
+        return Collections.unmodifiableList(workflowNames);
+    }
+
+    /**
+     * @return the distinct component names of all rows ever added, in the order of their first occurrence; note that names of evicted
+     *         rows are not removed
+     */
+    List<String> getComponentNames() {
+        return Collections.unmodifiableList(componentNames);
+    }
+
+    private void evictOldest() {
+        int slot = getSlot(getFirstRowNumber());
+        // the evicted row is always the first entry of its index queues
+        rowNumbersByComponent.get(componentNameIds[slot]).removeFirst();
+        rowNumbersByType[rows[slot].getType().ordinal()].removeFirst();
+        rows[slot] = null;
+        size--;
+    }
+
+    private int getSlot(long rowNumber) {
+        return (int) (rowNumber % rows.length);
+    }
+
+    private static int intern(String name, Map<String, Integer> nameIdMap, List<String> names) {
+        Integer nameId = nameIdMap.get(name);
+        if (nameId == null) {
+            nameId = names.size();
+            nameIdMap.put(name, nameId);
+            names.add(name);
+        }
+        return nameId;
+    }
+}
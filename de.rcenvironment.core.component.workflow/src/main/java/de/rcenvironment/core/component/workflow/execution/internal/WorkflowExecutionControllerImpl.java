@@ -9,6 +9,7 @@
 package de.rcenvironment.core.component.workflow.execution.internal;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -33,10 +34,12 @@ import de.rcenvironment.core.component.execution.api.ComponentExecutionService;
 import de.rcenvironment.core.component.execution.api.ComponentState;
 import de.rcenvironment.core.component.execution.api.ConsoleRow;
 import de.rcenvironment.core.component.execution.api.ConsoleRowBuilder;
+import de.rcenvironment.core.component.execution.api.EndpointDatumSerializer;
 import de.rcenvironment.core.component.execution.api.WorkflowExecutionControllerCallback;
 import de.rcenvironment.core.component.execution.api.WorkflowGraph;
 import de.rcenvironment.core.component.execution.api.WorkflowGraphEdge;
 import de.rcenvironment.core.component.execution.api.WorkflowGraphNode;
+import de.rcenvironment.core.component.model.endpoint.api.EndpointDatum;
 import de.rcenvironment.core.component.model.endpoint.api.EndpointDatumRecipient;
 import de.rcenvironment.core.component.model.endpoint.api.EndpointDatumRecipientFactory;
 import de.rcenvironment.core.component.model.endpoint.api.EndpointDescription;
@@ -67,6 +70,7 @@ import de.rcenvironment.core.utils.incubator.StateChangeException;
  * Implementation of {@link WorkflowExecutionController}.
  * 
  * @author Doreen Seider
+ * @author agent (heartbeat and processed inputs batching)
  */
 public class WorkflowExecutionControllerImpl implements WorkflowExecutionController, WorkflowExecutionControllerCallback {
 
@@ -708,7 +712,8 @@ public class WorkflowExecutionControllerImpl implements WorkflowExecutionControl
                         @Override
                         public void callSingleComponent(String compExeId) throws CommunicationException {
                             componentExecutionService.start(compExeId, componentExecutionIds.get(compExeId));
-                            onComponentHeartbeatReceived(compExeId);
+                            // initial heartbeat; the component node sends further ones in batches with those of its other components
+                            componentHeartbeatTimestamps.put(compExeId, System.currentTimeMillis());
                         }
                     }.callParallelAndWait();
 
@@ -1114,6 +1119,15 @@ public class WorkflowExecutionControllerImpl implements WorkflowExecutionControl
             + ComponentConstants.PORCESSED_INPUT_NOTIFICATION_ID_SUFFIX, serializedEndpointDatum);
     }
 
+    @Override
+    @AllowRemoteAccess
+    public void onInputsProcessed(byte[] serializedEndpointDatums) {
+        for (EndpointDatum endpointDatum : EndpointDatumSerializer.deserializeEndpointDatums(serializedEndpointDatums)) {
+            // the notification format is kept, as subscribers expect the string form of single EndpointDatums
+            onInputProcessed(EndpointDatumSerializer.serializeEndpointDatum(endpointDatum));
+        }
+    }
+
     @Override
     @AllowRemoteAccess
     public void processConsoleRows(ConsoleRow[] consoleRows) {
@@ -1131,9 +1145,13 @@ public class WorkflowExecutionControllerImpl implements WorkflowExecutionControl
     }
     
     @Override
-    @AllowRemoteAccess
-    public void onComponentHeartbeatReceived(String executionIdentifier) {
-        componentHeartbeatTimestamps.put(executionIdentifier, System.currentTimeMillis());
+    public void onComponentHeartbeatsReceived(Collection<String> compExeIds) {
+        Long currentTimestamp = System.currentTimeMillis();
+        synchronized (componentHeartbeatTimestamps) {
+            for (String compExeId : compExeIds) {
+                componentHeartbeatTimestamps.put(compExeId, currentTimestamp);
+            }
+        }
     }
 
     private void checkForLifecycleInfoEndConsoleRow(ConsoleRow row) {
@@ -15,6 +15,7 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Hashtable;
 import java.util.Map;
+import java.util.Set;
 
 import org.apache.commons.logging.LogFactory;
 import org.osgi.framework.BundleContext;
@@ -23,6 +24,7 @@ import org.osgi.framework.ServiceReference;
 import org.osgi.framework.ServiceRegistration;
 
 import de.rcenvironment.core.communication.management.WorkflowHostService;
+import de.rcenvironment.core.component.execution.api.ComponentHeartbeatProcessor;
 import de.rcenvironment.core.component.execution.api.ExecutionConstants;
 import de.rcenvironment.core.component.execution.api.WorkflowExecutionControllerCallback;
 import de.rcenvironment.core.component.workflow.execution.api.WorkflowExecutionContext;
@@ -38,8 +40,9 @@ import de.rcenvironment.core.utils.common.security.AllowRemoteAccess;
  * Implementation of {@link WorkflowExecutionControllerService}.
  * 
  * @author Doreen Seider
+ * @author agent (heartbeat batching)
  */
-public class WorkflowExecutionControllerServiceImpl implements WorkflowExecutionControllerService {
+public class WorkflowExecutionControllerServiceImpl implements WorkflowExecutionControllerService, ComponentHeartbeatProcessor {
 
     private BundleContext bundleContext;
     
@@ -138,7 +141,31 @@ public class WorkflowExecutionControllerServiceImpl implements WorkflowExecution
         return new HashSet<WorkflowExecutionInformation>(workflowExecutionInformations.values());
     }
 
+    @Override
+    @AllowRemoteAccess
+    public void onComponentHeartbeatsReceived(Map<String, Set<String>> compExeIdsByWfExeId) {
+        for (Map.Entry<String, Set<String>> entry : compExeIdsByWfExeId.entrySet()) {
+            WorkflowExecutionController workflowController = findWorkflowExecutionController(entry.getKey());
+            if (workflowController != null) {
+                workflowController.onComponentHeartbeatsReceived(entry.getValue());
+            } else {
+                // the workflow was disposed while heartbeats of its components were sent
+                LogFactory.getLog(getClass()).debug(String.format("Ignored heartbeats of %d component(s) of unknown workflow '%s'",
+                    entry.getValue().size(), entry.getKey()));
+            }
+        }
+    }
+
     private WorkflowExecutionController getWorkflowExecutionController(String executionId) {
+        WorkflowExecutionController workflowController = findWorkflowExecutionController(executionId);
+        if (workflowController == null) {
+            throw new RuntimeException(String.format("%s with id '%s' not registered as OSGi service",
+                WorkflowExecutionController.class.getSimpleName(), executionId));
+        }
+        return workflowController;
+    }
+
+    private WorkflowExecutionController findWorkflowExecutionController(String executionId) {
 
         String filter = createPropertyFilter(executionId);
         try {
@@ -156,8 +183,7 @@ public class WorkflowExecutionControllerServiceImpl implements WorkflowExecution
             LogFactory.getLog(getClass()).warn("Bundle seems to be shutted down. "
                 + "If this occurs at any time thant shut down, it is an error", e);
         }
-        throw new RuntimeException(String.format("%s with id '%s' not registered as OSGi service",
-            WorkflowExecutionController.class.getSimpleName(), executionId));
+        return null;
     }
 
     private String createPropertyFilter(String executionId) {
@@ -13,6 +13,7 @@ import java.io.IOException;
 
 import de.rcenvironment.core.communication.common.NodeIdentifier;
 import de.rcenvironment.core.component.execution.api.ComponentContext;
+import de.rcenvironment.core.datamodel.types.api.BigTableTD;
 import de.rcenvironment.core.datamodel.types.api.DirectoryReferenceTD;
 import de.rcenvironment.core.datamodel.types.api.FileReferenceTD;
 
@@ -102,6 +103,33 @@ public interface ComponentDataManagementService {
     DirectoryReferenceTD createDirectoryReferenceTDFromLocalDirectory(ComponentContext componentContext, File dir,
         String dirname) throws IOException;
     
+    /**
+     * Creates a {@link BigTableTD} object from a local file that was written by a
+     * {@link de.rcenvironment.core.datamodel.api.BigTableWriter}, by creating a new data management
+     * reference.
+     * 
+     * @param componentContext {@link ComponentContext} of the calling component
+     * @param file the local file containing the table content
+     * @param rowCount number of rows of the table
+     * @param columnCount number of columns of the table
+     * @return {@link BigTableTD}
+     * @throws IOException if given file doesn't exist or on data management error
+     */
+    BigTableTD createBigTableTDFromLocalFile(ComponentContext componentContext, File file, long rowCount, int columnCount)
+        throws IOException;
+
+    /**
+     * Retrieves the content of a {@link BigTableTD} from the data management into a local file,
+     * which can then be read with a {@link de.rcenvironment.core.datamodel.api.BigTableReader}.
+     * 
+     * @param componentContext {@link ComponentContext} of the calling component
+     * @param bigTable {@link BigTableTD}
+     * @param targetFile local target file
+     * @throws IOException on a local I/O or data management error
+     */
+    void copyBigTableTDToLocalFile(ComponentContext componentContext, BigTableTD bigTable, File targetFile)
+        throws IOException;
+
     /**
      * Retrieves a file from the data management referred by the given {@link FileReferenceTD}.
      * 
@@ -0,0 +1,28 @@
+/*
+ * Copyright (C) 2006-2014 DLR, Germany
+ * 
+ * All rights reserved
+ * 
+ * http://www.rcenvironment.de/
+ */
+
+package de.rcenvironment.core.component.execution.api;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Processes the heartbeats of {@link ComponentExecutionController}s, which are sent as a single batch per pair of component node and
+ * workflow controller node. There is one {@link ComponentHeartbeatProcessor} per node.
+ * 
+ * @author agent
+ */
+public interface ComponentHeartbeatProcessor {
+
+    /**
+     * Called periodically by each node executing components of workflows controlled by this node.
+     * 
+     * @param compExeIdsByWfExeId execution identifiers of the components still alive, by execution identifier of their workflow
+     */
+    void onComponentHeartbeatsReceived(Map<String, Set<String>> compExeIdsByWfExeId);
+}
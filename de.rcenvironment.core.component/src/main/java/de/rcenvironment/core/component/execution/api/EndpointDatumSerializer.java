@@ -8,24 +8,127 @@
  
 package de.rcenvironment.core.component.execution.api;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import de.rcenvironment.core.communication.common.NodeIdentifier;
 import de.rcenvironment.core.communication.common.NodeIdentifierFactory;
 import de.rcenvironment.core.component.execution.internal.InternalTDImpl;
 import de.rcenvironment.core.component.model.endpoint.api.EndpointDatum;
 import de.rcenvironment.core.component.model.endpoint.impl.EndpointDatumImpl;
 import de.rcenvironment.core.datamodel.api.DataType;
+import de.rcenvironment.core.datamodel.api.TypedDatumBinarySerializer;
 import de.rcenvironment.core.datamodel.api.TypedDatumSerializer;
 import de.rcenvironment.core.datamodel.api.TypedDatumService;
+import de.rcenvironment.core.utils.common.BinaryFormatUtils;
 import de.rcenvironment.core.utils.common.StringUtils;
 
 /**
  * (De-)Serializes {@link EndpointDatum} objects.
  * 
+ * Besides the string form, which is also used for notifications and callbacks, there is a compact binary form for transmitting batches of
+ * {@link EndpointDatum}s between nodes. It embeds the values in the {@link TypedDatumBinarySerializer} format, and writes each distinct
+ * identifier string (input names, execution and node ids) only once per batch.
+ * 
  * @author Doreen Seider
+ * @author agent (binary batch format)
  */
 public final class EndpointDatumSerializer {
     
     protected static TypedDatumSerializer typedDatumSerializer;
 
+    protected static TypedDatumBinarySerializer typedDatumBinarySerializer;
+
+    /**
+     * The version of the binary batch format; must be increased on any change to it or to the embedded
+     * {@link TypedDatumBinarySerializer#FORMAT_VERSION}.
+     */
+    private static final int BINARY_FORMAT_VERSION = 1;
+
+    private static final int BINARY_VALUE_TYPED_DATUM = 0;
+
+    private static final int BINARY_VALUE_INTERNAL = 1;
+
+    private static final int INITIAL_BINARY_BUFFER_SIZE = 256;
+
+    /**
+     * Writes strings to a binary output; repeated strings are replaced by a reference to their first occurrence.
+     * 
+     * @author agent
+     */
+    private static final class InterningStringWriter {
+
+        private final Map<String, Integer> stringIndices = new HashMap<>();
+
+        private final DataOutput output;
+
+        InterningStringWriter(DataOutput output) {
+            this.output = output;
+        }
+
+        void write(String value) throws IOException {
+            Integer index = stringIndices.get(value);
+            if (index != null) {
+                // zero is reserved for inline strings
+                BinaryFormatUtils.writeUnsignedVarInt(output, index + 1);
+            } else {
+                BinaryFormatUtils.writeUnsignedVarInt(output, 0);
+                BinaryFormatUtils.writeString(output, value);
+                stringIndices.put(value, stringIndices.size());
+            }
+        }
+    }
+
+    /**
+     * Reads strings written by an {@link InterningStringWriter}; also reuses {@link NodeIdentifier} instances for repeated node ids.
+     * 
+     * @author agent
+     */
+    private static final class InterningStringReader {
+
+        private final List<String> strings = new ArrayList<>();
+
+        private final Map<String, NodeIdentifier> nodeIds = new HashMap<>();
+
+        private final DataInput input;
+
+        InterningStringReader(DataInput input) {
+            this.input = input;
+        }
+
+        String read() throws IOException {
+            int reference = BinaryFormatUtils.readUnsignedVarInt(input);
+            if (reference == 0) {
+                String value = BinaryFormatUtils.readString(input);
+                strings.add(value);
+                return value;
+            }
+            if (reference > strings.size()) {
+                throw new IOException("Invalid string reference: " + reference);
+            }
+            return strings.get(reference - 1);
+        }
+
+        NodeIdentifier readNodeId() throws IOException {
+            String idString = read();
+            NodeIdentifier nodeId = nodeIds.get(idString);
+            if (nodeId == null) {
+                nodeId = NodeIdentifierFactory.fromNodeId(idString);
+                nodeIds.put(idString, nodeId);
+            }
+            return nodeId;
+        }
+    }
+
     @Deprecated
     public EndpointDatumSerializer() {}
     
@@ -79,7 +182,86 @@ public final class EndpointDatumSerializer {
         return endpoint;
     }
     
+    /**
+     * Serializes a list of {@link EndpointDatum}s to the binary batch format.
+     * 
+     * @param endpointDatums the {@link EndpointDatum}s to serialize
+     * @return serialized {@link EndpointDatum}s
+     */
+    public static byte[] serializeEndpointDatums(List<EndpointDatum> endpointDatums) {
+        ByteArrayOutputStream byteStream = new ByteArrayOutputStream(INITIAL_BINARY_BUFFER_SIZE);
+        DataOutputStream output = new DataOutputStream(byteStream);
+        InterningStringWriter stringWriter = new InterningStringWriter(output);
+        try {
+            output.writeByte(BINARY_FORMAT_VERSION);
+            BinaryFormatUtils.writeUnsignedVarInt(output, endpointDatums.size());
+            for (EndpointDatum endpoint : endpointDatums) {
+                stringWriter.write(endpoint.getInputName());
+                if (endpoint.getValue().getDataType().equals(DataType.Internal)) {
+                    output.writeByte(BINARY_VALUE_INTERNAL);
+                    BinaryFormatUtils.writeString(output, ((InternalTDImpl) endpoint.getValue()).serialize());
+                } else {
+                    output.writeByte(BINARY_VALUE_TYPED_DATUM);
+                    typedDatumBinarySerializer.write(endpoint.getValue(), output);
+                }
+                stringWriter.write(endpoint.getInputComponentExecutionIdentifier());
+                stringWriter.write(endpoint.getInputsNodeId().getIdString());
+                stringWriter.write(endpoint.getWorkflowExecutionIdentifier());
+                stringWriter.write(endpoint.getWorkflowNodeId().getIdString());
+                output.writeBoolean(endpoint.getDataManagementId() != null);
+                if (endpoint.getDataManagementId() != null) {
+                    BinaryFormatUtils.writeVarLong(output, endpoint.getDataManagementId());
+                }
+            }
+            output.flush();
+        } catch (IOException e) {
+            // not expected for in-memory streams
+            throw new IllegalStateException(e);
+        }
+        return byteStream.toByteArray();
+    }
+
+    /**
+     * Deserializes a list of {@link EndpointDatum}s from the binary batch format.
+     * 
+     * @param serializedEndpointDatums {@link EndpointDatum}s to deserialize
+     * @return deserialized {@link EndpointDatum} objects, in their original order
+     */
+    public static List<EndpointDatum> deserializeEndpointDatums(byte[] serializedEndpointDatums) {
+        DataInputStream input = new DataInputStream(new ByteArrayInputStream(serializedEndpointDatums));
+        InterningStringReader stringReader = new InterningStringReader(input);
+        try {
+            int version = input.readUnsignedByte();
+            if (version != BINARY_FORMAT_VERSION) {
+                throw new IllegalArgumentException("Unsupported endpoint datum format version: " + version);
+            }
+            int count = BinaryFormatUtils.readUnsignedVarInt(input);
+            List<EndpointDatum> endpointDatums = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                EndpointDatumImpl endpoint = new EndpointDatumImpl();
+                endpoint.setIdentifier(stringReader.read());
+                if (input.readUnsignedByte() == BINARY_VALUE_INTERNAL) {
+                    endpoint.setValue(InternalTDImpl.fromString(BinaryFormatUtils.readString(input)));
+                } else {
+                    endpoint.setValue(typedDatumBinarySerializer.read(input));
+                }
+                endpoint.setInputsComponentExecutionIdentifier(stringReader.read());
+                endpoint.setInputsNode(stringReader.readNodeId());
+                endpoint.setWorkflowExecutionIdentifier(stringReader.read());
+                endpoint.setWorkfowNodeId(stringReader.readNodeId());
+                if (input.readBoolean()) {
+                    endpoint.setDataManagementId(BinaryFormatUtils.readVarLong(input));
+                }
+                endpointDatums.add(endpoint);
+            }
+            return endpointDatums;
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Malformed serialized endpoint datums", e);
+        }
+    }
+
     protected void bindTypedDatumService(TypedDatumService typedDatumService) {
         typedDatumSerializer = typedDatumService.getSerializer();
+        typedDatumBinarySerializer = typedDatumService.getBinarySerializer();
     }
 }
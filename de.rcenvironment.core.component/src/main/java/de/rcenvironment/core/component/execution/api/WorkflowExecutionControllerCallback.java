@@ -12,6 +12,7 @@ package de.rcenvironment.core.component.execution.api;
  * Callback class used to callback workflow {@link ExecutionController}s, mainly by associated {@link ComponentExecutionController} objects.
  * 
  * @author Doreen Seider
+ * @author agent (batched processed inputs)
  */
 public interface WorkflowExecutionControllerCallback extends BatchedConsoleRowsProcessor {
     
@@ -49,10 +50,12 @@ public interface WorkflowExecutionControllerCallback extends BatchedConsoleRowsP
     void onInputProcessed(String serializedEndpointDatum);
     
     /**
-     * Called if a component said that he is still alive.
+     * Called for a batch of input values passed to upcoming calls of {@link Component#processInputs()}. The {@link EndpointDatum}s are
+     * handled in their serialized order, as if {@link #onInputProcessed(String)} was called for each of them.
      *  
-     * @param executionIdentifier execution identifier of the calling component
+     * @param serializedEndpointDatums {@link EndpointDatum}s read, in the binary format of
+     *        {@link EndpointDatumSerializer#serializeEndpointDatums(java.util.List)}
      */
-    void onComponentHeartbeatReceived(String executionIdentifier);
+    void onInputsProcessed(byte[] serializedEndpointDatums);
 
 }
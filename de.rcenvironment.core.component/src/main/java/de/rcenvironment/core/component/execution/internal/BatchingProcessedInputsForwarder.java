@@ -0,0 +1,74 @@
+/*
+ * Copyright (C) 2006-2014 DLR, Germany
+ * 
+ * All rights reserved
+ * 
+ * http://www.rcenvironment.de/
+ */
+
+package de.rcenvironment.core.component.execution.internal;
+
+import java.util.List;
+
+import de.rcenvironment.core.component.execution.api.EndpointDatumSerializer;
+import de.rcenvironment.core.component.execution.api.WorkflowExecutionControllerCallback;
+import de.rcenvironment.core.component.model.endpoint.api.EndpointDatum;
+import de.rcenvironment.core.utils.common.concurrent.BatchAggregator;
+
+/**
+ * Collects the {@link EndpointDatum}s processed by a component and reports them as batches to the provided
+ * {@link WorkflowExecutionControllerCallback}. The batches are serialized in the binary format of
+ * {@link EndpointDatumSerializer#serializeEndpointDatums(List)}, so the identifiers shared by the {@link EndpointDatum}s of a component
+ * are transferred only once per batch.
+ * 
+ * The reports are sent from the dispatch queue of the {@link BatchAggregator}, which is separate from the calls reporting state changes
+ * and console rows. They are still sent in the order the {@link EndpointDatum}s were processed, but may arrive up to the maximum batch
+ * latency later than other events of the component that happened after them, e.g. state changes. Therefore, {@link #flush()}, which
+ * waits until all reports are sent, must be called before the final state of the component is reported.
+ * 
+ * @author agent
+ */
+public class BatchingProcessedInputsForwarder {
+
+    // the maximum number of EndpointDatums to aggregate to a single batch
+    // NOTE: arbitrary value; adjust when useful/necessary
+    static final int MAX_BATCH_SIZE = 100;
+
+    // the maximum time the report of an EndpointDatum may be delayed by batch aggregation
+    // NOTE: arbitrary value; adjust when useful/necessary
+    static final long MAX_BATCH_LATENCY_MSEC = 200;
+
+    private final BatchAggregator<EndpointDatum> batchAggregator;
+
+    public BatchingProcessedInputsForwarder(final WorkflowExecutionControllerCallback wfExeCtrlCallback) {
+        BatchAggregator.BatchProcessor<EndpointDatum> batchProcessor = new BatchAggregator.BatchProcessor<EndpointDatum>() {
+
+            @Override
+            public void processBatch(List<EndpointDatum> batch) {
+                wfExeCtrlCallback.onInputsProcessed(EndpointDatumSerializer.serializeEndpointDatums(batch));
+            }
+
+        };
+        batchAggregator = new BatchAggregator<EndpointDatum>(MAX_BATCH_SIZE, MAX_BATCH_LATENCY_MSEC, batchProcessor);
+    }
+
+    /**
+     * Reports an {@link EndpointDatum} passed to an upcoming call of a component's processInputs() method.
+     * 
+     * @param endpointDatum the {@link EndpointDatum} processed
+     */
+    public void onInputProcessed(EndpointDatum endpointDatum) {
+        batchAggregator.enqueue(endpointDatum);
+    }
+
+    /**
+     * Sends the {@link EndpointDatum}s reported so far without waiting for the batch latency to elapse, and blocks until they are sent;
+     * called when the component is torn down or disposed.
+     * 
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public void flush() throws InterruptedException {
+        batchAggregator.flush();
+    }
+
+}
@@ -24,13 +24,10 @@ import java.util.Queue;
 import java.util.Set;
 import java.util.SortedSet;
 import java.util.TreeSet;
-import java.util.concurrent.BlockingDeque;
 import java.util.concurrent.CancellationException;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
-import java.util.concurrent.LinkedBlockingDeque;
-import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -55,7 +52,6 @@ import de.rcenvironment.core.component.execution.api.ConsoleRow;
 import de.rcenvironment.core.component.execution.api.ConsoleRow.Type;
 import de.rcenvironment.core.component.execution.api.ConsoleRow.WorkflowLifecyleEventType;
 import de.rcenvironment.core.component.execution.api.ConsoleRowBuilder;
-import de.rcenvironment.core.component.execution.api.EndpointDatumSerializer;
 import de.rcenvironment.core.component.execution.api.ThreadHandler;
 import de.rcenvironment.core.component.execution.api.WorkflowExecutionControllerCallback;
 import de.rcenvironment.core.component.execution.api.WorkflowGraphHop;
@@ -77,8 +73,6 @@ import de.rcenvironment.core.datamodel.api.TypedDatumService;
 import de.rcenvironment.core.datamodel.types.api.NotAValueTD;
 import de.rcenvironment.core.utils.common.StringUtils;
 import de.rcenvironment.core.utils.common.TempFileServiceAccess;
-import de.rcenvironment.core.utils.common.concurrent.AsyncCallbackExceptionPolicy;
-import de.rcenvironment.core.utils.common.concurrent.AsyncOrderedExecutionQueue;
 import de.rcenvironment.core.utils.common.concurrent.SharedThreadPool;
 import de.rcenvironment.core.utils.common.concurrent.TaskDescription;
 import de.rcenvironment.core.utils.common.concurrent.ThreadPool;
@@ -90,17 +84,18 @@ import de.rcenvironment.core.utils.incubator.StateChangeException;
  * Implementation of {@link ComponentExecutionController}.
  * 
  * @author Doreen Seider
+ * @author agent (heartbeat and processed inputs batching)
  */
 public class ComponentExecutionControllerImpl implements ComponentExecutionController {
 
     private static final Log LOG = LogFactory.getLog(ComponentExecutionControllerImpl.class);
     
-    private static final int HEARTBEAT_SEND_INTERVAL_MSEC = 60 * 1000;
-    
     private static ComponentExecutionPermitsService componentExecutionPermitService;
 
     private static EndpointDatumSender endpointDatumSender;
 
+    private static ComponentHeartbeatSender componentHeartbeatSender;
+
     private static TypedDatumService typedDatumService;
 
     private static DistributedMetaDataService metaDataService;
@@ -176,13 +171,8 @@ public class ComponentExecutionControllerImpl implements ComponentExecutionContr
 
     private final ThreadPool threadPool = SharedThreadPool.getInstance();
 
-    private final AsyncOrderedExecutionQueue executionQueue = new AsyncOrderedExecutionQueue(
-        AsyncCallbackExceptionPolicy.LOG_AND_PROCEED, threadPool);
-    
     private final CountDownLatch componentTerminatedLatch = new CountDownLatch(1);
 
-    private ScheduledFuture<?> heartbeatFuture;
-    
     private AtomicBoolean workflowControllerReachable = new AtomicBoolean(true);
     
     private ComponentExecutionStorageBridge compDataManagementStorage;
@@ -195,12 +185,12 @@ public class ComponentExecutionControllerImpl implements ComponentExecutionContr
 
     private ComponentStateMachine stateMachine;
 
-    private BlockingDeque<EndpointDatum> endpointDatumsToProcess = new LinkedBlockingDeque<>();
-
     private Map<String, EndpointDatum> endpointDatumsForExecution = Collections.synchronizedMap(new HashMap<String, EndpointDatum>());
 
     private BatchingConsoleRowsForwarder consoleRowsForwarder;
 
+    private BatchingProcessedInputsForwarder processedInputsForwarder;
+
     private AtomicInteger executionCount = new AtomicInteger(1);
 
     private SortedSet<Integer> executionCountOnResets = new TreeSet<>();
@@ -409,24 +399,6 @@ public class ComponentExecutionControllerImpl implements ComponentExecutionContr
 
     };
     
-    private Runnable heartbeatRunnable = new Runnable() {
-        @Override
-        @TaskDescription("Send heartbeat for component")
-        public void run() {
-//            LOG.debug("Sending component heartbeat: " + compExeCtx.getExecutionIdentifier());
-            try {
-                wfExeCtrlCallback.onComponentHeartbeatReceived(compExeCtx.getExecutionIdentifier());    
-                workflowControllerReachable.set(true);
-            } catch (UndeclaredThrowableException e) {
-                workflowControllerReachable.set(false);
-                LOG.error("Failed to send heartbeat to workflow controller: " + e.getCause().toString());               
-            } catch (RuntimeException e) {
-                workflowControllerReachable.set(false);
-                LOG.error("Failed to send heartbeat to workflow controller: " + e.toString());
-            }
-        }
-    };
-    
     @Deprecated
     public ComponentExecutionControllerImpl() {}
 
@@ -436,14 +408,15 @@ public class ComponentExecutionControllerImpl implements ComponentExecutionContr
         this.stateMachine = new ComponentStateMachine();
         this.wfExeCtrlCallback = componentExecutionEventCallback;
         this.consoleRowsForwarder = new BatchingConsoleRowsForwarder(this.wfExeCtrlCallback);
+        this.processedInputsForwarder = new BatchingProcessedInputsForwarder(this.wfExeCtrlCallback);
         this.timestampOffsetToWorkfowNode = (int) (currentTimestampOffWorkflowNode - System.currentTimeMillis());
         this.isNestedLoopComponent = Boolean.valueOf(compExeCtx.getComponentDescription()
             .getConfigurationDescription().getConfigurationValue(ComponentConstants.CONFIG_KEY_IS_NESTED_LOOP));
         this.compDataManagementStorage = new ComponentExecutionStorageBridge(metaDataService, executionContext,
             timestampOffsetToWorkfowNode);
-        this.executionScheduler = new ExecutionScheduler(compExeCtx, endpointDatumsToProcess, stateMachine);
+        this.executionScheduler = new ExecutionScheduler(compExeCtx, stateMachine);
         
-        heartbeatFuture = threadPool.scheduleAtFixedRate(heartbeatRunnable, HEARTBEAT_SEND_INTERVAL_MSEC);
+        componentHeartbeatSender.register(compExeCtx, workflowControllerReachable);
     }
 
     @Override
@@ -489,7 +462,7 @@ public class ComponentExecutionControllerImpl implements ComponentExecutionContr
 
     @Override
     public void onEndpointDatumReceived(final EndpointDatum endpointDatum) {
-        endpointDatumsToProcess.add(endpointDatum);
+        executionScheduler.onEndpointDatumReceived(endpointDatum);
     }
 
     @Override
@@ -520,6 +493,7 @@ public class ComponentExecutionControllerImpl implements ComponentExecutionContr
         RESTART_REQUESTED,
         RESET_REQUESTED,
         IDLE_REQUESTED,
+        SCHEDULING_STATE_CHANGED,
 
         // successful attempts
         PREPARATION_SUCCESSFUL,
@@ -714,6 +688,24 @@ public class ComponentExecutionControllerImpl implements ComponentExecutionContr
                     checkExecutionDemandAsync();
                 }
                 break;
+            case SCHEDULING_STATE_CHANGED:
+                switch (currentState) {
+                case IDLING:
+                case IDLING_AFTER_RESET:
+                    checkExecutionDemandAsync();
+                    break;
+                case RESUMING:
+                    // event was deferred by a pause request
+                    if (checkStateChange(currentState, ComponentState.IDLING, event)) {
+                        state = ComponentState.IDLING;
+                        checkExecutionDemandAsync();
+                    }
+                    break;
+                default:
+                    // otherwise, the scheduling state is requested on the next idling
+                    break;
+                }
+                break;
             case RESET_SUCCESSFUL:
                 if (checkStateChange(currentState, ComponentState.IDLING_AFTER_RESET, event)) {
                     state = ComponentState.IDLING_AFTER_RESET;
@@ -733,7 +725,7 @@ public class ComponentExecutionControllerImpl implements ComponentExecutionContr
             case DISPOSE_ATTEMPT_SUCCESSFUL:
                 if (checkStateChange(currentState, ComponentState.DISPOSED, event)) {
                     state = ComponentState.DISPOSED;
-                    heartbeatFuture.cancel(true);
+                    componentHeartbeatSender.unregister(compExeCtx.getExecutionIdentifier());
                 }
                 break;
             case FINISHED:
@@ -1073,9 +1065,6 @@ public class ComponentExecutionControllerImpl implements ComponentExecutionContr
                         State schedulingState;
                         try {
                             schedulingState = executionScheduler.getSchedulingState();
-                        } catch (InterruptedException e) {
-                            Thread.currentThread().interrupt();
-                            return;
                         } catch (ComponentExecutionException e) {
                             stateMachine.postEvent(new ComponentStateMachineEvent(ComponentStateMachineEventType.SCHEDULING_FAILED, e));
                             return;
@@ -1117,6 +1106,8 @@ public class ComponentExecutionControllerImpl implements ComponentExecutionContr
                             break;
                         case IDLING:
                         default:
+                            // the state machine is notified by the scheduler as soon as new inputs change the scheduling state
+                            isIdling = false;
                             break;
                         }
                     }
@@ -1296,13 +1287,8 @@ public class ComponentExecutionControllerImpl implements ComponentExecutionContr
             @Override
             @TaskDescription("Forward finish state")
             public void run() {
-                try {
-                    synchronized (stateMachine) {
-                        executionScheduler.stop();
-                    }
-                } catch (InterruptedException | ExecutionException e) {
-                    LOG.error("Failed to stop execution scheduler", e);
-                }
+                executionScheduler.stop();
+                flushProcessedInputs();
                 
                 Component.FinalComponentState finalStateForComp = null;
                 FinalComponentState finalStateForDm = null;
@@ -1366,6 +1352,7 @@ public class ComponentExecutionControllerImpl implements ComponentExecutionContr
             @Override
             @TaskDescription("Dispose component")
             public void run() {
+                flushProcessedInputs();
                 if (component != null) {
                     try {
                         component.dispose();
@@ -1379,6 +1366,21 @@ public class ComponentExecutionControllerImpl implements ComponentExecutionContr
             }
         }
 
+        /**
+         * Sends the inputs processed so far and waits until they are sent, so that they reach the workflow controller before the final
+         * state of the component.
+         */
+        private void flushProcessedInputs() {
+            try {
+                processedInputsForwarder.flush();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                LOG.warn(String.format("Interrupted while sending the processed inputs of component '%s' (%s) of workflow '%s' (%s)",
+                    compExeCtx.getInstanceName(), compExeCtx.getExecutionIdentifier(),
+                    compExeCtx.getWorkflowInstanceName(), compExeCtx.getWorkflowExecutionIdentifier()), e);
+            }
+        }
+
         private void disposeWorkingDirectory() {
             if (compExeCtx.getWorkingDirectory() != null) {
                 try {
@@ -1454,6 +1456,10 @@ public class ComponentExecutionControllerImpl implements ComponentExecutionContr
         ComponentExecutionControllerImpl.endpointDatumSender = newService;
     }
 
+    protected void bindComponentHeartbeatSender(ComponentHeartbeatSender newService) {
+        ComponentExecutionControllerImpl.componentHeartbeatSender = newService;
+    }
+
     protected void bindTypedDatumService(TypedDatumService newService) {
         ComponentExecutionControllerImpl.typedDatumService = newService;
     }
@@ -1515,15 +1521,10 @@ public class ComponentExecutionControllerImpl implements ComponentExecutionContr
         
         private void storeInputs() throws ComponentExecutionException {
             
-            for (final Entry<String, EndpointDatum> entry : endpointDatumsForExecution.entrySet()) {
+            for (Entry<String, EndpointDatum> entry : endpointDatumsForExecution.entrySet()) {
                 if (entry.getValue().getDataManagementId() != null) {
                     compDataManagementStorage.addInput(entry.getKey(), entry.getValue().getDataManagementId());
-                    executionQueue.enqueue(new Runnable() {
-                        @Override
-                        public void run() {
-                            wfExeCtrlCallback.onInputProcessed(EndpointDatumSerializer.serializeEndpointDatum(entry.getValue()));
-                        }
-                    });
+                    processedInputsForwarder.onInputProcessed(entry.getValue());
                 }
             }
         }
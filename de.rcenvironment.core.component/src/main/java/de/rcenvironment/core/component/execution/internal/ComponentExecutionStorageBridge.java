@@ -8,23 +8,50 @@
  
 package de.rcenvironment.core.component.execution.internal;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
 
 import de.rcenvironment.core.communication.common.CommunicationException;
 import de.rcenvironment.core.communication.common.NodeIdentifier;
 import de.rcenvironment.core.component.execution.api.ComponentExecutionContext;
 import de.rcenvironment.core.component.execution.api.ComponentExecutionException;
 import de.rcenvironment.core.datamanagement.DistributedMetaDataService;
+import de.rcenvironment.core.datamanagement.commons.EndpointDatumRecord;
 import de.rcenvironment.core.datamodel.api.FinalComponentState;
+import de.rcenvironment.core.utils.common.concurrent.AsyncCallbackExceptionPolicy;
+import de.rcenvironment.core.utils.common.concurrent.AsyncOrderedExecutionQueue;
+import de.rcenvironment.core.utils.common.concurrent.SharedThreadPool;
+import de.rcenvironment.core.utils.common.concurrent.TaskDescription;
 
 /**
  * Bridge class to the data management, holding relevant data management ids.
  * 
+ * Inputs and outputs are not stored one by one, as this would add a round trip to the storage node to each output written. Instead,
+ * the identifiers of output data are reserved in blocks in advance, and inputs and outputs are collected and stored in batches
+ * asynchronously, in the order they were added. All of them are stored when a component run is finished.
+ * 
  * @author Doreen Seider
+ * @author agent (batched storage of inputs and outputs)
  */
 public class ComponentExecutionStorageBridge {
 
+    private static final int TYPED_DATUM_ID_BLOCK_SIZE = 20;
+
+    private static final int MAX_BATCH_SIZE = 50;
+
+    // limits the memory used by batches not stored yet, if the storage node is slower than the component
+    private static final int MAX_PENDING_BATCHES = 4;
+
     private final String errorMessageSuffix;
     
     private final DistributedMetaDataService metaDataService;
@@ -45,6 +72,23 @@ public class ComponentExecutionStorageBridge {
     
     private EndpointCountMap outputCount = new EndpointCountMap();
     
+    private final Deque<Long> reservedTypedDatumIds = new ArrayDeque<>();
+    
+    private List<EndpointDatumRecord> pendingEndpointData = new ArrayList<>();
+    
+    private final AsyncOrderedExecutionQueue endpointDataQueue = new AsyncOrderedExecutionQueue(
+        AsyncCallbackExceptionPolicy.LOG_AND_PROCEED, SharedThreadPool.getInstance());
+    
+    private final Semaphore pendingBatchPermits = new Semaphore(MAX_PENDING_BATCHES);
+    
+    // the first error that occurred while storing a batch; reported when the component run is finished
+    private volatile Exception endpointDataError;
+    
+    // the reserved ids of outputs whose batch failed to be stored; released together with the unused reserved ids
+    private final Queue<Long> unstoredTypedDatumIds = new ConcurrentLinkedQueue<>();
+    
+    private final Log log = LogFactory.getLog(getClass());
+    
     public ComponentExecutionStorageBridge(DistributedMetaDataService metaDataService, ComponentExecutionContext compExeCtx,
         int timestampOffset) {
         this.metaDataService = metaDataService;
@@ -60,6 +104,8 @@ public class ComponentExecutionStorageBridge {
     
     protected synchronized void addComponentExecution(ComponentExecutionContext compExeCtx, Integer executionCount)
         throws ComponentExecutionException {
+        // in case the previous component run was not finished properly
+        enqueuePendingEndpointData();
         try {
             compExeDmId = metaDataService.addComponentRun(compInstanceDmId, compExeCtx.getNodeId().getIdString(),
                 executionCount, System.currentTimeMillis() + timestampOffset, storageNodeId);
@@ -70,12 +116,17 @@ public class ComponentExecutionStorageBridge {
     
     protected synchronized Long addOutput(String outputName, String datum) throws ComponentExecutionException {
         assertCompExeDmIdNotNull();
-        try {
-            return metaDataService.addOutputDatum(compExeDmId, outputDmIds.get(outputName), datum,
-                outputCount.getAndIncrement(outputName), storageNodeId);
-        } catch (CommunicationException e) {
-            throw new ComponentExecutionException(String.format("Failed to store output '%s'", outputName) + errorMessageSuffix, e);
+        if (reservedTypedDatumIds.isEmpty()) {
+            try {
+                reservedTypedDatumIds.addAll(metaDataService.reserveTypedDatumIds(TYPED_DATUM_ID_BLOCK_SIZE, storageNodeId));
+            } catch (CommunicationException e) {
+                throw new ComponentExecutionException(String.format("Failed to store output '%s'", outputName) + errorMessageSuffix, e);
+            }
         }
+        Long typedDatumId = reservedTypedDatumIds.poll();
+        addEndpointDatum(new EndpointDatumRecord(outputDmIds.get(outputName), typedDatumId, outputCount.getAndIncrement(outputName),
+            datum));
+        return typedDatumId;
     }
     
     protected synchronized void addInput(String inputName, Long typedDatumId) throws ComponentExecutionException {
@@ -84,16 +135,13 @@ public class ComponentExecutionStorageBridge {
             throw new ComponentExecutionException(String.format("Failed to store input '%s'", inputName) + errorMessageSuffix + ", "
                 + "because given datamanagement id of related ouput was null. Likely, because saving output failed earlier.");
         } else {
-            try {
-                metaDataService.addInputDatum(compExeDmId, typedDatumId, inputDmIds.get(inputName),
-                    inputCount.getAndIncrement(inputName), storageNodeId);
-            } catch (CommunicationException e) {
-                throw new ComponentExecutionException(String.format("Failed to store input '%s'", inputName) + errorMessageSuffix, e);
-            }
+            addEndpointDatum(new EndpointDatumRecord(inputDmIds.get(inputName), typedDatumId, inputCount.getAndIncrement(inputName),
+                null));
         }
     }
     
     protected synchronized void setComponentExecutionFinished() throws ComponentExecutionException {
+        storePendingEndpointData();
         try {
             metaDataService.setComponentRunFinished(compExeDmId, Long.valueOf(System.currentTimeMillis() + timestampOffset), storageNodeId);
         } catch (CommunicationException e) {
@@ -103,11 +151,23 @@ public class ComponentExecutionStorageBridge {
     }
     
     protected synchronized void setFinalComponentState(FinalComponentState finalState) throws ComponentExecutionException {
+        // usually, there is nothing pending anymore; but a component run might not have been finished properly
+        ComponentExecutionException endpointDataException = null;
+        try {
+            storePendingEndpointData();
+        } catch (ComponentExecutionException e) {
+            // the final state is stored nevertheless
+            endpointDataException = e;
+        }
+        releaseReservedTypedDatumIds();
         try {
             metaDataService.setComponentInstanceFinalState(compInstanceDmId, finalState, storageNodeId);
         } catch (CommunicationException e) {
             throw new ComponentExecutionException("Failed to store final state" + errorMessageSuffix, e);
         }
+        if (endpointDataException != null) {
+            throw endpointDataException;
+        }
     }
     
     protected synchronized void setOrUpdateHistoryDataItem(String historyDataItem) throws ComponentExecutionException {
@@ -123,6 +183,84 @@ public class ComponentExecutionStorageBridge {
         return compExeDmId;
     }
     
+    private void addEndpointDatum(EndpointDatumRecord endpointDatum) throws ComponentExecutionException {
+        pendingEndpointData.add(endpointDatum);
+        if (pendingEndpointData.size() >= MAX_BATCH_SIZE) {
+            enqueuePendingEndpointData();
+        }
+    }
+    
+    private void enqueuePendingEndpointData() throws ComponentExecutionException {
+        if (pendingEndpointData.isEmpty()) {
+            return;
+        }
+        final Long componentRunDmId = compExeDmId;
+        final List<EndpointDatumRecord> batch = pendingEndpointData;
+        pendingEndpointData = new ArrayList<>();
+        try {
+            // blocks if too many batches are pending already
+            pendingBatchPermits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ComponentExecutionException("Interrupted while storing inputs and outputs" + errorMessageSuffix, e);
+        }
+        endpointDataQueue.enqueue(new Runnable() {
+
+            @Override
+            @TaskDescription("Store inputs and outputs of a component run")
+            public void run() {
+                try {
+                    metaDataService.addEndpointData(componentRunDmId, batch, storageNodeId);
+                } catch (CommunicationException | RuntimeException e) {
+                    if (endpointDataError == null) {
+                        endpointDataError = e;
+                    }
+                    for (EndpointDatumRecord record : batch) {
+                        if (record.isOutput()) {
+                            unstoredTypedDatumIds.add(record.getTypedDatumId());
+                        }
+                    }
+                } finally {
+                    pendingBatchPermits.release();
+                }
+            }
+        });
+    }
+    
+    private void storePendingEndpointData() throws ComponentExecutionException {
+        enqueuePendingEndpointData();
+        try {
+            // all permits are available again once all batches are stored
+            pendingBatchPermits.acquire(MAX_PENDING_BATCHES);
+            pendingBatchPermits.release(MAX_PENDING_BATCHES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ComponentExecutionException("Interrupted while storing inputs and outputs" + errorMessageSuffix, e);
+        }
+        Exception error = endpointDataError;
+        if (error != null) {
+            endpointDataError = null;
+            throw new ComponentExecutionException("Failed to store inputs and outputs" + errorMessageSuffix, error);
+        }
+    }
+    
+    private void releaseReservedTypedDatumIds() {
+        List<Long> typedDatumIds = new ArrayList<>(reservedTypedDatumIds);
+        // all batches are stored at this point, so no ids are added concurrently
+        typedDatumIds.addAll(unstoredTypedDatumIds);
+        unstoredTypedDatumIds.clear();
+        if (typedDatumIds.isEmpty()) {
+            return;
+        }
+        try {
+            metaDataService.releaseTypedDatumIds(typedDatumIds, storageNodeId);
+        } catch (CommunicationException | RuntimeException e) {
+            // only leaves unused rows in the database
+            log.warn("Failed to release reserved data management ids" + errorMessageSuffix, e);
+        }
+        reservedTypedDatumIds.clear();
+    }
+    
     private void assertCompExeDmIdNotNull() throws ComponentExecutionException {
         if (compExeDmId == null) {
             throw new ComponentExecutionException("There is no related component run in the database stored. Request will be ignored.");
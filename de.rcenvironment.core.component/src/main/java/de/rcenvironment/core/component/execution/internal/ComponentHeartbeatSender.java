@@ -0,0 +1,38 @@
+/*
+ * Copyright (C) 2006-2014 DLR, Germany
+ * 
+ * All rights reserved
+ * 
+ * http://www.rcenvironment.de/
+ */
+
+package de.rcenvironment.core.component.execution.internal;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import de.rcenvironment.core.component.execution.api.ComponentExecutionContext;
+import de.rcenvironment.core.component.execution.api.ComponentHeartbeatProcessor;
+
+/**
+ * Periodically sends the heartbeats of all local components to the {@link ComponentHeartbeatProcessor}s of their workflow controller
+ * nodes, as one batch per workflow controller node.
+ * 
+ * @author agent
+ */
+public interface ComponentHeartbeatSender {
+
+    /**
+     * Starts sending heartbeats for a component.
+     * 
+     * @param compExeCtx {@link ComponentExecutionContext} of the component
+     * @param workflowControllerReachable set after each attempt to send the heartbeat of the component to whether it succeeded
+     */
+    void register(ComponentExecutionContext compExeCtx, AtomicBoolean workflowControllerReachable);
+
+    /**
+     * Stops sending heartbeats for a component.
+     * 
+     * @param compExeId execution identifier of the component
+     */
+    void unregister(String compExeId);
+}
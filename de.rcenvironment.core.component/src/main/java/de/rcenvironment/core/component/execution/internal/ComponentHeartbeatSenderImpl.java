@@ -0,0 +1,186 @@
+/*
+ * Copyright (C) 2006-2014 DLR, Germany
+ * 
+ * All rights reserved
+ * 
+ * http://www.rcenvironment.de/
+ */
+
+package de.rcenvironment.core.component.execution.internal;
+
+import java.lang.reflect.UndeclaredThrowableException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.osgi.framework.BundleContext;
+
+import de.rcenvironment.core.communication.api.CommunicationService;
+import de.rcenvironment.core.communication.common.NodeIdentifier;
+import de.rcenvironment.core.component.execution.api.ComponentExecutionContext;
+import de.rcenvironment.core.component.execution.api.ComponentHeartbeatProcessor;
+import de.rcenvironment.core.utils.common.concurrent.SharedThreadPool;
+import de.rcenvironment.core.utils.common.concurrent.TaskDescription;
+
+/**
+ * Implementation of {@link ComponentHeartbeatSender}.
+ * 
+ * A single task sends the heartbeats of all local components; the batch for each workflow controller node is sent by a separate task,
+ * which the periodic task does not wait for, so an unresponsive node does not delay the heartbeats to other nodes. While a batch for a
+ * node is still being sent, no further batch is started for that node.
+ * 
+ * @author agent
+ */
+public class ComponentHeartbeatSenderImpl implements ComponentHeartbeatSender {
+
+    private static final int HEARTBEAT_SEND_INTERVAL_MSEC = 60 * 1000;
+
+    private static final Log LOG = LogFactory.getLog(ComponentHeartbeatSenderImpl.class);
+
+    private final Map<String, HeartbeatSource> heartbeatSources = new ConcurrentHashMap<String, HeartbeatSource>();
+
+    private final Set<NodeIdentifier> nodesWithHeartbeatsInProgress =
+        Collections.newSetFromMap(new ConcurrentHashMap<NodeIdentifier, Boolean>());
+
+    private BundleContext bundleContext;
+
+    private CommunicationService communicationService;
+
+    private ScheduledFuture<?> heartbeatFuture;
+
+    /**
+     * A registered component.
+     * 
+     * @author agent
+     */
+    private static final class HeartbeatSource {
+
+        private final String compExeId;
+
+        private final String wfExeId;
+
+        private final NodeIdentifier wfNodeId;
+
+        private final AtomicBoolean workflowControllerReachable;
+
+        HeartbeatSource(ComponentExecutionContext compExeCtx, AtomicBoolean workflowControllerReachable) {
+            this.compExeId = compExeCtx.getExecutionIdentifier();
+            this.wfExeId = compExeCtx.getWorkflowExecutionIdentifier();
+            this.wfNodeId = compExeCtx.getWorkflowNodeId();
+            this.workflowControllerReachable = workflowControllerReachable;
+        }
+    }
+
+    protected void activate(BundleContext context) {
+        bundleContext = context;
+        heartbeatFuture = SharedThreadPool.getInstance().scheduleAtFixedRate(new Runnable() {
+
+            @Override
+            @TaskDescription("Send heartbeats of local components")
+            public void run() {
+                sendHeartbeats();
+            }
+        }, HEARTBEAT_SEND_INTERVAL_MSEC);
+    }
+
+    protected void deactivate() {
+        if (heartbeatFuture != null) {
+            heartbeatFuture.cancel(true);
+        }
+    }
+
+    @Override
+    public void register(ComponentExecutionContext compExeCtx, AtomicBoolean workflowControllerReachable) {
+        heartbeatSources.put(compExeCtx.getExecutionIdentifier(), new HeartbeatSource(compExeCtx, workflowControllerReachable));
+    }
+
+    @Override
+    public void unregister(String compExeId) {
+        heartbeatSources.remove(compExeId);
+    }
+
+    /**
+     * Starts sending the heartbeats of all registered components once, without waiting for them to be sent; called periodically, and
+     * directly by unit tests.
+     * 
+     * @return the tasks started to send the batches; only awaited by unit tests
+     */
+    List<Future<?>> sendHeartbeats() {
+        List<Future<?>> sendTasks = new ArrayList<Future<?>>();
+        Map<NodeIdentifier, List<HeartbeatSource>> heartbeatSourcesByNode = new HashMap<NodeIdentifier, List<HeartbeatSource>>();
+        for (HeartbeatSource source : heartbeatSources.values()) {
+            List<HeartbeatSource> sources = heartbeatSourcesByNode.get(source.wfNodeId);
+            if (sources == null) {
+                sources = new ArrayList<HeartbeatSource>();
+                heartbeatSourcesByNode.put(source.wfNodeId, sources);
+            }
+            sources.add(source);
+        }
+        for (final Map.Entry<NodeIdentifier, List<HeartbeatSource>> entry : heartbeatSourcesByNode.entrySet()) {
+            final NodeIdentifier wfNodeId = entry.getKey();
+            if (!nodesWithHeartbeatsInProgress.add(wfNodeId)) {
+                // the flags of these components are updated once the pending call returns or fails
+                LOG.warn(String.format("Previous heartbeats to workflow controller node %s are still being sent; skipping this round",
+                    wfNodeId));
+                continue;
+            }
+            sendTasks.add(SharedThreadPool.getInstance().submit(new Runnable() {
+
+                @Override
+                @TaskDescription("Send heartbeats of local components to a workflow controller node")
+                public void run() {
+                    try {
+                        sendHeartbeats(wfNodeId, entry.getValue());
+                    } finally {
+                        nodesWithHeartbeatsInProgress.remove(wfNodeId);
+                    }
+                }
+            }));
+        }
+        return sendTasks;
+    }
+
+    private void sendHeartbeats(NodeIdentifier wfNodeId, List<HeartbeatSource> sources) {
+        Map<String, Set<String>> compExeIdsByWfExeId = new HashMap<String, Set<String>>();
+        for (HeartbeatSource source : sources) {
+            Set<String> compExeIds = compExeIdsByWfExeId.get(source.wfExeId);
+            if (compExeIds == null) {
+                compExeIds = new HashSet<String>();
+                compExeIdsByWfExeId.put(source.wfExeId, compExeIds);
+            }
+            compExeIds.add(source.compExeId);
+        }
+        boolean reachable;
+        try {
+            ((ComponentHeartbeatProcessor) communicationService.getService(ComponentHeartbeatProcessor.class, wfNodeId, bundleContext))
+                .onComponentHeartbeatsReceived(compExeIdsByWfExeId);
+            reachable = true;
+        } catch (UndeclaredThrowableException e) {
+            reachable = false;
+            LOG.error(String.format("Failed to send heartbeats of %d component(s) to workflow controller node %s: %s", sources.size(),
+                wfNodeId, e.getCause().toString()));
+        } catch (RuntimeException e) {
+            reachable = false;
+            LOG.error(String.format("Failed to send heartbeats of %d component(s) to workflow controller node %s: %s", sources.size(),
+                wfNodeId, e.toString()));
+        }
+        for (HeartbeatSource source : sources) {
+            source.workflowControllerReachable.set(reachable);
+        }
+    }
+
+    protected void bindCommunicationService(CommunicationService newService) {
+        communicationService = newService;
+    }
+
+}
@@ -8,6 +8,7 @@
  
 package de.rcenvironment.core.component.execution.internal;
 
+import de.rcenvironment.core.component.execution.api.EndpointDatumSerializer;
 import de.rcenvironment.core.component.model.endpoint.api.EndpointDatum;
 
 
@@ -24,4 +25,13 @@ public interface EndpointDatumProcessor {
      * @param serializedEndpointDatum serialized {@link EndpointDatum}
      */
     void onEndpointDatumReceived(String serializedEndpointDatum);
+
+    /**
+     * Called if a batch of new {@link EndpointDatum}s was received. The {@link EndpointDatum}s are processed in their serialized order, as
+     * if {@link #onEndpointDatumReceived(String)} was called for each of them.
+     * 
+     * @param serializedEndpointDatums {@link EndpointDatum}s in the binary format of
+     *        {@link EndpointDatumSerializer#serializeEndpointDatums(java.util.List)}
+     */
+    void onEndpointDatumsReceived(byte[] serializedEndpointDatums);
 }
@@ -9,6 +9,7 @@
 package de.rcenvironment.core.component.execution.internal;
 
 import java.lang.ref.WeakReference;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -60,7 +61,18 @@ public class EndpointDatumProcessorImpl implements EndpointDatumProcessor {
     @Override
     @AllowRemoteAccess
     public void onEndpointDatumReceived(String serializedEndpointDatum) {
-        final EndpointDatum endpointDatum = EndpointDatumSerializer.deserializeEndpointDatum(serializedEndpointDatum);
+        enqueueEndpointDatum(EndpointDatumSerializer.deserializeEndpointDatum(serializedEndpointDatum));
+    }
+
+    @Override
+    @AllowRemoteAccess
+    public void onEndpointDatumsReceived(byte[] serializedEndpointDatums) {
+        for (EndpointDatum endpointDatum : EndpointDatumSerializer.deserializeEndpointDatums(serializedEndpointDatums)) {
+            enqueueEndpointDatum(endpointDatum);
+        }
+    }
+
+    private void enqueueEndpointDatum(final EndpointDatum endpointDatum) {
         final String executionId = endpointDatum.getInputComponentExecutionIdentifier();
         final NodeIdentifier node = endpointDatum.getInputsNodeId();
         executionQueue.enqueue(new Runnable() {
@@ -89,7 +101,7 @@ public class EndpointDatumProcessorImpl implements EndpointDatumProcessor {
                 endpointDatumProcessors.put(node, new WeakReference<EndpointDatumProcessor>(processor));
             }
         }
-        processor.onEndpointDatumReceived(EndpointDatumSerializer.serializeEndpointDatum(endpointDatum));
+        processor.onEndpointDatumsReceived(EndpointDatumSerializer.serializeEndpointDatums(Collections.singletonList(endpointDatum)));
     }
     
     private void processEndpointDatum(String executionId, EndpointDatum endpointDatum) {
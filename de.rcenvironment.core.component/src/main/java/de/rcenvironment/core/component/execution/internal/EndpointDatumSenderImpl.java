@@ -8,6 +8,9 @@
 
 package de.rcenvironment.core.component.execution.internal;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import org.apache.commons.collections4.map.LRUMap;
@@ -25,7 +28,14 @@ import de.rcenvironment.core.utils.common.security.AllowRemoteAccess;
 /**
  * Implementation of {@link EndpointDatumSender}.
  * 
+ * {@link EndpointDatum}s are sent via a separate queue per target node, so a slow or unresponsive node does not delay the delivery to other
+ * nodes. {@link EndpointDatum}s that are queued for the same node while a previous delivery is still in progress are sent as a single
+ * batch. The order of {@link EndpointDatum}s is preserved per target node. Batches are transmitted in the binary format of
+ * {@link EndpointDatumSerializer#serializeEndpointDatums(List)}. The queue of a node is discarded as soon as it has sent all its
+ * {@link EndpointDatum}s, so no state is kept for idle or disconnected nodes.
+ * 
  * @author Doreen Seider
+ * @author agent (per-node queues and batching)
  */
 public class EndpointDatumSenderImpl implements EndpointDatumSender {
 
@@ -33,15 +43,70 @@ public class EndpointDatumSenderImpl implements EndpointDatumSender {
 
     private SharedThreadPool threadPool = SharedThreadPool.getInstance();
 
-    private AsyncOrderedExecutionQueue executionQueue = new AsyncOrderedExecutionQueue(AsyncCallbackExceptionPolicy.LOG_AND_PROCEED,
-        threadPool);
+    // synchronized on itself; also guards the pending EndpointDatums of all queues
+    private final Map<NodeIdentifier, NodeSendQueue> nodeSendQueues = new HashMap<NodeIdentifier, NodeSendQueue>();
 
-    private Map<NodeIdentifier, EndpointDatumProcessor> endpointDatumProcessors = new LRUMap<>(MAX_SIZE);
+    // synchronized on itself
+    private final Map<NodeIdentifier, EndpointDatumProcessor> endpointDatumProcessors = new LRUMap<>(MAX_SIZE);
 
     private BundleContext bundleContext;
 
     private CommunicationService communicationService;
 
+    /**
+     * Collects the {@link EndpointDatum}s to send to a single node, and sends them in batches via an {@link AsyncOrderedExecutionQueue}.
+     * 
+     * @author agent
+     */
+    private final class NodeSendQueue {
+
+        private final NodeIdentifier node;
+
+        private final AsyncOrderedExecutionQueue executionQueue = new AsyncOrderedExecutionQueue(
+            AsyncCallbackExceptionPolicy.LOG_AND_PROCEED, threadPool);
+
+        // synchronized on nodeSendQueues
+        private List<EndpointDatum> pendingEndpointDatums = new ArrayList<EndpointDatum>();
+
+        NodeSendQueue(NodeIdentifier node) {
+            this.node = node;
+        }
+
+        // must be called while holding the lock on nodeSendQueues
+        void enqueue(EndpointDatum endpointDatum) {
+            pendingEndpointDatums.add(endpointDatum);
+            // only trigger a delivery if there was no pending batch yet; otherwise, the datum is sent with that batch
+            if (pendingEndpointDatums.size() == 1) {
+                executionQueue.enqueue(new Runnable() {
+
+                    @Override
+                    public void run() {
+                        sendPendingEndpointDatums();
+                    }
+                });
+            }
+        }
+
+        private void sendPendingEndpointDatums() {
+            List<EndpointDatum> batch;
+            synchronized (nodeSendQueues) {
+                batch = pendingEndpointDatums;
+                pendingEndpointDatums = new ArrayList<EndpointDatum>();
+            }
+            try {
+                getEndpointDatumProcessor(node).onEndpointDatumsReceived(EndpointDatumSerializer.serializeEndpointDatums(batch));
+            } finally {
+                synchronized (nodeSendQueues) {
+                    // if nothing was queued in the meantime, no further delivery is pending, so the next EndpointDatum for this node
+                    // can safely start a new queue without affecting the order
+                    if (pendingEndpointDatums.isEmpty()) {
+                        nodeSendQueues.remove(node);
+                    }
+                }
+            }
+        }
+    }
+
     protected void activate(BundleContext context) {
         bundleContext = context;
     }
@@ -55,20 +120,35 @@ public class EndpointDatumSenderImpl implements EndpointDatumSender {
         } else {
             node = endpointDatum.getWorkflowNodeId();
         }
-        final NodeIdentifier finalNode = node;
-        executionQueue.enqueue(new Runnable() {
-
-            @Override
-            public void run() {
-                if (!endpointDatumProcessors.containsKey(finalNode)) {
-                    EndpointDatumProcessor inputProcessor = (EndpointDatumProcessor) communicationService.getService(
-                        EndpointDatumProcessor.class, finalNode, bundleContext);
-                    endpointDatumProcessors.put(finalNode, inputProcessor);
-                }
-                endpointDatumProcessors.get(finalNode).onEndpointDatumReceived(EndpointDatumSerializer
-                    .serializeEndpointDatum(endpointDatum));
+        synchronized (nodeSendQueues) {
+            NodeSendQueue nodeSendQueue = nodeSendQueues.get(node);
+            if (nodeSendQueue == null) {
+                nodeSendQueue = new NodeSendQueue(node);
+                nodeSendQueues.put(node, nodeSendQueue);
+            }
+            nodeSendQueue.enqueue(endpointDatum);
+        }
+    }
+
+    /**
+     * @return the number of nodes with EndpointDatums still to send; intended for unit tests
+     */
+    int getNodeSendQueueCount() {
+        synchronized (nodeSendQueues) {
+            return nodeSendQueues.size();
+        }
+    }
+
+    private EndpointDatumProcessor getEndpointDatumProcessor(NodeIdentifier node) {
+        synchronized (endpointDatumProcessors) {
+            EndpointDatumProcessor endpointDatumProcessor = endpointDatumProcessors.get(node);
+            if (endpointDatumProcessor == null) {
+                endpointDatumProcessor = (EndpointDatumProcessor) communicationService.getService(
+                    EndpointDatumProcessor.class, node, bundleContext);
+                endpointDatumProcessors.put(node, endpointDatumProcessor);
             }
-        });
+            return endpointDatumProcessor;
+        }
     }
 
     protected void bindCommunicationService(CommunicationService newService) {
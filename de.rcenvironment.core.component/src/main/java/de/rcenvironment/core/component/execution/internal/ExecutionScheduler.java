@@ -8,18 +8,16 @@
  
 package de.rcenvironment.core.component.execution.internal;
 
+import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Collections;
 import java.util.Deque;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedList;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.concurrent.BlockingDeque;
-import java.util.concurrent.CancellationException;
-import java.util.concurrent.ExecutionException;
-import java.util.concurrent.Future;
-import java.util.concurrent.LinkedBlockingDeque;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.apache.commons.logging.LogFactory;
@@ -37,55 +35,70 @@ import de.rcenvironment.core.component.model.endpoint.api.EndpointDescriptionsMa
 import de.rcenvironment.core.component.model.endpoint.api.EndpointGroupDefinition;
 import de.rcenvironment.core.datamodel.api.DataType;
 import de.rcenvironment.core.datamodel.types.api.NotAValueTD;
-import de.rcenvironment.core.utils.common.concurrent.SharedThreadPool;
-import de.rcenvironment.core.utils.common.concurrent.TaskDescription;
 
 /**
  * Decides if a component can be executed. It takes all input values, checks for execution readiness after each new input. If input value
  * are requested, they are removed from the stack of input values except the input is defined as immutable.
  * 
- * The class is not totally thread-safe. It is intended that adding an input can be done from any thread, but checking execution readiness
- * and requesting values are within one.
+ * Inputs are mapped to indices on initialization, so that the per-input state is held in {@link BitSet}s and the conditions of input
+ * groups are compiled into a tree of {@link ReadinessCondition}s. New inputs are validated on the thread that delivers them. If the
+ * component is idling and waiting for inputs, the execution readiness is checked on that thread as well, and the
+ * {@link ComponentStateMachine} is only notified if the scheduling state changed. So, no thread is blocked while waiting for inputs.
+ * 
+ * All methods accessing the input state are synchronized on the instance.
  * 
  * @author Doreen Seider
+ * @author agent (bitset-based readiness tracking)
  */
 public class ExecutionScheduler {
     
     private final String componentExeutionIdentifier;
     
+    private final String componentInstanceName;
+
     private final String logMessagPrefix;
     
-    private final BlockingDeque<EndpointDatum> endpointDatumsToProcess;
+    private final Deque<EndpointDatum> endpointDatumsReceivedBeforeStart = new LinkedList<>();
     
-    private final BlockingDeque<EndpointDatum> validatedEndpointDatumsToProcess = new LinkedBlockingDeque<>();
+    private final Deque<EndpointDatum> validatedEndpointDatumsToProcess = new LinkedList<>();
     
     private final ComponentStateMachine stateMachine;
     
     private final Map<String, EndpointGroupDefinition> endpointGroupDefinitions = new HashMap<>();
     
-    private final Map<String, EndpointDatum> inputsOccupied = Collections.synchronizedMap(new HashMap<String, EndpointDatum>());
+    private final Map<String, Integer> inputIndices = new HashMap<>();
     
-    private final Map<String, Deque<EndpointDatum>> endpointDatums = new HashMap<>();
+    private final List<String> inputNames = new ArrayList<>();
     
-    private final Set<String> queuedConsumingInputs = new HashSet<>();
+    private final List<Deque<EndpointDatum>> endpointDatums = new ArrayList<>();
     
-    private final Set<String> consumingInputs = new HashSet<>();
+    private final List<EndpointDatum> inputsOccupied = new ArrayList<>();
     
-    private final Set<String> constantInputs = new HashSet<>();
+    private final BitSet inputsOccupiedFlags = new BitSet();
     
-    private final Set<String> constantInputsProcessed = new HashSet<>();
+    private final BitSet inputsWithDatum = new BitSet();
+
+    private final BitSet queuedConsumingInputs = new BitSet();
+
+    private final BitSet consumingInputs = new BitSet();
+
+    private final BitSet constantInputs = new BitSet();
+
+    private final BitSet constantInputsProcessed = new BitSet();
     
     private final Set<String> requiredInputsOrGroups = new HashSet<>();
     
-    private final Set<String> notRequiredInputs = new HashSet<>();
+    private final BitSet notRequiredInputs = new BitSet();
     
-    private final Set<String> inputsWithValue = new HashSet<>();
+    private final BitSet inputsWithValue = new BitSet();
     
     private final Map<String, Set<String>> groups = new HashMap<>();
     
-    private final Set<String> finishedInputs = new HashSet<>();
+    private final BitSet finishedInputs = new BitSet();
     
     private int inputsCount = 0;
+
+    private ReadinessCondition readinessCondition;
     
     private final Map<String, Set<String>> idsOfIndefiniteDatumsReceived = new HashMap<>();
     
@@ -103,7 +116,13 @@ public class ExecutionScheduler {
     
     private EndpointDatum resetDatumToFoward;
     
-    private Future<?> schedulingFuture;
+    private boolean started = false;
+
+    private boolean stopped = false;
+
+    private boolean waitingForEndpointDatums = false;
+
+    private boolean stateUpdatedOnEndpointDatumReceived = false;
     
     /**
      * States a component can be form a scheduling perspective.
@@ -120,35 +139,47 @@ public class ExecutionScheduler {
         LOOP_RESET;
     }
     
-    protected ExecutionScheduler(ComponentExecutionContext compExeContext, BlockingDeque<EndpointDatum> endpointDatumsToProcess,
-        ComponentStateMachine stateMachine) {
+    protected ExecutionScheduler(ComponentExecutionContext compExeContext, ComponentStateMachine stateMachine) {
         componentExeutionIdentifier = compExeContext.getExecutionIdentifier();
+        componentInstanceName = compExeContext.getInstanceName();
         logMessagPrefix = String.format("'%s' (%s) of workflow '%s' (%s): ",
             compExeContext.getInstanceName(), compExeContext.getExecutionIdentifier(),
             compExeContext.getWorkflowInstanceName(), compExeContext.getWorkflowExecutionIdentifier());
-        this.endpointDatumsToProcess = endpointDatumsToProcess;
         this.stateMachine = stateMachine;
     }
     
     protected void initialize(ComponentExecutionContext compExeContext) throws ComponentExecutionException {
-        EndpointDescriptionsManager endpointDescriptionsManager = compExeContext.getComponentDescription().getInputDescriptionsManager();
+        initialize(compExeContext.getComponentDescription().getInputDescriptionsManager());
+    }
+
+    /**
+     * Maps the given inputs to indices and compiles their execution constraints.
+     * 
+     * @param endpointDescriptionsManager the {@link EndpointDescriptionsManager} of the inputs
+     * @throws ComponentExecutionException if the execution constraint of an input is not valid
+     */
+    protected synchronized void initialize(EndpointDescriptionsManager endpointDescriptionsManager) throws ComponentExecutionException {
         for (EndpointGroupDefinition groupDefinition : endpointDescriptionsManager.getEndpointGroupDefinitions()) {
             endpointGroupDefinitions.put(groupDefinition.getIdentifier(), groupDefinition);
         }
         
         for (EndpointDescription endpointDescription : endpointDescriptionsManager.getEndpointDescriptions()) {
-            endpointDatums.put(endpointDescription.getName(), new LinkedList<EndpointDatum>());
+            int index = inputNames.size();
+            inputIndices.put(endpointDescription.getName(), index);
+            inputNames.add(endpointDescription.getName());
+            endpointDatums.add(new LinkedList<EndpointDatum>());
+            inputsOccupied.add(null);
             Map<String, String> metaData = endpointDescription.getMetaData();
             String inputHandling = metaData.get(ComponentConstants.INPUT_METADATA_KEY_INPUT_DATUM_HANDLING);
             if (inputHandling == null) {
                 inputHandling = endpointDescription.getDeclarativeEndpointDescription().getDefaultInputDatumHandling().name();
             }
             if (inputHandling.equals(EndpointDefinition.InputDatumHandling.Constant.name())) {
-                constantInputs.add(endpointDescription.getName());
+                constantInputs.set(index);
             } else {
-                consumingInputs.add(endpointDescription.getName());
+                consumingInputs.set(index);
                 if (inputHandling.equals(EndpointDefinition.InputDatumHandling.Queue.name())) {
-                    queuedConsumingInputs.add(endpointDescription.getName());
+                    queuedConsumingInputs.set(index);
                 }
             }
             
@@ -165,7 +196,7 @@ public class ExecutionScheduler {
                 if (endpointDescription.getGroupName() == null) {
                     throw new ComponentExecutionException(String.format(
                         "Input '%s' of component '%s' is declared as not required, but it is not part of an input group of type 'or'",
-                        endpointDescription.getName(), compExeContext.getInstanceName()));
+                        endpointDescription.getName(), componentInstanceName));
                 } else if (endpointDescription.isConnected()) {
                     addToRequiredInputsOrGroups(endpointDescriptionsManager, endpointDescription);
                 }
@@ -177,84 +208,129 @@ public class ExecutionScheduler {
                 if (!endpointDescription.isConnected()) {
                     throw new ComponentExecutionException(String.format("Input '%s' of component '%s' is declared as required, "
                         + "but it is not connected to an ouput.",
-                        endpointDescription.getName(), compExeContext.getInstanceName()));
+                        endpointDescription.getName(), componentInstanceName));
                 }
                 addToRequiredInputsOrGroups(endpointDescriptionsManager, endpointDescription);
             }
         }
 
+        readinessCondition = createReadinessCondition(EndpointGroupDefinition.Type.And, requiredInputsOrGroups);
     }
     
-    protected synchronized void start() {
-        if (schedulingFuture == null) {
-            schedulingFuture = SharedThreadPool.getInstance().submit(new Runnable() {
+    /**
+     * Validates all inputs received so far. Inputs received afterwards are validated on receipt.
+     */
+    protected void start() {
+        ComponentExecutionException exception = null;
+        synchronized (this) {
+            if (started) {
+                return;
+            }
+            started = true;
+            while (!endpointDatumsReceivedBeforeStart.isEmpty() && exception == null) {
+                exception = validateEndpointDatumReceived(endpointDatumsReceivedBeforeStart.pollFirst());
+            }
+        }
+        if (exception != null) {
+            postStateMachineEvent(new ComponentStateMachineEvent(ComponentStateMachineEventType.SCHEDULING_FAILED, exception));
+        }
+    }
                 
-                @TaskDescription("Pre-process input values")
-                @Override
-                public void run() {
-                    while (true) {
-                        EndpointDatum datum;
-                        try {
-                            datum = endpointDatumsToProcess.take();
-                        } catch (InterruptedException e) {
-                            Thread.currentThread().interrupt();
-                            return;
-                        }
-                        try {
-                            checkIfConstantAndSingleConstraintIsMatched(datum);
-                            validatedEndpointDatumsToProcess.add(datum);
-                        } catch (ComponentExecutionException e) {
-                            stateMachine.postEvent(new ComponentStateMachineEvent(ComponentStateMachineEventType.SCHEDULING_FAILED, e));
-                            return;
-                        }
-                    }
+    /**
+     * Called on the thread delivering the input. The input is validated and if the component is waiting for inputs, the execution
+     * readiness is checked. If the scheduling state changed, the {@link ComponentStateMachine} is notified, which requests it via
+     * {@link #getSchedulingState()}.
+     * 
+     * @param endpointDatum {@link EndpointDatum} received
+     */
+    protected void onEndpointDatumReceived(EndpointDatum endpointDatum) {
+        ComponentExecutionException exception = null;
+        boolean schedulingStateChanged = false;
+        synchronized (this) {
+            if (stopped) {
+                return;
+            }
+            if (!started) {
+                endpointDatumsReceivedBeforeStart.add(endpointDatum);
+                return;
+            }
+            exception = validateEndpointDatumReceived(endpointDatum);
+            if (exception == null && waitingForEndpointDatums) {
+                try {
+                    addValidatedEndpointDatums();
+                } catch (ComponentExecutionException e) {
+                    exception = e;
                 }
-            });
+                if (exception == null && state != State.IDLING) {
+                    waitingForEndpointDatums = false;
+                    stateUpdatedOnEndpointDatumReceived = true;
+                    schedulingStateChanged = true;
+                }
+            }
+            if (exception != null) {
+                stopped = true;
+            }
+        }
+        if (exception != null) {
+            postStateMachineEvent(new ComponentStateMachineEvent(ComponentStateMachineEventType.SCHEDULING_FAILED, exception));
+        } else if (schedulingStateChanged) {
+            postStateMachineEvent(new ComponentStateMachineEvent(ComponentStateMachineEventType.SCHEDULING_STATE_CHANGED));
+        }
+    }
+
+    /**
+     * Notifies the {@link ComponentStateMachine}; never called while holding the monitor of this instance. Made a separate method to
+     * allow unit tests to intercept the events.
+     * 
+     * @param event the event to post
+     */
+    protected void postStateMachineEvent(ComponentStateMachineEvent event) {
+        stateMachine.postEvent(event);
+    }
+
+    private ComponentExecutionException validateEndpointDatumReceived(EndpointDatum endpointDatum) {
+        try {
+            checkIfConstantAndSingleConstraintIsMatched(endpointDatum);
+            validatedEndpointDatumsToProcess.add(endpointDatum);
+            return null;
+        } catch (ComponentExecutionException e) {
+            stopped = true;
+            return e;
         }
     }
     
     private void checkIfConstantAndSingleConstraintIsMatched(EndpointDatum endpointDatum) throws ComponentExecutionException {
         if (endpointDatum.getValue().getDataType() != DataType.Internal) {
-            synchronized (inputsOccupied) {
-                if (inputsOccupied.containsKey(endpointDatum.getInputName())) {
-                    if (constantInputs.contains(endpointDatum.getInputName())) {
-                        throw new ComponentExecutionException(logMessagPrefix + String.format(
-                            "A second value at input '%s' type 'constant' received. Only one value is allowed. "
-                            + "First: %s. Second: %s. (Except in inner loops. There, one value is allowed for each inner loop run.)",
-                            endpointDatum.getInputName(), inputsOccupied.get(endpointDatum.getInputName()), endpointDatum));
-                    } else if (!queuedConsumingInputs.contains(endpointDatum.getInputName())) {
-                        throw new ComponentExecutionException(logMessagPrefix + String.format(
-                            "A new value at input '%s' of type 'single' received, but the current one was not consumed yet. "
-                            + "Current: %s. New: %s. Queue of values is not allowed at inputs of type 'single'. "
-                            + "Use input type 'queue' if queuing is intended.",
-                            endpointDatum.getInputName(), inputsOccupied.get(endpointDatum.getInputName()), endpointDatum));
-                    }
-                } else {
-                    if (constantInputs.contains(endpointDatum.getInputName())
-                        || !queuedConsumingInputs.contains(endpointDatum.getInputName())) {
-                        inputsOccupied.put(endpointDatum.getInputName(), endpointDatum);
-                    }
+            int index = getInputIndex(endpointDatum.getInputName());
+            if (inputsOccupiedFlags.get(index)) {
+                if (constantInputs.get(index)) {
+                    throw new ComponentExecutionException(logMessagPrefix + String.format(
+                        "A second value at input '%s' type 'constant' received. Only one value is allowed. "
+                        + "First: %s. Second: %s. (Except in inner loops. There, one value is allowed for each inner loop run.)",
+                        endpointDatum.getInputName(), inputsOccupied.get(index), endpointDatum));
+                } else if (!queuedConsumingInputs.get(index)) {
+                    throw new ComponentExecutionException(logMessagPrefix + String.format(
+                        "A new value at input '%s' of type 'single' received, but the current one was not consumed yet. "
+                        + "Current: %s. New: %s. Queue of values is not allowed at inputs of type 'single'. "
+                        + "Use input type 'queue' if queuing is intended.",
+                        endpointDatum.getInputName(), inputsOccupied.get(index), endpointDatum));
+                }
+            } else {
+                if (constantInputs.get(index) || !queuedConsumingInputs.get(index)) {
+                    setInputOccupied(index, endpointDatum);
                 }
             }
         }
     }
     
-    protected synchronized void stop() throws InterruptedException, ExecutionException {
-        if (schedulingFuture != null) {
-            schedulingFuture.cancel(true);
-            try {
-                schedulingFuture.get();
-            } catch (CancellationException e) {
-                // intended
-                e = null;
-            }
-        }
-        schedulingFuture = null;
+    protected synchronized void stop() {
+        stopped = true;
+        waitingForEndpointDatums = false;
     }
     
     private void addToNotRequiredInputs(EndpointDescription endpointDescription) {
         inputsCount++;
-        notRequiredInputs.add(endpointDescription.getName());
+        notRequiredInputs.set(getInputIndex(endpointDescription.getName()));
     }
     
     private void addToRequiredInputsOrGroups(EndpointDescriptionsManager endpointDescriptionsManager,
@@ -290,45 +366,76 @@ public class ExecutionScheduler {
         }
     }
     
-    protected State getSchedulingState() throws InterruptedException, ComponentExecutionException {
-        updateState();
-        if (state != State.PROCESS_INPUT_DATA && state != State.PROCESS_INPUT_DATA_WITH_INDEFINITE_DATA) {
-            addEndpointDatum(validatedEndpointDatumsToProcess.take());
-            updateState();
+    private ReadinessCondition createReadinessCondition(EndpointGroupDefinition.Type type, Set<String> inputsOrGroupIds) {
+        ReadinessCondition condition = new ReadinessCondition(type == EndpointGroupDefinition.Type.And);
+        for (String identifier : inputsOrGroupIds) {
+            if (endpointGroupDefinitions.containsKey(identifier)) {
+                condition.subConditions.add(createReadinessCondition(endpointGroupDefinitions.get(identifier).getType(),
+                    groups.get(identifier)));
+            } else {
+                condition.inputs.set(getInputIndex(identifier));
+            }
         }
+        return condition;
+    }
+
+    /**
+     * Determines the current scheduling state. All inputs received so far are taken into account. If the component needs to wait for
+     * further inputs, {@link State#IDLING} is returned and the {@link ComponentStateMachine} is notified as soon as the state changed.
+     * 
+     * @return current {@link State}
+     * @throws ComponentExecutionException if an input received is not valid in the current state
+     */
+    protected synchronized State getSchedulingState() throws ComponentExecutionException {
+        if (stateUpdatedOnEndpointDatumReceived) {
+            stateUpdatedOnEndpointDatumReceived = false;
+            return state;
+        }
+        updateState();
+        addValidatedEndpointDatums();
+        waitingForEndpointDatums = state == State.IDLING && !stopped;
         return state;
     } 
     
-    protected Map<String, EndpointDatum> getEndpointDatums() {
+    private void addValidatedEndpointDatums() throws ComponentExecutionException {
+        while (state == State.IDLING && !validatedEndpointDatumsToProcess.isEmpty()) {
+            addEndpointDatum(validatedEndpointDatumsToProcess.pollFirst());
+            updateState();
+        }
+    }
+
+    protected synchronized Map<String, EndpointDatum> getEndpointDatums() {
         Map<String, EndpointDatum> datums = new HashMap<>();
-        for (String inputName : inputsWithValue) {
-            datums.put(inputName, getEndpointDatumReturnedForExecution(inputName));
+        for (int i = inputsWithValue.nextSetBit(0); i >= 0; i = inputsWithValue.nextSetBit(i + 1)) {
+            datums.put(inputNames.get(i), getEndpointDatumReturnedForExecution(i));
         }
-        for (String inputName : notRequiredInputs) {
-            if (!endpointDatums.get(inputName).isEmpty()) {
-                datums.put(inputName, getEndpointDatumReturnedForExecution(inputName));
+        for (int i = notRequiredInputs.nextSetBit(0); i >= 0; i = notRequiredInputs.nextSetBit(i + 1)) {
+            if (inputsWithDatum.get(i)) {
+                datums.put(inputNames.get(i), getEndpointDatumReturnedForExecution(i));
             }
         }
         inputsWithValue.clear();
         return datums;
     }
     
-    private EndpointDatum getEndpointDatumReturnedForExecution(String inputName) {
-        if (constantInputs.contains(inputName)) {
-            constantInputsProcessed.add(inputName);
-            return endpointDatums.get(inputName).peekFirst();                
+    private EndpointDatum getEndpointDatumReturnedForExecution(int index) {
+        if (constantInputs.get(index)) {
+            constantInputsProcessed.set(index);
+            return endpointDatums.get(index).peekFirst();
         } else {
-            if (!queuedConsumingInputs.contains(inputName)) {
-                synchronized (inputsOccupied) {
-                    inputsOccupied.remove(inputName);
-                }
+            if (!queuedConsumingInputs.get(index)) {
+                setInputOccupied(index, null);
+            }
+            EndpointDatum endpointDatum = endpointDatums.get(index).pollFirst();
+            if (endpointDatums.get(index).isEmpty()) {
+                inputsWithDatum.clear(index);
             }
-            return endpointDatums.get(inputName).pollFirst();
+            return endpointDatum;
         }
     }
     
     
-    protected InternalTDImpl getResetDatum() {
+    protected synchronized InternalTDImpl getResetDatum() {
         InternalTDImpl resetDatum = (InternalTDImpl) resetDatumToFoward.getValue();
         resetDatumToFoward = null;
         return resetDatum;
@@ -369,7 +476,7 @@ public class ExecutionScheduler {
         InternalTDImpl internalDatum = (InternalTDImpl) endpointDatum.getValue();
         switch (internalDatum.getType()) {
         case WorkflowFinish:
-            finishedInputs.add(endpointDatum.getInputName());
+            finishedInputs.set(getInputIndex(endpointDatum.getInputName()));
             break;
         case NestedLoopReset:
             if (!loopResetRequested.get()) {
@@ -418,8 +525,10 @@ public class ExecutionScheduler {
             }
         }
         
-        finishedInputs.remove(endpointDatum.getInputName());
-        endpointDatums.get(endpointDatum.getInputName()).add(endpointDatum);
+        int index = getInputIndex(endpointDatum.getInputName());
+        finishedInputs.clear(index);
+        endpointDatums.get(index).add(endpointDatum);
+        inputsWithDatum.set(index);
     }
     
     protected void addIndefiniteDatumSent(String identifier) {
@@ -438,7 +547,7 @@ public class ExecutionScheduler {
     private void updateState() throws ComponentExecutionException {
         if (isExecutable()) {
             state = checkForIndefiniteDatums();
-        } else if (finishedInputs.size() == inputsCount) {
+        } else if (finishedInputs.cardinality() == inputsCount) {
             checkIfDatumAtConsumingInputsLeft();
             state = State.FINISHED;
         } else if (resetDatumToFoward != null) {
@@ -455,31 +564,30 @@ public class ExecutionScheduler {
     }
     
     private void resetConstantInputs() {
-        for (String constantInputName : constantInputs) {
-            if (!finishedInputs.contains(constantInputName)) {
-                endpointDatums.get(constantInputName).clear();
-                synchronized (inputsOccupied) {
-                    inputsOccupied.remove(constantInputName);
-                }
+        for (int i = constantInputs.nextSetBit(0); i >= 0; i = constantInputs.nextSetBit(i + 1)) {
+            if (!finishedInputs.get(i)) {
+                endpointDatums.get(i).clear();
+                inputsWithDatum.clear(i);
+                setInputOccupied(i, null);
             }
         }
     }
     
     private void checkIfDatumAtConsumingInputsLeft() throws ComponentExecutionException {
         String logMessage = null;
-        for (String inputName : endpointDatums.keySet()) {
-            if (consumingInputs.contains(inputName)
-                && !endpointDatums.get(inputName).isEmpty()) {
+        for (int i = consumingInputs.nextSetBit(0); i >= 0; i = consumingInputs.nextSetBit(i + 1)) {
+            if (inputsWithDatum.get(i)) {
+                String inputName = inputNames.get(i);
                 // log here as the relevant typed datums are not intended to leave this class
                 StringBuffer buffer = new StringBuffer();
-                for (EndpointDatum datum : endpointDatums.get(inputName)) {
+                for (EndpointDatum datum : endpointDatums.get(i)) {
                     buffer.append(datum.getValue().toString());
                     buffer.append(", ");
                 }
                 buffer.delete(buffer.length() - 3, buffer.length() - 1);
                 logMessage = logMessagPrefix + String.format("Component is finished or reset, "
                     + "but values for input '%s' are not processed yet: %s", inputName, buffer.toString());
-                if (notRequiredInputs.contains(inputName)) {
+                if (notRequiredInputs.get(i)) {
                     LogFactory.getLog(ExecutionScheduler.class).warn(logMessage);
                     logMessage = null;
                 } else {
@@ -493,54 +601,17 @@ public class ExecutionScheduler {
     }
     
     private boolean isExecutable() {
-        return constantInputsProcessed.size() < inputsCount && isExecutableWithAndCondition(requiredInputsOrGroups);
-    }
-    
-    private boolean isExecutableWithAndCondition(Set<String> inputsOrGroupIds) {
-        for (String identifier : inputsOrGroupIds) {
-            if (endpointGroupDefinitions.containsKey(identifier)) {
-                if (!checkGroupForExecutable(identifier)) {
-                    return false;
-                }
-            } else {
-                if (endpointDatums.get(identifier).isEmpty()) {
-                    return false;
-                } else {
-                    inputsWithValue.add(identifier);
-                }
-            }
-        }
-        return true;
-    }
-    
-    private boolean isExecutableWithOrCondition(Set<String> inputsOrGroupIds) {
-        for (String identifier : inputsOrGroupIds) {
-            if (endpointGroupDefinitions.containsKey(identifier)) {
-                if (checkGroupForExecutable(identifier)) {
-                    return true;
-                }
-            } else if (!endpointDatums.get(identifier).isEmpty()) {
-                inputsWithValue.add(identifier);
-                return true;
-            }
+        if (constantInputsProcessed.cardinality() < inputsCount && readinessCondition.isFulfilled(inputsWithDatum)) {
+            readinessCondition.selectInputs(inputsWithDatum, inputsWithValue);
+            return true;
         }
         return false;
     }
 
-    private boolean checkGroupForExecutable(String groupName) {
-        EndpointGroupDefinition groupDefinition = endpointGroupDefinitions.get(groupName);
-        if (groupDefinition.getType().equals(EndpointGroupDefinition.Type.And)) {
-            return isExecutableWithAndCondition(groups.get(groupName));
-        } else {
-            return isExecutableWithOrCondition(groups.get(groupName));
-        }        
-    }
-    
     private State checkForIndefiniteDatums() {
         State newState = State.PROCESS_INPUT_DATA;
-        for (String inputIdentifier : endpointDatums.keySet()) {
-            if (!endpointDatums.get(inputIdentifier).isEmpty()
-                && endpointDatums.get(inputIdentifier).getFirst().getValue().getDataType() == DataType.NotAValue) {
+        for (int i = inputsWithDatum.nextSetBit(0); i >= 0; i = inputsWithDatum.nextSetBit(i + 1)) {
+            if (endpointDatums.get(i).getFirst().getValue().getDataType() == DataType.NotAValue) {
                 newState = State.PROCESS_INPUT_DATA_WITH_INDEFINITE_DATA;
                 break;
             }
@@ -548,4 +619,81 @@ public class ExecutionScheduler {
         return newState;
     }
     
+    private int getInputIndex(String inputName) {
+        Integer index = inputIndices.get(inputName);
+        if (index == null) {
+            throw new IllegalArgumentException(logMessagPrefix + "Unknown input: " + inputName);
+        }
+        return index;
+    }
+
+    private void setInputOccupied(int index, EndpointDatum endpointDatum) {
+        inputsOccupied.set(index, endpointDatum);
+        inputsOccupiedFlags.set(index, endpointDatum != null);
+    }
+
+    /**
+     * Execution readiness condition of an input group or of the required inputs of a component, pre-evaluated from the input and group
+     * names on initialization.
+     * 
+     * @author agent
+     */
+    private static final class ReadinessCondition {
+
+        private final boolean and;
+
+        private final BitSet inputs = new BitSet();
+
+        private final List<ReadinessCondition> subConditions = new ArrayList<>();
+
+        private ReadinessCondition(boolean and) {
+            this.and = and;
+        }
+
+        private boolean isFulfilled(BitSet inputsWithDatum) {
+            if (and) {
+                for (int i = inputs.nextSetBit(0); i >= 0; i = inputs.nextSetBit(i + 1)) {
+                    if (!inputsWithDatum.get(i)) {
+                        return false;
+                    }
+                }
+                for (ReadinessCondition subCondition : subConditions) {
+                    if (!subCondition.isFulfilled(inputsWithDatum)) {
+                        return false;
+                    }
+                }
+                return true;
+            } else {
+                return inputs.intersects(inputsWithDatum) || getFirstFulfilledSubCondition(inputsWithDatum) != null;
+            }
+        }
+
+        // adds the inputs whose values are consumed if the condition is fulfilled; must only be called for fulfilled conditions
+        private void selectInputs(BitSet inputsWithDatum, BitSet selectedInputs) {
+            if (and) {
+                selectedInputs.or(inputs);
+                for (ReadinessCondition subCondition : subConditions) {
+                    subCondition.selectInputs(inputsWithDatum, selectedInputs);
+                }
+            } else {
+                for (int i = inputs.nextSetBit(0); i >= 0; i = inputs.nextSetBit(i + 1)) {
+                    if (inputsWithDatum.get(i)) {
+                        selectedInputs.set(i);
+                        return;
+                    }
+                }
+                getFirstFulfilledSubCondition(inputsWithDatum).selectInputs(inputsWithDatum, selectedInputs);
+            }
+        }
+
+        private ReadinessCondition getFirstFulfilledSubCondition(BitSet inputsWithDatum) {
+            for (ReadinessCondition subCondition : subConditions) {
+                if (subCondition.isFulfilled(inputsWithDatum)) {
+                    return subCondition;
+                }
+            }
+            return null;
+        }
+    }
+
 }
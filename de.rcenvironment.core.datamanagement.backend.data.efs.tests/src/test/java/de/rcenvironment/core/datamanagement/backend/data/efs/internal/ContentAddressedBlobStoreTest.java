@@ -0,0 +1,268 @@
+/*
+ * Copyright (C) 2006-2014 DLR, Germany
+ * 
+ * All rights reserved
+ * 
+ * http://www.rcenvironment.de/
+ */
+
+package de.rcenvironment.core.datamanagement.backend.data.efs.internal;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.UUID;
+import java.util.zip.Deflater;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Test cases for {@link ContentAddressedBlobStore}.
+ * 
+ * @author agent
+ */
+public class ContentAddressedBlobStoreTest {
+
+    private static final byte[] CONTENT = "some content that is stored twice".getBytes();
+
+    private static final byte[] OTHER_CONTENT = "some other content".getBytes();
+
+    // several compression blocks
+    private static final int LARGE_CONTENT_SIZE = 3 * ParallelGzipOutputStream.DEFAULT_BLOCK_SIZE + 1;
+
+    private static final String TEMP_FILE_NAME = "incoming-123.tmp";
+
+    /**
+     * Temporary folder rule.
+     */
+    @Rule
+    public TemporaryFolder tempFolder = new TemporaryFolder();
+
+    private ContentAddressedBlobStore blobStore;
+
+    private File rootDir;
+
+    /**
+     * Set up.
+     * 
+     * @throws IOException on setup errors
+     */
+    @Before
+    public void setUp() throws IOException {
+        rootDir = tempFolder.newFolder();
+        blobStore = new ContentAddressedBlobStore(rootDir);
+    }
+
+    /**
+     * Verifies that identical content is stored once and reference counted.
+     * 
+     * @throws IOException on unexpected errors
+     */
+    @Test
+    public void testDeduplication() throws IOException {
+        String key1 = UUID.randomUUID().toString();
+        String key2 = UUID.randomUUID().toString();
+        String key3 = UUID.randomUUID().toString();
+        assertEquals(CONTENT.length, blobStore.put(key1, new ByteArrayInputStream(CONTENT)));
+        blobStore.put(key2, new ByteArrayInputStream(CONTENT));
+        blobStore.put(key3, new ByteArrayInputStream(OTHER_CONTENT));
+
+        assertEquals(2, blobStore.getReferenceCount(key1));
+        assertEquals(2, countBlobs());
+        assertArrayEquals(CONTENT, read(key1));
+        assertArrayEquals(CONTENT, read(key2));
+        assertArrayEquals(OTHER_CONTENT, read(key3));
+
+        // deleting one reference keeps the shared blob
+        assertTrue(blobStore.delete(key1));
+        assertFalse(blobStore.contains(key1));
+        assertFalse(blobStore.delete(key1));
+        assertEquals(1, blobStore.getReferenceCount(key2));
+        assertArrayEquals(CONTENT, read(key2));
+
+        // deleting the last reference removes the blob
+        assertTrue(blobStore.delete(key2));
+        assertEquals(1, countBlobs());
+        assertTrue(blobStore.delete(key3));
+        assertEquals(0, countBlobs());
+    }
+
+    /**
+     * Verifies that a deleted blob is stored again when the same content is added later.
+     * 
+     * @throws IOException on unexpected errors
+     */
+    @Test
+    public void testStoreAfterDeletion() throws IOException {
+        String key1 = UUID.randomUUID().toString();
+        blobStore.put(key1, new ByteArrayInputStream(CONTENT));
+        blobStore.delete(key1);
+        String key2 = UUID.randomUUID().toString();
+        blobStore.put(key2, new ByteArrayInputStream(CONTENT));
+        assertEquals(1, blobStore.getReferenceCount(key2));
+        assertArrayEquals(CONTENT, read(key2));
+    }
+
+    /**
+     * Verifies that content that does not compress well is stored uncompressed, and other content compressed.
+     * 
+     * @throws IOException on unexpected errors
+     */
+    @Test
+    public void testFormatSelection() throws IOException {
+        byte[] randomContent = new byte[LARGE_CONTENT_SIZE];
+        new Random().nextBytes(randomContent);
+        byte[] repetitiveContent = new byte[LARGE_CONTENT_SIZE];
+        Arrays.fill(repetitiveContent, (byte) 'x');
+
+        String randomKey = UUID.randomUUID().toString();
+        blobStore.put(randomKey, new ByteArrayInputStream(randomContent));
+        assertEquals(1, countBlobs(StorageFormat.UNCOMPRESSED));
+        String repetitiveKey = UUID.randomUUID().toString();
+        blobStore.put(repetitiveKey, new ByteArrayInputStream(repetitiveContent));
+        assertEquals(1, countBlobs(StorageFormat.GZIP));
+
+        assertArrayEquals(randomContent, read(randomKey));
+        assertArrayEquals(repetitiveContent, read(repetitiveKey));
+
+        assertTrue(blobStore.delete(randomKey));
+        assertTrue(blobStore.delete(repetitiveKey));
+        assertEquals(0, countBlobs());
+    }
+
+    /**
+     * Verifies that all content is stored uncompressed if compression is disabled.
+     * 
+     * @throws IOException on unexpected errors
+     */
+    @Test
+    public void testCompressionDisabled() throws IOException {
+        blobStore = new ContentAddressedBlobStore(rootDir, false, Deflater.DEFAULT_COMPRESSION, true);
+        byte[] repetitiveContent = new byte[LARGE_CONTENT_SIZE];
+        Arrays.fill(repetitiveContent, (byte) 'x');
+
+        String key = UUID.randomUUID().toString();
+        blobStore.put(key, new ByteArrayInputStream(repetitiveContent));
+        assertEquals(1, countBlobs(StorageFormat.UNCOMPRESSED));
+        assertEquals(0, countBlobs(StorageFormat.GZIP));
+        assertArrayEquals(repetitiveContent, read(key));
+    }
+
+    /**
+     * Verifies that no temporary files are left behind by successful and failed writes, and that temporary files left over by a crash
+     * are deleted when the store is created.
+     * 
+     * @throws IOException on unexpected errors
+     */
+    @Test
+    public void testTemporaryFileCleanup() throws IOException {
+        String key1 = UUID.randomUUID().toString();
+        blobStore.put(key1, new ByteArrayInputStream(CONTENT));
+        String key2 = UUID.randomUUID().toString();
+        blobStore.put(key2, new ByteArrayInputStream(CONTENT));
+        assertEquals(0, countTemporaryFiles());
+
+        InputStream failingStream = new InputStream() {
+
+            private int remaining = LARGE_CONTENT_SIZE;
+
+            @Override
+            public int read() throws IOException {
+                if (remaining == 0) {
+                    throw new IOException("Simulated read error");
+                }
+                remaining--;
+                return 'x';
+            }
+        };
+        String failedKey = UUID.randomUUID().toString();
+        try {
+            blobStore.put(failedKey, failingStream);
+            fail("Exception expected");
+        } catch (IOException e) {
+            assertEquals("Simulated read error", e.getMessage());
+        }
+        assertFalse(blobStore.contains(failedKey));
+        assertEquals(0, countTemporaryFiles());
+
+        File blobDir = new File(rootDir, "blobs").listFiles()[0];
+        assertTrue(new File(rootDir, TEMP_FILE_NAME).createNewFile());
+        assertTrue(new File(blobDir, TEMP_FILE_NAME).createNewFile());
+        assertEquals(2, countTemporaryFiles());
+        blobStore = new ContentAddressedBlobStore(rootDir);
+        assertEquals(0, countTemporaryFiles());
+        assertArrayEquals(CONTENT, read(key1));
+        assertEquals(2, blobStore.getReferenceCount(key2));
+    }
+
+    private byte[] read(String key) throws IOException {
+        InputStream inputStream = blobStore.get(key);
+        try {
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+            byte[] buffer = new byte[CONTENT.length];
+            int n;
+            while ((n = inputStream.read(buffer)) != -1) {
+                output.write(buffer, 0, n);
+            }
+            return output.toByteArray();
+        } finally {
+            inputStream.close();
+        }
+    }
+
+    private int countBlobs() {
+        int count = 0;
+        for (StorageFormat format : StorageFormat.values()) {
+            count += countBlobs(format);
+        }
+        return count;
+    }
+
+    private int countTemporaryFiles() {
+        int count = countTemporaryFiles(rootDir);
+        for (File dir : new File(rootDir, "blobs").listFiles()) {
+            if (dir.isDirectory()) {
+                count += countTemporaryFiles(dir);
+            }
+        }
+        return count;
+    }
+
+    private int countTemporaryFiles(File dir) {
+        int count = 0;
+        for (File file : dir.listFiles()) {
+            if (file.getName().startsWith("incoming-")) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private int countBlobs(StorageFormat format) {
+        int count = 0;
+        File[] blobDirs = new File(rootDir, "blobs").listFiles();
+        for (File blobDir : blobDirs) {
+            if (blobDir.isDirectory()) {
+                for (File file : blobDir.listFiles()) {
+                    if (file.getName().endsWith(format.getFileSuffix())) {
+                        count++;
+                    }
+                }
+            }
+        }
+        return count;
+    }
+}
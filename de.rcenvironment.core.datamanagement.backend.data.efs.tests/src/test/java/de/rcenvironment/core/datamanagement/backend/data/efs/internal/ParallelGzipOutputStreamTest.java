@@ -0,0 +1,84 @@
+/*
+ * Copyright (C) 2006-2014 DLR, Germany
+ * 
+ * All rights reserved
+ * 
+ * http://www.rcenvironment.de/
+ */
+
+package de.rcenvironment.core.datamanagement.backend.data.efs.internal;
+
+import static org.junit.Assert.assertArrayEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Random;
+import java.util.zip.Deflater;
+
+import org.junit.Test;
+
+/**
+ * Test cases for {@link ParallelGzipOutputStream}.
+ * 
+ * @author agent
+ */
+public class ParallelGzipOutputStreamTest {
+
+    private static final int BLOCK_SIZE = 16 * 1024;
+
+    private static final int MAX_PENDING_BLOCKS = 3;
+
+    private static final int WRITE_SIZE = 5000;
+
+    /**
+     * Verifies that content spanning several blocks, a single partial block, or no data at all is restored by the gzip reader.
+     * 
+     * @throws IOException on unexpected errors
+     */
+    @Test
+    public void testRoundTrip() throws IOException {
+        Random random = new Random();
+        // a partially grown block, exactly on a block boundary, more blocks than can be pending, and with a partial last block
+        for (int size : new int[] { 0, 1, BLOCK_SIZE - 1, BLOCK_SIZE, 10 * BLOCK_SIZE + 7 }) {
+            byte[] content = new byte[size];
+            // compressible, but not trivially
+            for (int i = 0; i < size; i++) {
+                content[i] = (byte) ('a' + random.nextInt(4));
+            }
+            assertArrayEquals(content, decompress(compress(content, Deflater.DEFAULT_COMPRESSION)));
+            assertArrayEquals(content, decompress(compress(content, Deflater.BEST_SPEED)));
+        }
+    }
+
+    private byte[] compress(byte[] content, int level) throws IOException {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        OutputStream outputStream = new ParallelGzipOutputStream(compressed, level, BLOCK_SIZE, MAX_PENDING_BLOCKS);
+        try {
+            // write in portions that do not match the block size
+            for (int offset = 0; offset < content.length; offset += WRITE_SIZE) {
+                outputStream.write(content, offset, Math.min(WRITE_SIZE, content.length - offset));
+            }
+        } finally {
+            outputStream.close();
+        }
+        return compressed.toByteArray();
+    }
+
+    private byte[] decompress(byte[] compressed) throws IOException {
+        InputStream inputStream = StorageFormat.GZIP.openInputStream(new ByteArrayInputStream(compressed));
+        try {
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+            byte[] buffer = new byte[WRITE_SIZE];
+            int n;
+            while ((n = inputStream.read(buffer)) != -1) {
+                output.write(buffer, 0, n);
+            }
+            return output.toByteArray();
+        } finally {
+            inputStream.close();
+        }
+    }
+}
@@ -0,0 +1,423 @@
+/*
+ * Copyright (C) 2006-2014 DLR, Germany
+ * 
+ * All rights reserved
+ * 
+ * http://www.rcenvironment.de/
+ */
+
+package de.rcenvironment.core.datamanagement.backend.data.efs.internal;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.zip.Deflater;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+/**
+ * Stores the content of each stored stream only once, keyed by its SHA-256 digest. Each stored stream is identified by a key (the
+ * binary reference key), which is mapped to its blob by a small link file; each blob keeps a count of the keys pointing to it and is
+ * deleted when the last of them is deleted.
+ * 
+ * The stream content is hashed and encoded while it is written to a temporary file, so it is written only once; the temporary file
+ * is discarded if a blob with the same digest exists already. Before writing, a sample from the start of the content is compressed to
+ * detect content that does not compress well (for example, already compressed data); such content is stored uncompressed.
+ * 
+ * Link and reference count files are replaced atomically, so they never contain partially written data. Temporary files left over
+ * by a crash are deleted when the store is created.
+ * 
+ * Layout below the root directory: <code>&lt;key&gt;.blobref</code> (contains the digest), <code>blobs/&lt;first two digest
+ * characters&gt;/&lt;digest&gt;.gz</code> or <code>.raw</code> (the content; the suffix defines its {@link StorageFormat}) and
+ * <code>blobs/&lt;...&gt;/&lt;digest&gt;.refs</code> (the reference count).
+ * 
+ * @author agent
+ */
+public class ContentAddressedBlobStore {
+
+    private static final String DIGEST_ALGORITHM = "SHA-256";
+
+    private static final String LINK_FILE_SUFFIX = ".blobref";
+
+    private static final String REFERENCE_COUNT_FILE_SUFFIX = ".refs";
+
+    private static final String TEMP_FILE_PREFIX = "incoming-";
+
+    private static final String BLOB_SUBDIRECTORY = "blobs";
+
+    private static final int BLOB_SUBDIRECTORY_PREFIX_LENGTH = 2;
+
+    private static final int STREAM_BUFFER_SIZE = 256 * 1024; // arbitrary
+
+    private static final Charset CHARSET = Charset.forName("UTF-8");
+
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    private static final int NIBBLE_BITS = 4;
+
+    private static final int NIBBLE_MASK = 0x0f;
+
+    /**
+     * The amount of content that is compressed to detect content that does not compress well.
+     */
+    private static final int COMPRESSIBILITY_SAMPLE_SIZE = 256 * 1024;
+
+    /**
+     * The maximum ratio of compressed to uncompressed sample size for content to be stored compressed.
+     */
+    private static final double MAXIMUM_COMPRESSION_RATIO = 0.9;
+
+    private final File rootDir;
+
+    private final File blobRootDir;
+
+    private final boolean compress;
+
+    private final int compressionLevel;
+
+    private final boolean detectIncompressibleContent;
+
+    private final Log log = LogFactory.getLog(getClass());
+
+    public ContentAddressedBlobStore(File rootDir) {
+        this(rootDir, true, Deflater.DEFAULT_COMPRESSION, true);
+    }
+
+    /**
+     * @param rootDir the root directory
+     * @param compress false to store all content uncompressed
+     * @param compressionLevel the gzip compression level (0-9), or {@link Deflater#DEFAULT_COMPRESSION}
+     * @param detectIncompressibleContent true to store content that does not compress well uncompressed
+     */
+    public ContentAddressedBlobStore(File rootDir, boolean compress, int compressionLevel, boolean detectIncompressibleContent) {
+        this.rootDir = rootDir;
+        this.blobRootDir = new File(rootDir, BLOB_SUBDIRECTORY);
+        this.compress = compress;
+        this.compressionLevel = compressionLevel;
+        this.detectIncompressibleContent = detectIncompressibleContent;
+        deleteTemporaryFiles();
+    }
+
+    /**
+     * Stores the content of the given stream under the given key. The stream is not closed.
+     * 
+     * @param key the key; must not be in use yet
+     * @param inputStream the content
+     * @return the number of (uncompressed) bytes read from the stream
+     * @throws IOException on read or write errors
+     */
+    public long put(String key, InputStream inputStream) throws IOException {
+        if (!blobRootDir.isDirectory() && !blobRootDir.mkdirs()) {
+            throw new IOException("Failed to create blob directory " + blobRootDir.getAbsolutePath());
+        }
+        // the sample is read first to select the format; it is written as the start of the content afterwards
+        byte[] sample = new byte[COMPRESSIBILITY_SAMPLE_SIZE];
+        int sampleSize = readSample(inputStream, sample);
+        StorageFormat format = selectFormat(sample, sampleSize);
+
+        File encodedFile = File.createTempFile(TEMP_FILE_PREFIX, format.getFileSuffix(), blobRootDir);
+        try {
+            MessageDigest digest = createDigest();
+            long writtenBytes = sampleSize;
+            OutputStream encodedOutputStream = format.openOutputStream(
+                new BufferedOutputStream(new FileOutputStream(encodedFile), STREAM_BUFFER_SIZE), compressionLevel);
+            try {
+                digest.update(sample, 0, sampleSize);
+                encodedOutputStream.write(sample, 0, sampleSize);
+                byte[] buffer = new byte[STREAM_BUFFER_SIZE];
+                int n;
+                while ((n = inputStream.read(buffer)) != -1) {
+                    digest.update(buffer, 0, n);
+                    encodedOutputStream.write(buffer, 0, n);
+                    writtenBytes += n;
+                }
+            } finally {
+                encodedOutputStream.close();
+            }
+            String hexDigest = toHexString(digest.digest());
+
+            synchronized (this) {
+                if (findBlobFile(hexDigest) == null) {
+                    File blobFile = getBlobFile(hexDigest, format);
+                    File blobDir = blobFile.getParentFile();
+                    if (!blobDir.isDirectory() && !blobDir.mkdirs()) {
+                        throw new IOException("Failed to create blob directory " + blobDir.getAbsolutePath());
+                    }
+                    Files.move(encodedFile.toPath(), blobFile.toPath(), StandardCopyOption.ATOMIC_MOVE);
+                    encodedFile = null;
+                } else {
+                    log.debug("Reusing existing blob " + hexDigest + " for key " + key);
+                }
+                writeReferenceCount(hexDigest, readReferenceCount(hexDigest) + 1);
+                writeAtomically(getLinkFile(key), hexDigest);
+            }
+            return writtenBytes;
+        } finally {
+            if (encodedFile != null) {
+                deleteIfPresent(encodedFile);
+            }
+        }
+    }
+
+    /**
+     * @param key the key
+     * @return true if content is stored under the given key
+     */
+    public boolean contains(String key) {
+        return getLinkFile(key).isFile();
+    }
+
+    /**
+     * Opens the (uncompressed) content stored under the given key.
+     * 
+     * @param key the key
+     * @return the content stream
+     * @throws IOException if there is no content for the key, or on read errors
+     */
+    public InputStream get(String key) throws IOException {
+        File blobFile;
+        InputStream storageInputStream;
+        synchronized (this) {
+            String hexDigest = readLink(key);
+            blobFile = findBlobFile(hexDigest);
+            if (blobFile == null) {
+                throw new IOException("Missing blob " + hexDigest + " for key " + key);
+            }
+            // opened while holding the lock, so the blob cannot be deleted in between
+            storageInputStream = new BufferedInputStream(new FileInputStream(blobFile), STREAM_BUFFER_SIZE);
+        }
+        StorageFormat format = getFormat(blobFile);
+        if (format == StorageFormat.UNCOMPRESSED) {
+            return storageInputStream;
+        }
+        return new BufferedInputStream(format.openInputStream(storageInputStream), STREAM_BUFFER_SIZE);
+    }
+
+    /**
+     * Deletes the given key; the blob it points to is deleted if no other key refers to it anymore.
+     * 
+     * @param key the key
+     * @return false if there was no content for the key
+     * @throws IOException on read or write errors
+     */
+    public synchronized boolean delete(String key) throws IOException {
+        File linkFile = getLinkFile(key);
+        if (!linkFile.isFile()) {
+            return false;
+        }
+        String hexDigest = readLink(key);
+        Files.delete(linkFile.toPath());
+        int referenceCount = readReferenceCount(hexDigest) - 1;
+        if (referenceCount > 0) {
+            writeReferenceCount(hexDigest, referenceCount);
+        } else {
+            // note: a stream that opened the blob before may still read it on most platforms
+            File blobFile = findBlobFile(hexDigest);
+            if (blobFile != null) {
+                deleteIfPresent(blobFile);
+            }
+            deleteIfPresent(getReferenceCountFile(hexDigest));
+            log.debug("Deleted blob " + hexDigest + " after its last reference was removed");
+        }
+        return true;
+    }
+
+    /**
+     * @param key the key
+     * @return the reference count of the blob the given key points to; intended for unit tests
+     * @throws IOException on read errors
+     */
+    synchronized int getReferenceCount(String key) throws IOException {
+        return readReferenceCount(readLink(key));
+    }
+
+    private String readLink(String key) throws IOException {
+        File linkFile = getLinkFile(key);
+        if (!linkFile.isFile()) {
+            throw new IOException("No blob stored for key " + key);
+        }
+        return new String(Files.readAllBytes(linkFile.toPath()), CHARSET).trim();
+    }
+
+    private int readReferenceCount(String hexDigest) throws IOException {
+        File countFile = getReferenceCountFile(hexDigest);
+        if (!countFile.isFile()) {
+            return 0;
+        }
+        try {
+            return Integer.parseInt(new String(Files.readAllBytes(countFile.toPath()), CHARSET).trim());
+        } catch (NumberFormatException e) {
+            throw new IOException("Invalid reference count file " + countFile.getAbsolutePath(), e);
+        }
+    }
+
+    private void writeReferenceCount(String hexDigest, int count) throws IOException {
+        writeAtomically(getReferenceCountFile(hexDigest), Integer.toString(count));
+    }
+
+    /**
+     * Replaces the content of the given file by writing a temporary file in the same directory and moving it over the target.
+     */
+    private void writeAtomically(File file, String content) throws IOException {
+        File tempFile = File.createTempFile(TEMP_FILE_PREFIX, null, file.getParentFile());
+        try {
+            Files.write(tempFile.toPath(), content.getBytes(CHARSET));
+            Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            tempFile = null;
+        } finally {
+            if (tempFile != null) {
+                deleteIfPresent(tempFile);
+            }
+        }
+    }
+
+    /**
+     * Deletes the temporary files left over by interrupted writes, i.e. all temporary files, as no write is in progress yet.
+     */
+    private void deleteTemporaryFiles() {
+        deleteTemporaryFiles(rootDir);
+        deleteTemporaryFiles(blobRootDir);
+        File[] blobDirs = blobRootDir.listFiles();
+        if (blobDirs != null) {
+            for (File blobDir : blobDirs) {
+                if (blobDir.isDirectory()) {
+                    deleteTemporaryFiles(blobDir);
+                }
+            }
+        }
+    }
+
+    private void deleteTemporaryFiles(File dir) {
+        File[] files = dir.listFiles();
+        if (files == null) {
+            return;
+        }
+        for (File file : files) {
+            if (file.isFile() && file.getName().startsWith(TEMP_FILE_PREFIX)) {
+                log.debug("Deleting left-over temporary file " + file.getAbsolutePath());
+                deleteIfPresent(file);
+            }
+        }
+    }
+
+    /**
+     * @return the number of bytes read into the sample buffer; less than its length only at the end of the stream
+     */
+    private static int readSample(InputStream inputStream, byte[] sample) throws IOException {
+        int sampleSize = 0;
+        int n;
+        while (sampleSize < sample.length && (n = inputStream.read(sample, sampleSize, sample.length - sampleSize)) != -1) {
+            sampleSize += n;
+        }
+        return sampleSize;
+    }
+
+    /**
+     * @return the format to store content starting with the given sample in
+     */
+    private StorageFormat selectFormat(byte[] sample, int sampleSize) {
+        if (compress && (!detectIncompressibleContent || isCompressible(sample, sampleSize))) {
+            return StorageFormat.GZIP;
+        } else {
+            return StorageFormat.UNCOMPRESSED;
+        }
+    }
+
+    /**
+     * Compresses the given sample at the fastest level.
+     * 
+     * @return false if the sample does not compress well
+     */
+    static boolean isCompressible(byte[] sample, int sampleSize) {
+        if (sampleSize == 0) {
+            return true;
+        }
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED, true);
+        long compressedSize = 0;
+        try {
+            deflater.setInput(sample, 0, sampleSize);
+            deflater.finish();
+            // the output is only counted, so it is written to the same small buffer repeatedly
+            byte[] output = new byte[STREAM_BUFFER_SIZE];
+            while (!deflater.finished()) {
+                compressedSize += deflater.deflate(output);
+            }
+        } finally {
+            deflater.end();
+        }
+        return compressedSize <= sampleSize * MAXIMUM_COMPRESSION_RATIO;
+    }
+
+    private File getLinkFile(String key) {
+        return new File(rootDir, key + LINK_FILE_SUFFIX);
+    }
+
+    private File getBlobFile(String hexDigest, StorageFormat format) {
+        return new File(getBlobDir(hexDigest), hexDigest + format.getFileSuffix());
+    }
+
+    /**
+     * @return the existing blob file for the given digest, or null if there is none
+     */
+    private File findBlobFile(String hexDigest) {
+        for (StorageFormat format : StorageFormat.values()) {
+            File blobFile = getBlobFile(hexDigest, format);
+            if (blobFile.isFile()) {
+                return blobFile;
+            }
+        }
+        return null;
+    }
+
+    private StorageFormat getFormat(File blobFile) {
+        for (StorageFormat format : StorageFormat.values()) {
+            if (blobFile.getName().endsWith(format.getFileSuffix())) {
+                return format;
+            }
+        }
+        throw new IllegalArgumentException("Unknown blob format: " + blobFile.getName());
+    }
+
+    private File getReferenceCountFile(String hexDigest) {
+        return new File(getBlobDir(hexDigest), hexDigest + REFERENCE_COUNT_FILE_SUFFIX);
+    }
+
+    private File getBlobDir(String hexDigest) {
+        return new File(blobRootDir, hexDigest.substring(0, BLOB_SUBDIRECTORY_PREFIX_LENGTH));
+    }
+
+    private void deleteIfPresent(File file) {
+        if (file.exists() && !file.delete()) {
+            log.warn("Failed to delete " + file.getAbsolutePath());
+        }
+    }
+
+    private static MessageDigest createDigest() {
+        try {
+            return MessageDigest.getInstance(DIGEST_ALGORITHM);
+        } catch (NoSuchAlgorithmException e) {
+            // should never happen, as every Java platform is required to support SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String toHexString(byte[] bytes) {
+        char[] chars = new char[bytes.length * 2];
+        for (int i = 0; i < bytes.length; i++) {
+            chars[2 * i] = HEX_DIGITS[(bytes[i] >> NIBBLE_BITS) & NIBBLE_MASK];
+            chars[2 * i + 1] = HEX_DIGITS[bytes[i] & NIBBLE_MASK];
+        }
+        return new String(chars);
+    }
+}
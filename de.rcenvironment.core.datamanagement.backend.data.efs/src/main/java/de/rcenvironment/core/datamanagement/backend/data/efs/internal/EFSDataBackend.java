@@ -20,8 +20,6 @@ import java.util.UUID;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
-import org.apache.commons.compress.compressors.gzip.GzipCompressorInputStream;
-import org.apache.commons.compress.compressors.gzip.GzipCompressorOutputStream;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.eclipse.core.filesystem.EFS;
@@ -40,17 +38,30 @@ import de.rcenvironment.core.datamanagement.backend.DataBackend;
  * @author Juergen Klein
  * @author Sascha Zur
  * @author Robert Mischke (added stream buffering)
+ * @author agent (content-addressed storage, parallel compression)
  */
 public class EFSDataBackend implements DataBackend {
 
     /** Supported scheme. */
     public static final String SCHEMA_EFS = "efs";
 
+    /**
+     * The property to set the gzip compression level (0-9) of new content.
+     */
+    public static final String COMPRESSION_LEVEL_PROPERTY = "datamanagement.compressionLevel";
+
+    /**
+     * The property to disable storing content that does not compress well uncompressed.
+     */
+    public static final String DETECT_INCOMPRESSIBLE_CONTENT_PROPERTY = "datamanagement.detectIncompressibleContent";
+
     private static final String SCHEME_URI_COMPLETION = "://";
 
     private static final String SLASH = "/";
 
-    private static final String ZIP_FILE_SUFFIX = ".gz";
+    private static final String ZIP_FILE_SUFFIX = StorageFormat.GZIP.getFileSuffix();
+
+    private static final int MAXIMUM_COMPRESSION_LEVEL = 9;
 
     private static final String STORAGE_SUBDIRECTORY = "data";
 
@@ -70,6 +81,12 @@ public class EFSDataBackend implements DataBackend {
 
     private EncapsulatedEFSService encapsulatedEFSService;
 
+    /**
+     * The store for new content if content-addressed storage is enabled, otherwise null. Content stored before is still read from and
+     * deleted at its per-reference location.
+     */
+    private ContentAddressedBlobStore blobStore;
+
     private final Log log = LogFactory.getLog(getClass());
 
     static {
@@ -109,6 +126,31 @@ public class EFSDataBackend implements DataBackend {
             // note: the "else" path was not doing anything before; at least log if this happens
             log.warn("Unexpected state: EFS storage path already defined");
         }
+        applyCompressionProperties();
+        if (configuration.getUseContentAddressedStorage()) {
+            blobStore = new ContentAddressedBlobStore(getFileStorageRoot(), configuration.getUseGZipFormat(),
+                configuration.getCompressionLevel(), configuration.getDetectIncompressibleContent());
+        }
+    }
+
+    private void applyCompressionProperties() {
+        String levelValue = System.getProperty(COMPRESSION_LEVEL_PROPERTY);
+        if (levelValue != null) {
+            try {
+                int level = Integer.parseInt(levelValue);
+                if (level >= 0 && level <= MAXIMUM_COMPRESSION_LEVEL) {
+                    configuration.setCompressionLevel(level);
+                } else {
+                    log.error("Invalid compression level specified: must be between 0 and " + MAXIMUM_COMPRESSION_LEVEL);
+                }
+            } catch (NumberFormatException e) {
+                log.error("Failed to parse " + COMPRESSION_LEVEL_PROPERTY + " setting; using default", e);
+            }
+        }
+        String detectValue = System.getProperty(DETECT_INCOMPRESSIBLE_CONTENT_PROPERTY);
+        if (detectValue != null) {
+            configuration.setDetectIncompressibleContent(Boolean.parseBoolean(detectValue));
+        }
     }
 
     protected void bindConfigurationService(ConfigurationService newConfigurationService) {
@@ -133,7 +175,9 @@ public class EFSDataBackend implements DataBackend {
             if (!fileToDelete.exists()) {
                 fileToDelete = new File(getFileStorageRoot().getAbsolutePath() + new File(uri.getRawPath()).getPath() + ZIP_FILE_SUFFIX);
             }
-            if (!fileToDelete.exists()) {
+            if (!fileToDelete.exists() && blobStore != null && blobStore.contains(getStorageKey(uri))) {
+                deleted = blobStore.delete(getStorageKey(uri));
+            } else if (!fileToDelete.exists()) {
                 log.debug("Given URI representing a file to delete could not be resolved to an existing path in the file store: "
                     + fileToDelete.getAbsolutePath());
             } else {
@@ -155,6 +199,8 @@ public class EFSDataBackend implements DataBackend {
             // as this method is accessible from remote
             throw new RuntimeException("File with given URI could not be deleted: " + uri
                 + " (Message: " + e.getMessage() + ")", e.getCause());
+        } catch (IOException e) {
+            throw new RuntimeException("File with given URI could not be deleted: " + uri, e);
         }
 
         return deleted;
@@ -175,13 +221,16 @@ public class EFSDataBackend implements DataBackend {
                 fileToGet = new File(getFileStorageRoot().getAbsolutePath() + new File(uri.getRawPath()).getPath() + ZIP_FILE_SUFFIX);
                 isZipped = true;
             }
+            if (!fileToGet.exists() && blobStore != null && blobStore.contains(getStorageKey(uri))) {
+                return blobStore.get(getStorageKey(uri));
+            }
             fileStore = encapsulatedEFSService.getStore(fileToGet.toURI());
 
             // get buffered storage file stream
             InputStream storageInputStream = new BufferedInputStream(fileStore.openInputStream(EFS.NONE, null), STREAM_BUFFER_SIZE);
 
             if (isZipped) {
-                storageInputStream = new BufferedInputStream(new GzipCompressorInputStream(storageInputStream), STREAM_BUFFER_SIZE);
+                storageInputStream = new BufferedInputStream(StorageFormat.GZIP.openInputStream(storageInputStream), STREAM_BUFFER_SIZE);
             }
             return storageInputStream;
         } catch (CoreException e) {
@@ -214,7 +263,20 @@ public class EFSDataBackend implements DataBackend {
 
         long writtenBytes = 0;
 
-        if (object instanceof InputStream) {
+        if (object instanceof InputStream && blobStore != null) {
+            InputStream inputStream = (InputStream) object;
+            try {
+                writtenBytes = blobStore.put(getStorageKey(uri), inputStream);
+            } catch (IOException e) {
+                throw new RuntimeException(FAILED_TO_WRITE_FILE_FOR_URI + uri, e);
+            } finally {
+                try {
+                    inputStream.close();
+                } catch (IOException e2) {
+                    log.error("Input stream for given URI could not be closed: " + uri, e2);
+                }
+            }
+        } else if (object instanceof InputStream) {
             InputStream inputStream = (InputStream) object;
 
             OutputStream storageOutputStream = null;
@@ -238,7 +300,8 @@ public class EFSDataBackend implements DataBackend {
                 storageOutputStream = new BufferedOutputStream(fileStore.openOutputStream(EFS.NONE, null), STREAM_BUFFER_SIZE);
 
                 if (useGZipCompression) {
-                    storageOutputStream = new BufferedOutputStream(new GzipCompressorOutputStream(storageOutputStream), STREAM_BUFFER_SIZE);
+                    storageOutputStream = new BufferedOutputStream(StorageFormat.GZIP.openOutputStream(storageOutputStream,
+                        configuration.getCompressionLevel()), STREAM_BUFFER_SIZE);
                 }
             } catch (CoreException e) {
                 // TODO review: RTEs should only be thrown when unavoidable; change method API to
@@ -320,6 +383,13 @@ public class EFSDataBackend implements DataBackend {
         return isValue;
     }
 
+    /**
+     * @return the storage key of a valid URI, i.e. the binary reference key
+     */
+    private String getStorageKey(URI uri) {
+        return uri.getPath().substring(SLASH.length());
+    }
+
     private File getFileStorageRoot() {
         return new File(configuration.getEfsStorage()).getAbsoluteFile();
     }
@@ -8,12 +8,15 @@
 
 package de.rcenvironment.core.datamanagement.backend.data.efs.internal;
 
+import java.util.zip.Deflater;
+
 /**
  * Provides the configuration of the bundle.
  * 
  * @author Juergen Klein
  * @author Tobias Menden
  * @author Sascha Zur
+ * @author agent (content-addressed storage, compression settings)
  */
 public class EFSDataBackendConfiguration {
 
@@ -21,6 +24,12 @@ public class EFSDataBackendConfiguration {
 
     private boolean useGZipFormat = true;
 
+    private boolean useContentAddressedStorage = true;
+
+    private int compressionLevel = Deflater.DEFAULT_COMPRESSION;
+
+    private boolean detectIncompressibleContent = true;
+
     public String getEfsStorage() {
         return dataServiceStorageRoot;
     }
@@ -37,4 +46,28 @@ public class EFSDataBackendConfiguration {
         this.useGZipFormat = useGZipFormat;
     }
 
+    public boolean getUseContentAddressedStorage() {
+        return useContentAddressedStorage;
+    }
+
+    public void setUseContentAddressedStorage(boolean useContentAddressedStorage) {
+        this.useContentAddressedStorage = useContentAddressedStorage;
+    }
+
+    public int getCompressionLevel() {
+        return compressionLevel;
+    }
+
+    public void setCompressionLevel(int compressionLevel) {
+        this.compressionLevel = compressionLevel;
+    }
+
+    public boolean getDetectIncompressibleContent() {
+        return detectIncompressibleContent;
+    }
+
+    public void setDetectIncompressibleContent(boolean detectIncompressibleContent) {
+        this.detectIncompressibleContent = detectIncompressibleContent;
+    }
+
 }
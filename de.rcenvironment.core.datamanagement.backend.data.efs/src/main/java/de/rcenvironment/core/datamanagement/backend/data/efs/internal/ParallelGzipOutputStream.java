@@ -0,0 +1,266 @@
+/*
+ * Copyright (C) 2006-2014 DLR, Germany
+ * 
+ * All rights reserved
+ * 
+ * http://www.rcenvironment.de/
+ */
+
+package de.rcenvironment.core.datamanagement.backend.data.efs.internal;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+import de.rcenvironment.core.utils.common.concurrent.SharedThreadPool;
+import de.rcenvironment.core.utils.common.concurrent.TaskDescription;
+
+/**
+ * An {@link OutputStream} that writes gzip data, compressing fixed-size blocks of the input in parallel. Each block is written as a
+ * separate gzip member; the concatenation of these members is a valid gzip stream, which can be read by any reader that supports
+ * concatenated members (for example, GzipCompressorInputStream with "decompressConcatenated" enabled).
+ * 
+ * The number of blocks being compressed at the same time is limited, which also limits the memory used for pending blocks. The first
+ * block starts small and grows up to the block size, so small content does not allocate a full block; the buffers of compressed blocks
+ * are reused for the following ones.
+ * 
+ * @author agent
+ */
+public class ParallelGzipOutputStream extends OutputStream {
+
+    /**
+     * The default block size; large enough to make the compression ratio loss of independent blocks negligible.
+     */
+    public static final int DEFAULT_BLOCK_SIZE = 1024 * 1024;
+
+    private static final int GZIP_MAGIC_1 = 0x1f;
+
+    private static final int GZIP_MAGIC_2 = 0x8b;
+
+    private static final int GZIP_METHOD_DEFLATE = 8;
+
+    private static final int GZIP_OS_UNKNOWN = 0xff;
+
+    private static final int GZIP_HEADER_PADDING_BYTES = 6;
+
+    private static final int DEFLATE_BUFFER_SIZE = 64 * 1024;
+
+    private static final int INITIAL_BLOCK_CAPACITY = 8 * 1024;
+
+    private static final int BYTE_MASK = 0xff;
+
+    private static final int BITS_PER_BYTE = 8;
+
+    private static final int INT_BYTES = 4;
+
+    /**
+     * Compresses a single block into a complete gzip member.
+     * 
+     * @author agent
+     */
+    private static final class BlockCompressionTask implements Callable<byte[]> {
+
+        private final byte[] data;
+
+        private final int length;
+
+        private final int level;
+
+        BlockCompressionTask(byte[] data, int length, int level) {
+            this.data = data;
+            this.length = length;
+            this.level = level;
+        }
+
+        @Override
+        @TaskDescription("Compress data block")
+        public byte[] call() {
+            return compressToGzipMember(data, length, level);
+        }
+    }
+
+    private final OutputStream out;
+
+    private final int level;
+
+    private final int blockSize;
+
+    private final int maxPendingBlocks;
+
+    private final Deque<Future<byte[]>> pendingBlocks = new ArrayDeque<Future<byte[]>>();
+
+    // the input buffers of the pending blocks, in the same order
+    private final Deque<byte[]> pendingBlockBuffers = new ArrayDeque<byte[]>();
+
+    private byte[] block;
+
+    // the buffer of the last block written to the output, if not reused yet
+    private byte[] spareBlock;
+
+    private int blockFill;
+
+    private boolean anyBlockWritten;
+
+    private boolean closed;
+
+    /**
+     * Creates a stream with the default block size and one pending block per available processor.
+     * 
+     * @param out the stream to write the compressed data to
+     * @param level the compression level (0-9), or {@link Deflater#DEFAULT_COMPRESSION}
+     */
+    public ParallelGzipOutputStream(OutputStream out, int level) {
+        this(out, level, DEFAULT_BLOCK_SIZE, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * @param out the stream to write the compressed data to
+     * @param level the compression level (0-9), or {@link Deflater#DEFAULT_COMPRESSION}
+     * @param blockSize the number of uncompressed bytes per block
+     * @param maxPendingBlocks the maximum number of blocks being compressed at the same time
+     */
+    public ParallelGzipOutputStream(OutputStream out, int level, int blockSize, int maxPendingBlocks) {
+        this.out = out;
+        this.level = level;
+        this.blockSize = blockSize;
+        this.maxPendingBlocks = Math.max(1, maxPendingBlocks);
+        this.block = new byte[Math.min(blockSize, INITIAL_BLOCK_CAPACITY)];
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        write(new byte[] { (byte) b }, 0, 1);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        if (closed) {
+            throw new IOException("Stream already closed");
+        }
+        while (len > 0) {
+            if (blockFill == block.length) {
+                // full blocks are submitted immediately, so the block has not reached the block size yet
+                block = Arrays.copyOf(block, (int) Math.min(2L * block.length, blockSize));
+            }
+            int count = Math.min(len, block.length - blockFill);
+            System.arraycopy(b, off, block, blockFill, count);
+            blockFill += count;
+            off += count;
+            len -= count;
+            if (blockFill == blockSize) {
+                submitBlock();
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            if (blockFill > 0 || !anyBlockWritten) {
+                if (pendingBlocks.isEmpty()) {
+                    // the common case of small content: no need to involve another thread
+                    writeMember(compressToGzipMember(block, blockFill, level));
+                } else {
+                    submitBlock();
+                }
+            }
+            while (!pendingBlocks.isEmpty()) {
+                writeNextPendingBlock();
+            }
+        } finally {
+            // only non-empty on errors
+            for (Future<byte[]> future : pendingBlocks) {
+                future.cancel(false);
+            }
+            out.close();
+        }
+    }
+
+    private void submitBlock() throws IOException {
+        if (pendingBlocks.size() >= maxPendingBlocks) {
+            writeNextPendingBlock();
+        }
+        pendingBlocks.addLast(SharedThreadPool.getInstance().submit(new BlockCompressionTask(block, blockFill, level)));
+        pendingBlockBuffers.addLast(block);
+        // the submitted block is still in use, so reuse the buffer of an already written block or allocate a new one
+        if (spareBlock != null) {
+            block = spareBlock;
+            spareBlock = null;
+        } else {
+            block = new byte[blockSize];
+        }
+        blockFill = 0;
+    }
+
+    private void writeNextPendingBlock() throws IOException {
+        byte[] member = awaitBlock(pendingBlocks.pollFirst());
+        spareBlock = pendingBlockBuffers.pollFirst();
+        writeMember(member);
+    }
+
+    private void writeMember(byte[] member) throws IOException {
+        out.write(member);
+        anyBlockWritten = true;
+    }
+
+    private byte[] awaitBlock(Future<byte[]> future) throws IOException {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            throw new IOException("Failed to compress data block", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for data block compression");
+        }
+    }
+
+    private static byte[] compressToGzipMember(byte[] data, int length, int level) {
+        ByteArrayOutputStream member = new ByteArrayOutputStream(length / 2 + DEFLATE_BUFFER_SIZE);
+        member.write(GZIP_MAGIC_1);
+        member.write(GZIP_MAGIC_2);
+        member.write(GZIP_METHOD_DEFLATE);
+        // no flags, no modification time, no extra flags
+        for (int i = 0; i < GZIP_HEADER_PADDING_BYTES; i++) {
+            member.write(0);
+        }
+        member.write(GZIP_OS_UNKNOWN);
+
+        Deflater deflater = new Deflater(level, true);
+        try {
+            deflater.setInput(data, 0, length);
+            deflater.finish();
+            byte[] buffer = new byte[DEFLATE_BUFFER_SIZE];
+            while (!deflater.finished()) {
+                int count = deflater.deflate(buffer);
+                member.write(buffer, 0, count);
+            }
+        } finally {
+            deflater.end();
+        }
+
+        CRC32 crc = new CRC32();
+        crc.update(data, 0, length);
+        writeIntLittleEndian(member, (int) crc.getValue());
+        writeIntLittleEndian(member, length);
+        return member.toByteArray();
+    }
+
+    private static void writeIntLittleEndian(ByteArrayOutputStream output, int value) {
+        for (int i = 0; i < INT_BYTES; i++) {
+            output.write((value >>> (i * BITS_PER_BYTE)) & BYTE_MASK);
+        }
+    }
+}
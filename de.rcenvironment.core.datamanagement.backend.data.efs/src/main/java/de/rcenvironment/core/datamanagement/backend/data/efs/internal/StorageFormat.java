@@ -0,0 +1,81 @@
+/*
+ * Copyright (C) 2006-2014 DLR, Germany
+ * 
+ * All rights reserved
+ * 
+ * http://www.rcenvironment.de/
+ */
+
+package de.rcenvironment.core.datamanagement.backend.data.efs.internal;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import org.apache.commons.compress.compressors.gzip.GzipCompressorInputStream;
+
+/**
+ * The formats that stored content can be written in. The format of stored content is recorded by its file suffix, so readers can
+ * select the matching decoding.
+ * 
+ * @author agent
+ */
+public enum StorageFormat {
+
+    /** Content stored as it is; used for content that does not compress well, for example already compressed data. */
+    UNCOMPRESSED(".raw") {
+
+        @Override
+        public OutputStream openOutputStream(OutputStream storageOutputStream, int compressionLevel) {
+            return storageOutputStream;
+        }
+
+        @Override
+        public InputStream openInputStream(InputStream storageInputStream) {
+            return storageInputStream;
+        }
+    },
+
+    /** Gzip compression; larger content is compressed in parallel blocks. */
+    GZIP(".gz") {
+
+        @Override
+        public OutputStream openOutputStream(OutputStream storageOutputStream, int compressionLevel) {
+            return new ParallelGzipOutputStream(storageOutputStream, compressionLevel);
+        }
+
+        @Override
+        public InputStream openInputStream(InputStream storageInputStream) throws IOException {
+            // content written in parallel blocks consists of several gzip members
+            return new GzipCompressorInputStream(storageInputStream, true);
+        }
+    };
+
+    private final String fileSuffix;
+
+    private StorageFormat(String fileSuffix) {
+        this.fileSuffix = fileSuffix;
+    }
+
+    public String getFileSuffix() {
+        return fileSuffix;
+    }
+
+    /**
+     * Wraps the given stream to write content in this format.
+     * 
+     * @param storageOutputStream the stream to the storage location
+     * @param compressionLevel the compression level (0-9), or -1 for the default; ignored if not applicable
+     * @return the stream to write the content to
+     */
+    public abstract OutputStream openOutputStream(OutputStream storageOutputStream, int compressionLevel);
+
+    /**
+     * Wraps the given stream to read content stored in this format.
+     * 
+     * @param storageInputStream the stream from the storage location
+     * @return the stream to read the content from
+     * @throws IOException on read errors
+     */
+    public abstract InputStream openInputStream(InputStream storageInputStream) throws IOException;
+}
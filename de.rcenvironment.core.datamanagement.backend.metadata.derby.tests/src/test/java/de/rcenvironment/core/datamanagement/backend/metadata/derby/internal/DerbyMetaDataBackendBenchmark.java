@@ -0,0 +1,187 @@
+/*
+ * Copyright (C) 2006-2014 DLR, Germany
+ * 
+ * All rights reserved
+ * 
+ * http://www.rcenvironment.de/
+ */
+
+package de.rcenvironment.core.datamanagement.backend.metadata.derby.internal;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.easymock.EasyMock;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.osgi.framework.Bundle;
+import org.osgi.framework.BundleContext;
+
+import de.rcenvironment.core.configuration.testutils.MockConfigurationService;
+import de.rcenvironment.core.datamanagement.DataService;
+import de.rcenvironment.core.datamanagement.commons.ComponentInstance;
+import de.rcenvironment.core.datamanagement.commons.EndpointDatumRecord;
+import de.rcenvironment.core.datamanagement.commons.EndpointInstance;
+import de.rcenvironment.core.datamodel.api.EndpointType;
+import de.rcenvironment.core.datamodel.api.TypedDatumFactory;
+import de.rcenvironment.core.datamodel.api.TypedDatumSerializer;
+import de.rcenvironment.core.datamodel.testutils.TypedDatumFactoryDefaultStub;
+import de.rcenvironment.core.datamodel.testutils.TypedDatumSerializerDefaultStub;
+import de.rcenvironment.core.datamodel.testutils.TypedDatumServiceDefaultStub;
+import de.rcenvironment.core.utils.common.TempFileServiceAccess;
+
+/**
+ * Benchmark of storing the inputs and outputs of many component runs, as in large parametric sweeps; compares storing each input and
+ * output separately with storing them in batches. Not run as part of the regular test suite due to its run time.
+ * 
+ * @author agent
+ */
+public class DerbyMetaDataBackendBenchmark {
+
+    private static final int COMPONENT_RUNS = 100000;
+
+    private static final int TYPED_DATUM_ID_BLOCK_SIZE = 20;
+
+    private static final double NANOS_PER_SEC = 1000000000.0;
+
+    private static final String INPUT_1 = "x";
+
+    private static final String INPUT_2 = "y";
+
+    private static final String OUTPUT_1 = "f";
+
+    private static final String OUTPUT_2 = "g";
+
+    private DerbyMetaDataBackendServiceImpl derbyMetaDataBackend;
+
+    private Long componentInstanceId;
+
+    private Map<String, Long> endpointInstanceIds;
+
+    private final TypedDatumFactory typedDatumFactory = new TypedDatumFactoryDefaultStub();
+
+    private final TypedDatumSerializer typedDatumSerializer = new TypedDatumSerializerDefaultStub();
+
+    private final Log log = LogFactory.getLog(getClass());
+
+    /**
+     * Set up.
+     * 
+     * @throws IOException on initialization failure
+     */
+    @Before
+    public void setUp() throws IOException {
+        TempFileServiceAccess.setupUnitTestEnvironment();
+        final File tempDirectory = TempFileServiceAccess.getInstance().createManagedTempDir("derby-metadata-benchmark");
+
+        derbyMetaDataBackend = new DerbyMetaDataBackendServiceImpl();
+        derbyMetaDataBackend.bindConfigurationService(new MockConfigurationService.ThrowExceptionByDefault() {
+
+            @Override
+            public File getConfigurablePath(ConfigurablePathId pathId) {
+                return tempDirectory;
+            }
+        });
+        derbyMetaDataBackend.bindTypedDatumService(new TypedDatumServiceDefaultStub());
+        derbyMetaDataBackend.bindDataService(EasyMock.createNiceMock(DataService.class));
+
+        Bundle bundle = EasyMock.createNiceMock(Bundle.class);
+        EasyMock.replay(bundle);
+        BundleContext bundleContext = EasyMock.createNiceMock(BundleContext.class);
+        EasyMock.expect(bundleContext.getBundle()).andReturn(bundle).anyTimes();
+        EasyMock.replay(bundleContext);
+        derbyMetaDataBackend.activate(bundleContext);
+
+        Long workflowRunId = derbyMetaDataBackend.addWorkflowRun("Benchmark", UUID.randomUUID().toString(),
+            UUID.randomUUID().toString(), System.currentTimeMillis());
+        String componentExecutionId = UUID.randomUUID().toString();
+        List<ComponentInstance> componentInstances = new ArrayList<ComponentInstance>();
+        componentInstances.add(new ComponentInstance(componentExecutionId, "de.rcenvironment.testcomponent", "Testcomponent", null));
+        componentInstanceId = derbyMetaDataBackend.addComponentInstances(workflowRunId, componentInstances).get(componentExecutionId);
+        List<EndpointInstance> endpointInstances = new ArrayList<EndpointInstance>();
+        endpointInstances.add(new EndpointInstance(INPUT_1, EndpointType.INPUT));
+        endpointInstances.add(new EndpointInstance(INPUT_2, EndpointType.INPUT));
+        endpointInstances.add(new EndpointInstance(OUTPUT_1, EndpointType.OUTPUT));
+        endpointInstances.add(new EndpointInstance(OUTPUT_2, EndpointType.OUTPUT));
+        endpointInstanceIds = derbyMetaDataBackend.addEndpointInstances(componentInstanceId, endpointInstances);
+    }
+
+    /** Tear down. */
+    @After
+    public void tearDown() {
+        derbyMetaDataBackend.deactivate();
+    }
+
+    /**
+     * Stores two inputs and two outputs per component run, each one separately.
+     */
+    @Test
+    public void testSeparateInputsAndOutputs() {
+        long startTime = System.nanoTime();
+        Long previousOutputId = derbyMetaDataBackend.addOutputDatum(addComponentRun(0), endpointInstanceIds.get(OUTPUT_1),
+            serializedFloat(0), 0);
+        for (int i = 1; i < COMPONENT_RUNS; i++) {
+            Long componentRunId = addComponentRun(i);
+            derbyMetaDataBackend.addInputDatum(componentRunId, previousOutputId, endpointInstanceIds.get(INPUT_1), i);
+            derbyMetaDataBackend.addInputDatum(componentRunId, previousOutputId, endpointInstanceIds.get(INPUT_2), i);
+            previousOutputId = derbyMetaDataBackend.addOutputDatum(componentRunId, endpointInstanceIds.get(OUTPUT_1),
+                serializedFloat(i), i);
+            derbyMetaDataBackend.addOutputDatum(componentRunId, endpointInstanceIds.get(OUTPUT_2), serializedFloat(i), i);
+            derbyMetaDataBackend.setComponentRunFinished(componentRunId, System.currentTimeMillis());
+        }
+        logResult("separately", System.nanoTime() - startTime);
+    }
+
+    /**
+     * Stores two inputs and two outputs per component run as one batch, with output identifiers reserved in blocks; this is how
+     * components store their inputs and outputs.
+     */
+    @Test
+    public void testBatchedInputsAndOutputs() {
+        LinkedList<Long> reservedIds = new LinkedList<Long>();
+        long startTime = System.nanoTime();
+        Long previousOutputId = null;
+        for (int i = 0; i < COMPONENT_RUNS; i++) {
+            Long componentRunId = addComponentRun(i);
+            if (reservedIds.size() < 2) {
+                reservedIds.addAll(derbyMetaDataBackend.reserveTypedDatumIds(TYPED_DATUM_ID_BLOCK_SIZE));
+            }
+            List<EndpointDatumRecord> endpointData = new ArrayList<EndpointDatumRecord>();
+            if (previousOutputId != null) {
+                endpointData.add(new EndpointDatumRecord(endpointInstanceIds.get(INPUT_1), previousOutputId, i, null));
+                endpointData.add(new EndpointDatumRecord(endpointInstanceIds.get(INPUT_2), previousOutputId, i, null));
+            }
+            previousOutputId = reservedIds.poll();
+            endpointData.add(new EndpointDatumRecord(endpointInstanceIds.get(OUTPUT_1), previousOutputId, i, serializedFloat(i)));
+            endpointData.add(new EndpointDatumRecord(endpointInstanceIds.get(OUTPUT_2), reservedIds.poll(), i, serializedFloat(i)));
+            derbyMetaDataBackend.addEndpointData(componentRunId, endpointData);
+            derbyMetaDataBackend.setComponentRunFinished(componentRunId, System.currentTimeMillis());
+        }
+        derbyMetaDataBackend.releaseTypedDatumIds(reservedIds);
+        logResult("in batches", System.nanoTime() - startTime);
+        assertEquals(COMPONENT_RUNS, derbyMetaDataBackend.getComponentRuns(componentInstanceId).size());
+    }
+
+    private Long addComponentRun(int count) {
+        return derbyMetaDataBackend.addComponentRun(componentInstanceId, UUID.randomUUID().toString(), count, System.currentTimeMillis());
+    }
+
+    private String serializedFloat(int count) {
+        return typedDatumSerializer.serialize(typedDatumFactory.createFloat(count * Math.PI));
+    }
+
+    private void logResult(String mode, long duration) {
+        log.info(String.format("Stored %d component runs with inputs and outputs %s in %.1f sec (%.0f runs/sec)", COMPONENT_RUNS, mode,
+            duration / NANOS_PER_SEC, COMPONENT_RUNS * NANOS_PER_SEC / duration));
+    }
+}
@@ -15,15 +15,19 @@ import static org.junit.Assert.assertTrue;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.commons.logging.Log;
@@ -42,11 +46,16 @@ import de.rcenvironment.core.configuration.testutils.MockConfigurationService;
 import de.rcenvironment.core.datamanagement.DataService;
 import de.rcenvironment.core.datamanagement.commons.BinaryReference;
 import de.rcenvironment.core.datamanagement.commons.ComponentInstance;
+import de.rcenvironment.core.datamanagement.commons.ComponentRun;
 import de.rcenvironment.core.datamanagement.commons.DataReference;
+import de.rcenvironment.core.datamanagement.commons.EndpointData;
+import de.rcenvironment.core.datamanagement.commons.EndpointDatumRecord;
 import de.rcenvironment.core.datamanagement.commons.EndpointInstance;
 import de.rcenvironment.core.datamanagement.commons.MetaData;
 import de.rcenvironment.core.datamanagement.commons.MetaDataSet;
 import de.rcenvironment.core.datamanagement.commons.WorkflowRun;
+import de.rcenvironment.core.datamanagement.commons.WorkflowRunDescription;
+import de.rcenvironment.core.datamanagement.commons.WorkflowRunDescriptionCursor;
 import de.rcenvironment.core.datamodel.api.CompressionFormat;
 import de.rcenvironment.core.datamodel.api.EndpointType;
 import de.rcenvironment.core.datamodel.api.FinalWorkflowState;
@@ -272,6 +281,31 @@ public class DerbyMetaDataBackendTest {
     }
 
     private void performAddDeleteWorkflowWithDataCycle(int numComponents, int numRunsPerComponent, long waitBeforeDeleteMsec) {
+        Long wfRunId = addFinishedWorkflowRunWithData(numComponents, numRunsPerComponent);
+
+        assertEquals(STRING_TEST_RUN, derbyMetaDataBackend.getWorkflowRun(wfRunId).getWorkflowTitle());
+        derbyMetaDataBackend.getWorkflowTimeline(wfRunId);
+        log.debug(String.format("Retrieved worklfow run data of id %d", wfRunId));
+
+        try {
+            Thread.sleep(waitBeforeDeleteMsec);
+        } catch (InterruptedException e) {
+            // wrap for simplicity
+            throw new RuntimeException("Interrupted while waiting", e);
+        }
+
+        if ((wfRunId % 2) == 0) {
+            // Delete data references
+            derbyMetaDataBackend.deleteWorkflowRunFiles(wfRunId);
+            log.debug(String.format("Deleted files of workflow run id %d", wfRunId));
+        } else {
+            // Delete workflow run
+            derbyMetaDataBackend.deleteWorkflowRun(wfRunId);
+            log.debug(String.format("Deleted workflow run id %d", wfRunId));
+        }
+    }
+
+    private Long addFinishedWorkflowRunWithData(int numComponents, int numRunsPerComponent) {
         Long wfRunId = derbyMetaDataBackend.addWorkflowRun(STRING_TEST_RUN, UUID.randomUUID().toString(), UUID.randomUUID().toString(),
             System.currentTimeMillis());
         log.debug(String.format("Added workflow run (id %d)", wfRunId));
@@ -319,27 +353,39 @@ public class DerbyMetaDataBackendTest {
         // mark as finished, otherwise file deletion will (correctly) fail
         derbyMetaDataBackend.setWorkflowRunFinished(wfRunId, System.currentTimeMillis(), FinalWorkflowState.FINISHED);
         log.debug(String.format("Set workflow run id %d finished", wfRunId));
+        return wfRunId;
+    }
 
-        assertEquals(STRING_TEST_RUN, derbyMetaDataBackend.getWorkflowRun(wfRunId).getWorkflowTitle());
-        derbyMetaDataBackend.getWorkflowTimeline(wfRunId);
-        log.debug(String.format("Retrieved worklfow run data of id %d", wfRunId));
-
-        try {
-            Thread.sleep(waitBeforeDeleteMsec);
-        } catch (InterruptedException e) {
-            // wrap for simplicity
-            throw new RuntimeException("Interrupted while waiting", e);
+    /**
+     * Test.
+     * 
+     * @throws InterruptedException on interruption
+     */
+    @Test
+    public void testDeleteWorkflowRuns() throws InterruptedException {
+        final int numWorkflowRuns = 25; // more than one deletion chunk
+        final long maxWaitMsec = 30000;
+        final long pollIntervalMsec = 100;
+        List<Long> wfRunIds = new ArrayList<Long>();
+        for (int i = 0; i < numWorkflowRuns; i++) {
+            wfRunIds.add(addFinishedWorkflowRunWithData(2, 2));
         }
-
-        if ((wfRunId % 2) == 0) {
-            // Delete data references
-            derbyMetaDataBackend.deleteWorkflowRunFiles(wfRunId);
-            log.debug(String.format("Deleted files of workflow run id %d", wfRunId));
-        } else {
-            // Delete workflow run
-            derbyMetaDataBackend.deleteWorkflowRun(wfRunId);
-            log.debug(String.format("Deleted workflow run id %d", wfRunId));
+        // workflow runs that are not finished yet must not be deleted
+        Long unfinishedWfRunId = derbyMetaDataBackend.addWorkflowRun(STRING_TEST_RUN, UUID.randomUUID().toString(),
+            UUID.randomUUID().toString(), System.currentTimeMillis());
+        List<Long> idsToDelete = new ArrayList<Long>(wfRunIds);
+        idsToDelete.add(unfinishedWfRunId);
+
+        assertEquals(numWorkflowRuns, derbyMetaDataBackend.deleteWorkflowRuns(idsToDelete).intValue());
+        // the workflow runs are deleted asynchronously
+        long deadline = System.currentTimeMillis() + maxWaitMsec;
+        for (Long wfRunId : wfRunIds) {
+            while (derbyMetaDataBackend.getWorkflowRun(wfRunId) != null) {
+                assertTrue("Workflow run " + wfRunId + " was not deleted in time", System.currentTimeMillis() < deadline);
+                Thread.sleep(pollIntervalMsec);
+            }
         }
+        assertNotNull(derbyMetaDataBackend.getWorkflowRun(unfinishedWfRunId));
     }
 
     /** Test. */
@@ -355,6 +401,112 @@ public class DerbyMetaDataBackendTest {
         }
         WorkflowRun wfrun = derbyMetaDataBackend.getWorkflowRun(wfRunId);
         assertNotNull(wfrun);
+        Collection<ComponentInstance> storedComponentInstances = derbyMetaDataBackend.getComponentInstances(wfRunId);
+        assertEquals(componentInstances.size(), storedComponentInstances.size());
+        for (ComponentInstance ci : storedComponentInstances) {
+            assertTrue(componentInstanceIdMap.containsValue(ci.getComponentInstanceID()));
+            assertEquals(1, derbyMetaDataBackend.getComponentRuns(ci.getComponentInstanceID()).size());
+        }
+    }
+
+    /**
+     * Tests that inputs referring to reserved typed datums that are not set yet are omitted when reading endpoint data, and that
+     * releasing reserved ids keeps the rows inputs refer to.
+     */
+    @Test
+    public void testReservedTypedDatumIds() {
+        Long wfRunId = derbyMetaDataBackend.addWorkflowRun(STRING_TEST_RUN, UUID.randomUUID().toString(), UUID.randomUUID().toString(),
+            System.currentTimeMillis());
+        String producerExecutionId = UUID.randomUUID().toString();
+        String consumerExecutionId = UUID.randomUUID().toString();
+        Collection<ComponentInstance> componentInstances = new HashSet<ComponentInstance>();
+        componentInstances.add(new ComponentInstance(producerExecutionId, "de.rcenvironment.testcomponent", "Producer", null));
+        componentInstances.add(new ComponentInstance(consumerExecutionId, "de.rcenvironment.testcomponent", "Consumer", null));
+        Map<String, Long> componentInstanceIdMap = derbyMetaDataBackend.addComponentInstances(wfRunId, componentInstances);
+        Long producerId = componentInstanceIdMap.get(producerExecutionId);
+        Long consumerId = componentInstanceIdMap.get(consumerExecutionId);
+        Long outputId = derbyMetaDataBackend.addEndpointInstances(producerId,
+            Arrays.asList(new EndpointInstance("X_out", EndpointType.OUTPUT))).get("X_out");
+        Long inputId = derbyMetaDataBackend.addEndpointInstances(consumerId,
+            Arrays.asList(new EndpointInstance("X_in", EndpointType.INPUT))).get("X_in");
+        Long producerRunId = derbyMetaDataBackend.addComponentRun(producerId, UUID.randomUUID().toString(), 1, System.currentTimeMillis());
+        Long consumerRunId = derbyMetaDataBackend.addComponentRun(consumerId, UUID.randomUUID().toString(), 1, System.currentTimeMillis());
+
+        final int reservedCount = 3;
+        List<Long> typedDatumIds = derbyMetaDataBackend.reserveTypedDatumIds(reservedCount);
+        assertEquals(reservedCount, new HashSet<Long>(typedDatumIds).size());
+
+        // the input is stored before the output it refers to
+        derbyMetaDataBackend.addEndpointData(consumerRunId,
+            Arrays.asList(new EndpointDatumRecord(inputId, typedDatumIds.get(0), 0, null)));
+        assertTrue(getEndpointDataOfSingleRun(consumerId).isEmpty());
+
+        String datum = typedDatumSerializer.serialize(typedDatumFactory.createFloat(3f));
+        derbyMetaDataBackend.addEndpointData(producerRunId,
+            Arrays.asList(new EndpointDatumRecord(outputId, typedDatumIds.get(0), 0, datum)));
+        Set<EndpointData> consumerData = getEndpointDataOfSingleRun(consumerId);
+        assertEquals(1, consumerData.size());
+        assertEquals(datum, consumerData.iterator().next().getDatum());
+        assertEquals(1, getEndpointDataOfSingleRun(producerId).size());
+
+        // the output of the second id is never stored (e.g. as its batch failed), but an input refers to it; the third id is unused
+        derbyMetaDataBackend.addEndpointData(consumerRunId,
+            Arrays.asList(new EndpointDatumRecord(inputId, typedDatumIds.get(1), 1, null)));
+        derbyMetaDataBackend.releaseTypedDatumIds(typedDatumIds.subList(1, reservedCount));
+        assertEquals(1, getEndpointDataOfSingleRun(consumerId).size());
+        // set typed datums are never released
+        derbyMetaDataBackend.releaseTypedDatumIds(typedDatumIds.subList(0, 1));
+        assertEquals(1, getEndpointDataOfSingleRun(consumerId).size());
+    }
+
+    private Set<EndpointData> getEndpointDataOfSingleRun(Long componentInstanceId) {
+        Collection<ComponentRun> componentRuns = derbyMetaDataBackend.getComponentRuns(componentInstanceId);
+        assertEquals(1, componentRuns.size());
+        return componentRuns.iterator().next().getEndpointData();
+    }
+
+    /**
+     * Tests that reading all pages returns every workflow run exactly once, ordered by start time descending. As the database is shared
+     * with the other test cases, only the order of the workflow runs created here is checked.
+     */
+    @Test
+    public void testGetWorkflowRunDescriptionsPageByPage() {
+        final int pageSize = 2;
+        final int existingRunCount = derbyMetaDataBackend.getWorkflowRunDescriptions().size();
+        // an odd total number of workflow runs, so the last page is a partial one
+        final int numWorkflowRuns = 5 - existingRunCount % 2;
+        final int totalRunCount = existingRunCount + numWorkflowRuns;
+        // start times after those of the other tests' workflow runs, so these are the most recent ones
+        final long startTime = System.currentTimeMillis() + TimeUnit.DAYS.toMillis(1);
+        List<Long> expectedIds = new LinkedList<Long>();
+        for (int i = 0; i < numWorkflowRuns; i++) {
+            // two runs per start time, to check that runs with the same start time are neither skipped nor repeated
+            expectedIds.add(0, derbyMetaDataBackend.addWorkflowRun(STRING_TEST_RUN, UUID.randomUUID().toString(), UUID.randomUUID()
+                .toString(), startTime + i / 2));
+        }
+
+        List<Long> actualIds = new ArrayList<Long>();
+        long previousStartTime = Long.MAX_VALUE;
+        WorkflowRunDescriptionCursor cursor = WorkflowRunDescriptionCursor.first();
+        List<WorkflowRunDescription> page;
+        do {
+            page = derbyMetaDataBackend.getWorkflowRunDescriptions(cursor, pageSize);
+            for (WorkflowRunDescription description : page) {
+                assertTrue(description.getStartTime() <= previousStartTime);
+                previousStartTime = description.getStartTime();
+                actualIds.add(description.getWorkflowRunID());
+            }
+            if (!page.isEmpty()) {
+                cursor = WorkflowRunDescriptionCursor.after(page.get(page.size() - 1));
+            }
+        } while (page.size() == pageSize);
+
+        assertEquals(totalRunCount % pageSize, page.size());
+        assertEquals(totalRunCount, actualIds.size());
+        assertEquals(totalRunCount, new HashSet<Long>(actualIds).size());
+        List<Long> ownIds = new ArrayList<Long>(actualIds);
+        ownIds.retainAll(expectedIds);
+        assertEquals(expectedIds, ownIds);
     }
 
     /**
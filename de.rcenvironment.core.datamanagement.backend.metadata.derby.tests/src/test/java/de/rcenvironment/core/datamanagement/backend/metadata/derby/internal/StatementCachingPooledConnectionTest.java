@@ -0,0 +1,212 @@
+/*
+ * Copyright (C) 2006-2014 DLR, Germany
+ * 
+ * All rights reserved
+ * 
+ * http://www.rcenvironment.de/
+ */
+
+package de.rcenvironment.core.datamanagement.backend.metadata.derby.internal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.sql.ConnectionEvent;
+import javax.sql.ConnectionEventListener;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test cases for {@link StatementCachingPooledConnection}.
+ * 
+ * @author agent
+ */
+public class StatementCachingPooledConnectionTest {
+
+    private static final String INSERT_SQL = "INSERT INTO TEST (ID) VALUES (?)";
+
+    private static final String SELECT_SQL = "SELECT * FROM TEST";
+
+    private static final int MAX_CACHED_STATEMENTS = 100;
+
+    private PhysicalConnectionHandler physicalConnectionHandler;
+
+    private StatementCachingPooledConnection pooledConnection;
+
+    private int closedEventCount;
+
+    private int errorEventCount;
+
+    /**
+     * Stub of a physical connection that records the statements prepared on it.
+     * 
+     * @author agent
+     */
+    private static class PhysicalConnectionHandler implements InvocationHandler {
+
+        private final List<StatementHandler> preparedStatements = new ArrayList<StatementHandler>();
+
+        private boolean closed;
+
+        private int rollbackCount;
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String methodName = method.getName();
+            if (methodName.equals("prepareStatement") || methodName.equals("createStatement")) {
+                StatementHandler handler = new StatementHandler();
+                preparedStatements.add(handler);
+                return Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] { PreparedStatement.class }, handler);
+            } else if (methodName.equals("close")) {
+                closed = true;
+            } else if (methodName.equals("getAutoCommit")) {
+                return false;
+            } else if (methodName.equals("rollback")) {
+                rollbackCount++;
+            } else if (methodName.equals("commit")) {
+                throw new SQLException("Simulated connection failure", "08006");
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Stub of a statement that records whether it was closed.
+     * 
+     * @author agent
+     */
+    private static class StatementHandler implements InvocationHandler {
+
+        private boolean closed;
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            if (method.getName().equals("close")) {
+                closed = true;
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Common setup.
+     */
+    @Before
+    public void setUp() {
+        physicalConnectionHandler = new PhysicalConnectionHandler();
+        Connection physicalConnection = (Connection) Proxy.newProxyInstance(getClass().getClassLoader(),
+            new Class<?>[] { Connection.class }, physicalConnectionHandler);
+        pooledConnection = new StatementCachingPooledConnection(physicalConnection);
+        pooledConnection.addConnectionEventListener(new ConnectionEventListener() {
+
+            @Override
+            public void connectionClosed(ConnectionEvent event) {
+                closedEventCount++;
+            }
+
+            @Override
+            public void connectionErrorOccurred(ConnectionEvent event) {
+                errorEventCount++;
+            }
+        });
+    }
+
+    /**
+     * Tests that INSERT statements are prepared once per physical connection, and that other statements are closed together with the
+     * logical connection.
+     * 
+     * @throws SQLException on unexpected errors
+     */
+    @Test
+    public void testStatementsCachedAcrossLogicalConnections() throws SQLException {
+        final int transactionCount = 3;
+        for (int i = 0; i < transactionCount; i++) {
+            Connection connection = pooledConnection.getConnection();
+            PreparedStatement insert = connection.prepareStatement(INSERT_SQL);
+            insert.close();
+            insert = connection.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS);
+            insert.close();
+            connection.prepareStatement(SELECT_SQL);
+            connection.close();
+            assertTrue(connection.isClosed());
+        }
+        assertEquals(transactionCount, closedEventCount);
+        assertEquals(transactionCount, physicalConnectionHandler.rollbackCount);
+        assertEquals(2, pooledConnection.getCachedStatementCount());
+        // two cached statements, and one uncached statement per transaction
+        assertEquals(2 + transactionCount, physicalConnectionHandler.preparedStatements.size());
+        int closedCount = 0;
+        for (StatementHandler statement : physicalConnectionHandler.preparedStatements) {
+            if (statement.closed) {
+                closedCount++;
+            }
+        }
+        assertEquals(transactionCount, closedCount);
+
+        pooledConnection.close();
+        assertTrue(physicalConnectionHandler.closed);
+        for (StatementHandler statement : physicalConnectionHandler.preparedStatements) {
+            assertTrue(statement.closed);
+        }
+    }
+
+    /**
+     * Tests that the least recently used statements are closed if more than the maximum number of statements would be cached.
+     * 
+     * @throws SQLException on unexpected errors
+     */
+    @Test
+    public void testCacheLimit() throws SQLException {
+        Connection connection = pooledConnection.getConnection();
+        for (int i = 0; i <= MAX_CACHED_STATEMENTS; i++) {
+            connection.prepareStatement(INSERT_SQL + " -- " + i);
+        }
+        assertEquals(MAX_CACHED_STATEMENTS, pooledConnection.getCachedStatementCount());
+        assertTrue(physicalConnectionHandler.preparedStatements.get(0).closed);
+        assertFalse(physicalConnectionHandler.preparedStatements.get(1).closed);
+    }
+
+    /**
+     * Tests that a closed logical connection cannot be used anymore, and that connection errors are reported to the pool.
+     * 
+     * @throws SQLException on unexpected errors
+     */
+    @Test
+    public void testClosedConnectionAndErrors() throws SQLException {
+        Connection connection = pooledConnection.getConnection();
+        try {
+            connection.commit();
+            fail("Exception expected");
+        } catch (SQLException e) {
+            assertEquals("08006", e.getSQLState());
+        }
+        assertEquals(1, errorEventCount);
+
+        Connection nextConnection = pooledConnection.getConnection();
+        // a previous logical connection is closed implicitly, without notifying the pool
+        assertTrue(connection.isClosed());
+        assertEquals(0, closedEventCount);
+        try {
+            connection.prepareStatement(INSERT_SQL);
+            fail("Exception expected");
+        } catch (SQLException e) {
+            assertEquals("Connection is closed", e.getMessage());
+        }
+        nextConnection.close();
+        nextConnection.close();
+        assertEquals(1, closedEventCount);
+    }
+}
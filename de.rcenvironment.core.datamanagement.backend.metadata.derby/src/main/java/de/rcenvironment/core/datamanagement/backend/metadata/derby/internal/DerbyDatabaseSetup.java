@@ -49,6 +49,7 @@ import de.rcenvironment.core.datamanagement.commons.MetaDataConstants;
  * Derby meta data db setup.
  * 
  * @author Jan Flink
+ * @author agent (index upgrade)
  */
 public abstract class DerbyDatabaseSetup {
 
@@ -90,6 +91,10 @@ public abstract class DerbyDatabaseSetup {
             || !tableExists(statement, MetaDataConstants.REL_COMPONENTRUN_DATAREFERENCE)
             || !tableExists(statement, MetaDataConstants.REL_DATAREFERENCE_BINARYREFERENCE)) {
             throw new RuntimeException("Unknown DB state!");
+        } else if (!indexExists(statement, DerbyDatabaseSetupSqlStatements.INDEX_WORKFLOW_RUN_HISTORY)) {
+            // databases set up by earlier versions
+            LOGGER.debug("Adding index for workflow run history queries.");
+            createWorkflowRunHistoryIndex(connection);
         }
         statement.close();
     }
@@ -115,6 +120,27 @@ public abstract class DerbyDatabaseSetup {
         return isExistentTable;
     }
 
+    private static boolean indexExists(Statement statement, String indexname) throws SQLException {
+        boolean isExistentIndex = false;
+        ResultSet rs = null;
+        try {
+            final String sql = SELECT + " conglomeratename FROM SYS.SYSCONGLOMERATES" //
+                + WHERE + "conglomeratename = " + APO + indexname + APO;
+            statement.setQueryTimeout(QUERY_EXECUTION_TIMEOUT);
+            rs = statement.executeQuery(sql);
+            isExistentIndex = rs.next();
+        } finally {
+            try {
+                if (rs != null) {
+                    rs.close();
+                }
+            } catch (SQLException e) {
+                e = null;
+            }
+        }
+        return isExistentIndex;
+    }
+
     private static boolean viewExists(Statement statement, String viewname) throws SQLException {
         boolean isExistentView = false;
         ResultSet rs = null;
@@ -159,6 +185,7 @@ public abstract class DerbyDatabaseSetup {
             createIndex(TABLE_TIMELINE_INTERVAL, COMPONENT_RUN_ID, connection);
             createIndex(TABLE_BINARY_REFERENCE, BINARY_REFERENCE_KEY, connection);
             createIndex(TABLE_ENDPOINT_DATA, COMPONENT_RUN_ID, connection);
+            createWorkflowRunHistoryIndex(connection);
         } catch (SQLException e) {
             if (e instanceof SQLTransientConnectionException) {
                 throw (SQLTransientConnectionException) e;
@@ -175,6 +202,13 @@ public abstract class DerbyDatabaseSetup {
         stmt.close();
     }
 
+    private static void createWorkflowRunHistoryIndex(Connection connection) throws SQLException {
+        Statement stmt = connection.createStatement();
+        LOGGER.debug(String.format("Creating index '%s'", DerbyDatabaseSetupSqlStatements.INDEX_WORKFLOW_RUN_HISTORY));
+        stmt.executeUpdate(DerbyDatabaseSetupSqlStatements.getSqlIndexWorkflowRunHistory());
+        stmt.close();
+    }
+
     private static void createTables(final Connection connection) {
         final Runnable task = new SQLRunnable(MAX_RETRIES) {
 
@@ -66,9 +66,15 @@ import de.rcenvironment.core.datamodel.api.TimelineIntervalType;
  * Static strings representing sql statements for setting up database tables and views.
  * 
  * @author Jan Flink
+ * @author agent (workflow run history index)
  */
 public abstract class DerbyDatabaseSetupSqlStatements {
 
+    /**
+     * The index for reading the workflow run history page by page, ordered by start time descending.
+     */
+    protected static final String INDEX_WORKFLOW_RUN_HISTORY = "INDEX_WORKFLOW_RUN_HISTORY";
+
     private static final String CLOB = " CLOB ";
 
     private static final String UNIQUE = "UNIQUE";
@@ -129,6 +135,10 @@ public abstract class DerbyDatabaseSetupSqlStatements {
 
     private static final String BOOLEAN = " BOOLEAN ";
 
+    private static final String CREATE_INDEX = " CREATE INDEX ";
+
+    private static final String DESCENDING = " DESC ";
+
     protected static String getSqlRelationWorkflowRunDataReference() {
         String sql = CREATE_TABLE + REL_WORKFLOWRUN_DATAREFERENCE + "("
             + WORKFLOW_RUN_ID + BIGINT + NOT_NULL + COMMA
@@ -325,6 +335,13 @@ public abstract class DerbyDatabaseSetupSqlStatements {
         return sql;
     }
 
+    protected static String getSqlIndexWorkflowRunHistory() {
+        // the timeline intervals of workflow runs, in the order of the paginated history queries
+        String sql = CREATE_INDEX + INDEX_WORKFLOW_RUN_HISTORY + ON + TABLE_TIMELINE_INTERVAL + "("
+            + TYPE + COMMA + STARTTIME + DESCENDING + COMMA + WORKFLOW_RUN_ID + DESCENDING + ")";
+        return sql;
+    }
+
     protected static String getSqlViewEndpointData() {
         String sql = CREATE_VIEW + VIEW_ENDPOINT_DATA + AS
             + SELECT + TABLE_ENDPOINT_DATA + DOT + COMPONENT_RUN_ID + COMMA
@@ -58,7 +58,6 @@ import static de.rcenvironment.core.datamanagement.commons.MetaDataConstants.VIE
 import static de.rcenvironment.core.datamanagement.commons.MetaDataConstants.VIEW_ENDPOINT_DATA;
 import static de.rcenvironment.core.datamanagement.commons.MetaDataConstants.VIEW_WORKFLOWRUN_COMPONENTRUN;
 import static de.rcenvironment.core.datamanagement.commons.MetaDataConstants.VIEW_WORKFLOWRUN_DATAREFERENCE;
-import static de.rcenvironment.core.datamanagement.commons.MetaDataConstants.VIEW_WORKFLOWRUN_TYPEDDATUM;
 import static de.rcenvironment.core.datamanagement.commons.MetaDataConstants.WORKFLOW_RUN_ID;
 
 import java.io.File;
@@ -73,13 +72,15 @@ import java.sql.Statement;
 import java.sql.Timestamp;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Queue;
 import java.util.Set;
-import java.util.TreeSet;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
@@ -90,6 +91,7 @@ import org.apache.commons.dbcp.datasources.SharedPoolDataSource;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.apache.derby.jdbc.EmbeddedConnectionPoolDataSource;
+import org.apache.derby.jdbc.EmbeddedDataSource;
 import org.osgi.framework.BundleContext;
 
 import de.rcenvironment.core.communication.common.NodeIdentifierFactory;
@@ -103,10 +105,12 @@ import de.rcenvironment.core.datamanagement.commons.ComponentRun;
 import de.rcenvironment.core.datamanagement.commons.ComponentRunInterval;
 import de.rcenvironment.core.datamanagement.commons.DataReference;
 import de.rcenvironment.core.datamanagement.commons.EndpointData;
+import de.rcenvironment.core.datamanagement.commons.EndpointDatumRecord;
 import de.rcenvironment.core.datamanagement.commons.EndpointInstance;
 import de.rcenvironment.core.datamanagement.commons.TimelineInterval;
 import de.rcenvironment.core.datamanagement.commons.WorkflowRun;
 import de.rcenvironment.core.datamanagement.commons.WorkflowRunDescription;
+import de.rcenvironment.core.datamanagement.commons.WorkflowRunDescriptionCursor;
 import de.rcenvironment.core.datamanagement.commons.WorkflowRunTimline;
 import de.rcenvironment.core.datamodel.api.CompressionFormat;
 import de.rcenvironment.core.datamodel.api.EndpointType;
@@ -117,7 +121,9 @@ import de.rcenvironment.core.datamodel.api.TypedDatum;
 import de.rcenvironment.core.datamodel.api.TypedDatumSerializer;
 import de.rcenvironment.core.datamodel.api.TypedDatumService;
 import de.rcenvironment.core.utils.common.concurrent.AsyncCallbackExceptionPolicy;
+import de.rcenvironment.core.utils.common.concurrent.AsyncExceptionListener;
 import de.rcenvironment.core.utils.common.concurrent.AsyncOrderedExecutionQueue;
+import de.rcenvironment.core.utils.common.concurrent.CallablesGroup;
 import de.rcenvironment.core.utils.common.concurrent.SharedThreadPool;
 import de.rcenvironment.core.utils.common.concurrent.TaskDescription;
 import de.rcenvironment.core.utils.common.security.AllowRemoteAccess;
@@ -145,12 +151,18 @@ public class DerbyMetaDataBackendServiceImpl implements MetaDataBackendService {
 
     private static final int MAX_VALUE_LENGTH = 32672;
 
+    // the type of typed datum rows that were reserved, but not set yet
+    private static final String RESERVED_TYPED_DATUM_TYPE = "Reserved";
+
     private static final String TRUE = "true";
 
     private static final String BRACKET_STRING_PLACEHOLDER = "(%s)";
 
     private static final String GROUP_BY = " GROUP BY ";
 
+    // the page size used to read all workflow run descriptions
+    private static final int WORKFLOW_RUN_DESCRIPTIONS_PAGE_SIZE = 1000;
+
     private static final int TIME_TO_WAIT_FOR_RETRY = 5000;
 
     private static final String DB_PREFIX = "APP.";
@@ -212,8 +224,28 @@ public class DerbyMetaDataBackendServiceImpl implements MetaDataBackendService {
 
     private static final String IN = " IN ";
 
+    private static final String NOT_IN = " NOT IN ";
+
     private static final String IS_NULL = " IS NULL ";
 
+    private static final String LESS = " < ";
+
+    private static final String OR = " OR ";
+
+    private static final String FETCH_FIRST_ROWS = " FETCH FIRST ? ROWS ONLY ";
+
+    private static final String IS_NOT_NULL = " IS NOT NULL ";
+
+    private static final String UNION = " UNION ";
+
+    // number of workflow runs deleted within one transaction
+    private static final int WORKFLOW_RUN_DELETION_CHUNK_SIZE = 20;
+
+    // maximum number of identifiers or keys in one IN list
+    private static final int IN_LIST_SLICE_SIZE = 1000;
+
+    private static final int FILE_DELETION_PARALLELISM = 4;
+
     private final CountDownLatch initializationLatch = new CountDownLatch(1);
 
     private SharedPoolDataSource connectionPool;
@@ -233,6 +265,12 @@ public class DerbyMetaDataBackendServiceImpl implements MetaDataBackendService {
     private final AsyncOrderedExecutionQueue executionQueue = new AsyncOrderedExecutionQueue(AsyncCallbackExceptionPolicy.LOG_AND_PROCEED,
         SharedThreadPool.getInstance());
 
+    // deletions of many workflow runs get their own queue, so they do not delay the deletion of single ones
+    private final AsyncOrderedExecutionQueue bulkDeletionQueue = new AsyncOrderedExecutionQueue(
+        AsyncCallbackExceptionPolicy.LOG_AND_PROCEED, SharedThreadPool.getInstance());
+
+    private volatile boolean deletionCancelled = false;
+
     protected void activate(BundleContext context) throws IOException {
         File storageRootDir = configService.getConfigurablePath(ConfigurablePathId.PROFILE_DATA_MANAGEMENT);
         System.setProperty("derby.stream.error.file", new File(storageRootDir, "derby.log").getAbsolutePath());
@@ -437,8 +475,9 @@ public class DerbyMetaDataBackendServiceImpl implements MetaDataBackendService {
             stmt.setLong(1, relatedId);
             stmt.setString(2, key);
             stmt.setString(3, properties.get(key));
-            stmt.execute();
+            stmt.addBatch();
         }
+        stmt.executeBatch();
         stmt.close();
     }
 
@@ -679,13 +718,31 @@ public class DerbyMetaDataBackendServiceImpl implements MetaDataBackendService {
         return execution.call();
     }
 
-    private Map<Long, Integer> getDataReferenceCounts(Connection connection, boolean isRetry) throws SQLException {
+    @Override
+    @AllowRemoteAccess
+    public List<WorkflowRunDescription> getWorkflowRunDescriptions(final WorkflowRunDescriptionCursor cursor, final Integer maxCount) {
+        final SafeExecution<List<WorkflowRunDescription>> execution = new SafeExecution<List<WorkflowRunDescription>>() {
+
+            @Override
+            protected List<WorkflowRunDescription> protectedCall(final Connection connection, final boolean isRetry)
+                throws SQLException {
+                return getWorkflowRunDescriptions(cursor, maxCount, connection, isRetry);
+            }
+        };
+        return execution.call();
+    }
+
+    private Map<Long, Integer> getDataReferenceCounts(Collection<Long> workflowRunIds, Connection connection, boolean isRetry)
+        throws SQLException {
+        Map<Long, Integer> counts = new HashMap<Long, Integer>();
+        if (workflowRunIds.isEmpty()) {
+            return counts;
+        }
         String sql =
-            SELECT + " COUNT(*) AS " + COUNTER + COMMA + WORKFLOW_RUN_ID + FROM + VIEW_WORKFLOWRUN_DATAREFERENCE + GROUP_BY
-                + WORKFLOW_RUN_ID;
+            SELECT + " COUNT(*) AS " + COUNTER + COMMA + WORKFLOW_RUN_ID + FROM + VIEW_WORKFLOWRUN_DATAREFERENCE
+                + WHERE + WORKFLOW_RUN_ID + IN + BRACKET_STRING_PLACEHOLDER + GROUP_BY + WORKFLOW_RUN_ID;
         Statement stmt = connection.createStatement();
-        ResultSet rs = stmt.executeQuery(sql);
-        Map<Long, Integer> counts = new HashMap<Long, Integer>();
+        ResultSet rs = stmt.executeQuery(String.format(sql, getIdString(workflowRunIds)));
         if (rs != null) {
             while (rs.next()) {
                 counts.put(rs.getLong(WORKFLOW_RUN_ID), rs.getInt(COUNTER));
@@ -697,7 +754,22 @@ public class DerbyMetaDataBackendServiceImpl implements MetaDataBackendService {
     }
 
     private Set<WorkflowRunDescription> getWorkflowRunDescriptions(Connection connection, boolean isRetry) throws SQLException {
-        Map<Long, Integer> counts = getDataReferenceCounts(connection, isRetry);
+        // read page by page, so data references are only counted for the workflow runs of one page at a time
+        Set<WorkflowRunDescription> results = new HashSet<WorkflowRunDescription>();
+        WorkflowRunDescriptionCursor cursor = WorkflowRunDescriptionCursor.first();
+        List<WorkflowRunDescription> page;
+        do {
+            page = getWorkflowRunDescriptions(cursor, WORKFLOW_RUN_DESCRIPTIONS_PAGE_SIZE, connection, isRetry);
+            results.addAll(page);
+            if (!page.isEmpty()) {
+                cursor = WorkflowRunDescriptionCursor.after(page.get(page.size() - 1));
+            }
+        } while (page.size() == WORKFLOW_RUN_DESCRIPTIONS_PAGE_SIZE);
+        return results;
+    }
+
+    private List<WorkflowRunDescription> getWorkflowRunDescriptions(WorkflowRunDescriptionCursor cursor, int maxCount,
+        Connection connection, boolean isRetry) throws SQLException {
         String sql =
             SELECT + TABLE_WORKFLOW_RUN + DOT + WORKFLOW_RUN_ID + COMMA + TABLE_WORKFLOW_RUN + DOT + NAME + COMMA
                 + TABLE_WORKFLOW_RUN + DOT + CONTROLLER_NODE_ID + COMMA + TABLE_WORKFLOW_RUN + DOT + DATAMANAGEMENT_NODE_ID + COMMA
@@ -705,12 +777,27 @@ public class DerbyMetaDataBackendServiceImpl implements MetaDataBackendService {
                 + TABLE_TIMELINE_INTERVAL + DOT + STARTTIME + COMMA + TABLE_TIMELINE_INTERVAL + DOT + ENDTIME + COMMA + TABLE_WORKFLOW_RUN
                 + DOT + FINAL_STATE + FROM + DB_PREFIX + TABLE_WORKFLOW_RUN + INNER_JOIN + DB_PREFIX + TABLE_TIMELINE_INTERVAL + ON
                 + TABLE_TIMELINE_INTERVAL + DOT + WORKFLOW_RUN_ID + EQUAL + TABLE_WORKFLOW_RUN + DOT + WORKFLOW_RUN_ID
-                + WHERE + TABLE_TIMELINE_INTERVAL + DOT + TYPE + EQUAL + QMARK + AND + TO_BE_DELETED + NOT_EQUAL + QMARK
-                + ORDER_BY + STARTTIME + DESCENDING;
-        Set<WorkflowRunDescription> results = new HashSet<WorkflowRunDescription>();
+                + WHERE + TABLE_TIMELINE_INTERVAL + DOT + TYPE + EQUAL + QMARK + AND + TO_BE_DELETED + NOT_EQUAL + QMARK;
+        if (!cursor.isFirst()) {
+            // continue after the last workflow run of the previous page; the ordering is made unique by the workflow run id
+            sql += AND + "(" + TABLE_TIMELINE_INTERVAL + DOT + STARTTIME + LESS + QMARK + OR + "(" + TABLE_TIMELINE_INTERVAL + DOT
+                + STARTTIME + EQUAL + QMARK + AND + TABLE_TIMELINE_INTERVAL + DOT + WORKFLOW_RUN_ID + LESS + QMARK + "))";
+        }
+        // matches the workflow run history index, so only the rows of the requested page are read
+        sql += ORDER_BY + TABLE_TIMELINE_INTERVAL + DOT + STARTTIME + DESCENDING + COMMA + TABLE_TIMELINE_INTERVAL + DOT + WORKFLOW_RUN_ID
+            + DESCENDING + FETCH_FIRST_ROWS;
+        List<WorkflowRunDescription> rows = new ArrayList<WorkflowRunDescription>();
         PreparedStatement stmt = connection.prepareStatement(sql);
-        stmt.setString(1, TimelineIntervalType.WORKFLOW_RUN.toString());
-        stmt.setInt(2, WORKFLOW_RUN_TO_BE_DELETED);
+        int index = 1;
+        stmt.setString(index++, TimelineIntervalType.WORKFLOW_RUN.toString());
+        stmt.setInt(index++, WORKFLOW_RUN_TO_BE_DELETED);
+        if (!cursor.isFirst()) {
+            Timestamp cursorStartTime = new Timestamp(cursor.getStartTime());
+            stmt.setTimestamp(index++, cursorStartTime);
+            stmt.setTimestamp(index++, cursorStartTime);
+            stmt.setLong(index++, cursor.getWorkflowRunID());
+        }
+        stmt.setInt(index, maxCount);
         ResultSet rs = stmt.executeQuery();
         if (rs != null) {
             while (rs.next()) {
@@ -723,16 +810,27 @@ public class DerbyMetaDataBackendServiceImpl implements MetaDataBackendService {
                 if (rs.getString(FINAL_STATE) != null) {
                     finalState = FinalWorkflowState.valueOf(rs.getString(FINAL_STATE));
                 }
-                Long wfRunId = rs.getLong(WORKFLOW_RUN_ID);
                 boolean markedForDeletion = rs.getInt(TO_BE_DELETED) != NOT_MARKED_TO_BE_DELETED;
-                Boolean hasDataReferences = counts.get(wfRunId) != null && counts.get(wfRunId) > 0;
-                results.add(new WorkflowRunDescription(wfRunId, rs.getString(NAME), rs.getString(CONTROLLER_NODE_ID)
+                rows.add(new WorkflowRunDescription(rs.getLong(WORKFLOW_RUN_ID), rs.getString(NAME), rs.getString(CONTROLLER_NODE_ID)
                     .trim(), rs.getString(DATAMANAGEMENT_NODE_ID).trim(), rs.getTimestamp(STARTTIME).getTime(), endtime, finalState,
-                    hasDataReferences, markedForDeletion));
+                    null, markedForDeletion));
             }
             rs.close();
         }
         stmt.close();
+        List<Long> workflowRunIds = new ArrayList<Long>();
+        for (WorkflowRunDescription row : rows) {
+            workflowRunIds.add(row.getWorkflowRunID());
+        }
+        Map<Long, Integer> counts = getDataReferenceCounts(workflowRunIds, connection, isRetry);
+        List<WorkflowRunDescription> results = new ArrayList<WorkflowRunDescription>();
+        for (WorkflowRunDescription row : rows) {
+            Long wfRunId = row.getWorkflowRunID();
+            Boolean hasDataReferences = counts.get(wfRunId) != null && counts.get(wfRunId) > 0;
+            results.add(new WorkflowRunDescription(wfRunId, row.getWorkflowTitle(), row.getControllerNodeID(),
+                row.getDatamanagementNodeID(), row.getStartTime(), row.getEndTime(), row.getFinalState(), hasDataReferences,
+                row.isMarkedForDeletion()));
+        }
         return results;
     }
 
@@ -801,17 +899,7 @@ public class DerbyMetaDataBackendServiceImpl implements MetaDataBackendService {
             Statement stmtEndpointData = connection.createStatement();
             ResultSet rsEndpointData = stmtEndpointData.executeQuery(String.format(sqlEndpointData, getIdString(endpointData.keySet())));
             if (rsEndpointData != null) {
-                while (rsEndpointData.next()) {
-                    String value = rsEndpointData.getString(VALUE);
-                    if (value == null) {
-                        value = rsEndpointData.getString(BIG_VALUE);
-                    }
-                    endpointData.get(rsEndpointData.getLong(COMPONENT_RUN_ID)).add(
-                        new EndpointData(new EndpointInstance(rsEndpointData.getString(NAME), EndpointType
-                            .valueOf(rsEndpointData
-                                .getString("ENDPOINT_TYPE"))),
-                            rsEndpointData.getInt(COUNTER), value));
-                }
+                readEndpointData(rsEndpointData, endpointData);
                 rsEndpointData.close();
             }
             stmtEndpointData.close();
@@ -846,7 +934,60 @@ public class DerbyMetaDataBackendServiceImpl implements MetaDataBackendService {
         return workflowRun;
     }
 
+    private void readEndpointData(ResultSet rs, Map<Long, Set<EndpointData>> endpointData) throws SQLException {
+        while (rs.next()) {
+            // an input may refer to an output whose batch is not stored yet, or failed to be stored; it has no value to return
+            if (RESERVED_TYPED_DATUM_TYPE.equals(rs.getString("DATUM_TYPE"))) {
+                continue;
+            }
+            String value = rs.getString(VALUE);
+            if (value == null) {
+                value = rs.getString(BIG_VALUE);
+            }
+            Set<EndpointData> componentRunEndpointData = endpointData.get(rs.getLong(COMPONENT_RUN_ID));
+            // runs without a timeline interval are not returned
+            if (componentRunEndpointData != null) {
+                componentRunEndpointData.add(new EndpointData(new EndpointInstance(rs.getString(NAME),
+                    EndpointType.valueOf(rs.getString("ENDPOINT_TYPE"))), rs.getInt(COUNTER), value));
+            }
+        }
+    }
+
+    @Override
+    @AllowRemoteAccess
+    public Collection<ComponentInstance> getComponentInstances(final Long workflowRunId) {
+        final SafeExecution<Collection<ComponentInstance>> execution = new SafeExecution<Collection<ComponentInstance>>() {
+
+            @Override
+            protected Collection<ComponentInstance> protectedCall(final Connection connection, final boolean isRetry)
+                throws SQLException {
+                return getComponentInstances(workflowRunId, connection, isRetry);
+            }
+        };
+        return execution.call();
+    }
+
+    private Collection<ComponentInstance> getComponentInstances(Long workflowRunId, Connection connection, boolean isRetry)
+        throws SQLException {
+        String sql = SELECT + COMPONENT_INSTANCE_ID + COMMA + COMPONENT_ID + COMMA + COMPONENT_INSTANCE_NAME + COMMA + FINAL_STATE
+            + FROM + DB_PREFIX + TABLE_COMPONENT_INSTANCE + WHERE + WORKFLOW_RUN_ID + EQUAL + QMARK;
+        Collection<ComponentInstance> results = new ArrayList<ComponentInstance>();
+        PreparedStatement stmt = connection.prepareStatement(sql);
+        stmt.setLong(1, workflowRunId);
+        ResultSet rs = stmt.executeQuery();
+        if (rs != null) {
+            while (rs.next()) {
+                results.add(new ComponentInstance(rs.getLong(COMPONENT_INSTANCE_ID), rs.getString(COMPONENT_ID),
+                    rs.getString(COMPONENT_INSTANCE_NAME), rs.getString(FINAL_STATE)));
+            }
+            rs.close();
+        }
+        stmt.close();
+        return results;
+    }
+
     @Override
+    @AllowRemoteAccess
     public Collection<ComponentRun> getComponentRuns(final Long componentInstanceId) {
         final SafeExecution<Collection<ComponentRun>> execution = new SafeExecution<Collection<ComponentRun>>() {
 
@@ -860,12 +1001,21 @@ public class DerbyMetaDataBackendServiceImpl implements MetaDataBackendService {
 
     private Collection<ComponentRun> getComponentRuns(Long componentInstanceId, Connection connection, boolean isRetry)
         throws SQLException {
-        String sql = SELECT + COMPONENT_RUN_ID + COMMA + COMPONENT_INSTANCE_ID + COMMA + NODE_ID + COMMA
-            + COUNTER + COMMA + STARTTIME + COMMA + ENDTIME + COMMA + HISTORY_DATA_ITEM + COMMA + REFERENCES_DELETED
-            + FROM + DB_PREFIX + TABLE_COMPONENT_RUN + WHERE + COMPONENT_INSTANCE_ID + EQUAL + QMARK + ORDER_BY + STARTTIME + DESCENDING;
-        Collection<ComponentRun> results = new TreeSet<ComponentRun>();
+        // start and end time are stored as the timeline interval of the component run
+        String sql = SELECT + TABLE_COMPONENT_RUN + DOT + COMPONENT_RUN_ID + COMMA + TABLE_COMPONENT_RUN + DOT + COMPONENT_INSTANCE_ID
+            + COMMA + TABLE_COMPONENT_RUN + DOT + NODE_ID + COMMA + TABLE_COMPONENT_RUN + DOT + COUNTER + COMMA
+            + TABLE_TIMELINE_INTERVAL + DOT + STARTTIME + COMMA + TABLE_TIMELINE_INTERVAL + DOT + ENDTIME + COMMA
+            + TABLE_COMPONENT_RUN + DOT + HISTORY_DATA_ITEM + COMMA + TABLE_COMPONENT_RUN + DOT + REFERENCES_DELETED
+            + FROM + DB_PREFIX + TABLE_COMPONENT_RUN + INNER_JOIN + DB_PREFIX + TABLE_TIMELINE_INTERVAL + ON
+            + TABLE_TIMELINE_INTERVAL + DOT + COMPONENT_RUN_ID + EQUAL + TABLE_COMPONENT_RUN + DOT + COMPONENT_RUN_ID
+            + WHERE + TABLE_COMPONENT_RUN + DOT + COMPONENT_INSTANCE_ID + EQUAL + QMARK + AND + TABLE_TIMELINE_INTERVAL + DOT + TYPE
+            + EQUAL + QMARK + ORDER_BY + TABLE_TIMELINE_INTERVAL + DOT + STARTTIME;
+        // a list, as runs may have the same start time
+        Collection<ComponentRun> results = new ArrayList<ComponentRun>();
+        Map<Long, Set<EndpointData>> endpointData = new HashMap<Long, Set<EndpointData>>();
         PreparedStatement stmt = connection.prepareStatement(sql);
         stmt.setLong(1, componentInstanceId);
+        stmt.setString(2, TimelineIntervalType.COMPONENT_RUN.toString());
         ResultSet rs = stmt.executeQuery();
         if (rs != null) {
             while (rs.next()) {
@@ -874,13 +1024,29 @@ public class DerbyMetaDataBackendServiceImpl implements MetaDataBackendService {
                 if (rs.getTimestamp(ENDTIME) != null) {
                     endtime = rs.getTimestamp(ENDTIME).getTime();
                 }
-                results.add(new ComponentRun(rs.getLong(COMPONENT_RUN_ID), rs.getLong(COMPONENT_INSTANCE_ID), rs.getString(NODE_ID).trim(),
-                    rs.getInt(COUNTER), rs.getTimestamp(STARTTIME).getTime(),
-                    endtime, rs.getString(HISTORY_DATA_ITEM), rs.getBoolean(REFERENCES_DELETED)));
+                ComponentRun componentRun = new ComponentRun(rs.getLong(COMPONENT_RUN_ID), rs.getLong(COMPONENT_INSTANCE_ID),
+                    rs.getString(NODE_ID).trim(), rs.getInt(COUNTER), rs.getTimestamp(STARTTIME).getTime(),
+                    endtime, rs.getString(HISTORY_DATA_ITEM), rs.getBoolean(REFERENCES_DELETED));
+                Set<EndpointData> componentRunEndpointData = new HashSet<EndpointData>();
+                componentRun.setEndpointData(componentRunEndpointData);
+                endpointData.put(componentRun.getComponentRunID(), componentRunEndpointData);
+                results.add(componentRun);
             }
             rs.close();
         }
         stmt.close();
+        if (!endpointData.isEmpty()) {
+            String sqlEndpointData = SELECT_ALL + FROM + DB_PREFIX + VIEW_ENDPOINT_DATA + WHERE + COMPONENT_RUN_ID + IN + "("
+                + SELECT + COMPONENT_RUN_ID + FROM + DB_PREFIX + TABLE_COMPONENT_RUN + WHERE + COMPONENT_INSTANCE_ID + EQUAL + QMARK + ")";
+            PreparedStatement stmtEndpointData = connection.prepareStatement(sqlEndpointData);
+            stmtEndpointData.setLong(1, componentInstanceId);
+            ResultSet rsEndpointData = stmtEndpointData.executeQuery();
+            if (rsEndpointData != null) {
+                readEndpointData(rsEndpointData, endpointData);
+                rsEndpointData.close();
+            }
+            stmtEndpointData.close();
+        }
         return results;
     }
 
@@ -986,6 +1152,112 @@ public class DerbyMetaDataBackendServiceImpl implements MetaDataBackendService {
         return id;
     }
 
+    @Override
+    @AllowRemoteAccess
+    public List<Long> reserveTypedDatumIds(final Integer count) {
+        final SafeExecution<List<Long>> execution = new SafeExecution<List<Long>>() {
+
+            @Override
+            protected List<Long> protectedCall(final Connection connection, final boolean isRetry) throws SQLException {
+                return reserveTypedDatumIds(count, connection, isRetry);
+            }
+        };
+        return execution.call();
+    }
+
+    private List<Long> reserveTypedDatumIds(Integer count, Connection connection, boolean isRetry) throws SQLException {
+        String sql = INSERT_INTO + DB_PREFIX + TABLE_TYPED_DATUM + "(" + TYPE + ")" + VALUES + "(?)";
+        PreparedStatement stmt = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS);
+        List<Long> ids = new ArrayList<Long>();
+        for (int i = 0; i < count; i++) {
+            stmt.setString(1, RESERVED_TYPED_DATUM_TYPE);
+            stmt.executeUpdate();
+            ids.add(getGeneratedKey(stmt));
+        }
+        stmt.close();
+        return ids;
+    }
+
+    @Override
+    @AllowRemoteAccess
+    public void addEndpointData(final Long componentRunId, final List<EndpointDatumRecord> endpointData) {
+        final SafeExecution<Void> execution = new SafeExecution<Void>() {
+
+            @Override
+            protected Void protectedCall(final Connection connection, final boolean isRetry) throws SQLException {
+                addEndpointData(componentRunId, endpointData, connection, isRetry);
+                return null;
+            }
+        };
+        execution.call();
+    }
+
+    private void addEndpointData(Long componentRunId, List<EndpointDatumRecord> endpointData, Connection connection, boolean isRetry)
+        throws SQLException {
+        String typedDatumSql = UPDATE + DB_PREFIX + TABLE_TYPED_DATUM + SET
+            + TYPE + EQUAL + QMARK + COMMA + STRING_PLACEHOLDER + EQUAL + QMARK
+            + WHERE + TYPED_DATUM_ID + EQUAL + QMARK;
+        String endpointSql = INSERT_INTO + DB_PREFIX + TABLE_ENDPOINT_DATA + "("
+            + COMPONENT_RUN_ID + COMMA + TYPED_DATUM_ID + COMMA + ENDPOINT_INSTANCE_ID + COMMA + COUNTER + ")"
+            + VALUES + PLACEHOLDER_FOUR_VALUES;
+        // the value column depends on the length of the value, so there is one statement per column
+        PreparedStatement valueStmt = connection.prepareStatement(String.format(typedDatumSql, VALUE));
+        PreparedStatement bigValueStmt = connection.prepareStatement(String.format(typedDatumSql, BIG_VALUE));
+        PreparedStatement endpointStmt = connection.prepareStatement(endpointSql);
+        for (EndpointDatumRecord record : endpointData) {
+            if (record.isOutput()) {
+                TypedDatum datum = typedDatumSerializer.deserialize(record.getDatum());
+                String value = typedDatumSerializer.serialize(datum);
+                PreparedStatement stmt;
+                if (value.length() <= MAX_VALUE_LENGTH) {
+                    stmt = valueStmt;
+                } else {
+                    stmt = bigValueStmt;
+                }
+                stmt.setString(1, datum.getDataType().getShortName());
+                stmt.setString(2, value);
+                stmt.setLong(3, record.getTypedDatumId());
+                stmt.addBatch();
+            }
+            endpointStmt.setLong(1, componentRunId);
+            endpointStmt.setLong(2, record.getTypedDatumId());
+            endpointStmt.setLong(3, record.getEndpointInstanceId());
+            endpointStmt.setInt(4, record.getCount());
+            endpointStmt.addBatch();
+        }
+        valueStmt.executeBatch();
+        bigValueStmt.executeBatch();
+        endpointStmt.executeBatch();
+        valueStmt.close();
+        bigValueStmt.close();
+        endpointStmt.close();
+    }
+
+    @Override
+    @AllowRemoteAccess
+    public void releaseTypedDatumIds(final List<Long> typedDatumIds) {
+        if (typedDatumIds.isEmpty()) {
+            return;
+        }
+        final SafeExecution<Void> execution = new SafeExecution<Void>() {
+
+            @Override
+            protected Void protectedCall(final Connection connection, final boolean isRetry) throws SQLException {
+                // only delete rows that are still reserved, so set typed datums are never deleted by mistake; rows an input refers to
+                // already are kept, and skipped when reading endpoint data
+                String sql = DELETE_FROM + DB_PREFIX + TABLE_TYPED_DATUM + WHERE + TYPE + EQUAL + QMARK
+                    + AND + TYPED_DATUM_ID + IN + BRACKET_STRING_PLACEHOLDER
+                    + AND + TYPED_DATUM_ID + NOT_IN + "(" + SELECT + TYPED_DATUM_ID + FROM + DB_PREFIX + TABLE_ENDPOINT_DATA + ")";
+                PreparedStatement stmt = connection.prepareStatement(String.format(sql, getIdString(typedDatumIds)));
+                stmt.setString(1, RESERVED_TYPED_DATUM_TYPE);
+                stmt.executeUpdate();
+                stmt.close();
+                return null;
+            }
+        };
+        execution.call();
+    }
+
     @Override
     public Long addTimelineInterval(final Long workflowRunId, final TimelineIntervalType intervalType, final long starttime,
         final Long relatedComponentId) {
@@ -1227,47 +1499,87 @@ public class DerbyMetaDataBackendServiceImpl implements MetaDataBackendService {
 
             @Override
             public void run() {
-                deleteWorkflowRunInternal(workflowRunId);
+                deleteWorkflowRunsInternal(Collections.singletonList(workflowRunId));
             }
         });
         return true;
     }
 
-    private void deleteWorkflowRunInternal(final Long workflowRunId) {
+    @Override
+    @AllowRemoteAccess
+    public Integer deleteWorkflowRuns(final List<Long> workflowRunIds) {
+        final SafeExecution<List<Long>> execution = new SafeExecution<List<Long>>() {
+
+            @Override
+            protected List<Long> protectedCall(final Connection connection, final boolean isRetry) throws SQLException {
+                List<Long> deletableIds = getDeletableWorkflowRunIds(workflowRunIds, connection, isRetry);
+                if (deletableIds.size() < workflowRunIds.size()) {
+                    LOGGER.error(String.format("Deletion of %d workflow runs requested, but %d of them are not finished yet, "
+                        + "already marked to be deleted, or do not exist", workflowRunIds.size(),
+                        workflowRunIds.size() - deletableIds.size()));
+                }
+                markDeletion(deletableIds, WORKFLOW_RUN_TO_BE_DELETED, connection, isRetry);
+                LOGGER.debug(String.format("Marked %d workflow runs to be deleted.", deletableIds.size()));
+                return deletableIds;
+            }
+        };
+        final List<Long> deletableIds = execution.call();
+        if (!deletableIds.isEmpty()) {
+            bulkDeletionQueue.enqueue(new Runnable() {
+
+                @Override
+                public void run() {
+                    deleteWorkflowRunsInternal(deletableIds);
+                }
+            });
+        }
+        return deletableIds.size();
+    }
+
+    /**
+     * Deletes the given workflow runs in chunks, each within its own transaction; the files of a chunk are deleted before its database
+     * content. If a chunk fails, its workflow runs stay marked to be deleted, and their deletion is tried again on the next startup.
+     */
+    private void deleteWorkflowRunsInternal(final List<Long> workflowRunIds) {
+        final int total = workflowRunIds.size();
+        LOGGER.debug(String.format("Starting to delete %d workflow run(s).", total));
+        int processed = 0;
+        for (int from = 0; from < total && !deletionCancelled; from += WORKFLOW_RUN_DELETION_CHUNK_SIZE) {
+            final List<Long> chunk = workflowRunIds.subList(from, Math.min(from + WORKFLOW_RUN_DELETION_CHUNK_SIZE, total));
+            try {
+                deleteWorkflowRunChunk(chunk);
+            } catch (RuntimeException e) {
+                LOGGER.error(String.format("Failed to delete workflow run ids %s; will retry on next startup", chunk), e);
+            }
+            processed += chunk.size();
+            if (total > WORKFLOW_RUN_DELETION_CHUNK_SIZE) {
+                LOGGER.info(String.format("Processed deletion of %d of %d workflow runs.", processed, total));
+            }
+        }
+        LOGGER.debug(String.format("Finished deletion of %d workflow run(s).", processed));
+    }
+
+    private void deleteWorkflowRunChunk(final List<Long> workflowRunIds) {
         final SafeExecution<Map<Long, Set<String>>> execution = new SafeExecution<Map<Long, Set<String>>>() {
 
             @Override
             protected Map<Long, Set<String>> protectedCall(final Connection connection, final boolean isRetry) throws SQLException {
-                LOGGER.debug(String.format("Starting to delete workflow run id %d.", workflowRunId));
-                Map<Long, Set<String>> keys = getDataReferenceBinaryKeys(workflowRunId, connection, isRetry);
-                return keys;
+                return getDataReferenceBinaryKeys(workflowRunIds, connection, isRetry);
             }
         };
         final Map<Long, Set<String>> dataKeys = execution.call();
-        if (dataKeys != null) {
-            deleteFiles(dataKeys.values());
-        }
-        final SafeExecution<Boolean> execution2 = new SafeExecution<Boolean>() {
+        deleteFiles(dataKeys.values());
+        final SafeExecution<Void> execution2 = new SafeExecution<Void>() {
 
             @Override
-            protected Boolean protectedCall(final Connection connection, final boolean isRetry) throws SQLException {
-                Boolean deleted = deleteDataReferences(dataKeys, connection, isRetry);
-                return deleted;
+            protected Void protectedCall(final Connection connection, final boolean isRetry) throws SQLException {
+                deleteDataReferences(dataKeys, connection, isRetry);
+                deleteTypedDatums(workflowRunIds, connection, isRetry);
+                deleteWorkflowRunContent(workflowRunIds, connection, isRetry);
+                return null;
             }
         };
-        if (execution2.call()) {
-            final SafeExecution<Void> execution3 = new SafeExecution<Void>() {
-
-                @Override
-                protected Void protectedCall(final Connection connection, final boolean isRetry) throws SQLException {
-                    deleteTypedDatums(workflowRunId, connection, isRetry);
-                    deleteWorkflowRunContent(workflowRunId, connection, isRetry);
-                    LOGGER.debug(String.format("Finished deletion of workflow run id %d.", workflowRunId));
-                    return null;
-                }
-            };
-            execution3.call();
-        }
+        execution2.call();
     }
 
     private void deleteWorkflowRunFilesInternal(final Long workflowRunId) {
@@ -1276,7 +1588,8 @@ public class DerbyMetaDataBackendServiceImpl implements MetaDataBackendService {
             @Override
             protected Map<Long, Set<String>> protectedCall(final Connection connection, final boolean isRetry) throws SQLException {
                 LOGGER.debug(String.format("Starting to delete files of workflow run id %d.", workflowRunId));
-                Map<Long, Set<String>> keys = getDataReferenceBinaryKeys(workflowRunId, connection, isRetry);
+                Map<Long, Set<String>> keys =
+                    getDataReferenceBinaryKeys(Collections.singletonList(workflowRunId), connection, isRetry);
                 return keys;
             }
         };
@@ -1317,6 +1630,34 @@ public class DerbyMetaDataBackendServiceImpl implements MetaDataBackendService {
         stmt.close();
     }
 
+    private void markDeletion(List<Long> workflowRunIds, Integer type, Connection connection, boolean isRetry) throws SQLException {
+        String sql = UPDATE + DB_PREFIX + TABLE_WORKFLOW_RUN + SET + TO_BE_DELETED + EQUAL + type
+            + WHERE + WORKFLOW_RUN_ID + IN + BRACKET_STRING_PLACEHOLDER;
+        executeUpdateForIds(sql, workflowRunIds, connection);
+    }
+
+    /**
+     * @return the identifiers of the given workflow runs that are finished and not yet marked to be deleted
+     */
+    private List<Long> getDeletableWorkflowRunIds(List<Long> workflowRunIds, Connection connection, boolean isRetry)
+        throws SQLException {
+        String sql = SELECT + WORKFLOW_RUN_ID + FROM + DB_PREFIX + TABLE_WORKFLOW_RUN
+            + WHERE + FINAL_STATE + IS_NOT_NULL + AND + TO_BE_DELETED + EQUAL + NOT_MARKED_TO_BE_DELETED
+            + AND + WORKFLOW_RUN_ID + IN + BRACKET_STRING_PLACEHOLDER;
+        List<Long> deletableIds = new ArrayList<Long>();
+        Statement stmt = connection.createStatement();
+        for (int from = 0; from < workflowRunIds.size(); from += IN_LIST_SLICE_SIZE) {
+            List<Long> slice = workflowRunIds.subList(from, Math.min(from + IN_LIST_SLICE_SIZE, workflowRunIds.size()));
+            ResultSet rs = stmt.executeQuery(String.format(sql, getIdString(slice)));
+            while (rs.next()) {
+                deletableIds.add(rs.getLong(WORKFLOW_RUN_ID));
+            }
+            rs.close();
+        }
+        stmt.close();
+        return deletableIds;
+    }
+
     private void markDataReferencesDeleted(Long workflowRunId, Connection connection, boolean isRetry) throws SQLException {
         String sqlComponentRunIds =
             SELECT + COMPONENT_RUN_ID + FROM + VIEW_WORKFLOWRUN_COMPONENTRUN + WHERE + WORKFLOW_RUN_ID + EQUAL + QMARK;
@@ -1357,20 +1698,52 @@ public class DerbyMetaDataBackendServiceImpl implements MetaDataBackendService {
         return false;
     }
 
+    /**
+     * Deletes the files of the given binary references in parallel.
+     * 
+     * @throws RuntimeException if a file could not be deleted
+     */
     private void deleteFiles(Collection<Set<String>> binaryKeys) {
-        for (final Set<String> keySet : binaryKeys) {
-            for (final String key : keySet) {
-                dataService.deleteReference(key);
+        final Queue<String> pendingKeys = new ConcurrentLinkedQueue<String>();
+        for (Set<String> keySet : binaryKeys) {
+            pendingKeys.addAll(keySet);
+        }
+        if (pendingKeys.isEmpty()) {
+            return;
+        }
+        CallablesGroup<Boolean> callablesGroup = SharedThreadPool.getInstance().createCallablesGroup(Boolean.class);
+        for (int i = 0; i < Math.min(FILE_DELETION_PARALLELISM, pendingKeys.size()); i++) {
+            callablesGroup.add(new Callable<Boolean>() {
+
+                @Override
+                @TaskDescription("Delete files of workflow runs")
+                public Boolean call() throws Exception {
+                    String key = pendingKeys.poll();
+                    while (key != null) {
+                        dataService.deleteReference(key);
+                        key = pendingKeys.poll();
+                    }
+                    return true;
+                }
+            });
+        }
+        List<Boolean> results = callablesGroup.executeParallel(new AsyncExceptionListener() {
+
+            @Override
+            public void onAsyncException(Exception e) {
+                LOGGER.error("Failed to delete file of workflow run", e);
             }
+        });
+        if (results.contains(null)) {
+            throw new RuntimeException("Failed to delete files of workflow runs");
         }
     }
 
-    private void deleteTypedDatums(Long workflowRunId, Connection connection, boolean isRetry) throws SQLException {
-        String sql = SELECT + TYPED_DATUM_ID + FROM + DB_PREFIX + VIEW_WORKFLOWRUN_TYPEDDATUM
-            + WHERE + WORKFLOW_RUN_ID + EQUAL + QMARK;
-        PreparedStatement stmt = connection.prepareStatement(sql);
-        stmt.setLong(1, workflowRunId);
-        ResultSet rs = stmt.executeQuery();
+    private void deleteTypedDatums(List<Long> workflowRunIds, Connection connection, boolean isRetry) throws SQLException {
+        String componentRunIds = getComponentRunIdsSubquery(workflowRunIds);
+        String sql = SELECT + TYPED_DATUM_ID + FROM + DB_PREFIX + TABLE_ENDPOINT_DATA + WHERE + COMPONENT_RUN_ID + IN + componentRunIds;
+        Statement stmt = connection.createStatement();
+        ResultSet rs = stmt.executeQuery(sql);
         Set<Long> typedDatumIds = new HashSet<Long>();
         if (rs != null) {
             while (rs.next()) {
@@ -1378,19 +1751,10 @@ public class DerbyMetaDataBackendServiceImpl implements MetaDataBackendService {
             }
             rs.close();
         }
+        stmt.executeUpdate(DELETE_FROM + DB_PREFIX + TABLE_ENDPOINT_DATA + WHERE + COMPONENT_RUN_ID + IN + componentRunIds);
         stmt.close();
-        String sqlEndpointData = DELETE_FROM + DB_PREFIX + TABLE_ENDPOINT_DATA + WHERE + TYPED_DATUM_ID + IN + BRACKET_STRING_PLACEHOLDER;
         String sqlTypedDatum = DELETE_FROM + DB_PREFIX + TABLE_TYPED_DATUM + WHERE + TYPED_DATUM_ID + IN + BRACKET_STRING_PLACEHOLDER;
-
-        String idString = getIdString(typedDatumIds);
-        if (!idString.isEmpty()) {
-            Statement stmtEndpointData = connection.createStatement();
-            stmtEndpointData.executeUpdate(String.format(sqlEndpointData, idString));
-            stmtEndpointData.close();
-            Statement stmtTypedDatum = connection.createStatement();
-            stmtTypedDatum.executeUpdate(String.format(sqlTypedDatum, idString));
-            stmtTypedDatum.close();
-        }
+        executeUpdateForIds(sqlTypedDatum, typedDatumIds, connection);
     }
 
     private Boolean deleteDataReferences(Map<Long, Set<String>> dataReferenceKeys,
@@ -1404,117 +1768,87 @@ public class DerbyMetaDataBackendServiceImpl implements MetaDataBackendService {
         String sqlRelCompRunDataRef =
             DELETE_FROM + DB_PREFIX + REL_COMPONENTRUN_DATAREFERENCE + WHERE + DATA_REFERENCE_ID + IN + BRACKET_STRING_PLACEHOLDER;
         String sqlRelCompInstanceDataRef =
-            DELETE_FROM + DB_PREFIX + REL_COMPONENTRUN_DATAREFERENCE + WHERE + DATA_REFERENCE_ID + IN + BRACKET_STRING_PLACEHOLDER;
+            DELETE_FROM + DB_PREFIX + REL_COMPONENTINSTANCE_DATAREFERENCE + WHERE + DATA_REFERENCE_ID + IN + BRACKET_STRING_PLACEHOLDER;
         String sqlRelWorkflowRunDataRef =
-            DELETE_FROM + DB_PREFIX + REL_COMPONENTRUN_DATAREFERENCE + WHERE + DATA_REFERENCE_ID + IN + BRACKET_STRING_PLACEHOLDER;
+            DELETE_FROM + DB_PREFIX + REL_WORKFLOWRUN_DATAREFERENCE + WHERE + DATA_REFERENCE_ID + IN + BRACKET_STRING_PLACEHOLDER;
         String sqlBinaryRef =
             DELETE_FROM + DB_PREFIX + TABLE_BINARY_REFERENCE + WHERE + BINARY_REFERENCE_KEY + IN + BRACKET_STRING_PLACEHOLDER;
         String sqlDataRef = DELETE_FROM + DB_PREFIX + TABLE_DATA_REFERENCE + WHERE + DATA_REFERENCE_ID + IN + BRACKET_STRING_PLACEHOLDER;
         Set<String> binaryRefs = new HashSet<String>();
-        for (Long id : dataReferenceKeys.keySet()) {
-            for (String key : dataReferenceKeys.get(id)) {
-                binaryRefs.add(key);
-            }
-        }
-        Statement stmtRelBinaryDataRef = connection.createStatement();
-        String idString = getIdString(dataReferenceKeys.keySet());
-        stmtRelBinaryDataRef.executeUpdate(String.format(sqlRelBinaryDataRef, idString));
-        stmtRelBinaryDataRef.close();
-        Statement stmtRelCompRunDataRef = connection.createStatement();
-        stmtRelCompRunDataRef.executeUpdate(String.format(sqlRelCompRunDataRef, idString));
-        stmtRelCompRunDataRef.close();
-        Statement stmtRelCompInstanceDataRef = connection.createStatement();
-        stmtRelCompInstanceDataRef.executeUpdate(String.format(sqlRelCompInstanceDataRef, idString));
-        stmtRelCompInstanceDataRef.close();
-        Statement stmtRelWorkflowRunDataRef = connection.createStatement();
-        stmtRelWorkflowRunDataRef.executeUpdate(String.format(sqlRelWorkflowRunDataRef, idString));
-        stmtRelWorkflowRunDataRef.close();
-        Statement stmtBinaryRef = connection.createStatement();
-        stmtBinaryRef.executeUpdate(String.format(sqlBinaryRef, getKeyString(binaryRefs)));
-        stmtBinaryRef.close();
-        Statement stmtDataRef = connection.createStatement();
-        int affectedLines = stmtDataRef.executeUpdate(String.format(sqlDataRef, idString));
-        stmtDataRef.close();
+        for (Set<String> keys : dataReferenceKeys.values()) {
+            binaryRefs.addAll(keys);
+        }
+        Set<Long> dataReferenceIds = dataReferenceKeys.keySet();
+        executeUpdateForIds(sqlRelBinaryDataRef, dataReferenceIds, connection);
+        executeUpdateForIds(sqlRelCompRunDataRef, dataReferenceIds, connection);
+        executeUpdateForIds(sqlRelCompInstanceDataRef, dataReferenceIds, connection);
+        executeUpdateForIds(sqlRelWorkflowRunDataRef, dataReferenceIds, connection);
+        executeUpdateForKeys(sqlBinaryRef, binaryRefs, connection);
+        int affectedLines = executeUpdateForIds(sqlDataRef, dataReferenceIds, connection);
         return affectedLines == dataReferenceKeys.size();
     }
 
-    private Boolean deleteWorkflowRunContent(Long workflowRunId, Connection connection, boolean isRetry) throws SQLException {
+    /**
+     * Deletes the given workflow runs with their component instances, component runs, endpoint instances, timeline intervals, and
+     * properties, using one statement per table. Their data references and typed datums must have been deleted before.
+     */
+    private Boolean deleteWorkflowRunContent(List<Long> workflowRunIds, Connection connection, boolean isRetry) throws SQLException {
+        String workflowRunIdList = String.format(BRACKET_STRING_PLACEHOLDER, getIdString(workflowRunIds));
+        String componentInstanceIds = getComponentInstanceIdsSubquery(workflowRunIds);
+        Statement stmt = connection.createStatement();
+        stmt.executeUpdate(DELETE_FROM + DB_PREFIX + TABLE_TIMELINE_INTERVAL + WHERE + WORKFLOW_RUN_ID + IN + workflowRunIdList);
+        stmt.executeUpdate(DELETE_FROM + DB_PREFIX + TABLE_COMPONENT_RUN_PROPERTIES + WHERE + COMPONENT_RUN_ID + IN
+            + getComponentRunIdsSubquery(workflowRunIds));
+        stmt.executeUpdate(DELETE_FROM + DB_PREFIX + TABLE_COMPONENT_RUN + WHERE + COMPONENT_INSTANCE_ID + IN + componentInstanceIds);
+        stmt.executeUpdate(DELETE_FROM + DB_PREFIX + TABLE_COMPONENT_INSTANCE_PROPERTIES + WHERE + COMPONENT_INSTANCE_ID + IN
+            + componentInstanceIds);
+        stmt.executeUpdate(DELETE_FROM + DB_PREFIX + TABLE_ENDPOINT_INSTANCE + WHERE + COMPONENT_INSTANCE_ID + IN + componentInstanceIds);
+        stmt.executeUpdate(DELETE_FROM + DB_PREFIX + TABLE_WORKFLOW_RUN_PROPERTIES + WHERE + WORKFLOW_RUN_ID + IN + workflowRunIdList);
+        stmt.executeUpdate(DELETE_FROM + DB_PREFIX + TABLE_COMPONENT_INSTANCE + WHERE + WORKFLOW_RUN_ID + IN + workflowRunIdList);
+        int affectedLines =
+            stmt.executeUpdate(DELETE_FROM + DB_PREFIX + TABLE_WORKFLOW_RUN + WHERE + WORKFLOW_RUN_ID + IN + workflowRunIdList);
+        stmt.close();
+        return affectedLines == workflowRunIds.size();
+    }
 
-        String sqlTimelineInt = DELETE_FROM + DB_PREFIX + TABLE_TIMELINE_INTERVAL + WHERE + WORKFLOW_RUN_ID + EQUAL + QMARK;
-        PreparedStatement stmtTimelineInt = connection.prepareStatement(sqlTimelineInt);
-        stmtTimelineInt.setLong(1, workflowRunId);
-        stmtTimelineInt.executeUpdate();
-        stmtTimelineInt.close();
-        String sqlCompInstIds =
-            SELECT + COMPONENT_INSTANCE_ID + FROM + DB_PREFIX + TABLE_COMPONENT_INSTANCE + WHERE + WORKFLOW_RUN_ID + EQUAL + QMARK;
-        PreparedStatement stmtCompInstIds = connection.prepareStatement(sqlCompInstIds);
-        stmtCompInstIds.setLong(1, workflowRunId);
-        ResultSet rs = stmtCompInstIds.executeQuery();
-        Set<Long> compInstIds = new HashSet<Long>();
-        if (rs != null) {
-            while (rs.next()) {
-                compInstIds.add(rs.getLong(COMPONENT_INSTANCE_ID));
-            }
+    private String getComponentInstanceIdsSubquery(List<Long> workflowRunIds) {
+        return String.format(BRACKET_STRING_PLACEHOLDER, SELECT + COMPONENT_INSTANCE_ID + FROM + DB_PREFIX + TABLE_COMPONENT_INSTANCE
+            + WHERE + WORKFLOW_RUN_ID + IN + String.format(BRACKET_STRING_PLACEHOLDER, getIdString(workflowRunIds)));
+    }
+
+    private String getComponentRunIdsSubquery(List<Long> workflowRunIds) {
+        return String.format(BRACKET_STRING_PLACEHOLDER, SELECT + COMPONENT_RUN_ID + FROM + DB_PREFIX + TABLE_COMPONENT_RUN
+            + WHERE + COMPONENT_INSTANCE_ID + IN + getComponentInstanceIdsSubquery(workflowRunIds));
+    }
+
+    /**
+     * Executes the given SQL statement for slices of the given identifiers, to keep the IN lists of bounded size.
+     * 
+     * @param sql the SQL statement with a placeholder for the identifier list
+     * @return the total number of affected lines
+     */
+    private int executeUpdateForIds(String sql, Collection<Long> ids, Connection connection) throws SQLException {
+        List<Long> idList = new ArrayList<Long>(ids);
+        int affectedLines = 0;
+        Statement stmt = connection.createStatement();
+        for (int from = 0; from < idList.size(); from += IN_LIST_SLICE_SIZE) {
+            List<Long> slice = idList.subList(from, Math.min(from + IN_LIST_SLICE_SIZE, idList.size()));
+            affectedLines += stmt.executeUpdate(String.format(sql, getIdString(slice)));
         }
-        rs.close();
-        stmtCompInstIds.close();
-        if (!compInstIds.isEmpty()) {
-            String compInstIdString = getIdString(compInstIds);
-            String sqlCompRunIds =
-                SELECT + COMPONENT_RUN_ID + FROM + DB_PREFIX + TABLE_COMPONENT_RUN + WHERE + COMPONENT_INSTANCE_ID + IN
-                    + BRACKET_STRING_PLACEHOLDER;
-            Statement stmtCompRunIds = connection.createStatement();
-            ResultSet rsCompRunIds = stmtCompRunIds.executeQuery(String.format(sqlCompRunIds, compInstIdString));
-            Set<Long> compRunIds = new HashSet<Long>();
-            if (rsCompRunIds != null) {
-                while (rsCompRunIds.next()) {
-                    compRunIds.add(rsCompRunIds.getLong(COMPONENT_RUN_ID));
-                }
-            }
-            rsCompRunIds.close();
-            stmtCompRunIds.close();
-            if (!compRunIds.isEmpty()) {
-                String sqlcompRunProp =
-                    DELETE_FROM + DB_PREFIX + TABLE_COMPONENT_RUN_PROPERTIES + WHERE + COMPONENT_RUN_ID + IN + BRACKET_STRING_PLACEHOLDER;
-                Statement stmtCompRunProp = connection.createStatement();
-                stmtCompRunProp.executeUpdate(String.format(sqlcompRunProp, getIdString(compRunIds)));
-                stmtCompRunProp.close();
-            }
-            String sqlcompInstProp =
-                DELETE_FROM + DB_PREFIX + TABLE_COMPONENT_INSTANCE_PROPERTIES + WHERE + COMPONENT_INSTANCE_ID + IN
-                    + BRACKET_STRING_PLACEHOLDER;
-            Statement stmtCompInstProp = connection.createStatement();
-            stmtCompInstProp.executeUpdate(String.format(sqlcompInstProp, compInstIdString));
-            stmtCompInstProp.close();
-            String sqlEndpointInst =
-                DELETE_FROM + DB_PREFIX + TABLE_ENDPOINT_INSTANCE + WHERE + COMPONENT_INSTANCE_ID + IN + BRACKET_STRING_PLACEHOLDER;
-            Statement stmtEndpointInst = connection.createStatement();
-            stmtEndpointInst.executeUpdate(String.format(sqlEndpointInst, compInstIdString));
-            stmtEndpointInst.close();
-            String sqlCompRun =
-                DELETE_FROM + DB_PREFIX + TABLE_COMPONENT_RUN + WHERE + COMPONENT_INSTANCE_ID + IN + BRACKET_STRING_PLACEHOLDER;
-            Statement stmtCompRun = connection.createStatement();
-            stmtCompRun.executeUpdate(String.format(sqlCompRun, compInstIdString));
-            stmtCompRun.close();
-        }
-
-        String sqlWorkflowRunProp =
-            DELETE_FROM + DB_PREFIX + TABLE_WORKFLOW_RUN_PROPERTIES + WHERE + WORKFLOW_RUN_ID + EQUAL + QMARK;
-        PreparedStatement stmtWorkflowRunProp = connection.prepareStatement(sqlWorkflowRunProp);
-        stmtWorkflowRunProp.setLong(1, workflowRunId);
-        stmtWorkflowRunProp.executeUpdate();
-        stmtWorkflowRunProp.close();
-        String sqlCompInst = DELETE_FROM + DB_PREFIX + TABLE_COMPONENT_INSTANCE + WHERE + WORKFLOW_RUN_ID + EQUAL + QMARK;
-        PreparedStatement stmtCompInst = connection.prepareStatement(sqlCompInst);
-        stmtCompInst.setLong(1, workflowRunId);
-        stmtCompInst.executeUpdate();
-        stmtCompInst.close();
-        String sqlWorkflowRun = DELETE_FROM + DB_PREFIX + TABLE_WORKFLOW_RUN + WHERE + WORKFLOW_RUN_ID + EQUAL + QMARK;
-        PreparedStatement stmtWorkflowRun = connection.prepareStatement(sqlWorkflowRun);
-        stmtWorkflowRun.setLong(1, workflowRunId);
-        int affectedLines = stmtWorkflowRun.executeUpdate();
-        stmtWorkflowRun.close();
-        return affectedLines == 1;
+        stmt.close();
+        return affectedLines;
+    }
+
+    private int executeUpdateForKeys(String sql, Collection<String> keys, Connection connection) throws SQLException {
+        List<String> keyList = new ArrayList<String>(keys);
+        int affectedLines = 0;
+        Statement stmt = connection.createStatement();
+        for (int from = 0; from < keyList.size(); from += IN_LIST_SLICE_SIZE) {
+            List<String> slice = keyList.subList(from, Math.min(from + IN_LIST_SLICE_SIZE, keyList.size()));
+            affectedLines += stmt.executeUpdate(String.format(sql, getKeyString(slice)));
+        }
+        stmt.close();
+        return affectedLines;
     }
 
     private Long addDataReference(final DataReference dataReference, final Connection connection, final boolean isRetry)
@@ -1616,9 +1950,9 @@ public class DerbyMetaDataBackendServiceImpl implements MetaDataBackendService {
         for (Long id : binaryReferenceIds) {
             stmt.setLong(1, dataReferenceId);
             stmt.setLong(2, id);
-            stmt.executeUpdate();
-            stmt.clearParameters();
+            stmt.addBatch();
         }
+        stmt.executeBatch();
         stmt.close();
     }
 
@@ -1737,18 +2071,22 @@ public class DerbyMetaDataBackendServiceImpl implements MetaDataBackendService {
         return dataRef;
     }
 
-    private Map<Long, Set<String>> getDataReferenceBinaryKeys(Long workflowRunId, Connection connection, boolean isRetry)
+    private Map<Long, Set<String>> getDataReferenceBinaryKeys(List<Long> workflowRunIds, Connection connection, boolean isRetry)
         throws SQLException {
+        String workflowRunIdList = String.format(BRACKET_STRING_PLACEHOLDER, getIdString(workflowRunIds));
         String sqlDataRefIds = SELECT + DATA_REFERENCE_ID + FROM + DB_PREFIX + VIEW_WORKFLOWRUN_DATAREFERENCE
-            + WHERE + WORKFLOW_RUN_ID + EQUAL + QMARK;
+            + WHERE + WORKFLOW_RUN_ID + IN + workflowRunIdList
+            + UNION + SELECT + DATA_REFERENCE_ID + FROM + DB_PREFIX + REL_COMPONENTINSTANCE_DATAREFERENCE
+            + WHERE + COMPONENT_INSTANCE_ID + IN + getComponentInstanceIdsSubquery(workflowRunIds)
+            + UNION + SELECT + DATA_REFERENCE_ID + FROM + DB_PREFIX + REL_WORKFLOWRUN_DATAREFERENCE
+            + WHERE + WORKFLOW_RUN_ID + IN + workflowRunIdList;
         String sqlBinaryRefs =
             SELECT + DATA_REFERENCE_ID + COMMA + BINARY_REFERENCE_KEY + FROM + DB_PREFIX + TABLE_BINARY_REFERENCE
                 + INNER_JOIN + REL_DATAREFERENCE_BINARYREFERENCE + ON + REL_DATAREFERENCE_BINARYREFERENCE + DOT + BINARY_REFERENCE_ID
                 + EQUAL + TABLE_BINARY_REFERENCE + DOT + BINARY_REFERENCE_ID
                 + WHERE + DATA_REFERENCE_ID + IN + BRACKET_STRING_PLACEHOLDER;
-        PreparedStatement stmtDataRefIds = connection.prepareStatement(sqlDataRefIds);
-        stmtDataRefIds.setLong(1, workflowRunId);
-        ResultSet rs = stmtDataRefIds.executeQuery();
+        Statement stmt = connection.createStatement();
+        ResultSet rs = stmt.executeQuery(sqlDataRefIds);
         Map<Long, Set<String>> keys = new HashMap<Long, Set<String>>();
         if (rs != null) {
             while (rs.next()) {
@@ -1756,19 +2094,18 @@ public class DerbyMetaDataBackendServiceImpl implements MetaDataBackendService {
             }
             rs.close();
         }
-        stmtDataRefIds.close();
-        Statement stmtBinaryRefs;
-        if (keys.keySet().size() > 0) {
-            stmtBinaryRefs = connection.createStatement();
-            rs = stmtBinaryRefs.executeQuery(String.format(sqlBinaryRefs, getIdString(keys.keySet())));
+        List<Long> dataReferenceIds = new ArrayList<Long>(keys.keySet());
+        for (int from = 0; from < dataReferenceIds.size(); from += IN_LIST_SLICE_SIZE) {
+            List<Long> slice = dataReferenceIds.subList(from, Math.min(from + IN_LIST_SLICE_SIZE, dataReferenceIds.size()));
+            rs = stmt.executeQuery(String.format(sqlBinaryRefs, getIdString(slice)));
             if (rs != null) {
                 while (rs.next()) {
                     keys.get(rs.getLong(DATA_REFERENCE_ID)).add(rs.getString(BINARY_REFERENCE_KEY).trim());
                 }
                 rs.close();
             }
-            stmtBinaryRefs.close();
         }
+        stmt.close();
         return keys;
     }
 
@@ -1870,6 +2207,7 @@ public class DerbyMetaDataBackendServiceImpl implements MetaDataBackendService {
         PreparedStatement stmt = connection.prepareStatement(sql);
         stmt.setInt(1, NOT_MARKED_TO_BE_DELETED);
         ResultSet rs = stmt.executeQuery();
+        final List<Long> workflowRunIdsToDelete = new ArrayList<Long>();
         if (rs != null) {
             while (rs.next()) {
                 final long wfrunId = rs.getLong(WORKFLOW_RUN_ID);
@@ -1877,13 +2215,7 @@ public class DerbyMetaDataBackendServiceImpl implements MetaDataBackendService {
                 switch (type) {
                 case WORKFLOW_RUN_TO_BE_DELETED:
                     LOGGER.debug(String.format("Clean up deletion of workflow run id %d", wfrunId));
-                    executionQueue.enqueue(new Runnable() {
-
-                        @Override
-                        public void run() {
-                            deleteWorkflowRunInternal(wfrunId);
-                        }
-                    });
+                    workflowRunIdsToDelete.add(wfrunId);
                     break;
                 case FILES_TO_BE_DELETED:
                     LOGGER.debug(String.format("Clean up file deletion of workflow run id %d", wfrunId));
@@ -1902,6 +2234,15 @@ public class DerbyMetaDataBackendServiceImpl implements MetaDataBackendService {
             rs.close();
         }
         stmt.close();
+        if (!workflowRunIdsToDelete.isEmpty()) {
+            bulkDeletionQueue.enqueue(new Runnable() {
+
+                @Override
+                public void run() {
+                    deleteWorkflowRunsInternal(workflowRunIdsToDelete);
+                }
+            });
+        }
     }
 
     private void initializeDatabase() {
@@ -1933,11 +2274,12 @@ public class DerbyMetaDataBackendServiceImpl implements MetaDataBackendService {
     }
 
     private void createConnectionPool() {
-        connectionPoolDatasource = new EmbeddedConnectionPoolDataSource();
-        connectionPoolDatasource.setDatabaseName(configuration.getDatabaseURL());
-        connectionPoolDatasource.setCreateDatabase("create");
+        EmbeddedDataSource dataSource = new EmbeddedDataSource();
+        dataSource.setDatabaseName(configuration.getDatabaseURL());
+        dataSource.setCreateDatabase("create");
         connectionPool = new SharedPoolDataSource();
-        connectionPool.setConnectionPoolDataSource(connectionPoolDatasource);
+        // caches prepared statements per physical connection, across the transactions using it
+        connectionPool.setConnectionPoolDataSource(new StatementCachingConnectionPoolDataSource(dataSource));
         connectionPool.setDefaultAutoCommit(false);
         connectionPool.setDefaultTransactionIsolation(Connection.TRANSACTION_READ_COMMITTED);
         final int noLimit = -1;
@@ -1958,6 +2300,8 @@ public class DerbyMetaDataBackendServiceImpl implements MetaDataBackendService {
                     @Override
                     @TaskDescription("Close database connection pool")
                     public Boolean call() throws Exception {
+                        deletionCancelled = true;
+                        bulkDeletionQueue.cancel(true);
                         executionQueue.cancel(true);
                         connectionPool.close();
                         return true;
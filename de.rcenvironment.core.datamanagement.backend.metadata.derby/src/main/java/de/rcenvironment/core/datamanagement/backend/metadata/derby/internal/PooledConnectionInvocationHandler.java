@@ -57,7 +57,7 @@ final class PooledConnectionInvocationHandler implements InvocationHandler {
             try {
                 return method.invoke(connection, args);
             } catch (IllegalAccessException | IllegalArgumentException | InvocationTargetException e) {
-                throw new RuntimeException(String.format("Failed to execute database query. %s", e.getMessage()));
+                throw new RuntimeException(String.format("Failed to execute database query. %s", e.getMessage()), e);
             }
         }
         return null;
@@ -0,0 +1,282 @@
+/*
+ * Copyright (C) 2006-2014 DLR, Germany
+ * 
+ * All rights reserved
+ * 
+ * http://www.rcenvironment.de/
+ */
+
+package de.rcenvironment.core.datamanagement.backend.metadata.derby.internal;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import javax.sql.ConnectionEvent;
+import javax.sql.ConnectionEventListener;
+import javax.sql.StatementEventListener;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+/**
+ * A {@link javax.sql.PooledConnection} around a physical database connection, which caches the prepared INSERT and UPDATE statements
+ * of the physical connection across all logical connections handed out for it. These statements are typically executed many times with
+ * the same SQL. Closing a cached statement only keeps it for reuse; the cached statements are closed when the connection pool destroys
+ * the physical connection.
+ * 
+ * @author agent
+ */
+final class StatementCachingPooledConnection implements javax.sql.PooledConnection {
+
+    // limits the number of open statements, e.g. if values are part of the SQL
+    private static final int MAX_CACHED_STATEMENTS = 100;
+
+    private static final String CLOSE_METHOD = "close";
+
+    private static final String CONNECTION_EXCEPTION_SQL_STATE_CLASS = "08";
+
+    private static final Log LOGGER = LogFactory.getLog(StatementCachingPooledConnection.class);
+
+    /**
+     * Keeps a cached statement open when it is closed by the caller.
+     * 
+     * @author agent
+     */
+    private static final class CachedStatementInvocationHandler implements InvocationHandler {
+
+        private final PreparedStatement statement;
+
+        CachedStatementInvocationHandler(PreparedStatement statement) {
+            this.statement = statement;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            if (method.getName().equals(CLOSE_METHOD)) {
+                return null;
+            }
+            try {
+                return method.invoke(statement, args);
+            } catch (InvocationTargetException e) {
+                // pass SQLExceptions on unchanged, so transient ones can be retried
+                throw e.getCause();
+            }
+        }
+    }
+
+    /**
+     * A logical connection handed out for the physical connection. Statements that are not cached are closed together with it.
+     * 
+     * @author agent
+     */
+    private final class LogicalConnectionInvocationHandler implements InvocationHandler {
+
+        private final List<Statement> uncachedStatements = new ArrayList<Statement>();
+
+        private boolean closed;
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String methodName = method.getName();
+            if (method.getDeclaringClass() == Object.class) {
+                return invokeObjectMethod(proxy, methodName, args);
+            }
+            if (methodName.equals(CLOSE_METHOD)) {
+                if (!closed) {
+                    close();
+                    fireConnectionEvent(null);
+                }
+                return null;
+            }
+            if (methodName.equals("isClosed")) {
+                return closed;
+            }
+            if (closed) {
+                throw new SQLException("Connection is closed");
+            }
+            if (methodName.equals("prepareStatement") && isCacheable(args)) {
+                return getCachedStatement(args);
+            }
+            Object result;
+            try {
+                result = method.invoke(physicalConnection, args);
+            } catch (InvocationTargetException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof SQLException && isConnectionError((SQLException) cause)) {
+                    fireConnectionEvent((SQLException) cause);
+                }
+                throw cause;
+            }
+            if (result instanceof Statement) {
+                uncachedStatements.add((Statement) result);
+            }
+            return result;
+        }
+
+        private Object invokeObjectMethod(Object proxy, String methodName, Object[] args) {
+            if (methodName.equals("equals")) {
+                return proxy == args[0];
+            } else if (methodName.equals("hashCode")) {
+                return System.identityHashCode(proxy);
+            } else {
+                return "Logical connection of " + physicalConnection;
+            }
+        }
+
+        private void close() throws SQLException {
+            closed = true;
+            for (Statement statement : uncachedStatements) {
+                statement.close();
+            }
+            uncachedStatements.clear();
+        }
+    }
+
+    private final Connection physicalConnection;
+
+    // access-ordered, so the least recently used statement is closed when the limit is exceeded; keyed by SQL and, if given, the
+    // generated keys flag
+    private final Map<String, PreparedStatement> statementCache = new LinkedHashMap<String, PreparedStatement>(16, 0.75f, true) {
+
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, PreparedStatement> eldest) {
+            if (size() <= MAX_CACHED_STATEMENTS) {
+                return false;
+            }
+            closeCachedStatement(eldest.getValue());
+            return true;
+        }
+    };
+
+    private final List<ConnectionEventListener> connectionEventListeners = new CopyOnWriteArrayList<ConnectionEventListener>();
+
+    private LogicalConnectionInvocationHandler currentLogicalConnection;
+
+    StatementCachingPooledConnection(Connection physicalConnection) {
+        this.physicalConnection = physicalConnection;
+    }
+
+    @Override
+    public synchronized Connection getConnection() throws SQLException {
+        if (currentLogicalConnection != null) {
+            // as specified for pooled connections, a previous logical connection is closed without notifying the pool
+            currentLogicalConnection.close();
+        }
+        if (!physicalConnection.getAutoCommit()) {
+            // discard anything left over by the previous user
+            physicalConnection.rollback();
+        }
+        currentLogicalConnection = new LogicalConnectionInvocationHandler();
+        return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] { Connection.class },
+            currentLogicalConnection);
+    }
+
+    @Override
+    public synchronized void close() throws SQLException {
+        if (currentLogicalConnection != null) {
+            currentLogicalConnection.close();
+            currentLogicalConnection = null;
+        }
+        for (PreparedStatement statement : statementCache.values()) {
+            closeCachedStatement(statement);
+        }
+        statementCache.clear();
+        physicalConnection.close();
+    }
+
+    @Override
+    public void addConnectionEventListener(ConnectionEventListener listener) {
+        connectionEventListeners.add(listener);
+    }
+
+    @Override
+    public void removeConnectionEventListener(ConnectionEventListener listener) {
+        connectionEventListeners.remove(listener);
+    }
+
+    @Override
+    public void addStatementEventListener(StatementEventListener listener) {
+        // statements are not pooled by the connection pool, so there is no need to notify it
+    }
+
+    @Override
+    public void removeStatementEventListener(StatementEventListener listener) {}
+
+    /**
+     * @return the number of cached statements; intended for unit tests
+     */
+    synchronized int getCachedStatementCount() {
+        return statementCache.size();
+    }
+
+    private synchronized PreparedStatement getCachedStatement(Object[] args) throws SQLException {
+        String sql = (String) args[0];
+        String key = sql;
+        if (args.length == 2) {
+            key = key + "#" + args[1];
+        }
+        PreparedStatement statement = statementCache.get(key);
+        if (statement == null) {
+            final PreparedStatement newStatement;
+            if (args.length == 2) {
+                newStatement = physicalConnection.prepareStatement(sql, (Integer) args[1]);
+            } else {
+                newStatement = physicalConnection.prepareStatement(sql);
+            }
+            statement = (PreparedStatement) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[] { PreparedStatement.class }, new CachedStatementInvocationHandler(newStatement));
+            statementCache.put(key, statement);
+        } else {
+            // a previous use may have been aborted by an error, e.g. before a retry
+            statement.clearParameters();
+            statement.clearBatch();
+        }
+        return statement;
+    }
+
+    private boolean isCacheable(Object[] args) {
+        // only prepareStatement(String) and prepareStatement(String, int autoGeneratedKeys)
+        if (args.length > 2 || (args.length == 2 && !(args[1] instanceof Integer))) {
+            return false;
+        }
+        String sql = ((String) args[0]).trim().toUpperCase(Locale.ENGLISH);
+        return sql.startsWith("INSERT") || sql.startsWith("UPDATE");
+    }
+
+    private boolean isConnectionError(SQLException e) {
+        return e.getSQLState() != null && e.getSQLState().startsWith(CONNECTION_EXCEPTION_SQL_STATE_CLASS);
+    }
+
+    private void fireConnectionEvent(SQLException error) {
+        ConnectionEvent event = new ConnectionEvent(this, error);
+        for (ConnectionEventListener listener : connectionEventListeners) {
+            if (error == null) {
+                listener.connectionClosed(event);
+            } else {
+                listener.connectionErrorOccurred(event);
+            }
+        }
+    }
+
+    private static void closeCachedStatement(PreparedStatement statement) {
+        try {
+            ((CachedStatementInvocationHandler) Proxy.getInvocationHandler(statement)).statement.close();
+        } catch (SQLException e) {
+            LOGGER.warn("Failed to close cached database statement", e);
+        }
+    }
+}
@@ -0,0 +1,201 @@
+/*
+ * Copyright (C) 2006-2014 DLR, Germany
+ * 
+ * All rights reserved
+ * 
+ * http://www.rcenvironment.de/
+ */
+
+package de.rcenvironment.core.datamanagement.internal;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarArchiveOutputStream;
+import org.apache.commons.compress.compressors.gzip.GzipCompressorOutputStream;
+import org.apache.commons.io.IOUtils;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import de.rcenvironment.core.authentication.User;
+import de.rcenvironment.core.authorization.AuthorizationException;
+import de.rcenvironment.core.communication.common.NodeIdentifier;
+import de.rcenvironment.core.datamanagement.DistributedDataReferenceService;
+import de.rcenvironment.core.datamanagement.DistributedFileDataService;
+import de.rcenvironment.core.datamanagement.commons.BinaryReference;
+import de.rcenvironment.core.datamanagement.commons.DataReference;
+import de.rcenvironment.core.datamanagement.commons.MetaDataSet;
+
+/**
+ * Test cases for the directory reference handling of {@link DataManagementServiceImpl}.
+ * 
+ * @author agent
+ */
+public class DataManagementServiceImplTest {
+
+    private static final int LARGE_FILE_SIZE = 1024 * 1024;
+
+    private static final String NESTED_FILE_PATH = "sub/nested.txt";
+
+    private static final byte[] NESTED_FILE_CONTENT = "nested".getBytes();
+
+    /**
+     * Temporary folder rule.
+     */
+    @Rule
+    public TemporaryFolder tempFolder = new TemporaryFolder();
+
+    private DataManagementServiceImpl dataManagementService;
+
+    private final Map<String, byte[]> storedContent = new HashMap<String, byte[]>();
+
+    private final byte[] largeFileContent = new byte[LARGE_FILE_SIZE];
+
+    /**
+     * Set up.
+     */
+    @Before
+    public void setUp() {
+        new Random().nextBytes(largeFileContent);
+        dataManagementService = new DataManagementServiceImpl();
+        dataManagementService.bindFileDataService(new InMemoryFileDataService());
+        dataManagementService.bindDataReferenceService(new InMemoryDataReferenceService());
+    }
+
+    /**
+     * Verifies that a directory is stored as an uncompressed tar stream and restored with its content.
+     * 
+     * @throws Exception on unexpected errors
+     */
+    @Test
+    public void testDirectoryRoundTrip() throws Exception {
+        File sourceDir = tempFolder.newFolder("source");
+        Files.write(new File(sourceDir, "large.bin").toPath(), largeFileContent);
+        new File(sourceDir, "sub").mkdir();
+        Files.write(new File(sourceDir, NESTED_FILE_PATH).toPath(), NESTED_FILE_CONTENT);
+        new File(sourceDir, "empty").mkdir();
+
+        String reference = dataManagementService.createReferenceFromLocalDirectory(null, sourceDir, new MetaDataSet(), null);
+        // the data backend compresses the stored content, so it must not be compressed before
+        byte[] stored = storedContent.get(reference);
+        assertTrue(stored.length > LARGE_FILE_SIZE);
+        assertTrue(stored[0] != (byte) 0x1f || stored[1] != (byte) 0x8b);
+
+        File targetDir = tempFolder.newFolder("target");
+        dataManagementService.copyReferenceToLocalDirectory(null, reference, targetDir, null);
+        assertArrayEquals(largeFileContent, Files.readAllBytes(new File(targetDir, "source/large.bin").toPath()));
+        assertArrayEquals(NESTED_FILE_CONTENT, Files.readAllBytes(new File(targetDir, "source/" + NESTED_FILE_PATH).toPath()));
+        assertTrue(new File(targetDir, "source/empty").isDirectory());
+    }
+
+    /**
+     * Verifies that directory references stored as gzip-compressed tar archives can still be restored.
+     * 
+     * @throws Exception on unexpected errors
+     */
+    @Test
+    public void testLegacyCompressedArchive() throws Exception {
+        ByteArrayOutputStream archive = new ByteArrayOutputStream();
+        TarArchiveOutputStream tarOutStream = new TarArchiveOutputStream(new GzipCompressorOutputStream(archive));
+        TarArchiveEntry entry = new TarArchiveEntry("legacy/" + NESTED_FILE_PATH);
+        entry.setSize(NESTED_FILE_CONTENT.length);
+        tarOutStream.putArchiveEntry(entry);
+        tarOutStream.write(NESTED_FILE_CONTENT);
+        tarOutStream.closeArchiveEntry();
+        tarOutStream.close();
+        String reference = UUID.randomUUID().toString();
+        storedContent.put(reference, archive.toByteArray());
+
+        File targetDir = tempFolder.newFolder("target");
+        dataManagementService.copyReferenceToLocalDirectory(null, reference, targetDir, null);
+        assertArrayEquals(NESTED_FILE_CONTENT, Files.readAllBytes(new File(targetDir, "legacy/" + NESTED_FILE_PATH).toPath()));
+    }
+
+    /**
+     * Verifies that a failure while archiving fails the upload instead of storing a truncated archive.
+     * 
+     * @throws Exception on unexpected errors
+     */
+    @Test
+    public void testMissingDirectory() throws Exception {
+        File missingDir = new File(tempFolder.getRoot(), "missing");
+        try {
+            dataManagementService.createReferenceFromLocalDirectory(null, missingDir, new MetaDataSet(), null);
+            fail("Exception expected");
+        } catch (IOException e) {
+            assertEquals(0, storedContent.size());
+        }
+    }
+
+    /**
+     * {@link DistributedFileDataService} that keeps the content of each reference in memory.
+     * 
+     * @author agent
+     */
+    private class InMemoryFileDataService implements DistributedFileDataService {
+
+        @Override
+        public void deleteReference(DataReference dataReference) {
+            storedContent.remove(dataReference.getDataReferenceKey());
+        }
+
+        @Override
+        public InputStream getStreamFromDataReference(User user, DataReference dataReference) throws AuthorizationException {
+            return new ByteArrayInputStream(storedContent.get(dataReference.getDataReferenceKey()));
+        }
+
+        @Override
+        public DataReference newReferenceFromStream(User user, InputStream inputStream, MetaDataSet metaDataSet,
+            NodeIdentifier platform) throws AuthorizationException, IOException, InterruptedException {
+            // read completely before storing, as a failing upload must not create a reference
+            byte[] content = IOUtils.toByteArray(inputStream);
+            String key = UUID.randomUUID().toString();
+            storedContent.put(key, content);
+            return new DataReference(key, platform, new HashSet<BinaryReference>());
+        }
+    }
+
+    /**
+     * {@link DistributedDataReferenceService} that resolves all references stored in memory.
+     * 
+     * @author agent
+     */
+    private class InMemoryDataReferenceService implements DistributedDataReferenceService {
+
+        @Override
+        public DataReference getReference(String dataReferenceKey, NodeIdentifier platform) {
+            return getReference(dataReferenceKey);
+        }
+
+        @Override
+        public DataReference getReference(String dataReferenceKey) {
+            if (!storedContent.containsKey(dataReferenceKey)) {
+                return null;
+            }
+            return new DataReference(dataReferenceKey, null, new HashSet<BinaryReference>());
+        }
+
+        @Override
+        public DataReference getReference(String dataReferenceKey, Collection<NodeIdentifier> platforms) {
+            return getReference(dataReferenceKey);
+        }
+    }
+}
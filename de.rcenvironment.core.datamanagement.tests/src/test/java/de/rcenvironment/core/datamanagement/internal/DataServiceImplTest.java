@@ -13,6 +13,7 @@ import java.io.InputStream;
 import java.net.URI;
 import java.util.Collection;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.SortedSet;
@@ -39,9 +40,11 @@ import de.rcenvironment.core.datamanagement.commons.ComponentInstance;
 import de.rcenvironment.core.datamanagement.commons.ComponentRun;
 import de.rcenvironment.core.datamanagement.commons.DataReference;
 import de.rcenvironment.core.datamanagement.commons.EndpointData;
+import de.rcenvironment.core.datamanagement.commons.EndpointDatumRecord;
 import de.rcenvironment.core.datamanagement.commons.EndpointInstance;
 import de.rcenvironment.core.datamanagement.commons.WorkflowRun;
 import de.rcenvironment.core.datamanagement.commons.WorkflowRunDescription;
+import de.rcenvironment.core.datamanagement.commons.WorkflowRunDescriptionCursor;
 import de.rcenvironment.core.datamanagement.commons.WorkflowRunTimline;
 import de.rcenvironment.core.datamanagement.testutils.FileDataServiceDefaultStub;
 import de.rcenvironment.core.datamodel.api.CompressionFormat;
@@ -168,6 +171,24 @@ public class DataServiceImplTest {
             return null;
         }
 
+        @Override
+        public List<Long> reserveTypedDatumIds(Integer count) {
+            // TODO Auto-generated method stub
+            return null;
+        }
+
+        @Override
+        public void addEndpointData(Long componentRunId, List<EndpointDatumRecord> endpointData) {
+            // TODO Auto-generated method stub
+
+        }
+
+        @Override
+        public void releaseTypedDatumIds(List<Long> typedDatumIds) {
+            // TODO Auto-generated method stub
+
+        }
+
         @Override
         public void addWorkflowRunProperties(Long workflowRunId, Map<String, String> properties) {
             // TODO Auto-generated method stub
@@ -216,12 +237,25 @@ public class DataServiceImplTest {
             return null;
         }
 
+        @Override
+        public List<WorkflowRunDescription> getWorkflowRunDescriptions(WorkflowRunDescriptionCursor cursor,
+            Integer maxCount) {
+            // TODO Auto-generated method stub
+            return null;
+        }
+
         @Override
         public WorkflowRun getWorkflowRun(Long workflowRunId) {
             // TODO Auto-generated method stub
             return null;
         }
 
+        @Override
+        public Collection<ComponentInstance> getComponentInstances(Long workflowRunId) {
+            // TODO Auto-generated method stub
+            return null;
+        }
+
         @Override
         public Collection<ComponentRun> getComponentRuns(Long componentInstanceId) {
             // TODO Auto-generated method stub
@@ -282,6 +316,12 @@ public class DataServiceImplTest {
             return null;
         }
 
+        @Override
+        public Integer deleteWorkflowRuns(List<Long> workflowRunIds) {
+            // TODO Auto-generated method stub
+            return null;
+        }
+
         @Override
         public Boolean deleteWorkflowRunFiles(Long workflowRunId) {
             // TODO Auto-generated method stub
@@ -358,6 +398,24 @@ public class DataServiceImplTest {
             return null;
         }
 
+        @Override
+        public List<Long> reserveTypedDatumIds(Integer count) {
+            // TODO Auto-generated method stub
+            return null;
+        }
+
+        @Override
+        public void addEndpointData(Long componentRunId, List<EndpointDatumRecord> endpointData) {
+            // TODO Auto-generated method stub
+
+        }
+
+        @Override
+        public void releaseTypedDatumIds(List<Long> typedDatumIds) {
+            // TODO Auto-generated method stub
+
+        }
+
         @Override
         public void addWorkflowRunProperties(Long workflowRunId, Map<String, String> properties) {
             // TODO Auto-generated method stub
@@ -412,12 +470,25 @@ public class DataServiceImplTest {
             return null;
         }
 
+        @Override
+        public List<WorkflowRunDescription> getWorkflowRunDescriptions(WorkflowRunDescriptionCursor cursor,
+            Integer maxCount) {
+            // TODO Auto-generated method stub
+            return null;
+        }
+
         @Override
         public WorkflowRun getWorkflowRun(Long workflowRunId) {
             // TODO Auto-generated method stub
             return null;
         }
 
+        @Override
+        public Collection<ComponentInstance> getComponentInstances(Long workflowRunId) {
+            // TODO Auto-generated method stub
+            return null;
+        }
+
         @Override
         public Collection<ComponentRun> getComponentRuns(Long componentInstanceId) {
             // TODO Auto-generated method stub
@@ -478,6 +549,12 @@ public class DataServiceImplTest {
             return null;
         }
 
+        @Override
+        public Integer deleteWorkflowRuns(List<Long> workflowRunIds) {
+            // TODO Auto-generated method stub
+            return null;
+        }
+
         @Override
         public Long addDataReferenceToComponentRun(Long componentRunId, DataReference dataReference) {
             // TODO Auto-generated method stub
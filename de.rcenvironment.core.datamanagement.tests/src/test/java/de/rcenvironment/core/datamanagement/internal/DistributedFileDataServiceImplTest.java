@@ -23,6 +23,7 @@ import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.easymock.EasyMock;
 import org.junit.Before;
@@ -61,6 +62,8 @@ public class DistributedFileDataServiceImplTest {
     // should be >UPLOAD_CHUNK_SIZE for proper testing
     private static final int UPLOAD_TEST_SIZE = 300000;
 
+    private static final int SMALL_UPLOAD_TEST_SIZE = 100;
+
     private final int read = 7;
 
     private DistributedFileDataServiceImpl distrFDS;
@@ -82,6 +85,9 @@ public class DistributedFileDataServiceImplTest {
     // for mock remote testing
     private volatile DataReference lastMockRemoteDataReference;
 
+    // the number of calls to pollUploadForDataReference() made by the uploader on the mock remote service
+    private final AtomicInteger mockRemotePollCount = new AtomicInteger();
+
     private InputStream is;
 
     private MetaDataSet mds;
@@ -173,6 +179,20 @@ public class DistributedFileDataServiceImplTest {
         assertEquals(mockRemoteNodeId, remoteRef.getNodeIdentifier());
     }
 
+    /**
+     * Verifies that a small remote upload does not wait for a polling interval.
+     * 
+     * @throws Exception on uncaught errors
+     */
+    @Test
+    public void testSmallDistributedNewReferenceFromStream() throws Exception {
+        InputStream testStream = new ByteArrayInputStream(new byte[SMALL_UPLOAD_TEST_SIZE]);
+        DataReference remoteRef = distrFDS.newReferenceFromStream(certificateMock, testStream, mds, mockRemoteNodeId);
+        assertEquals(lastMockRemoteDataReference, remoteRef);
+        // the reference must be returned by finishUpload() directly, without any polling round trip
+        assertEquals(0, mockRemotePollCount.get());
+    }
+
     /**
      * Test implementation of the {@link CommunicationService}.
      * 
@@ -252,12 +272,12 @@ public class DistributedFileDataServiceImplTest {
         }
 
         @Override
-        public long appendToUpload(User user, String id, byte[] data) throws IOException {
+        public long appendToUpload(User user, String id, Long chunkIndex, byte[] data) throws IOException {
             throw new UnsupportedOperationException();
         }
 
         @Override
-        public void finishUpload(User user, String id, MetaDataSet metaDataSet) throws IOException {
+        public DataReference finishUpload(User user, String id, MetaDataSet metaDataSet) throws IOException {
             throw new UnsupportedOperationException();
         }
 
@@ -284,6 +304,29 @@ public class DistributedFileDataServiceImplTest {
             lastMockRemoteDataReference = new DataReference(referenceID.toString(), localNodeId, birefs);
             return lastMockRemoteDataReference;
         }
+
+        // set while finishUpload() is running, as it waits for the data reference via pollUploadForDataReference() internally
+        private volatile boolean finishingUpload;
+
+        @Override
+        @AllowRemoteAccess
+        public DataReference finishUpload(User user, String id, MetaDataSet metaDataSet) throws IOException {
+            finishingUpload = true;
+            try {
+                return super.finishUpload(user, id, metaDataSet);
+            } finally {
+                finishingUpload = false;
+            }
+        }
+
+        @Override
+        @AllowRemoteAccess
+        public DataReference pollUploadForDataReference(User user, String id) throws IOException {
+            if (!finishingUpload) {
+                mockRemotePollCount.incrementAndGet();
+            }
+            return super.pollUploadForDataReference(user, id);
+        }
     }
 
     /**
@@ -311,12 +354,12 @@ public class DistributedFileDataServiceImplTest {
         }
 
         @Override
-        public long appendToUpload(User user, String id, byte[] data) throws IOException {
+        public long appendToUpload(User user, String id, Long chunkIndex, byte[] data) throws IOException {
             throw new UndeclaredThrowableException(null);
         }
 
         @Override
-        public void finishUpload(User user, String id, MetaDataSet metaDataSet) throws IOException {
+        public DataReference finishUpload(User user, String id, MetaDataSet metaDataSet) throws IOException {
             throw new UndeclaredThrowableException(null);
         }
 
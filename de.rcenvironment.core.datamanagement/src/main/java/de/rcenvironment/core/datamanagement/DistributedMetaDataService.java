@@ -8,6 +8,8 @@
 
 package de.rcenvironment.core.datamanagement;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
@@ -16,10 +18,12 @@ import de.rcenvironment.core.communication.common.NodeIdentifier;
 import de.rcenvironment.core.datamanagement.commons.ComponentInstance;
 import de.rcenvironment.core.datamanagement.commons.ComponentRun;
 import de.rcenvironment.core.datamanagement.commons.DataReference;
+import de.rcenvironment.core.datamanagement.commons.EndpointDatumRecord;
 import de.rcenvironment.core.datamanagement.commons.EndpointInstance;
 import de.rcenvironment.core.datamanagement.commons.TimelineInterval;
 import de.rcenvironment.core.datamanagement.commons.WorkflowRun;
 import de.rcenvironment.core.datamanagement.commons.WorkflowRunDescription;
+import de.rcenvironment.core.datamanagement.commons.WorkflowRunDescriptionCursor;
 import de.rcenvironment.core.datamanagement.commons.WorkflowRunTimline;
 import de.rcenvironment.core.datamodel.api.FinalComponentState;
 import de.rcenvironment.core.datamodel.api.TimelineIntervalType;
@@ -74,6 +78,40 @@ public interface DistributedMetaDataService {
     Long addOutputDatum(Long componentRunId, Long endpointInstanceId, String datum, Integer count,
         NodeIdentifier storageNodeId) throws CommunicationException;
 
+    /**
+     * Reserves identifiers for {@link TypedDatum}s to be added later as output data via
+     * {@link #addEndpointData(Long, List, NodeIdentifier)}. Reserved identifiers that are not used must be released via
+     * {@link #releaseTypedDatumIds(List, NodeIdentifier)}.
+     * 
+     * @param count The number of identifiers to reserve.
+     * @param storageNodeId {@link NodeIdentifier} of the workflow storage node.
+     * @return The reserved {@link TypedDatum} identifiers.
+     * @throws CommunicationException in case of communication error
+     */
+    List<Long> reserveTypedDatumIds(Integer count, NodeIdentifier storageNodeId) throws CommunicationException;
+
+    /**
+     * Adds input and output data to {@link EndpointInstance}s of a {@link ComponentRun} at once, in the given order.
+     * 
+     * @param componentRunId The identifier of the {@link ComponentRun}.
+     * @param endpointData The input and output data to add; the {@link TypedDatum} identifiers of output data must have been reserved
+     *        via {@link #reserveTypedDatumIds(Integer, NodeIdentifier)}.
+     * @param storageNodeId {@link NodeIdentifier} of the workflow storage node.
+     * @throws CommunicationException in case of communication error
+     */
+    void addEndpointData(Long componentRunId, List<EndpointDatumRecord> endpointData, NodeIdentifier storageNodeId)
+        throws CommunicationException;
+
+    /**
+     * Releases reserved {@link TypedDatum} identifiers that were not used, or whose output data failed to be stored. Identifiers that
+     * input data refers to already are kept; such inputs are omitted when endpoint data is read.
+     * 
+     * @param typedDatumIds The identifiers to release.
+     * @param storageNodeId {@link NodeIdentifier} of the workflow storage node.
+     * @throws CommunicationException in case of communication error
+     */
+    void releaseTypedDatumIds(List<Long> typedDatumIds, NodeIdentifier storageNodeId) throws CommunicationException;
+
     /**
      * Adds properties to a {@link ComponentRun}. Properties a represented in a key-value map.
      * 
@@ -151,6 +189,19 @@ public interface DistributedMetaDataService {
      */
     Set<WorkflowRunDescription> getWorkflowRunDescriptions() throws CommunicationException;
 
+    /**
+     * Gets a page of the {@link WorkflowRunDescription}s stored on the given node, ordered by timestamp descending. The next page is
+     * requested with a cursor created from the last {@link WorkflowRunDescription} of this page.
+     * 
+     * @param cursor The position of the page; {@link WorkflowRunDescriptionCursor#first()} for the most recent workflow runs.
+     * @param maxCount The maximum number of {@link WorkflowRunDescription}s to return.
+     * @param storageNodeId {@link NodeIdentifier} of the workflow storage node
+     * @return A list of {@link WorkflowRunDescription}s ordered by timestamp descending.
+     * @throws CommunicationException in case of communication error
+     */
+    List<WorkflowRunDescription> getWorkflowRunDescriptions(WorkflowRunDescriptionCursor cursor, Integer maxCount,
+        NodeIdentifier storageNodeId) throws CommunicationException;
+
     /**
      * Gets the {@link WorkflowRun} with the given identifier.
      * 
@@ -161,6 +212,27 @@ public interface DistributedMetaDataService {
      */
     WorkflowRun getWorkflowRun(Long workflowRunId, NodeIdentifier storageNodeId) throws CommunicationException;
 
+    /**
+     * Gets the {@link ComponentInstance}s of the {@link WorkflowRun} with the given identifier, without their {@link ComponentRun}s.
+     * 
+     * @param workflowRunId The identifier of the {@link WorkflowRun}.
+     * @param storageNodeId {@link NodeIdentifier} of the workflow storage node
+     * @return A collection of {@link ComponentInstance}s with their identifiers set.
+     * @throws CommunicationException in case of communication error
+     */
+    Collection<ComponentInstance> getComponentInstances(Long workflowRunId, NodeIdentifier storageNodeId)
+        throws CommunicationException;
+
+    /**
+     * Gets the {@link ComponentRun}s of the {@link ComponentInstance} with the given identifier, including their endpoint data.
+     * 
+     * @param componentInstanceId The identifier of the {@link ComponentInstance}.
+     * @param storageNodeId {@link NodeIdentifier} of the workflow storage node
+     * @return A collection of {@link ComponentRun}s.
+     * @throws CommunicationException in case of communication error
+     */
+    Collection<ComponentRun> getComponentRuns(Long componentInstanceId, NodeIdentifier storageNodeId) throws CommunicationException;
+
     /**
      * Gets the {@link WorkflowRunTimline} related to the {@link WorkflowRun} with the given identifier.
      * 
@@ -181,6 +253,16 @@ public interface DistributedMetaDataService {
      */
     Boolean deleteWorkflowRun(Long workflowRunId, NodeIdentifier storageNodeId) throws CommunicationException;
 
+    /**
+     * Deletes several {@link WorkflowRun}s stored on the same node and all related content in the database and the blob store.
+     * 
+     * @param workflowRunIds The identifiers of the {@link WorkflowRun}s to be deleted.
+     * @param storageNodeId {@link NodeIdentifier} of the workflow storage node.
+     * @return The number of {@link WorkflowRun}s marked to be deleted.
+     * @throws CommunicationException in case of communication error
+     */
+    Integer deleteWorkflowRuns(List<Long> workflowRunIds, NodeIdentifier storageNodeId) throws CommunicationException;
+
     /**
      * Deletes all {@link DataReference}s of a {@link WorkflowRun} in the database and the blob store.
      * 
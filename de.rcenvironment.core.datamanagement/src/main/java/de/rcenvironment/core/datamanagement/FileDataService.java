@@ -51,8 +51,8 @@ public interface FileDataService extends DataService {
         throws AuthorizationException;
 
     /**
-     * Initializes an id/handle that subsequent {@link #appendToUpload(User, String, byte[])} calls can use to upload data. The normal use
-     * case is that this method is called via RPC from the uploader's node.
+     * Initializes an id/handle that subsequent {@link #appendToUpload(User, String, Long, byte[])} calls can use to upload data. The normal
+     * use case is that this method is called via RPC from the uploader's node.
      * 
      * @param user user data for authorization
      * @return the generated upload id
@@ -62,34 +62,38 @@ public interface FileDataService extends DataService {
 
     /**
      * Appends a chunk of data to a virtual file identified by an upload id.The normal use case is that this method is called once or more
-     * via RPC from the uploader's node.
+     * via RPC from the uploader's node. Several calls may be in flight at the same time; the chunks are numbered consecutively from zero,
+     * and each chunk is only appended after all preceding chunks.
      * 
      * @param user user data for authorization
      * @param id the assigned upload id
+     * @param chunkIndex the zero-based index of the chunk
      * @param data the byte array to append
-     * @return the total number of bytes written so far
+     * @return the total number of bytes written so far, including this chunk
      * 
-     * @throws IOException on I/O errors on the receiver's side
+     * @throws IOException on I/O errors on the receiver's side, or if a preceding chunk did not arrive in time
      */
-    long appendToUpload(User user, String id, byte[] data) throws IOException;
+    long appendToUpload(User user, String id, Long chunkIndex, byte[] data) throws IOException;
 
     /**
-     * Signals that all data has been written via {@link #appendToUpload(User, String, byte[])} and initiates the asynchronous conversion
-     * into a {@link DataReference} with the given {@link MetaDataSet} attached. This conversion is performed asynchronously to avoid RPC
-     * timeouts on large uploads. Use {@link #pollUploadForDataReference(User, String)} to fetch the generated {@link DataReference}.
+     * Signals that all data has been written via {@link #appendToUpload(User, String, Long, byte[])} and initiates the asynchronous
+     * conversion into a {@link DataReference} with the given {@link MetaDataSet} attached. Waits a limited time for the conversion to
+     * complete, so the reference of a small upload is returned directly; to avoid RPC timeouts on large uploads, null is returned if the
+     * conversion takes longer. In this case, use {@link #pollUploadForDataReference(User, String)} to fetch the generated
+     * {@link DataReference}.
      * 
      * @param user user data for authorization
      * @param id the assigned upload id
      * @param metaDataSet the data management metadata to append to the {@link DataReference}; the behaviour is the same as
      *        {@link #newReferenceFromStream(User, InputStream, MetaDataSet)}
+     * @return the generated {@link DataReference}, or null if it is not available yet
      * @throws IOException on I/O errors on the receiver's side
      */
-    void finishUpload(User user, String id, MetaDataSet metaDataSet) throws IOException;
+    DataReference finishUpload(User user, String id, MetaDataSet metaDataSet) throws IOException;
 
     /**
-     * Attempt to fetch the generated {@link DataReference} for a given upload id. If the reference is not available yet, null is returned.
-     * 
-     * TODO add {@link IOException} to signal a permanent conversion failure? - misc_ro
+     * Attempt to fetch the generated {@link DataReference} for a given upload id. Waits a limited time for the reference to become
+     * available; if it is still not available then, null is returned.
      * 
      * @param user user data for authorization
      * @param id the assigned upload id
@@ -9,6 +9,7 @@
 package de.rcenvironment.core.datamanagement;
 
 import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
@@ -16,10 +17,12 @@ import de.rcenvironment.core.datamanagement.commons.ComponentInstance;
 import de.rcenvironment.core.datamanagement.commons.ComponentRun;
 import de.rcenvironment.core.datamanagement.commons.DataReference;
 import de.rcenvironment.core.datamanagement.commons.EndpointData;
+import de.rcenvironment.core.datamanagement.commons.EndpointDatumRecord;
 import de.rcenvironment.core.datamanagement.commons.EndpointInstance;
 import de.rcenvironment.core.datamanagement.commons.TimelineInterval;
 import de.rcenvironment.core.datamanagement.commons.WorkflowRun;
 import de.rcenvironment.core.datamanagement.commons.WorkflowRunDescription;
+import de.rcenvironment.core.datamanagement.commons.WorkflowRunDescriptionCursor;
 import de.rcenvironment.core.datamanagement.commons.WorkflowRunTimline;
 import de.rcenvironment.core.datamodel.api.FinalComponentState;
 import de.rcenvironment.core.datamodel.api.FinalWorkflowState;
@@ -96,6 +99,32 @@ public interface MetaDataService {
      */
     Long addOutputDatum(Long componentRunId, Long endpointInstanceId, String datum, Integer count);
 
+    /**
+     * Reserves identifiers for {@link TypedDatum}s to be added later as output data via {@link #addEndpointData(Long, List)}. Reserved
+     * identifiers that are not used must be released via {@link #releaseTypedDatumIds(List)}.
+     * 
+     * @param count The number of identifiers to reserve.
+     * @return The reserved {@link TypedDatum} identifiers.
+     */
+    List<Long> reserveTypedDatumIds(Integer count);
+
+    /**
+     * Adds input and output data to {@link EndpointInstance}s of a {@link ComponentRun} at once, in the given order.
+     * 
+     * @param componentRunId The identifier of the {@link ComponentRun}.
+     * @param endpointData The input and output data to add; the {@link TypedDatum} identifiers of output data must have been reserved
+     *        via {@link #reserveTypedDatumIds(Integer)}.
+     */
+    void addEndpointData(Long componentRunId, List<EndpointDatumRecord> endpointData);
+
+    /**
+     * Releases reserved {@link TypedDatum} identifiers that were not used, or whose output data failed to be stored. Identifiers that
+     * input data refers to already are kept; such inputs are omitted when endpoint data is read.
+     * 
+     * @param typedDatumIds The identifiers to release.
+     */
+    void releaseTypedDatumIds(List<Long> typedDatumIds);
+
     /**
      * Adds properties to a {@link WorkflowRun}. Properties a represented in a key-value map.
      * 
@@ -160,6 +189,17 @@ public interface MetaDataService {
      */
     Set<WorkflowRunDescription> getWorkflowRunDescriptions();
 
+    /**
+     * Gets a page of the {@link WorkflowRunDescription}s in the database ordered by timestamp descending. The next page is requested
+     * with a cursor created from the last {@link WorkflowRunDescription} of this page; a page with less than the requested number of
+     * entries is the last one.
+     * 
+     * @param cursor The position of the page; {@link WorkflowRunDescriptionCursor#first()} for the most recent workflow runs.
+     * @param maxCount The maximum number of {@link WorkflowRunDescription}s to return.
+     * @return A list of {@link WorkflowRunDescription}s ordered by timestamp descending.
+     */
+    List<WorkflowRunDescription> getWorkflowRunDescriptions(WorkflowRunDescriptionCursor cursor, Integer maxCount);
+
     /**
      * Gets the {@link WorkflowRun} with the given identifier.
      * 
@@ -169,7 +209,17 @@ public interface MetaDataService {
     WorkflowRun getWorkflowRun(Long workflowRunId);
 
     /**
-     * Gets a collection of all {@link ComponentRun}s related to the {@link ComponentInstance} with the given identifier.
+     * Gets the {@link ComponentInstance}s of the {@link WorkflowRun} with the given identifier, without their {@link ComponentRun}s.
+     * These can be loaded per {@link ComponentInstance} via {@link #getComponentRuns(Long)}.
+     * 
+     * @param workflowRunId The identifier of the {@link WorkflowRun}.
+     * @return A collection of {@link ComponentInstance}s with their identifiers set.
+     */
+    Collection<ComponentInstance> getComponentInstances(Long workflowRunId);
+
+    /**
+     * Gets a collection of all {@link ComponentRun}s related to the {@link ComponentInstance} with the given identifier, including
+     * their {@link EndpointData}.
      * 
      * @param componentInstanceId The identifier of the {@link ComponentInstance}.
      * @return A collection of {@link ComponentRun}s.
@@ -252,6 +302,16 @@ public interface MetaDataService {
      */
     Boolean deleteWorkflowRun(Long workflowRunId);
 
+    /**
+     * Deletes several {@link WorkflowRun}s and all related content in the database and the blob store. The {@link WorkflowRun}s are
+     * marked to be deleted and deleted asynchronously afterwards, in chunks of bounded size; {@link WorkflowRun}s that are not finished
+     * yet are skipped.
+     * 
+     * @param workflowRunIds The identifiers of the {@link WorkflowRun}s to be deleted.
+     * @return The number of {@link WorkflowRun}s marked to be deleted.
+     */
+    Integer deleteWorkflowRuns(List<Long> workflowRunIds);
+
     /**
      * Deletes all {@link DataReference}s of a {@link WorkflowRun} in the database and the blob store.
      * 
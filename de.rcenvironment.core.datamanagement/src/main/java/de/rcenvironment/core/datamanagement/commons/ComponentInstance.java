@@ -14,11 +14,14 @@ import java.io.Serializable;
  * Identifier for a component instance.
  * 
  * @author Jan Flink
+ * @author agent (stored identifier)
  */
 public class ComponentInstance implements Serializable, Comparable<ComponentInstance> {
 
     private static final long serialVersionUID = -1146463727557514649L;
 
+    private final Long componentInstanceID;
+
     private final String componentExecutionID;
 
     private final String componentID;
@@ -28,6 +31,7 @@ public class ComponentInstance implements Serializable, Comparable<ComponentInst
     private final String finalState;
 
     public ComponentInstance(String componentID, String componentInstanceName, String finalState) {
+        this.componentInstanceID = null;
         this.componentExecutionID = null;
         this.componentID = componentID;
         this.componentInstanceName = componentInstanceName;
@@ -35,12 +39,21 @@ public class ComponentInstance implements Serializable, Comparable<ComponentInst
     }
 
     public ComponentInstance(String componentExecutionID, String componentID, String componentInstanceName, String finalState) {
+        this.componentInstanceID = null;
         this.componentExecutionID = componentExecutionID;
         this.componentID = componentID;
         this.componentInstanceName = componentInstanceName;
         this.finalState = finalState;
     }
 
+    public ComponentInstance(Long componentInstanceID, String componentID, String componentInstanceName, String finalState) {
+        this.componentInstanceID = componentInstanceID;
+        this.componentExecutionID = null;
+        this.componentID = componentID;
+        this.componentInstanceName = componentInstanceName;
+        this.finalState = finalState;
+    }
+
     public String getComponentID() {
         return componentID;
     }
@@ -49,6 +62,13 @@ public class ComponentInstance implements Serializable, Comparable<ComponentInst
         return componentInstanceName;
     }
 
+    /**
+     * @return the identifier of the stored {@link ComponentInstance}, or null if it was not read from the meta data backend
+     */
+    public Long getComponentInstanceID() {
+        return componentInstanceID;
+    }
+
     public String getComponentExecutionID() {
         return componentExecutionID;
     }
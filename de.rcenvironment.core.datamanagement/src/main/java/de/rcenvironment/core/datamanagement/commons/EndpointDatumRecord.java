@@ -0,0 +1,61 @@
+/*
+ * Copyright (C) 2006-2014 DLR, Germany
+ * 
+ * All rights reserved
+ * 
+ * http://www.rcenvironment.de/
+ */
+
+package de.rcenvironment.core.datamanagement.commons;
+
+import java.io.Serializable;
+
+/**
+ * An input or output datum of an {@link EndpointInstance} of a {@link ComponentRun}, used to add several of them at once. For output
+ * data, the typed datum identifier is one reserved in advance, and the serialized datum is stored under it; input data refer to
+ * the typed datum of the related output and have no serialized datum.
+ * 
+ * @author agent
+ */
+public class EndpointDatumRecord implements Serializable {
+
+    private static final long serialVersionUID = 4310935129542118213L;
+
+    private final Long endpointInstanceId;
+
+    private final Long typedDatumId;
+
+    private final Integer count;
+
+    private final String datum;
+
+    public EndpointDatumRecord(Long endpointInstanceId, Long typedDatumId, Integer count, String datum) {
+        this.endpointInstanceId = endpointInstanceId;
+        this.typedDatumId = typedDatumId;
+        this.count = count;
+        this.datum = datum;
+    }
+
+    public Long getEndpointInstanceId() {
+        return endpointInstanceId;
+    }
+
+    public Long getTypedDatumId() {
+        return typedDatumId;
+    }
+
+    public Integer getCount() {
+        return count;
+    }
+
+    public String getDatum() {
+        return datum;
+    }
+
+    /**
+     * @return true if this is an output datum, i.e. a serialized datum is to be stored
+     */
+    public boolean isOutput() {
+        return datum != null;
+    }
+}
@@ -63,6 +63,9 @@ public final class MetaDataKeys {
     /** Database identifier of the component run. */
     public static final String COMPONENT_RUN_ID = "rce.common.component_run_id";
 
+    /** Database identifier of the component instance. */
+    public static final String COMPONENT_INSTANCE_ID = "rce.common.component_instance_id";
+
     /** Final state of the workflow run. */
     public static final String WORKFLOW_FINAL_STATE = "rce.common.workflow_final_state";
 
@@ -0,0 +1,61 @@
+/*
+ * Copyright (C) 2006-2014 DLR, Germany
+ * 
+ * All rights reserved
+ * 
+ * http://www.rcenvironment.de/
+ */
+
+package de.rcenvironment.core.datamanagement.commons;
+
+import java.io.Serializable;
+
+/**
+ * Position within the list of {@link WorkflowRunDescription}s of a storage node, which is ordered by start time descending. Used to
+ * query this list page by page: a cursor either denotes the first page or the page following a given {@link WorkflowRunDescription}.
+ * 
+ * As workflow run identifiers are only unique per storage node, a cursor must only be used for the node its description was returned by.
+ * 
+ * @author agent
+ */
+public final class WorkflowRunDescriptionCursor implements Serializable {
+
+    private static final long serialVersionUID = -2473651843018769724L;
+
+    private final Long startTime;
+
+    private final Long workflowRunID;
+
+    private WorkflowRunDescriptionCursor(Long startTime, Long workflowRunID) {
+        this.startTime = startTime;
+        this.workflowRunID = workflowRunID;
+    }
+
+    /**
+     * @return a cursor denoting the first page, i.e. the most recent workflow runs
+     */
+    public static WorkflowRunDescriptionCursor first() {
+        return new WorkflowRunDescriptionCursor(null, null);
+    }
+
+    /**
+     * @param lastDescription the last {@link WorkflowRunDescription} of the previous page
+     * @return a cursor denoting the page following the given {@link WorkflowRunDescription}
+     */
+    public static WorkflowRunDescriptionCursor after(WorkflowRunDescription lastDescription) {
+        return new WorkflowRunDescriptionCursor(lastDescription.getStartTime(), lastDescription.getWorkflowRunID());
+    }
+
+    public boolean isFirst() {
+        return startTime == null;
+    }
+
+    public Long getStartTime() {
+        return startTime;
+    }
+
+    public Long getWorkflowRunID() {
+        return workflowRunID;
+    }
+
+}
@@ -14,15 +14,22 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
+import java.io.FilterInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
 import java.util.Collection;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 
 import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
 import org.apache.commons.compress.archivers.tar.TarArchiveInputStream;
 import org.apache.commons.compress.archivers.tar.TarArchiveOutputStream;
 import org.apache.commons.compress.compressors.gzip.GzipCompressorInputStream;
-import org.apache.commons.compress.compressors.gzip.GzipCompressorOutputStream;
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.IOUtils;
 
@@ -34,7 +41,8 @@ import de.rcenvironment.core.datamanagement.DistributedDataReferenceService;
 import de.rcenvironment.core.datamanagement.DistributedFileDataService;
 import de.rcenvironment.core.datamanagement.commons.DataReference;
 import de.rcenvironment.core.datamanagement.commons.MetaDataSet;
-import de.rcenvironment.core.utils.common.TempFileServiceAccess;
+import de.rcenvironment.core.utils.common.concurrent.SharedThreadPool;
+import de.rcenvironment.core.utils.common.concurrent.TaskDescription;
 
 /**
  * Default implementation of {@link DataManagementService}.
@@ -43,10 +51,15 @@ import de.rcenvironment.core.utils.common.TempFileServiceAccess;
  */
 public class DataManagementServiceImpl implements DataManagementService {
 
-    private static final String ARCHIVE_TAR_GZ = "archive.tar.gz";
-
     private static final int BUFFER = 1024;
 
+    private static final int STREAM_BUFFER_SIZE = 256 * 1024; // arbitrary
+
+    /**
+     * The first two bytes of a gzip stream; directory references created before the archive was streamed are gzip-compressed.
+     */
+    private static final int[] GZIP_SIGNATURE = { 0x1f, 0x8b };
+
     private static final String REFERENCE_NOT_FOUND_MESSAGE = "No such data entry (id='%s').";
 
     private DistributedFileDataService fileDataService;
@@ -77,56 +90,91 @@ public class DataManagementServiceImpl implements DataManagementService {
     public String createReferenceFromLocalDirectory(User user, File dir, MetaDataSet additionalMetaData, NodeIdentifier nodeId)
         throws IOException, AuthorizationException, InterruptedException {
 
-        File archive = TempFileServiceAccess.getInstance().createTempFileWithFixedFilename(ARCHIVE_TAR_GZ);
-        createTarGz(dir, archive);
-
-        String reference = createReferenceFromStream(user, new FileInputStream(archive), additionalMetaData, nodeId);
-        TempFileServiceAccess.getInstance().disposeManagedTempDirOrFile(archive);
-        return reference;
+        // the archive is streamed into the upload; it is not compressed here, as the data backend compresses it on storage
+        return createReferenceFromStream(user, openTarStream(dir), additionalMetaData, nodeId);
     }
 
-    private void createTarGz(File dir, File archive) throws IOException {
+    /**
+     * Opens a stream of a tar archive of the given directory; the archive is written by a pooled thread while the stream is read. If
+     * writing the archive fails, the stream fails instead of ending early, so no truncated archive is stored.
+     */
+    private InputStream openTarStream(final File dir) throws IOException {
+        final PipedInputStream pipeInputStream = new PipedInputStream(STREAM_BUFFER_SIZE);
+        final PipedOutputStream pipeOutputStream = new PipedOutputStream(pipeInputStream);
+        final Future<Void> archiverFuture = SharedThreadPool.getInstance().submit(new Callable<Void>() {
+
+            @Override
+            @TaskDescription("Stream directory as tar archive")
+            public Void call() throws IOException {
+                try {
+                    if (!dir.isDirectory()) {
+                        throw new IOException("Not a directory: " + dir.getAbsolutePath());
+                    }
+                    TarArchiveOutputStream tarOutStream =
+                        new TarArchiveOutputStream(new BufferedOutputStream(pipeOutputStream, STREAM_BUFFER_SIZE));
+                    tarOutStream.setLongFileMode(TarArchiveOutputStream.LONGFILE_POSIX);
+                    addFileToTar(tarOutStream, dir, "");
+                    tarOutStream.finish();
+                    tarOutStream.close();
+                } finally {
+                    // on failure, make the reader reach the end of the stream, where it checks for errors
+                    IOUtils.closeQuietly(pipeOutputStream);
+                }
+                return null;
+            }
+        });
+        return new FilterInputStream(pipeInputStream) {
+
+            @Override
+            public int read() throws IOException {
+                int result = super.read();
+                if (result < 0) {
+                    checkArchiverResult(archiverFuture);
+                }
+                return result;
+            }
 
-        FileOutputStream fileOutStream = new FileOutputStream(archive);
-        BufferedOutputStream bufferedOutStream = new BufferedOutputStream(fileOutStream);
-        GzipCompressorOutputStream gzipOutStream;
-        try {
-            gzipOutStream = new GzipCompressorOutputStream(bufferedOutStream);
-        } catch (IOException e) {
-            bufferedOutStream.close();
-            fileOutStream.close();
-            throw e;
-        }
-        TarArchiveOutputStream tarOutStream = new TarArchiveOutputStream(gzipOutStream);
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+                int result = super.read(b, off, len);
+                if (result < 0) {
+                    checkArchiverResult(archiverFuture);
+                }
+                return result;
+            }
+        };
+    }
+
+    private void checkArchiverResult(Future<Void> archiverFuture) throws IOException {
         try {
-            addFileToTarGz(tarOutStream, dir.getAbsolutePath(), "");
-        } finally {
-            tarOutStream.finish();
-            tarOutStream.close();
-            gzipOutStream.close();
-            bufferedOutStream.close();
-            fileOutStream.close();
+            archiverFuture.get();
+        } catch (ExecutionException e) {
+            throw new IOException("Failed to create the archive of the directory", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for the archive of the directory");
         }
     }
 
-    private void addFileToTarGz(TarArchiveOutputStream tOutStream, String path, String base) throws IOException {
-        File file = new File(path);
+    private void addFileToTar(TarArchiveOutputStream tOutStream, File file, String base) throws IOException {
         String entryName = base + file.getName();
         TarArchiveEntry tarEntry = new TarArchiveEntry(file, entryName);
-        tOutStream.setLongFileMode(TarArchiveOutputStream.LONGFILE_POSIX);
         tOutStream.putArchiveEntry(tarEntry);
 
         if (file.isFile()) {
             InputStream inputStream = new FileInputStream(file);
-            IOUtils.copy(inputStream, tOutStream);
-            inputStream.close();
+            try {
+                IOUtils.copy(inputStream, tOutStream);
+            } finally {
+                inputStream.close();
+            }
             tOutStream.closeArchiveEntry();
         } else {
             tOutStream.closeArchiveEntry();
             File[] children = file.listFiles();
             if (children != null) {
                 for (File child : children) {
-                    addFileToTarGz(tOutStream, child.getAbsolutePath(), entryName + "/");
+                    addFileToTar(tOutStream, child, entryName + "/");
                 }
             }
         }
@@ -153,16 +201,7 @@ public class DataManagementServiceImpl implements DataManagementService {
     public void copyReferenceToLocalFile(User user, String reference, File targetFile, // CheckStyle
         NodeIdentifier nodeId) throws IOException, AuthorizationException {
 
-        DataReference dataRef;
-        if (nodeId == null) {
-            dataRef = dataReferenceService.getReference(reference);
-        } else {
-            dataRef = dataReferenceService.getReference(reference, nodeId);
-        }
-        if (dataRef == null) {
-            throw new FileNotFoundException(String.format(REFERENCE_NOT_FOUND_MESSAGE, reference));
-        }
-        InputStream dataMgmtStream = fileDataService.getStreamFromDataReference(user, dataRef);
+        InputStream dataMgmtStream = openReferenceStream(user, reference, nodeId);
         try {
             FileUtils.copyInputStreamToFile(dataMgmtStream, targetFile);
         } finally {
@@ -194,64 +233,86 @@ public class DataManagementServiceImpl implements DataManagementService {
     @Override
     public void copyReferenceToLocalDirectory(User user, String reference, File targetDir, NodeIdentifier node) throws IOException {
 
-        File archive = TempFileServiceAccess.getInstance().createTempFileWithFixedFilename(ARCHIVE_TAR_GZ);
-        copyReferenceToLocalFile(user, reference, archive, node);
-        createDirectoryFromTarGz(archive, targetDir);
-        TempFileServiceAccess.getInstance().disposeManagedTempDirOrFile(archive);
+        // the archive is extracted directly from the download stream
+        InputStream dataMgmtStream = openReferenceStream(user, reference, node);
+        try {
+            createDirectoryFromTarStream(dataMgmtStream, targetDir);
+        } finally {
+            IOUtils.closeQuietly(dataMgmtStream);
+        }
     }
 
-    private void createDirectoryFromTarGz(File archive, File targetDir) throws FileNotFoundException, IOException {
+    private void createDirectoryFromTarStream(InputStream inputStream, File targetDir) throws IOException {
 
         targetDir.mkdirs();
 
-        FileInputStream fileInStream = new FileInputStream(archive);
-        BufferedInputStream bufferedInStream = new BufferedInputStream(fileInStream);
-        GzipCompressorInputStream gzipInStream;
-        try {
-            gzipInStream = new GzipCompressorInputStream(bufferedInStream);
-        } catch (IOException e) {
-            bufferedInStream.close();
-            fileInStream.close();
-            throw e;
+        InputStream bufferedInStream = new BufferedInputStream(inputStream, STREAM_BUFFER_SIZE);
+        InputStream archiveInStream;
+        if (hasGzipSignature(bufferedInStream)) {
+            archiveInStream = new GzipCompressorInputStream(bufferedInStream);
+        } else {
+            archiveInStream = bufferedInStream;
         }
-        TarArchiveInputStream tarInStream = new TarArchiveInputStream(gzipInStream);
+        TarArchiveInputStream tarInStream = new TarArchiveInputStream(archiveInStream);
         try {
-            createFileOrDirForTarEntry(tarInStream, targetDir);
+            TarArchiveEntry tarEntry;
+            while ((tarEntry = tarInStream.getNextTarEntry()) != null) {
+                createFileOrDirForTarEntry(tarInStream, tarEntry, targetDir);
+            }
         } finally {
             tarInStream.close();
-            gzipInStream.close();
-            bufferedInStream.close();
-            fileInStream.close();
         }
     }
 
-    private void createFileOrDirForTarEntry(TarArchiveInputStream tarInStream, File targetDir) throws IOException {
-
-        TarArchiveEntry tarEntry = tarInStream.getNextTarEntry();
-        if (tarEntry == null) {
-            return;
+    private boolean hasGzipSignature(InputStream bufferedInStream) throws IOException {
+        bufferedInStream.mark(GZIP_SIGNATURE.length);
+        try {
+            for (int signatureByte : GZIP_SIGNATURE) {
+                if (bufferedInStream.read() != signatureByte) {
+                    return false;
+                }
+            }
+            return true;
+        } finally {
+            bufferedInStream.reset();
         }
+    }
+
+    private void createFileOrDirForTarEntry(TarArchiveInputStream tarInStream, TarArchiveEntry tarEntry, File targetDir)
+        throws IOException {
+
         File destPath = new File(targetDir, tarEntry.getName());
         if (tarEntry.isDirectory()) {
             destPath.mkdirs();
         } else {
-            destPath.createNewFile();
+            destPath.getParentFile().mkdirs();
             byte[] btoRead = new byte[BUFFER];
-            BufferedOutputStream bout = new BufferedOutputStream(new FileOutputStream(destPath));
-            int len = 0;
-            final int minusOne = -1;
-            while ((len = tarInStream.read(btoRead)) != minusOne) {
-                bout.write(btoRead, 0, len);
+            OutputStream bout = new BufferedOutputStream(new FileOutputStream(destPath));
+            try {
+                int len = 0;
+                final int minusOne = -1;
+                while ((len = tarInStream.read(btoRead)) != minusOne) {
+                    bout.write(btoRead, 0, len);
+                }
+            } finally {
+                bout.close();
             }
-            bout.close();
         }
-        createFileOrDirForTarEntry(tarInStream, targetDir);
     }
 
     @Override
     public String retrieveStringFromReference(User user, String reference, NodeIdentifier nodeId) throws IOException,
         AuthorizationException {
-        // TODO extract reference to stream resolution into separate method?
+        InputStream dataMgmtStream = openReferenceStream(user, reference, nodeId);
+        try {
+            return IOUtils.toString(dataMgmtStream);
+        } finally {
+            IOUtils.closeQuietly(dataMgmtStream);
+        }
+    }
+
+    private InputStream openReferenceStream(User user, String reference, NodeIdentifier nodeId) throws IOException,
+        AuthorizationException {
         DataReference dataRef;
         if (nodeId == null) {
             dataRef = dataReferenceService.getReference(reference);
@@ -261,12 +322,7 @@ public class DataManagementServiceImpl implements DataManagementService {
         if (dataRef == null) {
             throw new FileNotFoundException(String.format(REFERENCE_NOT_FOUND_MESSAGE, reference));
         }
-        InputStream dataMgmtStream = fileDataService.getStreamFromDataReference(user, dataRef);
-        try {
-            return IOUtils.toString(dataMgmtStream);
-        } finally {
-            IOUtils.closeQuietly(dataMgmtStream);
-        }
+        return fileDataService.getStreamFromDataReference(user, dataRef);
     }
 
     /**
@@ -11,8 +11,12 @@ package de.rcenvironment.core.datamanagement.internal;
 import java.io.BufferedInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.ArrayDeque;
 import java.util.Arrays;
-import java.util.concurrent.Exchanger;
+import java.util.Deque;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -40,6 +44,8 @@ public class DistributedFileDataServiceImpl extends DistributedDataServiceImpl i
 
     private static final String UPLOAD_BLOCK_SIZE_PROPERTY = "communication.uploadBlockSize";
 
+    private static final String UPLOAD_WINDOW_SIZE_PROPERTY = "communication.uploadWindowSize";
+
     // arbitrarily chosen; BufferedInputStream default is 8kb
     private static final int DOWNLOAD_STREAM_BUFFER_SIZE = 256 * 1024;
 
@@ -47,9 +53,9 @@ public class DistributedFileDataServiceImpl extends DistributedDataServiceImpl i
 
     private static final int MINIMUM_UPLOAD_CHUNK_SIZE = 8 * 1024;
 
-    private static final long CHUNK_UPLOAD_TIME_WARNING_THRESHOLD_MSEC = 25000;
+    private static final int DEFAULT_UPLOAD_WINDOW_SIZE = 4;
 
-    private static final int REMOTE_REFERENCE_POLLING_INTERVAL_MSEC = 1000;
+    private static final long CHUNK_UPLOAD_TIME_WARNING_THRESHOLD_MSEC = 25000;
 
     private static final int END_OF_STREAM_MARKER = -1;
 
@@ -62,76 +68,53 @@ public class DistributedFileDataServiceImpl extends DistributedDataServiceImpl i
     private final int uploadChunkSize;
 
     /**
-     * A {@link Runnable} to handle asynchronous sending of byte buffers to a remote node.
+     * The maximum number of chunk uploads in flight for a single remote upload.
+     */
+    private final int uploadWindowSize;
+
+    /**
+     * A {@link Callable} that sends a single chunk of a remote upload.
      * 
      * @author Robert Mischke
      */
-    private abstract class AsyncBufferUploader implements Runnable {
+    private final class ChunkUploadTask implements Callable<Void> {
 
-        private int bufferSize;
+        private final FileDataService remoteDataService;
 
-        private Exchanger<ChunkBuffer> exchanger = new Exchanger<ChunkBuffer>();
+        private final User user;
 
-        public AsyncBufferUploader(int bufferSize) {
-            this.bufferSize = bufferSize;
-        }
+        private final String uploadId;
 
-        @Override
-        @TaskDescription("Async upload")
-        public void run() {
-            // create second buffer
-            ChunkBuffer readyToReturnBuffer = new ChunkBuffer(bufferSize);
-            try {
-                while (true) {
-                    ChunkBuffer filledBuffer = exchanger.exchange(readyToReturnBuffer);
-                    if (filledBuffer == null) {
-                        // shutdown signal ("poison pill")
-                        log.debug("Async uploader shutting down");
-                        break;
-                    }
-                    try {
-                        sendSingleBuffer(filledBuffer);
-                    } catch (IOException e) {
-                        log.debug("I/O exception during async upload", e);
-                        // register the exception in the current buffer; on the next
-                        // "exchange()" call, the exception will be thrown at the caller
-                        filledBuffer.setExceptionOnWrite(e);
-                        exchanger.exchange(filledBuffer);
-                        break;
-                    }
-                    readyToReturnBuffer = filledBuffer;
-                }
-            } catch (InterruptedException e) {
-                log.warn("Async upload thread interrupted");
-            }
-        }
+        private final long chunkIndex;
 
-        protected abstract void sendSingleBuffer(ChunkBuffer filledBuffer) throws IOException;
+        private final byte[] data;
 
-        ChunkBuffer getInitialEmptyBuffer() {
-            ChunkBuffer firstBuffer = new ChunkBuffer(bufferSize);
-            return firstBuffer;
-        }
+        private final long expectedTotalSize;
 
-        ChunkBuffer swapBuffersWhenReady(ChunkBuffer filledBuffer) throws InterruptedException, IOException {
-            ChunkBuffer returnedBuffer = exchanger.exchange(filledBuffer);
-            IOException exceptionOnWrite = returnedBuffer.getExceptionOnWrite();
-            if (exceptionOnWrite != null) {
-                // re-throw async exceptions for caller
-                throw exceptionOnWrite;
-            }
-            return returnedBuffer;
+        ChunkUploadTask(FileDataService remoteDataService, User user, String uploadId, long chunkIndex, byte[] data,
+            long expectedTotalSize) {
+            this.remoteDataService = remoteDataService;
+            this.user = user;
+            this.uploadId = uploadId;
+            this.chunkIndex = chunkIndex;
+            this.data = data;
+            this.expectedTotalSize = expectedTotalSize;
         }
 
-        void shutDown() throws InterruptedException, IOException {
-            // note: this also ensures that the last (and final) buffer was written - misc_ro
-            ChunkBuffer returnedBuffer = exchanger.exchange(null);
-            // check final buffer for async exception
-            IOException exceptionOnWrite = returnedBuffer.getExceptionOnWrite();
-            if (exceptionOnWrite != null) {
-                // re-throw async exceptions for caller
-                throw exceptionOnWrite;
+        @Override
+        @TaskDescription("Async upload")
+        public Void call() throws IOException {
+            long startTime = System.currentTimeMillis();
+            long remoteTotalSize = remoteDataService.appendToUpload(user, uploadId, chunkIndex, data);
+            long duration = System.currentTimeMillis() - startTime;
+            if (duration > CHUNK_UPLOAD_TIME_WARNING_THRESHOLD_MSEC) {
+                log.warn(String.format("Uploading a data block of %d bytes took %d msec", data.length, duration));
             }
+            // consistency check
+            if (expectedTotalSize != remoteTotalSize) {
+                throw new IllegalStateException("Consistency error: Local and remote write counts are not equal!");
+            }
+            return null;
         }
     }
 
@@ -146,21 +129,11 @@ public class DistributedFileDataServiceImpl extends DistributedDataServiceImpl i
 
         private int contentSize;
 
-        private IOException exceptionOnWrite;
-
         public ChunkBuffer(int bufferSize) {
             buffer = new byte[bufferSize];
             contentSize = 0;
         }
 
-        public void setExceptionOnWrite(IOException e) {
-            exceptionOnWrite = e;
-        }
-
-        public IOException getExceptionOnWrite() {
-            return exceptionOnWrite;
-        }
-
         public int getContentSize() {
             return contentSize;
         }
@@ -177,13 +150,21 @@ public class DistributedFileDataServiceImpl extends DistributedDataServiceImpl i
         }
 
         public boolean fillFromStream(InputStream inputStream) throws IOException {
-            int actualRead = inputStream.read(buffer);
-            // sanity check
-            if (actualRead == 0) {
-                throw new IllegalStateException("Read zero bytes");
+            // fill the whole buffer unless the stream ends; streams like pipes return short reads, which would result in small chunks
+            int totalRead = 0;
+            while (totalRead < buffer.length) {
+                int actualRead = inputStream.read(buffer, totalRead, buffer.length - totalRead);
+                if (actualRead == END_OF_STREAM_MARKER) {
+                    break;
+                }
+                // sanity check
+                if (actualRead == 0) {
+                    throw new IllegalStateException("Read zero bytes");
+                }
+                totalRead += actualRead;
             }
-            contentSize = actualRead;
-            return actualRead != END_OF_STREAM_MARKER;
+            contentSize = totalRead;
+            return totalRead != 0;
         }
     }
 
@@ -205,7 +186,23 @@ public class DistributedFileDataServiceImpl extends DistributedDataServiceImpl i
 
         }
         uploadChunkSize = tempHolder;
-        log.debug("Using remote upload block size " + uploadChunkSize);
+
+        tempHolder = DEFAULT_UPLOAD_WINDOW_SIZE;
+        String windowSizeArg = System.getProperty(UPLOAD_WINDOW_SIZE_PROPERTY);
+        if (windowSizeArg != null) {
+            try {
+                int parsedValue = Integer.parseInt(windowSizeArg);
+                if (parsedValue >= 1) {
+                    tempHolder = parsedValue;
+                } else {
+                    log.error("Invalid upload window size specified: minimum value is 1");
+                }
+            } catch (NumberFormatException e) {
+                log.error("Failed to parse " + UPLOAD_WINDOW_SIZE_PROPERTY + " setting; using default", e);
+            }
+        }
+        uploadWindowSize = tempHolder;
+        log.debug("Using remote upload block size " + uploadChunkSize + " and window size " + uploadWindowSize);
     }
 
     protected void activate(BundleContext bundleContext) {
@@ -268,51 +265,60 @@ public class DistributedFileDataServiceImpl extends DistributedDataServiceImpl i
             }
             log.debug("Received remote upload id " + uploadId);
 
-            // create and start async uploader
-            AsyncBufferUploader asyncUploader = new AsyncBufferUploader(uploadChunkSize) {
-
-                private long localTotalSize = 0;
-
-                @Override
-                protected void sendSingleBuffer(ChunkBuffer filledBuffer) throws IOException {
-                    // log.debug("uploading chunk of size " + filledBuffer.getContentSize());
-                    long startTime = System.currentTimeMillis();
-                    long remoteTotalSize = remoteDataService.appendToUpload(user, uploadId, filledBuffer.getContentSizeBuffer());
-                    long duration = System.currentTimeMillis() - startTime;
-                    if (duration > CHUNK_UPLOAD_TIME_WARNING_THRESHOLD_MSEC) {
-                        log.warn(String.format("Uploading a data block of %d bytes took %d msec", filledBuffer.getContentSize(), duration));
-                    }
-                    localTotalSize += filledBuffer.getContentSize();
-                    // consistency check
-                    if (localTotalSize != remoteTotalSize) {
-                        throw new IllegalStateException("Consistency error: Local and remote write counts are not equal!");
+            // keep several chunk uploads in flight; the receiver appends them in chunk order
+            Deque<Future<Void>> pendingChunkUploads = new ArrayDeque<Future<Void>>();
+            long totalRead = 0;
+            long chunkIndex = 0;
+            try {
+                ChunkBuffer readBuffer = new ChunkBuffer(uploadChunkSize);
+                while (readBuffer.fillFromStream(inputStream)) {
+                    totalRead += readBuffer.getContentSize();
+                    if (pendingChunkUploads.size() >= uploadWindowSize) {
+                        awaitChunkUpload(pendingChunkUploads.pollFirst());
                     }
+                    ChunkUploadTask task =
+                        new ChunkUploadTask(remoteDataService, user, uploadId, chunkIndex++, readBuffer.getContentSizeBuffer(), totalRead);
+                    pendingChunkUploads.addLast(SharedThreadPool.getInstance().submit(task));
+                    // the submitted buffer is still in use, so a new one is needed
+                    readBuffer = new ChunkBuffer(uploadChunkSize);
+                }
+                while (!pendingChunkUploads.isEmpty()) {
+                    awaitChunkUpload(pendingChunkUploads.pollFirst());
+                }
+            } finally {
+                // only non-empty on errors
+                for (Future<Void> future : pendingChunkUploads) {
+                    future.cancel(false);
                 }
-            };
-            SharedThreadPool.getInstance().execute(asyncUploader);
-
-            long totalRead2 = 0; // other counter is held by writer thread; duplicate to avoid sync
-            ChunkBuffer readBuffer = asyncUploader.getInitialEmptyBuffer();
-            while (readBuffer.fillFromStream(inputStream)) {
-                totalRead2 += readBuffer.getContentSize();
-                readBuffer = asyncUploader.swapBuffersWhenReady(readBuffer);
             }
-            asyncUploader.shutDown();
-            remoteDataService.finishUpload(user, uploadId, metaDataSet);
-            log.debug(String.format("Finished uploading %d bytes for upload id %s; polling for remote data reference", totalRead2,
-                uploadId));
-            // poll until successful or the thread is interrupted
-            while (true) {
-                Thread.sleep(REMOTE_REFERENCE_POLLING_INTERVAL_MSEC);
-                DataReference reference = remoteDataService.pollUploadForDataReference(user, uploadId);
-                if (reference != null) {
-                    log.debug("Received remote data reference for upload id " + uploadId);
-                    return reference;
+
+            // the remote node waits a limited time for the data reference, so small uploads complete without polling
+            DataReference reference = remoteDataService.finishUpload(user, uploadId, metaDataSet);
+            log.debug(String.format("Finished uploading %d bytes in %d chunks for upload id %s", totalRead, chunkIndex, uploadId));
+            // each poll also waits on the remote node, so there is no need for a local delay
+            while (reference == null) {
+                if (Thread.interrupted()) {
+                    throw new InterruptedException("Interrupted while waiting for remote data reference");
                 }
+                reference = remoteDataService.pollUploadForDataReference(user, uploadId);
             }
+            log.debug("Received remote data reference for upload id " + uploadId);
+            return reference;
         } catch (IOException e) {
             throw new IOException("Error uploading file", e);
         }
     }
 
+    private void awaitChunkUpload(Future<Void> future) throws InterruptedException, IOException {
+        try {
+            future.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            throw new IOException("Failed to upload data block", cause);
+        }
+    }
+
 }
@@ -25,8 +25,12 @@ import de.rcenvironment.core.communication.management.WorkflowHostService;
 import de.rcenvironment.core.datamanagement.DataManagementService;
 import de.rcenvironment.core.datamanagement.DistributedMetaDataService;
 import de.rcenvironment.core.datamanagement.MetaDataService;
+import de.rcenvironment.core.datamanagement.commons.ComponentInstance;
+import de.rcenvironment.core.datamanagement.commons.ComponentRun;
+import de.rcenvironment.core.datamanagement.commons.EndpointDatumRecord;
 import de.rcenvironment.core.datamanagement.commons.WorkflowRun;
 import de.rcenvironment.core.datamanagement.commons.WorkflowRunDescription;
+import de.rcenvironment.core.datamanagement.commons.WorkflowRunDescriptionCursor;
 import de.rcenvironment.core.datamanagement.commons.WorkflowRunTimline;
 import de.rcenvironment.core.datamodel.api.FinalComponentState;
 import de.rcenvironment.core.datamodel.api.TimelineIntervalType;
@@ -85,6 +89,38 @@ public class DistributedMetaDataServiceImpl implements DistributedMetaDataServic
         return null;
     }
 
+    @Override
+    public List<Long> reserveTypedDatumIds(Integer count, NodeIdentifier storageNodeId) throws CommunicationException {
+        MetaDataService service = (MetaDataService) communicationService.getService(MetaDataService.class, storageNodeId, context);
+        try {
+            return service.reserveTypedDatumIds(count);
+        } catch (UndeclaredThrowableException e) {
+            handleUndeclaredThrowableException(e);
+        }
+        return null;
+    }
+
+    @Override
+    public void addEndpointData(Long componentRunId, List<EndpointDatumRecord> endpointData, NodeIdentifier storageNodeId)
+        throws CommunicationException {
+        MetaDataService service = (MetaDataService) communicationService.getService(MetaDataService.class, storageNodeId, context);
+        try {
+            service.addEndpointData(componentRunId, endpointData);
+        } catch (UndeclaredThrowableException e) {
+            handleUndeclaredThrowableException(e);
+        }
+    }
+
+    @Override
+    public void releaseTypedDatumIds(List<Long> typedDatumIds, NodeIdentifier storageNodeId) throws CommunicationException {
+        MetaDataService service = (MetaDataService) communicationService.getService(MetaDataService.class, storageNodeId, context);
+        try {
+            service.releaseTypedDatumIds(typedDatumIds);
+        } catch (UndeclaredThrowableException e) {
+            handleUndeclaredThrowableException(e);
+        }
+    }
+
     @Override
     public void addComponentRunProperties(Long componentRunId, Map<String, String> properties, NodeIdentifier storageNodeId)
         throws CommunicationException {
@@ -187,6 +223,18 @@ public class DistributedMetaDataServiceImpl implements DistributedMetaDataServic
         return descriptions;
     }
 
+    @Override
+    public List<WorkflowRunDescription> getWorkflowRunDescriptions(WorkflowRunDescriptionCursor cursor, Integer maxCount,
+        NodeIdentifier storageNodeId) throws CommunicationException {
+        MetaDataService service = (MetaDataService) communicationService.getService(MetaDataService.class, storageNodeId, context);
+        try {
+            return service.getWorkflowRunDescriptions(cursor, maxCount);
+        } catch (UndeclaredThrowableException e) {
+            handleUndeclaredThrowableException(e);
+        }
+        return null;
+    }
+
     @Override
     public WorkflowRun getWorkflowRun(Long workflowRunId, NodeIdentifier storageNodeId) throws CommunicationException {
         MetaDataService service = (MetaDataService) communicationService.getService(MetaDataService.class, storageNodeId, context);
@@ -198,6 +246,30 @@ public class DistributedMetaDataServiceImpl implements DistributedMetaDataServic
         return null;
     }
 
+    @Override
+    public Collection<ComponentInstance> getComponentInstances(Long workflowRunId, NodeIdentifier storageNodeId)
+        throws CommunicationException {
+        MetaDataService service = (MetaDataService) communicationService.getService(MetaDataService.class, storageNodeId, context);
+        try {
+            return service.getComponentInstances(workflowRunId);
+        } catch (UndeclaredThrowableException e) {
+            handleUndeclaredThrowableException(e);
+        }
+        return null;
+    }
+
+    @Override
+    public Collection<ComponentRun> getComponentRuns(Long componentInstanceId, NodeIdentifier storageNodeId)
+        throws CommunicationException {
+        MetaDataService service = (MetaDataService) communicationService.getService(MetaDataService.class, storageNodeId, context);
+        try {
+            return service.getComponentRuns(componentInstanceId);
+        } catch (UndeclaredThrowableException e) {
+            handleUndeclaredThrowableException(e);
+        }
+        return null;
+    }
+
     @Override
     public WorkflowRunTimline getWorkflowTimeline(Long workflowRunId, NodeIdentifier storageNodeId) throws CommunicationException {
         MetaDataService service = (MetaDataService) communicationService.getService(MetaDataService.class, storageNodeId, context);
@@ -220,6 +292,17 @@ public class DistributedMetaDataServiceImpl implements DistributedMetaDataServic
         return false;
     }
 
+    @Override
+    public Integer deleteWorkflowRuns(List<Long> workflowRunIds, NodeIdentifier storageNodeId) throws CommunicationException {
+        MetaDataService service = (MetaDataService) communicationService.getService(MetaDataService.class, storageNodeId, context);
+        try {
+            return service.deleteWorkflowRuns(workflowRunIds);
+        } catch (UndeclaredThrowableException e) {
+            handleUndeclaredThrowableException(e);
+        }
+        return 0;
+    }
+
     @Override
     public Boolean deleteWorkflowRunFiles(Long workflowRunId, NodeIdentifier storageNodeId)
         throws CommunicationException {
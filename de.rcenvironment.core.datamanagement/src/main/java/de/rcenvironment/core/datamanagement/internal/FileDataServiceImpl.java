@@ -15,6 +15,7 @@ import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InterruptedIOException;
 import java.io.OutputStream;
 import java.net.URI;
 import java.util.Collections;
@@ -58,6 +59,16 @@ public class FileDataServiceImpl extends DataServiceImpl implements FileDataServ
 
     private static final int UPLOAD_TEMP_FILE_STREAM_BUFFER_SIZE = 64 * 1024; // arbitrary
 
+    /**
+     * The maximum time to wait for the data reference in a single call; must be safely below the RPC timeout.
+     */
+    private static final long DATA_REFERENCE_MAX_WAIT_MSEC = 10 * 1000;
+
+    /**
+     * The maximum time an upload chunk waits for the arrival of its preceding chunks.
+     */
+    private static final long PRECEDING_CHUNK_TIMEOUT_MSEC = 60 * 1000;
+
     private Map<String, UploadHolder> uploads; // synchronized map
 
     /**
@@ -73,6 +84,8 @@ public class FileDataServiceImpl extends DataServiceImpl implements FileDataServ
 
         private long totalBytesWritten = 0;
 
+        private long nextChunkIndex = 0;
+
         private DataReference dataReference;
 
         private IOException asyncException;
@@ -83,15 +96,38 @@ public class FileDataServiceImpl extends DataServiceImpl implements FileDataServ
         }
 
         /**
+         * Appends a chunk of data after waiting for all preceding chunks, as concurrent upload calls may arrive out of order.
+         * 
          * @return the total number of bytes written so far
          */
-        public long appendData(byte[] data) throws IOException {
+        public synchronized long appendChunk(long chunkIndex, byte[] data) throws IOException {
+            long deadline = System.currentTimeMillis() + PRECEDING_CHUNK_TIMEOUT_MSEC;
+            while (chunkIndex != nextChunkIndex) {
+                if (chunkIndex < nextChunkIndex) {
+                    throw new IOException("Upload chunk " + chunkIndex + " was already received");
+                }
+                long remainingTime = deadline - System.currentTimeMillis();
+                if (remainingTime <= 0) {
+                    throw new IOException("Timeout while waiting for upload chunk " + nextChunkIndex);
+                }
+                try {
+                    wait(remainingTime);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Interrupted while waiting for upload chunk " + nextChunkIndex);
+                }
+            }
+            if (outputStream == null) {
+                throw new IOException("Upload was already finished");
+            }
             outputStream.write(data);
             totalBytesWritten += data.length;
+            nextChunkIndex++;
+            notifyAll();
             return totalBytesWritten;
         }
 
-        public File finishAndGetFile() throws IOException {
+        public synchronized File finishAndGetFile() throws IOException {
             outputStream.close();
             outputStream = null;
             return tempFile;
@@ -102,6 +138,7 @@ public class FileDataServiceImpl extends DataServiceImpl implements FileDataServ
             // dispose temp file
             TempFileServiceAccess.getInstance().disposeManagedTempDirOrFile(tempFile);
             tempFile = null;
+            notifyAll();
         }
 
         public synchronized DataReference getDataReference() {
@@ -110,6 +147,26 @@ public class FileDataServiceImpl extends DataServiceImpl implements FileDataServ
 
         public synchronized void setAsyncException(IOException asyncException) {
             this.asyncException = asyncException;
+            notifyAll();
+        }
+
+        /**
+         * Waits until the data reference or an asynchronous exception is set, or the given time has elapsed.
+         */
+        public synchronized void awaitResult(long maxWaitMsec) throws InterruptedIOException {
+            long deadline = System.currentTimeMillis() + maxWaitMsec;
+            while (dataReference == null && asyncException == null) {
+                long remainingTime = deadline - System.currentTimeMillis();
+                if (remainingTime <= 0) {
+                    return;
+                }
+                try {
+                    wait(remainingTime);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Interrupted while waiting for the data reference of an upload");
+                }
+            }
         }
 
         public synchronized IOException getAsyncException() {
@@ -212,16 +269,16 @@ public class FileDataServiceImpl extends DataServiceImpl implements FileDataServ
 
     @Override
     @AllowRemoteAccess
-    public long appendToUpload(User user, String id, byte[] data) throws IOException {
+    public long appendToUpload(User user, String id, Long chunkIndex, byte[] data) throws IOException {
         final UploadHolder upload = safeGetUploadById(id);
 
         // TODO keep track of "last updated" time; implement cleanup of abandoned uploads
-        return upload.appendData(data);
+        return upload.appendChunk(chunkIndex, data);
     }
 
     @Override
     @AllowRemoteAccess
-    public void finishUpload(final User user, String id, final MetaDataSet metaDataSet) throws IOException {
+    public DataReference finishUpload(final User user, String id, final MetaDataSet metaDataSet) throws IOException {
         final UploadHolder upload = safeGetUploadById(id);
 
         final File tempFile = upload.finishAndGetFile();
@@ -259,12 +316,16 @@ public class FileDataServiceImpl extends DataServiceImpl implements FileDataServ
                 }
             }
         });
+
+        // small uploads are usually converted within this time, which saves the caller a polling round-trip
+        return pollUploadForDataReference(user, id);
     }
 
     @Override
     @AllowRemoteAccess
     public DataReference pollUploadForDataReference(User user, String id) throws IOException {
         final UploadHolder upload = safeGetUploadById(id);
+        upload.awaitResult(DATA_REFERENCE_MAX_WAIT_MSEC);
         DataReference reference = upload.getDataReference();
         if (reference != null) {
             // delete upload data once the reference has been fetched
@@ -9,6 +9,7 @@
 package de.rcenvironment.core.datamanagement.internal;
 
 import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
@@ -17,9 +18,11 @@ import de.rcenvironment.core.datamanagement.backend.MetaDataBackendService;
 import de.rcenvironment.core.datamanagement.commons.ComponentInstance;
 import de.rcenvironment.core.datamanagement.commons.ComponentRun;
 import de.rcenvironment.core.datamanagement.commons.EndpointData;
+import de.rcenvironment.core.datamanagement.commons.EndpointDatumRecord;
 import de.rcenvironment.core.datamanagement.commons.EndpointInstance;
 import de.rcenvironment.core.datamanagement.commons.WorkflowRun;
 import de.rcenvironment.core.datamanagement.commons.WorkflowRunDescription;
+import de.rcenvironment.core.datamanagement.commons.WorkflowRunDescriptionCursor;
 import de.rcenvironment.core.datamanagement.commons.WorkflowRunTimline;
 import de.rcenvironment.core.datamodel.api.FinalComponentState;
 import de.rcenvironment.core.datamodel.api.FinalWorkflowState;
@@ -68,6 +71,24 @@ public class MetaDataServiceImpl implements MetaDataService {
         return metaDataBackendService.addOutputDatum(componentRunId, endpointInstanceId, datum, count);
     }
 
+    @Override
+    @AllowRemoteAccess
+    public List<Long> reserveTypedDatumIds(Integer count) {
+        return metaDataBackendService.reserveTypedDatumIds(count);
+    }
+
+    @Override
+    @AllowRemoteAccess
+    public void addEndpointData(Long componentRunId, List<EndpointDatumRecord> endpointData) {
+        metaDataBackendService.addEndpointData(componentRunId, endpointData);
+    }
+
+    @Override
+    @AllowRemoteAccess
+    public void releaseTypedDatumIds(List<Long> typedDatumIds) {
+        metaDataBackendService.releaseTypedDatumIds(typedDatumIds);
+    }
+
     @Override
     public void addWorkflowRunProperties(Long workflowRunId, Map<String, String> properties) {
         metaDataBackendService.addWorkflowRunProperties(workflowRunId, properties);
@@ -113,6 +134,12 @@ public class MetaDataServiceImpl implements MetaDataService {
         return metaDataBackendService.getWorkflowRunDescriptions();
     }
 
+    @Override
+    @AllowRemoteAccess
+    public List<WorkflowRunDescription> getWorkflowRunDescriptions(WorkflowRunDescriptionCursor cursor, Integer maxCount) {
+        return metaDataBackendService.getWorkflowRunDescriptions(cursor, maxCount);
+    }
+
     @Override
     @AllowRemoteAccess
     public WorkflowRun getWorkflowRun(Long workflowRunId) {
@@ -120,6 +147,13 @@ public class MetaDataServiceImpl implements MetaDataService {
     }
 
     @Override
+    @AllowRemoteAccess
+    public Collection<ComponentInstance> getComponentInstances(Long workflowRunId) {
+        return metaDataBackendService.getComponentInstances(workflowRunId);
+    }
+
+    @Override
+    @AllowRemoteAccess
     public Collection<ComponentRun> getComponentRuns(Long componentInstanceId) {
         return metaDataBackendService.getComponentRuns(componentInstanceId);
     }
@@ -171,6 +205,12 @@ public class MetaDataServiceImpl implements MetaDataService {
         return metaDataBackendService.deleteWorkflowRun(workflowRunId);
     }
 
+    @Override
+    @AllowRemoteAccess
+    public Integer deleteWorkflowRuns(List<Long> workflowRunIds) {
+        return metaDataBackendService.deleteWorkflowRuns(workflowRunIds);
+    }
+
     @Override
     @AllowRemoteAccess
     public Boolean deleteWorkflowRunFiles(Long workflowRunId) {
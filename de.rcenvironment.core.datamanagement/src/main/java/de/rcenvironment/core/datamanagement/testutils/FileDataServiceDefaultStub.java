@@ -50,12 +50,14 @@ public class FileDataServiceDefaultStub implements FileDataService {
     }
 
     @Override
-    public long appendToUpload(User user, String id, byte[] data) throws IOException {
+    public long appendToUpload(User user, String id, Long chunkIndex, byte[] data) throws IOException {
         return 0;
     }
 
     @Override
-    public void finishUpload(User user, String id, MetaDataSet metaDataSet) throws IOException {}
+    public DataReference finishUpload(User user, String id, MetaDataSet metaDataSet) throws IOException {
+        return null;
+    }
 
     @Override
     public DataReference pollUploadForDataReference(User user, String id) {
@@ -0,0 +1,130 @@
+/*
+ * Copyright (C) 2006-2014 DLR, Germany
+ *
+ * All rights reserved
+ *
+ * http://www.rcenvironment.de/
+ */
+
+package de.rcenvironment.core.datamodel.api;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Iterator;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import de.rcenvironment.core.datamodel.testutils.TypedDatumServiceDefaultStub;
+import de.rcenvironment.core.datamodel.types.api.FloatTD;
+import de.rcenvironment.core.datamodel.types.api.IntegerTD;
+import de.rcenvironment.core.datamodel.types.api.ShortTextTD;
+
+/**
+ * Tests for {@link BigTableWriter} and {@link BigTableReader}.
+ *
+ * @author agent
+ */
+public class BigTableWriterTest {
+
+    private static final int CHUNK_ROW_COUNT = 100;
+
+    // not a multiple of the chunk size, so the last chunk is a partial one
+    private static final int ROW_COUNT = 1050;
+
+    private static final int COLUMN_COUNT = 3;
+
+    private static TypedDatumFactory factory;
+
+    private static TypedDatumBinarySerializer serializer;
+
+    /**
+     * Initialization method.
+     */
+    @BeforeClass
+    public static void setUpBeforeClass() {
+        TypedDatumService typedDatumService = new TypedDatumServiceDefaultStub();
+        factory = typedDatumService.getFactory();
+        serializer = typedDatumService.getBinarySerializer();
+    }
+
+    /**
+     * Writes a table spanning several chunks and reads it back row by row.
+     *
+     * @throws IOException on unexpected errors
+     */
+    @Test
+    public void testRowRoundTrip() throws IOException {
+        byte[] data = writeTestTable();
+
+        BigTableReader reader = new BigTableReader(new ByteArrayInputStream(data), serializer);
+        assertEquals(COLUMN_COUNT, reader.getColumnCount());
+        Iterator<TypedDatum[]> rows = reader.rowIterator();
+        for (int i = 0; i < ROW_COUNT; i++) {
+            assertTrue(rows.hasNext());
+            TypedDatum[] row = rows.next();
+            assertEquals(i, ((IntegerTD) row[0]).getIntValue());
+            assertEquals(i / 2.0, ((FloatTD) row[1]).getFloatValue(), 0.0);
+            if (i % 2 == 0) {
+                assertEquals("row " + i, ((ShortTextTD) row[2]).getShortTextValue());
+            } else {
+                assertNull(row[2]);
+            }
+        }
+        assertFalse(rows.hasNext());
+        assertEquals(ROW_COUNT, reader.getRowCount());
+        reader.close();
+    }
+
+    /**
+     * Reads a single column chunk by chunk.
+     *
+     * @throws IOException on unexpected errors
+     */
+    @Test
+    public void testColumnAccess() throws IOException {
+        BigTableReader reader = new BigTableReader(new ByteArrayInputStream(writeTestTable()), serializer);
+        long rowIndex = 0;
+        while (reader.nextChunk()) {
+            assertTrue(reader.getChunkRowCount() <= CHUNK_ROW_COUNT);
+            for (TypedDatum cell : reader.getChunkColumn(0)) {
+                assertEquals(rowIndex++, ((IntegerTD) cell).getIntValue());
+            }
+        }
+        assertEquals(ROW_COUNT, rowIndex);
+        assertEquals(ROW_COUNT, reader.getRowCount());
+        reader.close();
+    }
+
+    /**
+     * Verifies that cell types that are not valid for tables are rejected.
+     *
+     * @throws IOException on unexpected errors
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidCellType() throws IOException {
+        BigTableWriter writer = new BigTableWriter(new ByteArrayOutputStream(), 1, serializer);
+        writer.writeRow(new TypedDatum[] { factory.createVector(1) });
+    }
+
+    private byte[] writeTestTable() throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        BigTableWriter writer = new BigTableWriter(output, COLUMN_COUNT, CHUNK_ROW_COUNT, serializer);
+        for (int i = 0; i < ROW_COUNT; i++) {
+            TypedDatum text = null;
+            if (i % 2 == 0) {
+                text = factory.createShortText("row " + i);
+            }
+            writer.writeRow(new TypedDatum[] { factory.createInteger(i), factory.createFloat(i / 2.0), text });
+        }
+        assertEquals(ROW_COUNT, writer.getRowCount());
+        writer.close();
+        return output.toByteArray();
+    }
+}
@@ -0,0 +1,189 @@
+/*
+ * Copyright (C) 2006-2014 DLR, Germany
+ * 
+ * All rights reserved
+ * 
+ * http://www.rcenvironment.de/
+ */
+
+package de.rcenvironment.core.datamodel.internal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.Date;
+import java.util.EnumSet;
+import java.util.Set;
+
+import org.apache.commons.logging.LogFactory;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import de.rcenvironment.core.datamodel.api.DataType;
+import de.rcenvironment.core.datamodel.api.TypedDatum;
+import de.rcenvironment.core.datamodel.api.TypedDatumBinarySerializer;
+import de.rcenvironment.core.datamodel.types.api.DirectoryReferenceTD;
+import de.rcenvironment.core.datamodel.types.api.FileReferenceTD;
+import de.rcenvironment.core.datamodel.types.api.MatrixTD;
+import de.rcenvironment.core.datamodel.types.api.SmallTableTD;
+import de.rcenvironment.core.datamodel.types.api.VectorTD;
+
+/**
+ * Tests for {@link BinaryTypedDatumSerializer}.
+ * 
+ * @author agent
+ */
+public class BinaryTypedDatumSerializerTest {
+
+    private static final int BENCHMARK_MATRIX_SIZE = 1000;
+
+    private static final double NANOS_PER_MSEC = 1e6;
+
+    private static final long TEST_TIMESTAMP = 1400000000000L;
+
+    private static DefaultTypedDatumFactory factory;
+
+    private static DefaultTypedDatumSerializer jsonSerializer;
+
+    private static BinaryTypedDatumSerializer binarySerializer;
+
+    /**
+     * Initialization method.
+     */
+    @BeforeClass
+    public static void setUpBeforeClass() {
+        factory = new DefaultTypedDatumFactory();
+        jsonSerializer = new DefaultTypedDatumSerializer();
+        binarySerializer = new BinaryTypedDatumSerializer();
+    }
+
+    /**
+     * Verifies round-trips for all serializable {@link DataType}s, and that all other types are rejected. The restored values are compared
+     * via their JSON representation.
+     */
+    @Test
+    public void testRoundTripsForAllDataTypes() {
+        Set<DataType> unsupportedTypes = EnumSet.of(DataType.StructuredData, DataType.Internal);
+        Set<DataType> testedTypes = EnumSet.noneOf(DataType.class);
+
+        VectorTD vector = factory.createVector(3);
+        vector.setFloatTDForElement(factory.createFloat(-1.5), 0);
+        vector.setFloatTDForElement(factory.createFloat(Double.MAX_VALUE), 2);
+        MatrixTD matrix = factory.createMatrix(2, 3);
+        matrix.setFloatTDForElement(factory.createFloat(Math.E), 1, 2);
+        SmallTableTD smallTable = factory.createSmallTable(2, 2);
+        smallTable.setTypedDatumForCell(factory.createShortText("cell"), 0, 1);
+        smallTable.setTypedDatumForCell(factory.createInteger(-2), 1, 0);
+        FileReferenceTD fileReference = factory.createFileReference("ref-id", "file.txt");
+        fileReference.setFileSize(Integer.MAX_VALUE + 1L);
+        fileReference.setLastModified(new Date(TEST_TIMESTAMP));
+        DirectoryReferenceTD directoryReference = factory.createDirectoryReference("dir-ref-id", "dir");
+        directoryReference.setDirectorySize(2);
+
+        TypedDatum[] testValues = new TypedDatum[] {
+            factory.createShortText("short text \u00e4"),
+            factory.createBoolean(true),
+            factory.createInteger(Long.MIN_VALUE),
+            factory.createFloat(-0.1),
+            vector,
+            matrix,
+            smallTable,
+            factory.createDateTime(TEST_TIMESTAMP),
+            fileReference,
+            factory.createFileReference("ref-id-2", "file2.txt"),
+            directoryReference,
+            factory.createEmpty(),
+            factory.createNotAValue("nav-id"),
+            factory.createBigTable("big-table-ref-id", Integer.MAX_VALUE + 1L, 2)
+        };
+
+        for (TypedDatum original : testValues) {
+            TypedDatum restored = binarySerializer.deserialize(binarySerializer.serialize(original));
+            assertEquals(original.getDataType(), restored.getDataType());
+            assertEquals(jsonSerializer.serialize(original), jsonSerializer.serialize(restored));
+            testedTypes.add(original.getDataType());
+        }
+
+        for (DataType type : DataType.values()) {
+            if (unsupportedTypes.contains(type)) {
+                continue;
+            }
+            assertTrue("Round-trip not tested for " + type, testedTypes.contains(type));
+        }
+    }
+
+    /**
+     * Verifies that unsupported types are rejected with an {@link IllegalArgumentException}, and that data in an unknown format version
+     * is rejected.
+     */
+    @Test
+    public void testRejectedInput() {
+        try {
+            binarySerializer.serialize(new StructuredDataStub());
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertTrue(true);
+        }
+        byte[] data = binarySerializer.serialize(factory.createBoolean(false));
+        data[0] = TypedDatumBinarySerializer.FORMAT_VERSION + 1;
+        try {
+            binarySerializer.deserialize(data);
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertTrue(true);
+        }
+    }
+
+    /**
+     * Compares the JSON and binary serialization paths for a large matrix, and logs the measured times and data sizes.
+     */
+    @Test
+    public void testMatrixSerializationBenchmark() {
+        MatrixTD matrix = factory.createMatrix(BENCHMARK_MATRIX_SIZE, BENCHMARK_MATRIX_SIZE);
+        for (int i = 0; i < BENCHMARK_MATRIX_SIZE; i++) {
+            for (int j = 0; j < BENCHMARK_MATRIX_SIZE; j++) {
+                matrix.setFloatTDForElement(factory.createFloat(i * Math.PI + j), i, j);
+            }
+        }
+
+        long startTime = System.nanoTime();
+        String json = jsonSerializer.serialize(matrix);
+        long jsonSerializationTime = System.nanoTime() - startTime;
+        startTime = System.nanoTime();
+        MatrixTD jsonRestored = (MatrixTD) jsonSerializer.deserialize(json);
+        long jsonDeserializationTime = System.nanoTime() - startTime;
+
+        startTime = System.nanoTime();
+        byte[] binary = binarySerializer.serialize(matrix);
+        long binarySerializationTime = System.nanoTime() - startTime;
+        startTime = System.nanoTime();
+        MatrixTD binaryRestored = (MatrixTD) binarySerializer.deserialize(binary);
+        long binaryDeserializationTime = System.nanoTime() - startTime;
+
+        int last = BENCHMARK_MATRIX_SIZE - 1;
+        assertEquals(matrix.getFloatTDOfElement(last, last).getFloatValue(),
+            jsonRestored.getFloatTDOfElement(last, last).getFloatValue(), 0.0);
+        assertEquals(matrix.getFloatTDOfElement(last, last).getFloatValue(),
+            binaryRestored.getFloatTDOfElement(last, last).getFloatValue(), 0.0);
+
+        LogFactory.getLog(getClass()).info(String.format("%dx%d matrix: JSON: %d chars, %.1f msec serialization, "
+            + "%.1f msec deserialization; binary: %d bytes, %.1f msec serialization, %.1f msec deserialization",
+            BENCHMARK_MATRIX_SIZE, BENCHMARK_MATRIX_SIZE,
+            json.length(), jsonSerializationTime / NANOS_PER_MSEC, jsonDeserializationTime / NANOS_PER_MSEC,
+            binary.length, binarySerializationTime / NANOS_PER_MSEC, binaryDeserializationTime / NANOS_PER_MSEC));
+    }
+
+    /**
+     * Minimal {@link TypedDatum} of an unsupported type.
+     * 
+     * @author agent
+     */
+    private static final class StructuredDataStub implements TypedDatum {
+
+        @Override
+        public DataType getDataType() {
+            return DataType.StructuredData;
+        }
+    }
+}
@@ -242,6 +242,42 @@ public class DefaultTypedDatumFactoryTest {
         Assert.assertEquals(0.0, m.getFloatTDOfElement(1, 1).getFloatValue(), 0.0);
     }
 
+    /**
+     * Test for creating {@link VectorTD} and {@link MatrixTD} data types from double arrays, and for their bulk accessors.
+     */
+    @Test
+    public void testCreateVectorAndMatrixFromDoubleArrays() {
+        double[] vectorEntries = { 1.0, 2.5, -3.0 };
+        VectorTD vector = factory.createVector(vectorEntries);
+        vectorEntries[0] = 0.0; // must not affect the vector
+        Assert.assertEquals(3, vector.getRowDimension());
+        Assert.assertEquals(factory.createFloat(1.0), vector.getFloatTDOfElement(0));
+        Assert.assertArrayEquals(new double[] { 1.0, 2.5, -3.0 }, vector.toDoubleArray(), 0.0);
+        Assert.assertEquals(factory.createVector(vector.toArray()), vector);
+        Assert.assertArrayEquals(new double[] { 2.5 }, vector.getSubVector(1, 2).toDoubleArray(), 0.0);
+
+        double[][] matrixEntries = { { 1.0, 2.0, 3.0 }, { 4.0, 5.0, 6.0 } };
+        MatrixTD matrix = factory.createMatrix(matrixEntries);
+        matrixEntries[0][0] = 0.0; // must not affect the matrix
+        Assert.assertEquals(2, matrix.getRowDimension());
+        Assert.assertEquals(3, matrix.getColumnDimension());
+        Assert.assertEquals(factory.createFloat(6.0), matrix.getFloatTDOfElement(1, 2));
+        Assert.assertArrayEquals(new double[] { 4.0, 5.0, 6.0 }, matrix.getRow(1), 0.0);
+        Assert.assertArrayEquals(new double[] { 1.0, 2.0, 3.0 }, matrix.toDoubleArray()[0], 0.0);
+        Assert.assertArrayEquals(new double[] { 3.0, 6.0 }, matrix.getColumnVector(2).toDoubleArray(), 0.0);
+        Assert.assertEquals(factory.createMatrix(matrix.toArray()), matrix);
+
+        MatrixTD subMatrix = matrix.getSubMatrix(0, 1, 2, 3);
+        Assert.assertEquals(2, subMatrix.getColumnDimension());
+        Assert.assertArrayEquals(new double[] { 5.0, 6.0 }, subMatrix.getRow(1), 0.0);
+
+        matrix.setFloatTDForElement(factory.createFloat(-1.0), 0, 0);
+        Assert.assertEquals(-1.0, matrix.getRow(0)[0], 0.0);
+
+        thrown.expect(IllegalArgumentException.class);
+        factory.createMatrix(new double[][] { { 1.0, 2.0 }, { 3.0 } });
+    }
+
     /**
      * Test for creating a {@link SmallTableTD} data type.
      */
@@ -109,6 +109,15 @@ public class DefaultTypedDatumSerializerTest {
         serializer.deserialize("no-json-string");
     }
 
+    /**
+     * Test that a serialized matrix with rows that do not match its declared column count is rejected.
+     */
+    @Test
+    public void testDeserializeMatrixWithInconsistentRowLength() {
+        exception.expect(IllegalArgumentException.class);
+        serializer.deserialize(String.format(JSON_STRING_DIMENSION_ARRAY, DataType.Matrix.getShortName(), 2, 2, "[1.0,2.0],[3.0]"));
+    }
+
     /**
      * Test.
      */
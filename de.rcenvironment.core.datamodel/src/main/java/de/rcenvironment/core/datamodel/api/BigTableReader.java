@@ -0,0 +1,194 @@
+/*
+ * Copyright (C) 2006-2014 DLR, Germany
+ *
+ * All rights reserved
+ *
+ * http://www.rcenvironment.de/
+ */
+
+package de.rcenvironment.core.datamodel.api;
+
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import de.rcenvironment.core.datamodel.types.api.BigTableTD;
+import de.rcenvironment.core.utils.common.BinaryFormatUtils;
+
+/**
+ * Reads the content of a {@link BigTableTD} as written by a {@link BigTableWriter}. Only the current chunk is held in memory, and its
+ * columns are only decoded on first access.
+ *
+ * The content can either be read row by row via {@link #readRow()} or {@link #rowIterator()}, or chunk by chunk via
+ * {@link #nextChunk()} and {@link #getChunkColumn(int)}. Both ways share the same position in the stream, so they should not be mixed.
+ *
+ * @author agent
+ */
+public class BigTableReader implements Closeable {
+
+    private final DataInputStream input;
+
+    private final TypedDatumBinarySerializer serializer;
+
+    private final int columnCount;
+
+    private byte[][] chunkColumnData;
+
+    private TypedDatum[][] chunkColumns;
+
+    private int chunkRowCount;
+
+    private int rowInChunk;
+
+    private boolean endReached;
+
+    private long rowCount = -1;
+
+    public BigTableReader(InputStream input, TypedDatumBinarySerializer serializer) throws IOException {
+        this.input = new DataInputStream(input);
+        this.serializer = serializer;
+        int version = this.input.readUnsignedByte();
+        if (version != BigTableWriter.FORMAT_VERSION) {
+            throw new IOException("Unsupported big table format version: " + version);
+        }
+        this.columnCount = BinaryFormatUtils.readUnsignedVarInt(this.input);
+    }
+
+    public int getColumnCount() {
+        return columnCount;
+    }
+
+    /**
+     * @return the total number of rows; only available after all chunks have been read, -1 before
+     */
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * Advances to the next chunk.
+     *
+     * @return false if there are no more chunks
+     * @throws IOException on read errors or malformed input
+     */
+    public boolean nextChunk() throws IOException {
+        if (endReached) {
+            return false;
+        }
+        chunkRowCount = BinaryFormatUtils.readUnsignedVarInt(input);
+        rowInChunk = 0;
+        if (chunkRowCount == 0) {
+            rowCount = BinaryFormatUtils.readVarLong(input);
+            endReached = true;
+            chunkColumnData = null;
+            chunkColumns = null;
+            return false;
+        }
+        chunkColumnData = new byte[columnCount][];
+        chunkColumns = new TypedDatum[columnCount][];
+        for (int i = 0; i < columnCount; i++) {
+            chunkColumnData[i] = new byte[BinaryFormatUtils.readUnsignedVarInt(input)];
+            input.readFully(chunkColumnData[i]);
+        }
+        return true;
+    }
+
+    /**
+     * @return the number of rows in the current chunk
+     */
+    public int getChunkRowCount() {
+        return chunkRowCount;
+    }
+
+    /**
+     * Returns the cells of a column in the current chunk; the column is decoded on first access.
+     *
+     * @param columnIndex zero-based column index
+     * @return the cells; cells that were written as null are null
+     * @throws IOException on malformed input
+     */
+    public TypedDatum[] getChunkColumn(int columnIndex) throws IOException {
+        if (chunkColumns == null) {
+            throw new IllegalStateException("No current chunk");
+        }
+        if (chunkColumns[columnIndex] == null) {
+            DataInputStream columnInput = new DataInputStream(new ByteArrayInputStream(chunkColumnData[columnIndex]));
+            TypedDatum[] cells = new TypedDatum[chunkRowCount];
+            for (int i = 0; i < chunkRowCount; i++) {
+                cells[i] = serializer.read(columnInput);
+            }
+            chunkColumns[columnIndex] = cells;
+            // the encoded form is no longer needed
+            chunkColumnData[columnIndex] = null;
+        }
+        return chunkColumns[columnIndex];
+    }
+
+    /**
+     * Reads the next row.
+     *
+     * @return the cells of the row, or null if there are no more rows
+     * @throws IOException on read errors or malformed input
+     */
+    public TypedDatum[] readRow() throws IOException {
+        if (chunkColumns == null || rowInChunk == chunkRowCount) {
+            if (!nextChunk()) {
+                return null;
+            }
+        }
+        TypedDatum[] row = new TypedDatum[columnCount];
+        for (int i = 0; i < columnCount; i++) {
+            row[i] = getChunkColumn(i)[rowInChunk];
+        }
+        rowInChunk++;
+        return row;
+    }
+
+    /**
+     * Provides the remaining rows as an {@link Iterator}; read errors are rethrown as {@link IllegalStateException}s.
+     *
+     * @return the row iterator
+     */
+    public Iterator<TypedDatum[]> rowIterator() {
+        return new Iterator<TypedDatum[]>() {
+
+            private TypedDatum[] next;
+
+            @Override
+            public boolean hasNext() {
+                if (next == null) {
+                    try {
+                        next = readRow();
+                    } catch (IOException e) {
+                        throw new IllegalStateException("Failed to read big table row", e);
+                    }
+                }
+                return next != null;
+            }
+
+            @Override
+            public TypedDatum[] next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                TypedDatum[] result = next;
+                next = null;
+                return result;
+            }
+
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+        };
+    }
+
+    @Override
+    public void close() throws IOException {
+        input.close();
+    }
+}
@@ -0,0 +1,156 @@
+/*
+ * Copyright (C) 2006-2014 DLR, Germany
+ *
+ * All rights reserved
+ *
+ * http://www.rcenvironment.de/
+ */
+
+package de.rcenvironment.core.datamodel.api;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+import de.rcenvironment.core.datamodel.types.api.BigTableTD;
+import de.rcenvironment.core.utils.common.BinaryFormatUtils;
+
+/**
+ * Writes the content of a {@link BigTableTD} row by row. Only one chunk of rows is held in memory at any time.
+ *
+ * The written format consists of a header (format version and column count), a sequence of chunks, and a trailer (an empty chunk
+ * followed by the total row count). Each chunk starts with its row count, followed by one block per column; each block is prefixed with
+ * its length in bytes, so readers can skip the columns they are not interested in. Cells are encoded with the
+ * {@link TypedDatumBinarySerializer}.
+ *
+ * @author agent
+ */
+public class BigTableWriter implements Closeable {
+
+    /**
+     * The version of the written format.
+     */
+    public static final int FORMAT_VERSION = 1;
+
+    /**
+     * The default number of rows per chunk.
+     */
+    public static final int DEFAULT_CHUNK_ROW_COUNT = 4096;
+
+    private static final int INITIAL_COLUMN_BUFFER_SIZE = 1024;
+
+    private final DataOutputStream output;
+
+    private final TypedDatumBinarySerializer serializer;
+
+    private final int columnCount;
+
+    private final int chunkRowCount;
+
+    private final ByteArrayOutputStream[] columnBuffers;
+
+    private final DataOutputStream[] columnOutputs;
+
+    private int rowsInChunk;
+
+    private long rowCount;
+
+    private boolean closed;
+
+    public BigTableWriter(OutputStream output, int columnCount, TypedDatumBinarySerializer serializer) throws IOException {
+        this(output, columnCount, DEFAULT_CHUNK_ROW_COUNT, serializer);
+    }
+
+    public BigTableWriter(OutputStream output, int columnCount, int chunkRowCount, TypedDatumBinarySerializer serializer)
+        throws IOException {
+        if (columnCount < 0 || chunkRowCount <= 0) {
+            throw new IllegalArgumentException("Invalid column count or chunk size: " + columnCount + ", " + chunkRowCount);
+        }
+        this.output = new DataOutputStream(output);
+        this.serializer = serializer;
+        this.columnCount = columnCount;
+        this.chunkRowCount = chunkRowCount;
+        this.columnBuffers = new ByteArrayOutputStream[columnCount];
+        this.columnOutputs = new DataOutputStream[columnCount];
+        for (int i = 0; i < columnCount; i++) {
+            columnBuffers[i] = new ByteArrayOutputStream(INITIAL_COLUMN_BUFFER_SIZE);
+            columnOutputs[i] = new DataOutputStream(columnBuffers[i]);
+        }
+        this.output.writeByte(FORMAT_VERSION);
+        BinaryFormatUtils.writeUnsignedVarInt(this.output, columnCount);
+    }
+
+    /**
+     * Appends a row.
+     *
+     * @param row the cells of the row; null cells are preserved, i.e., they are read back as null
+     * @throws IOException on write errors
+     */
+    public void writeRow(TypedDatum[] row) throws IOException {
+        if (closed) {
+            throw new IllegalStateException("Writer is already closed");
+        }
+        if (row.length != columnCount) {
+            throw new IllegalArgumentException("Expected " + columnCount + " cells, but got " + row.length);
+        }
+        for (int i = 0; i < columnCount; i++) {
+            TypedDatum cell = row[i];
+            if (cell != null && cell.getDataType() != DataType.Empty && !cell.getDataType().isValidCellType()) {
+                throw new IllegalArgumentException("Invalid cell type: " + cell.getDataType().getDisplayName());
+            }
+            serializer.write(cell, columnOutputs[i]);
+        }
+        rowsInChunk++;
+        rowCount++;
+        if (rowsInChunk == chunkRowCount) {
+            writeChunk();
+        }
+    }
+
+    /**
+     * @return the number of rows written so far
+     */
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    public int getColumnCount() {
+        return columnCount;
+    }
+
+    /**
+     * Writes any pending rows and the trailer, and closes the underlying stream.
+     *
+     * @throws IOException on write errors
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            if (rowsInChunk > 0) {
+                writeChunk();
+            }
+            BinaryFormatUtils.writeUnsignedVarInt(output, 0);
+            BinaryFormatUtils.writeVarLong(output, rowCount);
+            output.flush();
+        } finally {
+            output.close();
+        }
+    }
+
+    private void writeChunk() throws IOException {
+        BinaryFormatUtils.writeUnsignedVarInt(output, rowsInChunk);
+        for (int i = 0; i < columnCount; i++) {
+            columnOutputs[i].flush();
+            BinaryFormatUtils.writeUnsignedVarInt(output, columnBuffers[i].size());
+            columnBuffers[i].writeTo(output);
+            columnBuffers[i].reset();
+        }
+        rowsInChunk = 0;
+    }
+}
@@ -0,0 +1,62 @@
+/*
+ * Copyright (C) 2006-2014 DLR, Germany
+ * 
+ * All rights reserved
+ * 
+ * http://www.rcenvironment.de/
+ */
+
+package de.rcenvironment.core.datamodel.api;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Defines a compact binary representation of {@link TypedDatum} instances for transmission. Unlike the {@link TypedDatumSerializer} form,
+ * this format is not meant for persistence, as it may change between versions.
+ * 
+ * @author agent
+ */
+public interface TypedDatumBinarySerializer {
+
+    /**
+     * The version of the binary format; written as the first byte of {@link #serialize(TypedDatum)} output. Containers that embed
+     * {@link TypedDatum}s via {@link #write(TypedDatum, DataOutput)} should write and check this version themselves.
+     */
+    int FORMAT_VERSION = 1;
+
+    /**
+     * Converts a {@link TypedDatum} to its binary form, prefixed with the {@link #FORMAT_VERSION}.
+     * 
+     * @param input the {@link TypedDatum}
+     * @return the serialized data
+     */
+    byte[] serialize(TypedDatum input);
+
+    /**
+     * Restores a {@link TypedDatum} from the output of {@link #serialize(TypedDatum)}.
+     * 
+     * @param input the serialized data
+     * @return the restored {@link TypedDatum}
+     */
+    TypedDatum deserialize(byte[] input);
+
+    /**
+     * Writes the binary form of a {@link TypedDatum} (without a format version) to the given output.
+     * 
+     * @param input the {@link TypedDatum}
+     * @param output the output to write to
+     * @throws IOException on write errors
+     */
+    void write(TypedDatum input, DataOutput output) throws IOException;
+
+    /**
+     * Reads a {@link TypedDatum} written by {@link #write(TypedDatum, DataOutput)}.
+     * 
+     * @param input the input to read from
+     * @return the restored {@link TypedDatum}
+     * @throws IOException on read errors or malformed input
+     */
+    TypedDatum read(DataInput input) throws IOException;
+}
@@ -8,6 +8,7 @@
 
 package de.rcenvironment.core.datamodel.api;
 
+import de.rcenvironment.core.datamodel.types.api.BigTableTD;
 import de.rcenvironment.core.datamodel.types.api.BooleanTD;
 import de.rcenvironment.core.datamodel.types.api.DateTimeTD;
 import de.rcenvironment.core.datamodel.types.api.DirectoryReferenceTD;
@@ -67,6 +68,12 @@ public interface TypedDatumFactory {
      */
     VectorTD createVector(FloatTD[] values);
 
+    /**
+     * @param values Given vector entries; the array is copied
+     * @return a {@link VectorTD} instance
+     */
+    VectorTD createVector(double[] values);
+
     /**
      * @param column of the matrix
      * @param row of the matrix
@@ -79,7 +86,21 @@ public interface TypedDatumFactory {
      * @return a {@link MatrixTD} instance
      */
     MatrixTD createMatrix(FloatTD[][] values);
+
+    /**
+     * @param values predefined values for the matrix ([row][column]); all rows must have the same length; the array is copied
+     * @return a {@link MatrixTD} instance
+     */
+    MatrixTD createMatrix(double[][] values);
     
+    /**
+     * @param reference data management reference to the table content, as written by a {@link BigTableWriter}
+     * @param rowCount number of rows
+     * @param columnCount number of columns
+     * @return a {@link BigTableTD} instance
+     */
+    BigTableTD createBigTable(String reference, long rowCount, int columnCount);
+
     /**
      * @param rows row dimension
      * @param columns column dimension
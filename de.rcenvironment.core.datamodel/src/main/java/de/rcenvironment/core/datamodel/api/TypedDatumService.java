@@ -39,4 +39,12 @@ public interface TypedDatumService {
      * @return a ready-to-use {@link TypedDatumSerializer} instance
      */
     TypedDatumSerializer getSerializer();
+
+    /**
+     * Returns the {@link TypedDatumBinarySerializer} to use for transmitting {@link TypedDatum}s. May or may not return the same
+     * instance on every call.
+     * 
+     * @return a ready-to-use {@link TypedDatumBinarySerializer} instance
+     */
+    TypedDatumBinarySerializer getBinarySerializer();
 }
@@ -0,0 +1,282 @@
+/*
+ * Copyright (C) 2006-2014 DLR, Germany
+ * 
+ * All rights reserved
+ * 
+ * http://www.rcenvironment.de/
+ */
+
+package de.rcenvironment.core.datamodel.internal;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Date;
+
+import de.rcenvironment.core.datamodel.api.TypedDatum;
+import de.rcenvironment.core.datamodel.api.TypedDatumBinarySerializer;
+import de.rcenvironment.core.datamodel.types.api.BigTableTD;
+import de.rcenvironment.core.datamodel.types.api.BooleanTD;
+import de.rcenvironment.core.datamodel.types.api.DateTimeTD;
+import de.rcenvironment.core.datamodel.types.api.DirectoryReferenceTD;
+import de.rcenvironment.core.datamodel.types.api.FileReferenceTD;
+import de.rcenvironment.core.datamodel.types.api.FloatTD;
+import de.rcenvironment.core.datamodel.types.api.IntegerTD;
+import de.rcenvironment.core.datamodel.types.api.MatrixTD;
+import de.rcenvironment.core.datamodel.types.api.NotAValueTD;
+import de.rcenvironment.core.datamodel.types.api.ShortTextTD;
+import de.rcenvironment.core.datamodel.types.api.SmallTableTD;
+import de.rcenvironment.core.datamodel.types.api.VectorTD;
+import de.rcenvironment.core.datamodel.types.internal.MatrixTDImpl;
+import de.rcenvironment.core.datamodel.types.internal.VectorTDImpl;
+import de.rcenvironment.core.utils.common.BinaryFormatUtils;
+
+/**
+ * Default {@link TypedDatumBinarySerializer} implementation. Each {@link TypedDatum} is written as a single-byte type tag followed by its
+ * type-specific payload; integer values use varints, and {@link VectorTD} and {@link MatrixTD} values are written as raw IEEE-754 arrays.
+ * 
+ * @author agent
+ */
+public class BinaryTypedDatumSerializer implements TypedDatumBinarySerializer {
+
+    // type tags; these must not be changed without increasing FORMAT_VERSION
+
+    private static final int TAG_NULL = 0;
+
+    private static final int TAG_SHORT_TEXT = 1;
+
+    private static final int TAG_BOOLEAN = 2;
+
+    private static final int TAG_INTEGER = 3;
+
+    private static final int TAG_FLOAT = 4;
+
+    private static final int TAG_VECTOR = 5;
+
+    private static final int TAG_MATRIX = 6;
+
+    private static final int TAG_SMALL_TABLE = 7;
+
+    private static final int TAG_DATE_TIME = 8;
+
+    private static final int TAG_FILE_REFERENCE = 9;
+
+    private static final int TAG_DIRECTORY_REFERENCE = 10;
+
+    private static final int TAG_EMPTY = 11;
+
+    private static final int TAG_NOT_A_VALUE = 12;
+
+    private static final int TAG_BIG_TABLE = 13;
+
+    private static final String UNABLE_TO_SERIALIZE_STRING = "Serialization of %s is not supported.";
+
+    private static final int INITIAL_BUFFER_SIZE = 64;
+
+    private final DefaultTypedDatumFactory factory = new DefaultTypedDatumFactory();
+
+    @Override
+    public byte[] serialize(TypedDatum input) {
+        ByteArrayOutputStream byteStream = new ByteArrayOutputStream(INITIAL_BUFFER_SIZE);
+        DataOutputStream output = new DataOutputStream(byteStream);
+        try {
+            output.writeByte(FORMAT_VERSION);
+            write(input, output);
+            output.flush();
+        } catch (IOException e) {
+            // not expected for in-memory streams
+            throw new IllegalStateException(e);
+        }
+        return byteStream.toByteArray();
+    }
+
+    @Override
+    public TypedDatum deserialize(byte[] input) {
+        DataInputStream dataInput = new DataInputStream(new ByteArrayInputStream(input));
+        try {
+            int version = dataInput.readUnsignedByte();
+            if (version != FORMAT_VERSION) {
+                throw new IllegalArgumentException("Unsupported binary format version: " + version);
+            }
+            return read(dataInput);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Malformed binary typed datum", e);
+        }
+    }
+
+    @Override
+    public void write(TypedDatum input, DataOutput output) throws IOException {
+        if (input == null) {
+            output.writeByte(TAG_NULL);
+            return;
+        }
+        switch (input.getDataType()) {
+        case ShortText:
+            output.writeByte(TAG_SHORT_TEXT);
+            BinaryFormatUtils.writeString(output, ((ShortTextTD) input).getShortTextValue());
+            break;
+        case Boolean:
+            output.writeByte(TAG_BOOLEAN);
+            output.writeBoolean(((BooleanTD) input).getBooleanValue());
+            break;
+        case Integer:
+            output.writeByte(TAG_INTEGER);
+            BinaryFormatUtils.writeVarLong(output, ((IntegerTD) input).getIntValue());
+            break;
+        case Float:
+            output.writeByte(TAG_FLOAT);
+            output.writeDouble(((FloatTD) input).getFloatValue());
+            break;
+        case Vector:
+            output.writeByte(TAG_VECTOR);
+            writeVector((VectorTD) input, output);
+            break;
+        case Matrix:
+            output.writeByte(TAG_MATRIX);
+            writeMatrix((MatrixTD) input, output);
+            break;
+        case SmallTable:
+            output.writeByte(TAG_SMALL_TABLE);
+            SmallTableTD smallTable = (SmallTableTD) input;
+            BinaryFormatUtils.writeUnsignedVarInt(output, smallTable.getRowCount());
+            BinaryFormatUtils.writeUnsignedVarInt(output, smallTable.getColumnCount());
+            for (int i = 0; i < smallTable.getRowCount(); i++) {
+                for (int j = 0; j < smallTable.getColumnCount(); j++) {
+                    write(smallTable.getTypedDatumOfCell(i, j), output);
+                }
+            }
+            break;
+        case DateTime:
+            output.writeByte(TAG_DATE_TIME);
+            BinaryFormatUtils.writeVarLong(output, ((DateTimeTD) input).getDateTimeInMilliseconds());
+            break;
+        case FileReference:
+            output.writeByte(TAG_FILE_REFERENCE);
+            FileReferenceTD fileReference = (FileReferenceTD) input;
+            BinaryFormatUtils.writeString(output, fileReference.getFileReference());
+            BinaryFormatUtils.writeString(output, fileReference.getFileName());
+            BinaryFormatUtils.writeVarLong(output, fileReference.getFileSizeInBytes());
+            Date lastModified = fileReference.getLastModified();
+            output.writeBoolean(lastModified != null);
+            if (lastModified != null) {
+                BinaryFormatUtils.writeVarLong(output, lastModified.getTime());
+            }
+            break;
+        case DirectoryReference:
+            output.writeByte(TAG_DIRECTORY_REFERENCE);
+            DirectoryReferenceTD directoryReference = (DirectoryReferenceTD) input;
+            BinaryFormatUtils.writeString(output, directoryReference.getDirectoryReference());
+            BinaryFormatUtils.writeString(output, directoryReference.getDirectoryName());
+            BinaryFormatUtils.writeVarLong(output, directoryReference.getDirectorySizeInBytes());
+            break;
+        case Empty:
+            output.writeByte(TAG_EMPTY);
+            break;
+        case NotAValue:
+            output.writeByte(TAG_NOT_A_VALUE);
+            BinaryFormatUtils.writeString(output, ((NotAValueTD) input).getIdentifier());
+            break;
+        case BigTable:
+            output.writeByte(TAG_BIG_TABLE);
+            BigTableTD bigTable = (BigTableTD) input;
+            BinaryFormatUtils.writeString(output, bigTable.getBigTableReference());
+            BinaryFormatUtils.writeVarLong(output, bigTable.getRowCount());
+            BinaryFormatUtils.writeUnsignedVarInt(output, bigTable.getColumnCount());
+            break;
+        case StructuredData:
+        case Internal:
+        default:
+            throw new IllegalArgumentException(String.format(UNABLE_TO_SERIALIZE_STRING, input.getDataType().getDisplayName()));
+        }
+    }
+
+    @Override
+    public TypedDatum read(DataInput input) throws IOException {
+        int tag = input.readUnsignedByte();
+        switch (tag) {
+        case TAG_NULL:
+            return null;
+        case TAG_SHORT_TEXT:
+            return factory.createShortText(BinaryFormatUtils.readString(input));
+        case TAG_BOOLEAN:
+            return factory.createBoolean(input.readBoolean());
+        case TAG_INTEGER:
+            return factory.createInteger(BinaryFormatUtils.readVarLong(input));
+        case TAG_FLOAT:
+            return factory.createFloat(input.readDouble());
+        case TAG_VECTOR:
+            return readVector(input);
+        case TAG_MATRIX:
+            return readMatrix(input);
+        case TAG_SMALL_TABLE:
+            int rows = BinaryFormatUtils.readUnsignedVarInt(input);
+            int columns = BinaryFormatUtils.readUnsignedVarInt(input);
+            TypedDatum[][] cells = new TypedDatum[rows][columns];
+            for (int i = 0; i < rows; i++) {
+                for (int j = 0; j < columns; j++) {
+                    cells[i][j] = read(input);
+                }
+            }
+            return factory.createSmallTable(cells);
+        case TAG_DATE_TIME:
+            return factory.createDateTime(BinaryFormatUtils.readVarLong(input));
+        case TAG_FILE_REFERENCE:
+            FileReferenceTD fileReference =
+                factory.createFileReference(BinaryFormatUtils.readString(input), BinaryFormatUtils.readString(input));
+            fileReference.setFileSize(BinaryFormatUtils.readVarLong(input));
+            if (input.readBoolean()) {
+                fileReference.setLastModified(new Date(BinaryFormatUtils.readVarLong(input)));
+            }
+            return fileReference;
+        case TAG_DIRECTORY_REFERENCE:
+            DirectoryReferenceTD directoryReference =
+                factory.createDirectoryReference(BinaryFormatUtils.readString(input), BinaryFormatUtils.readString(input));
+            directoryReference.setDirectorySize(BinaryFormatUtils.readVarLong(input));
+            return directoryReference;
+        case TAG_EMPTY:
+            return factory.createEmpty();
+        case TAG_NOT_A_VALUE:
+            return factory.createNotAValue(BinaryFormatUtils.readString(input));
+        case TAG_BIG_TABLE:
+            return factory.createBigTable(BinaryFormatUtils.readString(input), BinaryFormatUtils.readVarLong(input),
+                BinaryFormatUtils.readUnsignedVarInt(input));
+        default:
+            throw new IOException("Unknown type tag: " + tag);
+        }
+    }
+
+    private void writeVector(VectorTD vector, DataOutput output) throws IOException {
+        double[] values = vector.toDoubleArray();
+        BinaryFormatUtils.writeUnsignedVarInt(output, values.length);
+        BinaryFormatUtils.writeDoubles(output, values);
+    }
+
+    private VectorTD readVector(DataInput input) throws IOException {
+        double[] values = new double[BinaryFormatUtils.readUnsignedVarInt(input)];
+        BinaryFormatUtils.readDoubles(input, values);
+        return new VectorTDImpl(values);
+    }
+
+    private void writeMatrix(MatrixTD matrix, DataOutput output) throws IOException {
+        int rows = matrix.getRowDimension();
+        BinaryFormatUtils.writeUnsignedVarInt(output, rows);
+        BinaryFormatUtils.writeUnsignedVarInt(output, matrix.getColumnDimension());
+        // row-major order
+        for (int i = 0; i < rows; i++) {
+            BinaryFormatUtils.writeDoubles(output, matrix.getRow(i));
+        }
+    }
+
+    private MatrixTD readMatrix(DataInput input) throws IOException {
+        int rows = BinaryFormatUtils.readUnsignedVarInt(input);
+        int columns = BinaryFormatUtils.readUnsignedVarInt(input);
+        double[] values = new double[rows * columns];
+        BinaryFormatUtils.readDoubles(input, values);
+        return new MatrixTDImpl(rows, columns, values);
+    }
+
+}
@@ -21,6 +21,7 @@ import de.rcenvironment.core.datamodel.types.api.SmallTableTD;
 import de.rcenvironment.core.datamodel.types.api.VectorTD;
 import de.rcenvironment.core.datamodel.types.internal.MatrixTDImpl;
 import de.rcenvironment.core.datamodel.types.internal.SmallTableTDImpl;
+import de.rcenvironment.core.datamodel.types.internal.VectorTDImpl;
 
 /**
  * Default {@link TypedDatumConverter} implementation.
@@ -79,16 +80,11 @@ class DefaultTypedDatumConverter implements TypedDatumConverter {
             return castOrConvert(factory.createFloat((double) integerDatum.getIntValue()), targetType);
         case Float:
             FloatTD floatDatum = (FloatTD) input;
-            VectorTD vector = factory.createVector(1);
-            vector.setFloatTDForElement(floatDatum, 0);
-            return castOrConvert(vector, targetType);
+            return castOrConvert(new VectorTDImpl(new double[] { floatDatum.getFloatValue() }), targetType);
         case Vector:
             VectorTD vectorDatum = (VectorTD) input;
-            FloatTD[][] matrixEntries = new FloatTD[vectorDatum.getRowDimension()][1];
-            for (int i = 0; i < vectorDatum.getRowDimension(); i++) {
-                matrixEntries[i][0] = vectorDatum.getFloatTDOfElement(i);
-            }
-            return castOrConvert(new MatrixTDImpl(matrixEntries), targetType);
+            // a vector is a single-column matrix, so the row-major order equals the vector order
+            return castOrConvert(new MatrixTDImpl(vectorDatum.getRowDimension(), 1, vectorDatum.toDoubleArray()), targetType);
         case Matrix:
             MatrixTD matrixDatum = (MatrixTD) input;
             return castOrConvert(new SmallTableTDImpl(matrixDatum.toArray()), targetType);
@@ -10,6 +10,7 @@ package de.rcenvironment.core.datamodel.internal;
 
 import de.rcenvironment.core.datamodel.api.TypedDatum;
 import de.rcenvironment.core.datamodel.api.TypedDatumFactory;
+import de.rcenvironment.core.datamodel.types.api.BigTableTD;
 import de.rcenvironment.core.datamodel.types.api.BooleanTD;
 import de.rcenvironment.core.datamodel.types.api.DateTimeTD;
 import de.rcenvironment.core.datamodel.types.api.DirectoryReferenceTD;
@@ -22,6 +23,7 @@ import de.rcenvironment.core.datamodel.types.api.MatrixTD;
 import de.rcenvironment.core.datamodel.types.api.ShortTextTD;
 import de.rcenvironment.core.datamodel.types.api.SmallTableTD;
 import de.rcenvironment.core.datamodel.types.api.VectorTD;
+import de.rcenvironment.core.datamodel.types.internal.BigTableImpl;
 import de.rcenvironment.core.datamodel.types.internal.BooleanTDImpl;
 import de.rcenvironment.core.datamodel.types.internal.DateTimeTDImpl;
 import de.rcenvironment.core.datamodel.types.internal.DirectoryReferenceTDImpl;
@@ -69,11 +71,7 @@ public class DefaultTypedDatumFactory implements TypedDatumFactory {
         if (dimension < 0) {
             throw new IllegalArgumentException("dimension must greater than 0");
         }
-        FloatTD[] values = new FloatTD[dimension];
-        for (int i = 0; i < dimension; i++) {
-            values[i] = createFloat(0.0);
-        }
-        return new VectorTDImpl(values);
+        return new VectorTDImpl(new double[dimension]);
     }
 
     @Override
@@ -84,28 +82,49 @@ public class DefaultTypedDatumFactory implements TypedDatumFactory {
         return new VectorTDImpl(values);
     }
 
+    @Override
+    public VectorTD createVector(double[] values) {
+        if (values == null) {
+            throw new NullPointerException();
+        }
+        return new VectorTDImpl(values.clone());
+    }
+
     @Override
     public MatrixTD createMatrix(int rows, int columns) {
         if (rows < 0 || columns < 0) {
             throw new IllegalArgumentException("rows and columms must greater than 0");
         }
-        FloatTD[][] values = new FloatTD[rows][columns];
-        for (int i = 0; i < rows; i++) {
-            for (int j = 0; j < columns; j++) {
-                values[i][j] = createFloat(0.0);
-            }
+        return new MatrixTDImpl(rows, columns);
+    }
+
+    @Override
+    public MatrixTD createMatrix(FloatTD[][] values) {
+        if (values == null) {
+            throw new NullPointerException();
         }
         return new MatrixTDImpl(values);
     }
 
     @Override
-    public MatrixTD createMatrix(FloatTD[][] values) {
+    public MatrixTD createMatrix(double[][] values) {
         if (values == null) {
             throw new NullPointerException();
         }
         return new MatrixTDImpl(values);
     }
 
+    @Override
+    public BigTableTD createBigTable(String reference, long rowCount, int columnCount) {
+        if (reference == null) {
+            throw new NullPointerException();
+        }
+        if (rowCount < 0 || columnCount < 0) {
+            throw new IllegalArgumentException("rows and columms must not be negative");
+        }
+        return new BigTableImpl(reference, rowCount, columnCount);
+    }
+
     @Override
     public SmallTableTD createSmallTable(int rows, int columns) {
         if (rows < 0 || columns < 0) {
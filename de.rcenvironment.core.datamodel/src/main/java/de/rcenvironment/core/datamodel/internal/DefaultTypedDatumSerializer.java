@@ -23,6 +23,7 @@ import org.codehaus.jackson.node.ObjectNode;
 import de.rcenvironment.core.datamodel.api.DataType;
 import de.rcenvironment.core.datamodel.api.TypedDatum;
 import de.rcenvironment.core.datamodel.api.TypedDatumSerializer;
+import de.rcenvironment.core.datamodel.types.api.BigTableTD;
 import de.rcenvironment.core.datamodel.types.api.DateTimeTD;
 import de.rcenvironment.core.datamodel.types.api.DirectoryReferenceTD;
 import de.rcenvironment.core.datamodel.types.api.FileReferenceTD;
@@ -32,6 +33,8 @@ import de.rcenvironment.core.datamodel.types.api.IntegerTD;
 import de.rcenvironment.core.datamodel.types.api.MatrixTD;
 import de.rcenvironment.core.datamodel.types.api.SmallTableTD;
 import de.rcenvironment.core.datamodel.types.api.VectorTD;
+import de.rcenvironment.core.datamodel.types.internal.MatrixTDImpl;
+import de.rcenvironment.core.datamodel.types.internal.VectorTDImpl;
 
 /**
  * Default {@link TypedDatumSerializer} implementation.
@@ -58,6 +61,8 @@ public class DefaultTypedDatumSerializer implements TypedDatumSerializer {
     private static final String DIRECTORY_SIZE_STRING = "directorySize";
 
     private static final String LAST_MODIFIED_STRING = "lastModified";
+
+    private static final String BIG_TABLE_REFERENCE_STRING = "bigTableReference";
     
     private static final String TYPE_STRING = "t";
 
@@ -69,6 +74,9 @@ public class DefaultTypedDatumSerializer implements TypedDatumSerializer {
     
     private static final Log LOGGER = LogFactory.getLog(DefaultTypedDatumSerializer.class);
 
+    // ObjectMapper instances are thread-safe once configured; sharing one avoids costly re-initialization on each call
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
     @Override
     public TypedDatum deserialize(String input) {
         TypedDatum returnDatum = null;
@@ -79,8 +87,7 @@ public class DefaultTypedDatumSerializer implements TypedDatumSerializer {
 
         DefaultTypedDatumFactory factory = new DefaultTypedDatumFactory();
         try {
-            ObjectMapper mapper = new ObjectMapper();
-            JsonNode rootNode = mapper.readTree(input);
+            JsonNode rootNode = MAPPER.readTree(input);
             DataType dataType = DataType.byShortName(rootNode.get(TYPE_STRING).getTextValue());
             JsonNode valueNode = rootNode.get(VALUE_STRING);
             switch (dataType) {
@@ -100,24 +107,31 @@ public class DefaultTypedDatumSerializer implements TypedDatumSerializer {
                 returnDatum = factory.createDateTime(valueNode.getLongValue());
                 break;
             case Vector:
-                VectorTD vector = factory.createVector(valueNode.size());
-                for (int i = 0; i < valueNode.size(); i++) {
-                    vector.setFloatTDForElement(factory.createFloat(valueNode.get(i).getDoubleValue()), i);
+                double[] vectorValues = new double[valueNode.size()];
+                for (int i = 0; i < vectorValues.length; i++) {
+                    vectorValues[i] = valueNode.get(i).getDoubleValue();
                 }
-                returnDatum = vector;
+                returnDatum = new VectorTDImpl(vectorValues);
                 break;
             case Matrix:
                 ArrayNode matrixArray = (ArrayNode) valueNode;
-                MatrixTD matrix = factory.createMatrix(rootNode.get(ROW_STRING).getIntValue(), rootNode.get(COLUMN_STRING).getIntValue());
-                for (int i = 0; i < matrixArray.size(); i++) {
+                int rows = rootNode.get(ROW_STRING).getIntValue();
+                int columns = rootNode.get(COLUMN_STRING).getIntValue();
+                if (matrixArray.size() != rows) {
+                    throw new IllegalArgumentException("expected " + rows + " rows, but got " + matrixArray.size());
+                }
+                double[] matrixValues = new double[rows * columns];
+                for (int i = 0; i < rows; i++) {
                     ArrayNode matrixRowArray = (ArrayNode) matrixArray.get(i);
-                    for (int j = 0; j < matrixRowArray.size(); j++) {
-                        FloatTD value = factory.createFloat(matrixRowArray.get(j).getDoubleValue());
-                        matrix.setFloatTDForElement(value,
-                            i, j);
+                    if (matrixRowArray.size() != columns) {
+                        throw new IllegalArgumentException("all rows must have the same length; row " + i + " has "
+                            + matrixRowArray.size() + " entries instead of " + columns);
+                    }
+                    for (int j = 0; j < columns; j++) {
+                        matrixValues[i * columns + j] = matrixRowArray.get(j).getDoubleValue();
                     }
                 }
-                returnDatum = matrix;
+                returnDatum = new MatrixTDImpl(rows, columns, matrixValues);
                 break;
             case SmallTable:
                 SmallTableTD smallTable =
@@ -154,8 +168,11 @@ public class DefaultTypedDatumSerializer implements TypedDatumSerializer {
                 directoryReference.setDirectorySize(valueNode.get(DIRECTORY_SIZE_STRING).getLongValue());
                 returnDatum = directoryReference;
                 break;
-            case StructuredData:
             case BigTable:
+                returnDatum = factory.createBigTable(valueNode.get(BIG_TABLE_REFERENCE_STRING).getTextValue(),
+                    valueNode.get(ROW_STRING).getLongValue(), valueNode.get(COLUMN_STRING).getIntValue());
+                break;
+            case StructuredData:
             default:
                 throw new IllegalArgumentException(String.format(UNABLE_TO_DESERIALIZE_STRING, input));
             }
@@ -176,8 +193,7 @@ public class DefaultTypedDatumSerializer implements TypedDatumSerializer {
 
     @Override
     public String serialize(TypedDatum input) {
-        ObjectMapper mapper = new ObjectMapper();
-        ObjectNode rootNode = mapper.createObjectNode();
+        ObjectNode rootNode = MAPPER.createObjectNode();
         if (input == null || input.getDataType() == null) {
             throw new NullPointerException();
         }
@@ -201,9 +217,9 @@ public class DefaultTypedDatumSerializer implements TypedDatumSerializer {
             break;
         case Vector:
             VectorTD vector = (VectorTD) input;
-            ArrayNode vectorArray = mapper.createArrayNode();
-            for (int i = 0; i < vector.getRowDimension(); i++) {
-                vectorArray.add(vector.getFloatTDOfElement(i).getFloatValue());
+            ArrayNode vectorArray = MAPPER.createArrayNode();
+            for (double value : vector.toDoubleArray()) {
+                vectorArray.add(value);
             }
             rootNode.put(VALUE_STRING, vectorArray);
             break;
@@ -211,11 +227,11 @@ public class DefaultTypedDatumSerializer implements TypedDatumSerializer {
             MatrixTD matrix = (MatrixTD) input;
             rootNode.put(ROW_STRING, matrix.getRowDimension());
             rootNode.put(COLUMN_STRING, matrix.getColumnDimension());
-            ArrayNode matrixArray = mapper.createArrayNode();
+            ArrayNode matrixArray = MAPPER.createArrayNode();
             for (int i = 0; i < matrix.getRowDimension(); i++) {
-                ArrayNode matrixRowArray = mapper.createArrayNode();
-                for (int j = 0; j < matrix.getColumnDimension(); j++) {
-                    matrixRowArray.add(matrix.getFloatTDOfElement(i, j).getFloatValue());
+                ArrayNode matrixRowArray = MAPPER.createArrayNode();
+                for (double value : matrix.getRow(i)) {
+                    matrixRowArray.add(value);
                 }
                 matrixArray.add(matrixRowArray);
             }
@@ -225,9 +241,9 @@ public class DefaultTypedDatumSerializer implements TypedDatumSerializer {
             SmallTableTD smallTable = (SmallTableTD) input;
             rootNode.put(ROW_STRING, smallTable.getRowCount());
             rootNode.put(COLUMN_STRING, smallTable.getColumnCount());
-            ArrayNode smallTableArray = mapper.createArrayNode();
+            ArrayNode smallTableArray = MAPPER.createArrayNode();
             for (int i = 0; i < smallTable.getRowCount(); i++) {
-                ArrayNode smallTableRowArray = mapper.createArrayNode();
+                ArrayNode smallTableRowArray = MAPPER.createArrayNode();
                 for (int j = 0; j < smallTable.getColumnCount(); j++) {
                     smallTableRowArray.addPOJO(serialize(smallTable.getTypedDatumOfCell(i, j)));
                 }
@@ -236,7 +252,7 @@ public class DefaultTypedDatumSerializer implements TypedDatumSerializer {
             rootNode.put(VALUE_STRING, smallTableArray);
             break;
         case FileReference:
-            ObjectNode fileObjectNode = mapper.createObjectNode();
+            ObjectNode fileObjectNode = MAPPER.createObjectNode();
             FileReferenceTD fileReference = (FileReferenceTD) input;
             fileObjectNode.put(FILE_REFERENCE_STRING, fileReference.getFileReference());
             fileObjectNode.put(FILE_NAME_STRING, fileReference.getFileName());
@@ -247,7 +263,7 @@ public class DefaultTypedDatumSerializer implements TypedDatumSerializer {
             rootNode.put(VALUE_STRING, fileObjectNode);
             break;
         case DirectoryReference:
-            ObjectNode dirObjectNode = mapper.createObjectNode();
+            ObjectNode dirObjectNode = MAPPER.createObjectNode();
             DirectoryReferenceTD directoryReference = (DirectoryReferenceTD) input;
             dirObjectNode.put(DIRECTORY_REFERENCE_STRING, directoryReference.getDirectoryReference());
             dirObjectNode.put(DIRECTORY_NAME_STRING, directoryReference.getDirectoryName());
@@ -260,6 +276,13 @@ public class DefaultTypedDatumSerializer implements TypedDatumSerializer {
         case Empty:
             break;
         case BigTable:
+            ObjectNode bigTableObjectNode = MAPPER.createObjectNode();
+            BigTableTD bigTable = (BigTableTD) input;
+            bigTableObjectNode.put(BIG_TABLE_REFERENCE_STRING, bigTable.getBigTableReference());
+            bigTableObjectNode.put(ROW_STRING, bigTable.getRowCount());
+            bigTableObjectNode.put(COLUMN_STRING, bigTable.getColumnCount());
+            rootNode.put(VALUE_STRING, bigTableObjectNode);
+            break;
         case StructuredData:
         default:
             throw new IllegalArgumentException(String.format(UNABLE_TO_SERIALIZE_STRING, input.getDataType().getDisplayName()));
@@ -8,6 +8,7 @@
 
 package de.rcenvironment.core.datamodel.internal;
 
+import de.rcenvironment.core.datamodel.api.TypedDatumBinarySerializer;
 import de.rcenvironment.core.datamodel.api.TypedDatumConverter;
 import de.rcenvironment.core.datamodel.api.TypedDatumFactory;
 import de.rcenvironment.core.datamodel.api.TypedDatumSerializer;
@@ -24,6 +25,8 @@ public class TypedDatumServiceImpl implements TypedDatumService {
 
     private TypedDatumSerializer serializer = new DefaultTypedDatumSerializer();
 
+    private TypedDatumBinarySerializer binarySerializer = new BinaryTypedDatumSerializer();
+
     private TypedDatumFactory factory = new DefaultTypedDatumFactory();
 
     @Override
@@ -41,4 +44,9 @@ public class TypedDatumServiceImpl implements TypedDatumService {
         return serializer;
     }
 
+    @Override
+    public TypedDatumBinarySerializer getBinarySerializer() {
+        return binarySerializer;
+    }
+
 }
@@ -8,15 +8,37 @@
 
 package de.rcenvironment.core.datamodel.types.api;
 
+import de.rcenvironment.core.datamodel.api.BigTableReader;
+import de.rcenvironment.core.datamodel.api.BigTableWriter;
+import de.rcenvironment.core.datamodel.api.DataType;
 import de.rcenvironment.core.datamodel.api.TypedDatum;
 
 /**
  * A table of arbitrary size that is partially loaded into RAM on access. Each cell has its
- * individual data type. Valid cell data types are defined by the {@link #isAllowedAsCellType()}
- * method.
+ * individual data type. Valid cell data types are defined by the {@link DataType#isValidCellType()}
+ * method; in addition, cells may be empty.
+ * 
+ * The table content is not part of this object; it is stored in the data management in the
+ * chunked, column-oriented format of {@link BigTableWriter}, and read back with a
+ * {@link BigTableReader}.
  * 
  * @author Robert Mischke
  */
 public interface BigTableTD extends TypedDatum {
 
+    /**
+     * @return data management reference to the table content
+     */
+    String getBigTableReference();
+
+    /**
+     * @return number of rows
+     */
+    long getRowCount();
+
+    /**
+     * @return number of columns
+     */
+    int getColumnCount();
+
 }
@@ -88,6 +88,22 @@ public interface MatrixTD extends TypedDatum {
      * @return two dimensional Array
      */
     FloatTD[][] toArray();
+
+    /**
+     * Returns a new two-dimensional double array ([row][column]) that holds the values of the matrix. Prefer this over {@link #toArray()}
+     * for bulk access, as it does not create a {@link FloatTD} per element.
+     * 
+     * @return new two-dimensional double array
+     */
+    double[][] toDoubleArray();
+
+    /**
+     * Returns a new double array that holds the values of a row.
+     * 
+     * @param rowIndex zero-based row index
+     * @return new double array
+     */
+    double[] getRow(int rowIndex);
     
     /**
      * @param maxLength maximum length of string representation
@@ -60,6 +60,14 @@ public interface VectorTD extends TypedDatum {
      * @return new {@link FloatTD} array
      */
     FloatTD[] toArray();
+
+    /**
+     * Returns a new double array that holds the values of the vector. Prefer this over {@link #toArray()} for bulk access, as it does not
+     * create a {@link FloatTD} per element.
+     * 
+     * @return new double array
+     */
+    double[] toDoubleArray();
     
     /**
      * @param maxLength maximum length of string representation
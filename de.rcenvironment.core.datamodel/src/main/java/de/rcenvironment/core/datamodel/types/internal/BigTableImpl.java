@@ -18,8 +18,52 @@ import de.rcenvironment.core.datamodel.types.api.BigTableTD;
  */
 public class BigTableImpl extends AbstractTypedDatum implements BigTableTD {
 
-    public BigTableImpl() {
+    private final String bigTableReference;
+
+    private final long rowCount;
+
+    private final int columnCount;
+
+    public BigTableImpl(String bigTableReference, long rowCount, int columnCount) {
         super(DataType.BigTable);
+        this.bigTableReference = bigTableReference;
+        this.rowCount = rowCount;
+        this.columnCount = columnCount;
+    }
+
+    @Override
+    public String getBigTableReference() {
+        return bigTableReference;
+    }
+
+    @Override
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    @Override
+    public int getColumnCount() {
+        return columnCount;
+    }
+
+    @Override
+    public int hashCode() {
+        return bigTableReference.hashCode();
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (obj instanceof BigTableTD) {
+            BigTableTD other = (BigTableTD) obj;
+            return bigTableReference.equals(other.getBigTableReference()) && rowCount == other.getRowCount()
+                && columnCount == other.getColumnCount();
+        }
+        return false;
+    }
+
+    @Override
+    public String toString() {
+        return "Big Table (" + columnCount + "x" + rowCount + ")";
     }
 
 }
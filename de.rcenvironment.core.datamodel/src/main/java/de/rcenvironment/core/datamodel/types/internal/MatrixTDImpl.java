@@ -8,172 +8,266 @@
 
 package de.rcenvironment.core.datamodel.types.internal;
 
-import org.apache.commons.logging.LogFactory;
+import java.util.Arrays;
 
 import de.rcenvironment.core.datamodel.api.DataType;
-import de.rcenvironment.core.datamodel.api.DataTypeException;
-import de.rcenvironment.core.datamodel.api.TypedDatum;
-import de.rcenvironment.core.datamodel.api.TypedDatumConverter;
-import de.rcenvironment.core.datamodel.internal.TypedDatumServiceImpl;
 import de.rcenvironment.core.datamodel.types.api.FloatTD;
 import de.rcenvironment.core.datamodel.types.api.MatrixTD;
-import de.rcenvironment.core.datamodel.types.api.SmallTableTD;
 import de.rcenvironment.core.datamodel.types.api.VectorTD;
 
 /**
- * Implementation of {@link MatrixTD}.
+ * Implementation of {@link MatrixTD}. The values are held in a primitive double array in row-major order; {@link FloatTD} instances are
+ * only created on element access.
  * 
  * @author Doreen Seider
+ * @author agent (primitive value storage)
  */
 public class MatrixTDImpl extends AbstractTypedDatum implements MatrixTD {
 
-    private SmallTableTD table;
+    private static final String OUT_OF_RANGE_ERROR_MESSAGE = "index out of range: ";
+
+    private final int rowCount;
+
+    private final int columnCount;
+
+    private final double[] values; // [row * columnCount + column]
 
     public MatrixTDImpl(FloatTD[][] matrixEntries) {
+        this(matrixEntries.length, getColumnCount(matrixEntries));
+        for (int i = 0; i < rowCount; i++) {
+            for (int j = 0; j < columnCount; j++) {
+                values[i * columnCount + j] = matrixEntries[i][j].getFloatValue();
+            }
+        }
+    }
+
+    /**
+     * Creates a matrix from a two-dimensional array ([row][column]); the values are copied.
+     * 
+     * @param matrixEntries the matrix entries; all rows must have the same length
+     */
+    public MatrixTDImpl(double[][] matrixEntries) {
+        this(matrixEntries.length, getColumnCount(matrixEntries));
+        for (int i = 0; i < rowCount; i++) {
+            if (matrixEntries[i].length != columnCount) {
+                throw new IllegalArgumentException("all rows must have the same length; row " + i + " has " + matrixEntries[i].length
+                    + " entries instead of " + columnCount);
+            }
+            System.arraycopy(matrixEntries[i], 0, values, i * columnCount, columnCount);
+        }
+    }
+
+    /**
+     * Creates a matrix with all elements set to 0.0.
+     * 
+     * @param rowCount number of rows
+     * @param columnCount number of columns
+     */
+    public MatrixTDImpl(int rowCount, int columnCount) {
+        this(rowCount, columnCount, null);
+    }
+
+    /**
+     * Creates a matrix that is backed by the given array, i.e. the array is not copied.
+     * 
+     * @param rowCount number of rows
+     * @param columnCount number of columns
+     * @param rowMajorValues the matrix entries in row-major order; if null, a zero-filled array is created
+     */
+    public MatrixTDImpl(int rowCount, int columnCount, double[] rowMajorValues) {
         super(DataType.Matrix);
-        this.table = new SmallTableTDImpl(matrixEntries);
+        if (rowCount < 0 || columnCount < 0) {
+            throw new IllegalArgumentException("rows and columms must greater than 0");
+        }
+        if ((long) rowCount * columnCount > SmallTableTDImpl.MAXIMUM_ENTRY_COUNT) {
+            throw new IllegalArgumentException("entries exceeds maximum number of entries: " + SmallTableTDImpl.MAXIMUM_ENTRY_COUNT + ".");
+        }
+        this.rowCount = rowCount;
+        this.columnCount = columnCount;
+        if (rowMajorValues == null) {
+            this.values = new double[rowCount * columnCount];
+        } else if (rowMajorValues.length == rowCount * columnCount) {
+            this.values = rowMajorValues;
+        } else {
+            throw new IllegalArgumentException("expected " + rowCount * columnCount + " entries, but got " + rowMajorValues.length);
+        }
     }
 
     @Override
     public FloatTD getFloatTDOfElement(int rowIndex, int columnIndex) {
-        return (FloatTD) table.getTypedDatumOfCell(rowIndex, columnIndex);
+        return new FloatTDImpl(values[getOffset(rowIndex, columnIndex)]);
     }
 
     @Override
     public void setFloatTDForElement(FloatTD number, int rowIndex, int columnIndex) {
-        table.setTypedDatumForCell(number, rowIndex, columnIndex);
+        values[getOffset(rowIndex, columnIndex)] = number.getFloatValue();
     }
 
     @Override
     public int getRowDimension() {
-        return table.getRowCount();
+        return rowCount;
     }
 
     @Override
     public int getColumnDimension() {
-        return table.getColumnCount();
+        return columnCount;
     }
 
     @Override
     public MatrixTD getSubMatrix(int endRowIndex, int endColumnIndex) {
-        TypedDatumConverter converter = new TypedDatumServiceImpl().getConverter();
-        try {
-            return converter.castOrConvert(table.getSubTable(endRowIndex, endColumnIndex), MatrixTD.class);
-        } catch (DataTypeException e) {
-            // should not happen
-            LogFactory.getLog(getClass()).error("conversion failed", e);
-            return null;
-        }
+        return getSubMatrix(0, 0, endRowIndex, endColumnIndex);
     }
 
     @Override
     public MatrixTD getSubMatrix(int beginRowIndex, int beginColumnIndex, int endRowIndex, int endColumnIndex) {
-        TypedDatumConverter converter = new TypedDatumServiceImpl().getConverter();
-        try {
-            return converter.castOrConvert(table.getSubTable(beginRowIndex, beginColumnIndex,
-                endRowIndex, endColumnIndex), MatrixTD.class);
-        } catch (DataTypeException e) {
-            // should not happen
-            LogFactory.getLog(getClass()).error("conversion failed", e);
-            return null;
+        if (beginRowIndex < 0 || endRowIndex > rowCount || beginRowIndex > endRowIndex) {
+            throw new IllegalArgumentException("invalid row range: " + beginRowIndex + " - " + endRowIndex);
+        } else if (beginColumnIndex < 0 || endColumnIndex > columnCount || beginColumnIndex > endColumnIndex) {
+            throw new IllegalArgumentException("invalid column range: " + beginColumnIndex + " - " + endColumnIndex);
+        }
+        int subRowCount = endRowIndex - beginRowIndex;
+        int subColumnCount = endColumnIndex - beginColumnIndex;
+        double[] subMatrixValues = new double[subRowCount * subColumnCount];
+        for (int i = 0; i < subRowCount; i++) {
+            System.arraycopy(values, (beginRowIndex + i) * columnCount + beginColumnIndex, subMatrixValues, i * subColumnCount,
+                subColumnCount);
         }
+        return new MatrixTDImpl(subRowCount, subColumnCount, subMatrixValues);
     }
 
     @Override
     public VectorTD getColumnVector(int columnIndex) {
-        if (columnIndex < 0 || columnIndex >= getColumnDimension()) {
-            throw new IllegalArgumentException("index out of range: " + columnIndex);
+        if (columnIndex < 0 || columnIndex >= columnCount) {
+            throw new IllegalArgumentException(OUT_OF_RANGE_ERROR_MESSAGE + columnIndex);
         }
-        FloatTD[][] matrixEntries = toArray();
-        FloatTD[] vectorEntries = new FloatTD[getRowDimension()];
-        for (int i = 0; i < getRowDimension(); i++) {
-            vectorEntries[i] = matrixEntries[i][columnIndex];
+        double[] vectorEntries = new double[rowCount];
+        for (int i = 0; i < rowCount; i++) {
+            vectorEntries[i] = values[i * columnCount + columnIndex];
         }
         return new VectorTDImpl(vectorEntries);
     }
 
     @Override
     public VectorTD getRowVector(int rowIndex) {
-        if (rowIndex < 0 || rowIndex >= getRowDimension()) {
-            throw new IllegalArgumentException("index out of range: " + rowIndex);
-        }
-        FloatTD[][] matrixEntries = toArray();
-        FloatTD[] vectorEntries = new FloatTD[getColumnDimension()];
-        for (int i = 0; i < getColumnDimension(); i++) {
-            vectorEntries[i] = matrixEntries[rowIndex][i];
+        return new VectorTDImpl(getRow(rowIndex));
+    }
+
+    @Override
+    public double[] getRow(int rowIndex) {
+        if (rowIndex < 0 || rowIndex >= rowCount) {
+            throw new IllegalArgumentException(OUT_OF_RANGE_ERROR_MESSAGE + rowIndex);
         }
-        return new VectorTDImpl(vectorEntries);
+        return Arrays.copyOfRange(values, rowIndex * columnCount, (rowIndex + 1) * columnCount);
     }
 
     @Override
     public boolean equals(Object obj) {
-        if (obj != null && obj instanceof MatrixTD) {
+        if (obj instanceof MatrixTDImpl) {
+            MatrixTDImpl other = (MatrixTDImpl) obj;
+            return rowCount == other.rowCount && columnCount == other.columnCount && Arrays.equals(values, other.values);
+        } else if (obj instanceof MatrixTD) {
             MatrixTD other = (MatrixTD) obj;
-            return table.equals(new SmallTableTDImpl(other.toArray()));
+            if (rowCount != other.getRowDimension() || columnCount != other.getColumnDimension()) {
+                return false;
+            }
+            for (int i = 0; i < rowCount; i++) {
+                if (!Arrays.equals(getRow(i), other.getRow(i))) {
+                    return false;
+                }
+            }
+            return true;
         }
         return false;
     }
 
     @Override
     public int hashCode() {
-        return table.hashCode();
+        final int prime = 31;
+        int result = 1;
+        result = prime * result + rowCount;
+        result = prime * result + columnCount;
+        result = prime * result + Arrays.hashCode(values);
+        return result;
     }
 
     @Override
     public FloatTD[][] toArray() {
-        TypedDatum[][] tableAsArray = table.toArray();
-        FloatTD[][] resultArray = new FloatTD[getRowDimension()][getColumnDimension()];
-        for (int i = 0; i < getRowDimension(); i++) {
-            System.arraycopy(tableAsArray[i], 0, resultArray[i], 0, getColumnDimension());
+        FloatTD[][] resultArray = new FloatTD[rowCount][columnCount];
+        for (int i = 0; i < rowCount; i++) {
+            for (int j = 0; j < columnCount; j++) {
+                resultArray[i][j] = new FloatTDImpl(values[i * columnCount + j]);
+            }
+        }
+        return resultArray;
+    }
+
+    @Override
+    public double[][] toDoubleArray() {
+        double[][] resultArray = new double[rowCount][];
+        for (int i = 0; i < rowCount; i++) {
+            resultArray[i] = getRow(i);
         }
         return resultArray;
     }
 
     @Override
     public String toLengthLimitedString(int maxLength) {
-        int rows = 0;
-        int columns = 0;
-        String text = "[";
-        String formattedLabel = "";
-
-        VectorTD firstRow = getRowVector(0);
-        rows = getRowDimension();
-        columns = getColumnDimension();
-        for (FloatTD f : firstRow.toArray()) {
-            text += f.toString();
-            text += ",";
-        }
-            // remove last comma
-        text = text.substring(0, text.length() - 1);
+        StringBuilder text = new StringBuilder("[");
+        for (double value : getRow(0)) {
+            text.append(value);
+            text.append(",");
+            if (text.length() > maxLength + 1) {
+                // the remaining entries would be cut off anyway
+                break;
+            }
+        }
+        // remove last comma
+        text.setLength(text.length() - 1);
         if (text.length() > maxLength) {
-            text = text.substring(0, maxLength - 4) + " ...";
+            text.setLength(maxLength - 4);
+            text.append(" ...");
         }
-        text += "]";
-        text += "...";
-        formattedLabel += text;
-        String dimensionsText = " (" + columns + "x" + rows + ")";
-        formattedLabel += dimensionsText;
-        return formattedLabel;
+        text.append("]");
+        text.append("...");
+        text.append(" (" + columnCount + "x" + rowCount + ")");
+        return text.toString();
     }
 
     @Override
     public String toString() {
-        String fullContent = "";
-
-        for (int i = 0; i < getRowDimension(); i++) {
-            // fill fullcontent
-            VectorTD row = getRowVector(i);
-            for (FloatTD f : row.toArray()) {
+        StringBuilder fullContent = new StringBuilder();
+        for (int i = 0; i < rowCount; i++) {
+            for (int j = 0; j < columnCount; j++) {
+                if (j > 0) {
+                    fullContent.append(", ");
+                }
                 // remove comma for integers
-                String floatValue = VectorTDImpl.toPrettyString(f.getFloatValue());
-                fullContent += floatValue;
-                fullContent += ", ";
+                fullContent.append(VectorTDImpl.toPrettyString(values[i * columnCount + j]));
             }
-            fullContent = fullContent.substring(0, fullContent.length() - 2);
-            fullContent += "\r\n";
+            fullContent.append("\r\n");
+        }
+        return fullContent.toString();
+    }
+
+    private int getOffset(int rowIndex, int columnIndex) {
+        if (rowIndex < 0 || rowIndex >= rowCount || columnIndex < 0 || columnIndex >= columnCount) {
+            throw new ArrayIndexOutOfBoundsException(OUT_OF_RANGE_ERROR_MESSAGE + rowIndex + ", " + columnIndex);
         }
+        return rowIndex * columnCount + columnIndex;
+    }
 
-        return fullContent;
+    private static int getColumnCount(FloatTD[][] matrixEntries) {
+        if (matrixEntries.length > 0) {
+            return matrixEntries[0].length;
+        }
+        return 0;
+    }
+
+    private static int getColumnCount(double[][] matrixEntries) {
+        if (matrixEntries.length > 0) {
+            return matrixEntries[0].length;
+        }
+        return 0;
     }
 
 }
@@ -8,47 +8,60 @@
 
 package de.rcenvironment.core.datamodel.types.internal;
 
-import org.apache.commons.logging.LogFactory;
+import java.util.Arrays;
 
 import de.rcenvironment.core.datamodel.api.DataType;
-import de.rcenvironment.core.datamodel.api.DataTypeException;
-import de.rcenvironment.core.datamodel.api.TypedDatumConverter;
-import de.rcenvironment.core.datamodel.internal.TypedDatumServiceImpl;
 import de.rcenvironment.core.datamodel.types.api.FloatTD;
-import de.rcenvironment.core.datamodel.types.api.MatrixTD;
 import de.rcenvironment.core.datamodel.types.api.VectorTD;
 
 /**
- * Implementation of {@link VectorTD}.
+ * Implementation of {@link VectorTD}. The values are held in a primitive double array; {@link FloatTD} instances are only created on
+ * element access.
  * 
  * @author Doreen Seider
+ * @author agent (primitive value storage)
  */
 public class VectorTDImpl extends AbstractTypedDatum implements VectorTD {
 
     private static final String COMMA = ",";
 
     private static final String OUT_OF_RANGE_ERROR_MESSAGE = "index out of range: ";
-    
-    private MatrixTD matrix;
+
+    private final double[] values;
 
     public VectorTDImpl(FloatTD[] vectorEntries) {
+        this(new double[vectorEntries.length]);
+        for (int i = 0; i < vectorEntries.length; i++) {
+            values[i] = vectorEntries[i].getFloatValue();
+        }
+    }
+
+    /**
+     * Creates a vector that is backed by the given array, i.e. the array is not copied.
+     * 
+     * @param values the vector entries
+     */
+    public VectorTDImpl(double[] values) {
         super(DataType.Vector);
-        this.matrix = new MatrixTDImpl(toTwoDimensionalArray(vectorEntries));
+        if (values.length > SmallTableTDImpl.MAXIMUM_ENTRY_COUNT) {
+            throw new IllegalArgumentException("entries exceeds maximum number of entries: " + SmallTableTDImpl.MAXIMUM_ENTRY_COUNT + ".");
+        }
+        this.values = values;
     }
-    
+
     @Override
     public FloatTD getFloatTDOfElement(int rowIndex) {
-        return matrix.getFloatTDOfElement(rowIndex, 0);
+        return new FloatTDImpl(values[rowIndex]);
     }
 
     @Override
     public void setFloatTDForElement(FloatTD number, int rowIndex) {
-        matrix.setFloatTDForElement(number, rowIndex, 0);
+        values[rowIndex] = number.getFloatValue();
     }
 
     @Override
     public int getRowDimension() {
-        return matrix.getRowDimension();
+        return values.length;
     }
 
     @Override
@@ -56,14 +69,7 @@ public class VectorTDImpl extends AbstractTypedDatum implements VectorTD {
         if (endRowIndex < 0 || endRowIndex >= getRowDimension()) {
             throw new IllegalArgumentException(OUT_OF_RANGE_ERROR_MESSAGE + endRowIndex);
         }
-        TypedDatumConverter converter = new TypedDatumServiceImpl().getConverter();
-        try {
-            return converter.castOrConvert(matrix.getSubMatrix(endRowIndex, 1), VectorTD.class);            
-        } catch (DataTypeException e) {
-            // should not happen
-            LogFactory.getLog(getClass()).error("conversion failed", e);
-            return null;
-        }
+        return new VectorTDImpl(Arrays.copyOfRange(values, 0, endRowIndex));
     }
 
     @Override
@@ -75,91 +81,77 @@ public class VectorTDImpl extends AbstractTypedDatum implements VectorTD {
         } else if (beginRowIndex > endRowIndex) {
             throw new IllegalArgumentException("begin index must lower than end index: " + beginRowIndex + " - " + endRowIndex);
         }
-        TypedDatumConverter converter = new TypedDatumServiceImpl().getConverter();
-        try {
-            return converter.castOrConvert(matrix.getSubMatrix(beginRowIndex, 0, endRowIndex, 1), VectorTD.class);            
-        } catch (DataTypeException e) {
-            // should not happen
-            LogFactory.getLog(getClass()).error("conversion failed", e);
-            return null;
-        }
+        return new VectorTDImpl(Arrays.copyOfRange(values, beginRowIndex, endRowIndex));
     }
 
     @Override
     public boolean equals(Object obj) {
-        if (obj != null && obj instanceof VectorTD) {
-            VectorTD other = (VectorTD) obj;
-            return matrix.equals(new MatrixTDImpl(toTwoDimensionalArray(other.toArray())));            
+        if (obj instanceof VectorTDImpl) {
+            return Arrays.equals(values, ((VectorTDImpl) obj).values);
+        } else if (obj instanceof VectorTD) {
+            return Arrays.equals(values, ((VectorTD) obj).toDoubleArray());
         }
         return false;
     }
 
     @Override
     public int hashCode() {
-        return matrix.hashCode();
+        return Arrays.hashCode(values);
     }
 
     @Override
     public FloatTD[] toArray() {
-        FloatTD[][] matrixEntries = matrix.toArray();
-        FloatTD[] vectorEntries = new FloatTD[getRowDimension()];
-        for (int i = 0; i < getRowDimension(); i++) {
-            vectorEntries[i] = matrixEntries[i][0];
+        FloatTD[] vectorEntries = new FloatTD[values.length];
+        for (int i = 0; i < values.length; i++) {
+            vectorEntries[i] = new FloatTDImpl(values[i]);
         }
         return vectorEntries;
     }
-    
-    private FloatTD[][] toTwoDimensionalArray(FloatTD[] vector) {
-        FloatTD[][] matrixEntries = new FloatTD[vector.length][1];
-        for (int i = 0; i < vector.length; i++) {
-            matrixEntries[i][0] = vector[i];
-        }
-        return matrixEntries;
+
+    @Override
+    public double[] toDoubleArray() {
+        return values.clone();
     }
 
     @Override
     public String toLengthLimitedString(int maxLength) {
-        int dimensions = 0;
-        String text = "[";
-        String formattedLabel = "";
-
-        for (FloatTD f : toArray()) {
+        StringBuilder text = new StringBuilder("[");
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                text.append(COMMA);
+            }
             // remove comma for integers
-            String floatValue = toPrettyString(f.getFloatValue());
-            text += floatValue;
-            text += COMMA;
+            text.append(toPrettyString(values[i]));
+            if (text.length() > maxLength) {
+                // the remaining entries would be cut off anyway
+                break;
+            }
         }
-        // remove last comma
-        text = text.substring(0, text.length() - 1);
-        
+
         if (text.length() > maxLength) {
-            text = text.substring(0, maxLength - 4);
-            text = text.substring(0, text.lastIndexOf(COMMA));
-            text += COMMA;
-            text += "...";
+            text.setLength(maxLength - 4);
+            text.setLength(text.lastIndexOf(COMMA));
+            text.append(COMMA);
+            text.append("...");
         }
-        text += "]";
-        formattedLabel += text;
-        String dimensionsText = " (" + dimensions + "-dim)";
-        formattedLabel += dimensionsText;
-        
-        return formattedLabel;
+        text.append("]");
+        text.append(" (" + values.length + "-dim)");
+        return text.toString();
     }
-    
+
     @Override
     public String toString() {
-        String fullContent = "";
-        for (FloatTD f : toArray()) {
+        StringBuilder fullContent = new StringBuilder();
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                fullContent.append(", ");
+            }
             // remove comma for integers
-            String floatValue = toPrettyString(f.getFloatValue());
-            fullContent += floatValue;
-            fullContent += ", ";
+            fullContent.append(toPrettyString(values[i]));
         }
-        // remove last comma and whitespace
-        fullContent = fullContent.substring(0, fullContent.length() - 2);
-        return fullContent;
+        return fullContent.toString();
     }
-    
+
     protected static String toPrettyString(double d) {
         int i = (int) d;
         if (d == i) {
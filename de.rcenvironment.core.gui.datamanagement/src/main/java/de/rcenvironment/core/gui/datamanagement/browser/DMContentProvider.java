@@ -10,13 +10,16 @@ package de.rcenvironment.core.gui.datamanagement.browser;
 
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.CopyOnWriteArraySet;
 
@@ -39,6 +42,7 @@ import de.rcenvironment.core.communication.api.SimpleCommunicationService;
 import de.rcenvironment.core.communication.common.CommunicationException;
 import de.rcenvironment.core.communication.common.NodeIdentifier;
 import de.rcenvironment.core.communication.common.NodeIdentifierFactory;
+import de.rcenvironment.core.communication.management.WorkflowHostService;
 import de.rcenvironment.core.component.datamanagement.api.DefaultComponentHistoryDataItem;
 import de.rcenvironment.core.component.datamanagement.history.HistoryMetaDataKeys;
 import de.rcenvironment.core.datamanagement.DistributedMetaDataService;
@@ -50,6 +54,7 @@ import de.rcenvironment.core.datamanagement.commons.MetaDataKeys;
 import de.rcenvironment.core.datamanagement.commons.MetaDataSet;
 import de.rcenvironment.core.datamanagement.commons.WorkflowRun;
 import de.rcenvironment.core.datamanagement.commons.WorkflowRunDescription;
+import de.rcenvironment.core.datamanagement.commons.WorkflowRunDescriptionCursor;
 import de.rcenvironment.core.datamodel.api.FinalWorkflowState;
 import de.rcenvironment.core.datamodel.api.TypedDatum;
 import de.rcenvironment.core.datamodel.api.TypedDatumSerializer;
@@ -112,6 +117,9 @@ public class DMContentProvider implements ITreeContentProvider {
     private static final MetaData METADATA_COMPONENT_NAME = new MetaData(
         MetaDataKeys.COMPONENT_NAME, true, true);
 
+    private static final MetaData METADATA_COMPONENT_INSTANCE_ID = new MetaData(
+        MetaDataKeys.COMPONENT_INSTANCE_ID, true, true);
+
     private static final MetaData METADATA_HISTORY_DATA_ITEM_IDENTIFIER = new MetaData(
         HistoryMetaDataKeys.HISTORY_HISTORY_DATA_ITEM_IDENTIFIER, true, true);
 
@@ -123,6 +131,9 @@ public class DMContentProvider implements ITreeContentProvider {
     private static final MetaData METADATA_HISTORY_ORDERING = new MetaData(
         HistoryMetaDataKeys.HISTORY_TIMESTAMP, true, true);
 
+    /** The number of workflow runs fetched per storage node at once. */
+    private static final int WORKFLOW_RUN_PAGE_SIZE = 100;
+
     private static final String EXTENSION_POINT_ID_SUBTREE_BUILDER =
         "de.rcenvironment.core.gui.datamanagement.browser.historysubtreebuilder";
 
@@ -130,6 +141,8 @@ public class DMContentProvider implements ITreeContentProvider {
 
     private DistributedMetaDataService metaDataService;
 
+    private WorkflowHostService workflowHostService;
+
     private Map<String, ComponentHistoryDataItemSubtreeBuilder> historySubtreeBuilders;
 
     /** Cached results for the MetaDataQuery. */
@@ -149,9 +162,16 @@ public class DMContentProvider implements ITreeContentProvider {
 
     private TypedDatumSerializer typedDatumSerializer;
 
+    /** The node to expand for the next page of workflow runs; null if all workflow runs are shown. */
+    private DMBrowserNode moreWorkflowRunsNode;
+
+    /** The positions of the next page of workflow runs, for each storage node with more workflow runs. */
+    private Map<NodeIdentifier, WorkflowRunDescriptionCursor> moreWorkflowRunsCursors;
+
     public DMContentProvider() throws AuthenticationException {
         ServiceRegistryAccess serviceRegistryAccess = ServiceRegistry.createAccessFor(this);
         metaDataService = serviceRegistryAccess.getService(DistributedMetaDataService.class);
+        workflowHostService = serviceRegistryAccess.getService(WorkflowHostService.class);
         typedDatumSerializer = serviceRegistryAccess.getService(TypedDatumService.class).getSerializer();
         localNodeID = new SimpleCommunicationService().getLocalNodeId();
         registerBuilders();
@@ -259,6 +279,9 @@ public class DMContentProvider implements ITreeContentProvider {
         case HistoryRoot:
             createChildrenForHistoryRootNode(node);
             break;
+        case MoreWorkflowRuns:
+            createChildrenForMoreWorkflowRunsNode(node);
+            break;
         case Workflow:
             createChildrenForWorkflowNode(node);
             break;
@@ -269,6 +292,8 @@ public class DMContentProvider implements ITreeContentProvider {
             createChildrenForComponentsNode(node);
             break;
         case Component:
+            createChildrenForComponentNode(node);
+            break;
         case HistoryObject:
             break;
         default:
@@ -292,13 +317,97 @@ public class DMContentProvider implements ITreeContentProvider {
         return result;
     }
 
-    private void createChildrenForHistoryRootNode(DMBrowserNode parent) throws CommunicationException {
+    private void createChildrenForHistoryRootNode(DMBrowserNode parent) {
+        Map<NodeIdentifier, WorkflowRunDescriptionCursor> cursors = new HashMap<>();
+        for (NodeIdentifier storageNodeId : workflowHostService.getWorkflowHostNodesAndSelf()) {
+            cursors.put(storageNodeId, WorkflowRunDescriptionCursor.first());
+        }
+        synchronized (this) {
+            moreWorkflowRunsNode = null;
+            moreWorkflowRunsCursors = null;
+        }
+        addNextWorkflowRunPages(parent, cursors);
+    }
+
+    /**
+     * Replaces the given node with the next page of workflow runs of each storage node, i.e. they are added to the history root node.
+     */
+    private void createChildrenForMoreWorkflowRunsNode(DMBrowserNode moreNode) {
+        final DMBrowserNode parent = moreNode.getParent();
+        final Map<NodeIdentifier, WorkflowRunDescriptionCursor> cursors;
+        synchronized (this) {
+            if (moreNode != moreWorkflowRunsNode || parent == null) {
+                // the history was refreshed in the meantime
+                return;
+            }
+            cursors = moreWorkflowRunsCursors;
+            moreWorkflowRunsNode = null;
+            moreWorkflowRunsCursors = null;
+        }
+        parent.removeChild(moreNode);
+        addNextWorkflowRunPages(parent, cursors);
+        for (final DMBrowserNodeContentAvailabilityHandler handler : contentAvailabilityHandlers) {
+            handler.handleContentAvailable(parent);
+        }
+    }
 
+    /**
+     * Fetches a page of workflow runs from each of the given storage nodes in parallel and adds them to the history root node. If a page
+     * is complete, the storage node may have more workflow runs, so a node is added that fetches the next pages when expanded.
+     */
+    private void addNextWorkflowRunPages(DMBrowserNode parent, Map<NodeIdentifier, WorkflowRunDescriptionCursor> cursors) {
         final long start = System.currentTimeMillis();
-        Set<WorkflowRunDescription> workflowDescriptions = metaDataService.getWorkflowRunDescriptions();
-        log.debug(String.format("query for all workflow run descriptions on all known nodes took %d ms",
+        final Map<NodeIdentifier, List<WorkflowRunDescription>> pages = new ConcurrentHashMap<>();
+        CallablesGroup<Void> callablesGroup = SharedThreadPool.getInstance().createCallablesGroup(Void.class);
+        for (Map.Entry<NodeIdentifier, WorkflowRunDescriptionCursor> entry : cursors.entrySet()) {
+            final NodeIdentifier storageNodeId = entry.getKey();
+            final WorkflowRunDescriptionCursor cursor = entry.getValue();
+            callablesGroup.add(new Callable<Void>() {
+
+                @Override
+                @TaskDescription("Fetch a page of workflow run descriptions")
+                public Void call() throws Exception {
+                    List<WorkflowRunDescription> page =
+                        metaDataService.getWorkflowRunDescriptions(cursor, WORKFLOW_RUN_PAGE_SIZE, storageNodeId);
+                    if (page != null) {
+                        pages.put(storageNodeId, page);
+                    }
+                    return null;
+                }
+            });
+        }
+        callablesGroup.executeParallel(new AsyncExceptionListener() {
+
+            @Override
+            public void onAsyncException(Exception e) {
+                log.warn("Failed to fetch workflow run descriptions from a storage node", e);
+            }
+        });
+        log.debug(String.format("query for a page of workflow run descriptions on %d nodes took %d ms", cursors.size(),
             (System.currentTimeMillis() - start)));
 
+        Set<WorkflowRunDescription> workflowDescriptions = new HashSet<>();
+        Map<NodeIdentifier, WorkflowRunDescriptionCursor> nextCursors = new HashMap<>();
+        for (Map.Entry<NodeIdentifier, List<WorkflowRunDescription>> entry : pages.entrySet()) {
+            List<WorkflowRunDescription> page = entry.getValue();
+            workflowDescriptions.addAll(page);
+            if (page.size() == WORKFLOW_RUN_PAGE_SIZE) {
+                nextCursors.put(entry.getKey(), WorkflowRunDescriptionCursor.after(page.get(page.size() - 1)));
+            }
+        }
+        createWorkflowNodes(parent, workflowDescriptions);
+
+        if (!nextCursors.isEmpty()) {
+            DMBrowserNode moreNode = DMBrowserNode.addNewChildNode(Messages.moreWorkflowRunsNodeLabel,
+                DMBrowserNodeType.MoreWorkflowRuns, parent);
+            synchronized (this) {
+                moreWorkflowRunsNode = moreNode;
+                moreWorkflowRunsCursors = nextCursors;
+            }
+        }
+    }
+
+    private void createWorkflowNodes(DMBrowserNode parent, Set<WorkflowRunDescription> workflowDescriptions) {
         // map<id, node> to keep track of already-known contexts and their tree nodes
         final Map<String, DMBrowserNode> encounteredContexts = new HashMap<>();
         // map<instanceNode, map<id, node>> to keep track of already-known contexts and their tree nodes sorted by instance node id to allow
@@ -527,43 +636,55 @@ public class DMContentProvider implements ITreeContentProvider {
     }
 
     private void createChildrenForComponentsNode(final DMBrowserNode componentsNode) throws CommunicationException {
-        final WorkflowRun workflowRun = getMetaDataForWorkflow(componentsNode.getNodeWithTypeWorkflow());
+        final DMBrowserNode workflowNode = componentsNode.getNodeWithTypeWorkflow();
+        final Long workflowRunID = Long.valueOf(workflowNode.getMetaData().getValue(METADATA_COMPONENT_CONTEXT_ID));
 
-        for (final ComponentInstance componentInstance : workflowRun.getComponentRuns().keySet()) {
+        // the runs of a component are only fetched when its node is expanded
+        final Collection<ComponentInstance> componentInstances =
+            metaDataService.getComponentInstances(workflowRunID, workflowNode.getNodeIdentifier());
+        for (final ComponentInstance componentInstance : componentInstances) {
             MetaDataSet metaDataSet = new MetaDataSet();
             final String componentName = componentInstance.getComponentInstanceName();
             metaDataSet.setValue(METADATA_COMPONENT_NAME, componentName);
             metaDataSet.setValue(METADATA_HISTORY_DATA_ITEM_IDENTIFIER, componentInstance.getComponentID().split(STRING_SLASH)[0]);
-            DMBrowserNode componentNode =
-                new DMBrowserNode(String.format("%s (Runs: %d)", componentName, workflowRun.getComponentRuns().get(componentInstance)
-                    .size()));
+            metaDataSet.setValue(METADATA_COMPONENT_INSTANCE_ID, componentInstance.getComponentInstanceID().toString());
+            DMBrowserNode componentNode = new DMBrowserNode(componentName);
             componentNode.setType(DMBrowserNodeType.Component);
             componentNode.setMetaData(metaDataSet);
             setComponentIconForDMBrowserNode(componentNode);
             componentsNode.addChild(componentNode);
-            for (final ComponentRun componentRun : workflowRun.getComponentRuns().get(componentInstance)) {
-                final Long startTime = componentRun.getStartTime();
-                MetaDataSet metaDataSetRun = new MetaDataSet();
-                metaDataSetRun.setValue(METADATA_COMPONENT_NAME, componentName);
-                metaDataSetRun.setValue(METADATA_HISTORY_DATA_ITEM_IDENTIFIER, componentInstance.getComponentID().split(STRING_SLASH)[0]);
-                metaDataSetRun.setValue(METADATA_HISTORY_ORDERING, startTime.toString());
-                final String startDateString = dateFormat.format(new Date(startTime));
-                final String componentSpecificText = String.format("Run %d", componentRun.getRunCounter());
-                metaDataSetRun.setValue(METADATA_HISTORY_USER_INFO_TEXT, componentSpecificText);
-                DMBrowserNode dmoChild = new DMBrowserNode(String.format(NODE_TEXT_FORMAT_TITLE_PLUS_TIMESTAMP,
-                    componentSpecificText, startDateString), componentsNode);
-                dmoChild.setMetaData(metaDataSetRun);
-                dmoChild.setType(DMBrowserNodeType.HistoryObject);
-                setComponentIconForDMBrowserNode(dmoChild);
-                createChildrenForHistoryObjectNode(dmoChild, componentRun);
-                componentNode.addChild(dmoChild);
-            }
-            componentNode.sortChildren(DMBrowserNodeUtils.COMPARATOR_BY_HISTORY_TIMESTAMP);
         }
         // sort nodes by node title
         componentsNode.sortChildren(DMBrowserNodeUtils.COMPARATOR_BY_NODE_TITLE);
     }
 
+    private void createChildrenForComponentNode(final DMBrowserNode componentNode) throws CommunicationException {
+        final Long componentInstanceID = Long.valueOf(componentNode.getMetaData().getValue(METADATA_COMPONENT_INSTANCE_ID));
+        final String componentName = componentNode.getMetaData().getValue(METADATA_COMPONENT_NAME);
+        final String historyDataItemIdentifier = componentNode.getMetaData().getValue(METADATA_HISTORY_DATA_ITEM_IDENTIFIER);
+
+        final Collection<ComponentRun> componentRuns =
+            metaDataService.getComponentRuns(componentInstanceID, componentNode.getNodeWithTypeWorkflow().getNodeIdentifier());
+        for (final ComponentRun componentRun : componentRuns) {
+            final Long startTime = componentRun.getStartTime();
+            MetaDataSet metaDataSetRun = new MetaDataSet();
+            metaDataSetRun.setValue(METADATA_COMPONENT_NAME, componentName);
+            metaDataSetRun.setValue(METADATA_HISTORY_DATA_ITEM_IDENTIFIER, historyDataItemIdentifier);
+            metaDataSetRun.setValue(METADATA_HISTORY_ORDERING, startTime.toString());
+            final String startDateString = dateFormat.format(new Date(startTime));
+            final String componentSpecificText = String.format("Run %d", componentRun.getRunCounter());
+            metaDataSetRun.setValue(METADATA_HISTORY_USER_INFO_TEXT, componentSpecificText);
+            DMBrowserNode dmoChild = new DMBrowserNode(String.format(NODE_TEXT_FORMAT_TITLE_PLUS_TIMESTAMP,
+                componentSpecificText, startDateString), componentNode);
+            dmoChild.setMetaData(metaDataSetRun);
+            dmoChild.setType(DMBrowserNodeType.HistoryObject);
+            setComponentIconForDMBrowserNode(dmoChild);
+            createChildrenForHistoryObjectNode(dmoChild, componentRun);
+            componentNode.addChild(dmoChild);
+        }
+        componentNode.sortChildren(DMBrowserNodeUtils.COMPARATOR_BY_HISTORY_TIMESTAMP);
+    }
+
     private void setComponentIconForDMBrowserNode(DMBrowserNode node) {
         String identifier = node.getMetaData().getValue(METADATA_HISTORY_DATA_ITEM_IDENTIFIER);
         ComponentHistoryDataItemSubtreeBuilder builder = getComponentHistoryDataItemSubtreeBuilder(node);
@@ -679,13 +800,23 @@ public class DMContentProvider implements ITreeContentProvider {
         }
     }
 
-    protected boolean deleteWorkflowRun(DMBrowserNode browserNode) {
+    /**
+     * Deletes the workflow runs of the given nodes at once; all of them must be stored on the same node.
+     * 
+     * @param browserNodes the workflow nodes to delete
+     * @return true if the deletion was requested successfully
+     */
+    protected boolean deleteWorkflowRuns(List<DMBrowserNode> browserNodes) {
+        List<Long> workflowRunIds = new ArrayList<Long>();
+        for (DMBrowserNode browserNode : browserNodes) {
+            workflowRunIds.add(Long.valueOf(browserNode.getWorkflowID()));
+        }
         try {
-            metaDataService.deleteWorkflowRun(Long.valueOf(browserNode.getWorkflowID()),
-                NodeIdentifierFactory.fromNodeId(browserNode.getWorkflowHostID()));
+            metaDataService.deleteWorkflowRuns(workflowRunIds,
+                NodeIdentifierFactory.fromNodeId(browserNodes.get(0).getWorkflowHostID()));
             return true;
         } catch (CommunicationException e) {
-            log.error("Could not delete workflow run in the database.", e);
+            log.error("Could not delete workflow runs in the database.", e);
         }
         return false;
     }
@@ -65,7 +65,7 @@ public class DMLabelProvider extends ColumnLabelProvider {
             // return DMBrowserImages.imageComponent;
         } else if (node.getType() == DMBrowserNodeType.WorkflowRunInformation) {
             result = DMBrowserImages.IMG_WF_RUN_INFO;
-        } else if (node.getType() == DMBrowserNodeType.Loading) {
+        } else if (node.getType() == DMBrowserNodeType.Loading || node.getType() == DMBrowserNodeType.MoreWorkflowRuns) {
             result = ImageManager.getInstance().getSharedImage(StandardImages.REFRESH_16);
         } else if (node.getType() == DMBrowserNodeType.ShortText) {
             result = imageManager.getSharedImage(StandardImages.DATATYPE_SHORTTEXT_16);
@@ -47,6 +47,10 @@ public class DMTreeSorter extends ViewerSorter{
     }
     @Override
     public int category(Object element) {
+        // always show the node for loading more workflow runs after the workflow runs
+        if (((DMBrowserNode) element).getType() == DMBrowserNodeType.MoreWorkflowRuns) {
+            return 1;
+        }
         return 0;
     }
     @Override
@@ -20,8 +20,10 @@ import java.util.Collection;
 import java.util.Comparator;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -557,20 +559,39 @@ public class DataManagementBrowser extends ViewPart implements DMBrowserNodeCont
 
                 @Override
                 protected IStatus run(IProgressMonitor monitor) {
-                    for (final DMBrowserNode browserNodeToDelete : browserNodesToDelete) {
-                        // get the parent node of the node to update the tree
-                        // and remove the deleted child node
-                        final DMBrowserNode parentNode = browserNodeToDelete
-                            .getParent();
-                        if (!isFileAction) {
-                            boolean deleted = deleteWorkflowRun(browserNodeToDelete);
-                            if (deleted) {
-                                parentNode.removeChild(browserNodeToDelete);
+                    monitor.beginTask(getName(), browserNodesToDelete.size());
+                    if (!isFileAction) {
+                        // request the deletion of the workflow runs of each storage node with a single request; the storage nodes only
+                        // mark them to be deleted and delete them in the background, so the job only reports the progress of the requests
+                        Map<String, List<DMBrowserNode>> browserNodesByHost = new LinkedHashMap<String, List<DMBrowserNode>>();
+                        for (final DMBrowserNode browserNodeToDelete : browserNodesToDelete) {
+                            if (!browserNodeToDelete.getType().equals(DMBrowserNodeType.Workflow_Disabled)) {
+                                monitor.worked(1);
+                                continue;
                             }
-                        } else {
+                            List<DMBrowserNode> browserNodesOfHost = browserNodesByHost.get(browserNodeToDelete.getWorkflowHostID());
+                            if (browserNodesOfHost == null) {
+                                browserNodesOfHost = new ArrayList<DMBrowserNode>();
+                                browserNodesByHost.put(browserNodeToDelete.getWorkflowHostID(), browserNodesOfHost);
+                            }
+                            browserNodesOfHost.add(browserNodeToDelete);
+                        }
+                        for (List<DMBrowserNode> browserNodesOfHost : browserNodesByHost.values()) {
+                            if (contentProvider.deleteWorkflowRuns(browserNodesOfHost)) {
+                                for (DMBrowserNode deletedNode : browserNodesOfHost) {
+                                    // remove the deleted node from its parent node to update the tree
+                                    deletedNode.getParent().removeChild(deletedNode);
+                                }
+                            }
+                            monitor.worked(browserNodesOfHost.size());
+                        }
+                    } else {
+                        for (final DMBrowserNode browserNodeToDelete : browserNodesToDelete) {
                             deleteFiles(browserNodeToDelete);
+                            monitor.worked(1);
                         }
                     }
+                    monitor.done();
                     // update the tree
                     display.syncExec(new Runnable() {
 
@@ -589,14 +610,6 @@ public class DataManagementBrowser extends ViewPart implements DMBrowserNodeCont
                     }
                 }
 
-                private boolean deleteWorkflowRun(final DMBrowserNode browserNode) {
-
-                    if (browserNode.getType().equals(DMBrowserNodeType.Workflow_Disabled)) {
-                        return contentProvider.deleteWorkflowRun(browserNode);
-                    }
-                    return false;
-                }
-
             };
             // job is a UI task
             job.setUser(true);
@@ -1432,6 +1445,9 @@ public class DataManagementBrowser extends ViewPart implements DMBrowserNodeCont
     private void disableUnreachableNode(final String unreachableID) {
         for (TreeItem item : viewer.getTree().getItems()) {
             DMBrowserNode node = (DMBrowserNode) item.getData();
+            if (node.getType() == DMBrowserNodeType.MoreWorkflowRuns) {
+                continue;
+            }
             String nodeID = node.getNodeIdentifier().getIdString();
             if (nodeID.equals(unreachableID)) {
                 node.setTitle(String.format(NODE_TEXT_FORMAT_TITLE_PLUS_HOSTNAME, node.getTitle(),
@@ -20,6 +20,9 @@ public class Messages extends NLS {
     /** Constant. */
     public static String waitSignalNodeLabel;
 
+    /** Constant. */
+    public static String moreWorkflowRunsNodeLabel;
+
     /** Constant. */
     public static String deleteNodeActionContextMenuLabel;
 
@@ -81,6 +81,11 @@ public enum DMBrowserNodeType {
      */
     Loading,
 
+    /**
+     * Node type for the placeholder node that loads the next page of workflow runs when expanded.
+     */
+    MoreWorkflowRuns,
+
     /**
      * Node type for inputs and outputs of DataType ShortText.
      */
@@ -8,7 +8,9 @@
 
 package de.rcenvironment.core.gui.workflow.view.console;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 import java.util.Set;
 import java.util.Timer;
 import java.util.TimerTask;
@@ -45,6 +47,7 @@ import org.eclipse.ui.part.ViewPart;
 
 import de.rcenvironment.core.communication.common.NodeIdentifier;
 import de.rcenvironment.core.communication.management.WorkflowHostSetListener;
+import de.rcenvironment.core.component.execution.api.ConsoleRow;
 import de.rcenvironment.core.component.workflow.execution.api.ConsoleModelSnapshot;
 import de.rcenvironment.core.component.workflow.execution.api.ConsoleRowFilter;
 import de.rcenvironment.core.component.workflow.execution.api.ConsoleRowModelService;
@@ -110,6 +113,9 @@ public class ConsoleView extends ViewPart {
 
     private TableViewer consoleRowTableViewer;
 
+    // the rows shown by the table; only accessed from the SWT event dispatch thread
+    private List<ConsoleRow> displayedRows = new ArrayList<ConsoleRow>();
+
     private ConsoleColumnSorter consoleColumnSorter;
 
     private Text searchTextField;
@@ -213,11 +219,21 @@ public class ConsoleView extends ViewPart {
             }
 
             if (snapshot.hasFilteredRowListChanged()) {
-                consoleRowTableViewer.setInput(snapshot.getFilteredRows());
+                if (snapshot.isFilteredRowListIncremental()) {
+                    // append the new rows and discard the oldest ones that were trimmed from the model
+                    displayedRows.addAll(snapshot.getFilteredRows());
+                    int excessRows = displayedRows.size() - snapshot.getFilteredRowCount();
+                    if (excessRows > 0) {
+                        displayedRows.subList(0, excessRows).clear();
+                    }
+                } else {
+                    displayedRows = new ArrayList<ConsoleRow>(snapshot.getFilteredRows());
+                }
+                consoleRowTableViewer.setInput(displayedRows);
                 if (!scrollLock) {
-                    consoleRowTableViewer.getTable().setTopIndex(snapshot.getFilteredRows().size());
+                    consoleRowTableViewer.getTable().setTopIndex(displayedRows.size());
                     consoleRowTableViewer.getTable().getVerticalBar().setSelection(
-                        consoleRowTableViewer.getTable().getVerticalBar().getMaximum() + snapshot.getFilteredRows().size());
+                        consoleRowTableViewer.getTable().getVerticalBar().getMaximum() + displayedRows.size());
 
                 }
                 // "false" parameter improves performance for de-facto immutable rows
@@ -0,0 +1,50 @@
+/*
+ * Copyright (C) 2006-2014 DLR, Germany
+ * 
+ * All rights reserved
+ * 
+ * http://www.rcenvironment.de/
+ */
+
+package de.rcenvironment.core.notification;
+
+import junit.framework.TestCase;
+import de.rcenvironment.core.communication.utils.MessageCodecRegistry;
+import de.rcenvironment.core.communication.utils.MessageUtils;
+
+/**
+ * Test cases for {@link NotificationCodec}.
+ * 
+ * @author agent
+ */
+public class NotificationCodecTest extends TestCase {
+
+    private final NotificationCodec codec = new NotificationCodec();
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        MessageCodecRegistry.register(codec);
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        super.tearDown();
+        MessageCodecRegistry.unregister(codec);
+    }
+
+    /**
+     * Tests that header fields (including the original timestamp) and body survive a round-trip.
+     * 
+     * @throws Exception on unexpected errors
+     */
+    public void testRoundTrip() throws Exception {
+        Notification notification = new Notification(NotificationTestConstants.NOTIFICATION_ID,
+            NotificationTestConstants.NOTIFICATION_EDITION, NotificationTestConstants.LOCALHOST, "body");
+        Notification restored = MessageUtils.deserializeObject(MessageUtils.serializeObject(notification), Notification.class);
+
+        assertEquals(notification, restored);
+        assertEquals(notification.getHeader().getTimestamp(), restored.getHeader().getTimestamp());
+        assertEquals(NotificationTestConstants.LOCALHOST, restored.getHeader().getPublishPlatform());
+    }
+}
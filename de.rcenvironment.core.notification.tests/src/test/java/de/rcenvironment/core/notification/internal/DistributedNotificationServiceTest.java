@@ -219,6 +219,11 @@ public class DistributedNotificationServiceTest {
             }
         }
 
+        @Override
+        public Map<String, List<Notification>> getNotifications(String notificationIdentifier, Long firstEdition, Long lastEdition) {
+            return getNotifications(notificationIdentifier);
+        }
+
         @Override
         public void setBufferSize(String notificationIdentifier, int buffer) {
             if (notificationIdentifier.equals(NotificationTestConstants.NOTIFICATION_ID) && buffer == 0) {
@@ -295,6 +300,11 @@ public class DistributedNotificationServiceTest {
             }
         }
 
+        @Override
+        public Map<String, List<Notification>> getNotifications(String notificationIdentifier, Long firstEdition, Long lastEdition) {
+            return getNotifications(notificationIdentifier);
+        }
+
         @Override
         public void setBufferSize(String notificationIdentifier, int buffer) {}
 
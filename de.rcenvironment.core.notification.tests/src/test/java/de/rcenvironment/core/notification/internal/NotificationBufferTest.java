@@ -0,0 +1,94 @@
+/*
+ * Copyright (C) 2006-2014 DLR, Germany
+ * 
+ * All rights reserved
+ * 
+ * http://www.rcenvironment.de/
+ */
+
+package de.rcenvironment.core.notification.internal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.List;
+
+import org.junit.Test;
+
+import de.rcenvironment.core.notification.Notification;
+import de.rcenvironment.core.notification.NotificationTestConstants;
+
+/**
+ * Test cases for {@link NotificationBuffer}.
+ * 
+ * @author agent
+ */
+public class NotificationBufferTest {
+
+    private static final int BUFFER_SIZE = 5;
+
+    private static final int NUMBER_OF_NOTIFICATIONS = 23;
+
+    /**
+     * Tests that a limited buffer retains the most recent notifications only, and that they are found by their editions.
+     */
+    @Test
+    public void testLimitedBuffer() {
+        NotificationBuffer buffer = new NotificationBuffer(BUFFER_SIZE);
+        appendNotifications(buffer, 0, NUMBER_OF_NOTIFICATIONS);
+
+        List<Notification> notifications = buffer.getAll();
+        assertEquals(BUFFER_SIZE, notifications.size());
+        assertEditions(notifications, NUMBER_OF_NOTIFICATIONS - BUFFER_SIZE, NUMBER_OF_NOTIFICATIONS - 1);
+        assertEquals(BUFFER_SIZE, buffer.getHeaders().size());
+
+        assertNull(buffer.get(NUMBER_OF_NOTIFICATIONS - BUFFER_SIZE - 1));
+        assertEquals(NUMBER_OF_NOTIFICATIONS - 1, buffer.get(NUMBER_OF_NOTIFICATIONS - 1).getHeader().getNumber());
+        assertNull(buffer.get(NUMBER_OF_NOTIFICATIONS));
+    }
+
+    /**
+     * Tests reading ranges of editions from a buffer retaining all notifications.
+     */
+    @Test
+    public void testRangesOfUnlimitedBuffer() {
+        NotificationBuffer buffer = new NotificationBuffer(-1);
+        appendNotifications(buffer, 0, NUMBER_OF_NOTIFICATIONS);
+
+        assertEquals(NUMBER_OF_NOTIFICATIONS, buffer.getAll().size());
+        assertEditions(buffer.getRange(3, 17), 3, 17);
+        assertEditions(buffer.getRange(-10, 2), 0, 2);
+        assertEditions(buffer.getRange(20, Long.MAX_VALUE), 20, NUMBER_OF_NOTIFICATIONS - 1);
+        assertEquals(0, buffer.getRange(NUMBER_OF_NOTIFICATIONS, Long.MAX_VALUE).size());
+        assertEquals(0, buffer.getRange(5, 4).size());
+    }
+
+    /**
+     * Tests that lowering the buffer size evicts the oldest notifications, and that the buffer restarts if an edition is skipped.
+     */
+    @Test
+    public void testResizeAndRestart() {
+        NotificationBuffer buffer = new NotificationBuffer(-1);
+        appendNotifications(buffer, 0, NUMBER_OF_NOTIFICATIONS);
+        buffer.setBufferSize(BUFFER_SIZE);
+        assertEditions(buffer.getAll(), NUMBER_OF_NOTIFICATIONS - BUFFER_SIZE, NUMBER_OF_NOTIFICATIONS - 1);
+        appendNotifications(buffer, NUMBER_OF_NOTIFICATIONS, 2);
+        assertEditions(buffer.getAll(), NUMBER_OF_NOTIFICATIONS + 2 - BUFFER_SIZE, NUMBER_OF_NOTIFICATIONS + 1);
+
+        appendNotifications(buffer, 0, 2);
+        assertEditions(buffer.getAll(), 0, 1);
+    }
+
+    private void appendNotifications(NotificationBuffer buffer, int firstEdition, int count) {
+        for (int i = firstEdition; i < firstEdition + count; i++) {
+            buffer.append(new Notification(NotificationTestConstants.NOTIFICATION_ID, i, NotificationTestConstants.LOCALHOST, i));
+        }
+    }
+
+    private void assertEditions(List<Notification> notifications, long firstEdition, long lastEdition) {
+        assertEquals(lastEdition - firstEdition + 1, notifications.size());
+        for (int i = 0; i < notifications.size(); i++) {
+            assertEquals(firstEdition + i, notifications.get(i).getHeader().getNumber());
+        }
+    }
+}
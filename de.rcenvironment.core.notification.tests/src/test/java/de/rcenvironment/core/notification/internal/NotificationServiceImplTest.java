@@ -14,9 +14,12 @@ import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 import java.io.Serializable;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.SortedSet;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.junit.After;
 import org.junit.Before;
@@ -35,6 +38,7 @@ import de.rcenvironment.core.notification.NotificationTestConstants;
  * 
  * @author Andre Nurzenski
  * @author Doreen Seider
+ * @author agent (topic matching and concurrent topic registration tests)
  */
 @SuppressWarnings("serial")
 public class NotificationServiceImplTest {
@@ -441,4 +445,117 @@ public class NotificationServiceImplTest {
             notifications.get(NotificationTestConstants.ANOTHER_PERSISTENT_NOTIFICATION_ID).size());
     }
 
+    /**
+     * Test if an {@link IllegalArgumentException} is thrown when using illegal arguments.
+     */
+    @Test
+    public final void testGetNotificationsForFailure() {
+        notificationService.setBufferSize(NotificationTestConstants.PERSISTENT_NOTIFICATION_ID, -1);
+        notificationService.send(NotificationTestConstants.PERSISTENT_NOTIFICATION_ID, new Integer(1));
+        try {
+            notificationService.getNotifications(NotificationTestConstants.PERSISTENT_NOTIFICATION_ID, null, 0L);
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertTrue(true);
+        }
+        try {
+            notificationService.getNotifications(NotificationTestConstants.PERSISTENT_NOTIFICATION_ID, 0L, null);
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertTrue(true);
+        }
+    }
+
+    /**
+     * Tests that notifications are delivered to the subscribers of exact, prefix and pattern topics, and that the matching subscribers
+     * are updated on unsubscription.
+     * 
+     * @throws InterruptedException on interruption
+     */
+    @Test
+    public final void testTopicMatching() throws InterruptedException {
+        AtomicInteger exactCounter = new AtomicInteger();
+        AtomicInteger prefixCounter = new AtomicInteger();
+        AtomicInteger patternCounter = new AtomicInteger();
+        NotificationSubscriber prefixSubscriber = createCountingSubscriber(prefixCounter);
+        notificationService.subscribe(NotificationTestConstants.PERSISTENT_NOTIFICATION_ID, createCountingSubscriber(exactCounter));
+        notificationService.subscribe(NotificationTestConstants.PERSISTENT_NOTIFICATION_REGEX, prefixSubscriber);
+        notificationService.subscribe("de\\.rcenvironment\\.rce\\.notification\\.persistent(\\.another)?",
+            createCountingSubscriber(patternCounter));
+
+        notificationService.send(NotificationTestConstants.PERSISTENT_NOTIFICATION_ID, NOTIFICATION_TEXT);
+        notificationService.send(NotificationTestConstants.ANOTHER_PERSISTENT_NOTIFICATION_ID, NOTIFICATION_TEXT);
+        notificationService.send(NotificationTestConstants.NOTIFICATION_ID, NOTIFICATION_TEXT);
+        Thread.sleep(SLEEP);
+        assertEquals(1, exactCounter.get());
+        assertEquals(2, prefixCounter.get());
+        assertEquals(2, patternCounter.get());
+
+        notificationService.unsubscribe(NotificationTestConstants.PERSISTENT_NOTIFICATION_REGEX, prefixSubscriber);
+        notificationService.send(NotificationTestConstants.ANOTHER_PERSISTENT_NOTIFICATION_ID, NOTIFICATION_TEXT);
+        Thread.sleep(SLEEP);
+        assertEquals(1, exactCounter.get());
+        assertEquals(2, prefixCounter.get());
+        assertEquals(3, patternCounter.get());
+    }
+
+    /**
+     * Tests that the first notifications sent concurrently to a new notification id, and thus registering its topic concurrently, get
+     * distinct and consecutive edition numbers.
+     * 
+     * @throws InterruptedException on interruption
+     */
+    @Test
+    public final void testConcurrentTopicRegistration() throws InterruptedException {
+        final int threadCount = 8;
+        final int notificationIdCount = 50;
+        final int unlimitedBufferSize = -1;
+        for (int i = 0; i < notificationIdCount; i++) {
+            final String concurrentNotificationId = NotificationTestConstants.PERSISTENT_NOTIFICATION_ID + ".concurrent" + i;
+            notificationService.setBufferSize(concurrentNotificationId, unlimitedBufferSize);
+            final CountDownLatch startSignal = new CountDownLatch(1);
+            List<Thread> threads = new ArrayList<Thread>();
+            for (int j = 0; j < threadCount; j++) {
+                Thread thread = new Thread() {
+
+                    @Override
+                    public void run() {
+                        try {
+                            startSignal.await();
+                        } catch (InterruptedException e) {
+                            return;
+                        }
+                        notificationService.send(concurrentNotificationId, NOTIFICATION_TEXT);
+                    }
+                };
+                threads.add(thread);
+                thread.start();
+            }
+            startSignal.countDown();
+            for (Thread thread : threads) {
+                thread.join();
+            }
+
+            SortedSet<NotificationHeader> headers = notificationService.getNotificationHeaders(concurrentNotificationId)
+                .get(concurrentNotificationId);
+            assertEquals(threadCount, headers.size());
+            assertEquals(0, headers.first().getNumber());
+            assertEquals(threadCount - 1, headers.last().getNumber());
+        }
+    }
+
+    private NotificationSubscriber createCountingSubscriber(final AtomicInteger counter) {
+        return new DefaultNotificationSubscriber() {
+
+            public void processNotification(Notification notification) {
+                counter.incrementAndGet();
+            }
+
+            @Override
+            public Class<? extends Serializable> getInterface() {
+                return NotificationSubscriber.class;
+            }
+        };
+    }
+
 }
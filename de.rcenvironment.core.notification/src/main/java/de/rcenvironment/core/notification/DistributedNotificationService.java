@@ -19,6 +19,7 @@ import de.rcenvironment.core.communication.common.NodeIdentifier;
  * Supportive service for accessing the {@link NotificationService} without handling remote stuff.
  * 
  * @author Doreen Seider
+ * @author agent (edition ranges)
  */
 public interface DistributedNotificationService {
 
@@ -100,6 +101,21 @@ public interface DistributedNotificationService {
      */
     Map<String, List<Notification>> getNotifications(String notificationId, NodeIdentifier publishPlatform);
 
+    /**
+     * Returns the stored {@link Notification}s represented by the given notification identifier
+     * within the given range of editions.
+     * 
+     * @param notificationId The notification identifier which represents the {@link Notification}
+     *        to get.
+     * @param firstEdition The first edition to return.
+     * @param lastEdition The last edition to return.
+     * @param publishPlatform The {@link NodeIdentifier} of the corresponding publisher.
+     *        <code>null</code> if local.
+     * @return the {@link Notification}s sorted by the matching notification identifier.
+     */
+    Map<String, List<Notification>> getNotifications(String notificationId, long firstEdition, long lastEdition,
+        NodeIdentifier publishPlatform);
+
     /**
      * Returns the {@link Notification} belonging to the given {@link NotificationHeader}.
      * 
@@ -8,9 +8,14 @@
 
 package de.rcenvironment.core.notification;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 import java.io.Serializable;
 
 import de.rcenvironment.core.communication.common.NodeIdentifier;
+import de.rcenvironment.core.communication.common.SerializationException;
+import de.rcenvironment.core.communication.utils.MessageUtils;
 import de.rcenvironment.core.utils.incubator.Assertions;
 
 /**
@@ -19,16 +24,25 @@ import de.rcenvironment.core.utils.incubator.Assertions;
  * {@link Object}. Subscriber has to be aware of the type of the notification in order to handle the
  * body correctly.
  * 
+ * The body is serialized only once per notification, on its first transfer, and the serialized form is reused for all further transfers;
+ * this avoids serializing retained notifications again for each subscriber fetching them. Notification bodies must therefore not be
+ * modified after sending.
+ * 
  * @author Doreen Seider
+ * @author agent (serialized body)
  */
 public class Notification implements Serializable {
 
-    private static final long serialVersionUID = -1148551583045246749L;
+    private static final long serialVersionUID = 5907513422580384766L;
 
     private static final String ASSERT_MUST_NOT_BE_NULL = " must not be null!";
 
     private final NotificationHeader header;
-    private final Serializable body;
+
+    private transient Serializable body;
+
+    // the serialized form of the body; created on the first transfer and reused for all further ones
+    private transient volatile byte[] serializedBody;
 
     /**
      * Creates the {@link NotificationHeader} for this notification.
@@ -49,6 +63,31 @@ public class Notification implements Serializable {
         this.body = body;
     }
 
+    /**
+     * Restores a notification with an existing header; used by {@link NotificationCodec}.
+     * 
+     * @param header the restored header
+     * @param body the payload of this notification
+     */
+    Notification(NotificationHeader header, Serializable body) {
+        this.header = header;
+        this.body = body;
+    }
+
+    /**
+     * Restores a notification with an existing header and a serialized body; used by {@link NotificationCodec}.
+     * 
+     * @param header the restored header
+     * @param serializedBody the serialized payload of the notification
+     * @return the restored notification
+     * @throws IOException if the payload fails to deserialize
+     */
+    static Notification fromSerializedBody(NotificationHeader header, byte[] serializedBody) throws IOException {
+        Notification notification = new Notification(header, deserializeBody(serializedBody));
+        notification.serializedBody = serializedBody;
+        return notification;
+    }
+
     public NotificationHeader getHeader() {
         return header;
     }
@@ -57,6 +96,24 @@ public class Notification implements Serializable {
         return body;
     }
 
+    /**
+     * @return the serialized form of the body; created on the first call
+     * @throws IOException if the body fails to serialize
+     */
+    byte[] getSerializedBody() throws IOException {
+        // not synchronized, as concurrent first calls only lead to duplicate, equal serialization results
+        byte[] result = serializedBody;
+        if (result == null) {
+            try {
+                result = MessageUtils.serializeObject(body);
+            } catch (SerializationException e) {
+                throw new IOException("Failed to serialize the body of notification " + header, e);
+            }
+            serializedBody = result;
+        }
+        return result;
+    }
+
     @Override
     public boolean equals(Object object) {
         if (object instanceof Notification) {
@@ -77,4 +134,27 @@ public class Notification implements Serializable {
         return header.toString() + "_" + body.toString();
     }
 
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        out.defaultWriteObject();
+        byte[] bytes = getSerializedBody();
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        serializedBody = bytes;
+        body = deserializeBody(bytes);
+    }
+
+    private static Serializable deserializeBody(byte[] bytes) throws IOException {
+        try {
+            return MessageUtils.deserializeObject(bytes);
+        } catch (SerializationException e) {
+            throw new IOException("Failed to deserialize the body of a notification", e);
+        }
+    }
+
 }
@@ -0,0 +1,59 @@
+/*
+ * Copyright (C) 2006-2014 DLR, Germany
+ * 
+ * All rights reserved
+ * 
+ * http://www.rcenvironment.de/
+ */
+
+package de.rcenvironment.core.notification;
+
+import java.io.IOException;
+import java.util.Date;
+
+import de.rcenvironment.core.communication.utils.MessageCodec;
+import de.rcenvironment.core.communication.utils.MessageCodecInput;
+import de.rcenvironment.core.communication.utils.MessageCodecOutput;
+
+/**
+ * {@link MessageCodec} for {@link Notification}s, which are sent in large numbers to remote subscribers (for example, for console output
+ * and component states). The body is written in its serialized form, which is created only once per notification.
+ * 
+ * @author agent
+ */
+public final class NotificationCodec implements MessageCodec<Notification> {
+
+    private static final int CODEC_ID = 10;
+
+    @Override
+    public int getCodecId() {
+        return CODEC_ID;
+    }
+
+    @Override
+    public Class<Notification> getHandledClass() {
+        return Notification.class;
+    }
+
+    @Override
+    public void encode(Notification notification, MessageCodecOutput output) throws IOException {
+        NotificationHeader header = notification.getHeader();
+        output.writeNullableString(header.getNotificationIdentifier());
+        output.writeLong(header.getNumber());
+        output.writeNodeIdentifier(header.getPublishPlatform());
+        output.writeLong(header.getTimestamp().getTime());
+        byte[] serializedBody = notification.getSerializedBody();
+        output.writeInt(serializedBody.length);
+        output.write(serializedBody);
+    }
+
+    @Override
+    public Notification decode(MessageCodecInput input) throws IOException {
+        String notificationId = input.readNullableString();
+        long number = input.readLong();
+        NotificationHeader header = new NotificationHeader(notificationId, number, input.readNodeIdentifier(), new Date(input.readLong()));
+        byte[] serializedBody = new byte[input.readInt()];
+        input.readFully(serializedBody);
+        return Notification.fromSerializedBody(header, serializedBody);
+    }
+}
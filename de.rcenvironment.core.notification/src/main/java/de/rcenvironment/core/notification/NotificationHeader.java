@@ -49,6 +49,21 @@ public class NotificationHeader implements Comparable<NotificationHeader>, Seria
         publishPlatform = publisherPlatform;
     }
 
+    /**
+     * Restores a {@link NotificationHeader} with its original creation date; used by {@link NotificationCodec}.
+     * 
+     * @param notificationIdentifier The identifier of the associated notification.
+     * @param edition The edition of the associated notification.
+     * @param publisherPlatform The platform where the associated notification was created.
+     * @param timestamp The creation date of the associated notification.
+     */
+    NotificationHeader(String notificationIdentifier, long edition, NodeIdentifier publisherPlatform, Date timestamp) {
+        this.timestamp = timestamp;
+        notificationId = notificationIdentifier;
+        number = edition;
+        publishPlatform = publisherPlatform;
+    }
+
     /**
      * Returns the creation date of the associated notification.
      * 
@@ -19,6 +19,7 @@ import java.util.SortedSet;
  * 
  * @author Andre Nurzenski
  * @author Doreen Seider
+ * @author agent (edition ranges)
  */
 public interface NotificationService {
 
@@ -97,6 +98,20 @@ public interface NotificationService {
      */
     Map<String, List<Notification>> getNotifications(String notificationId);
 
+    /**
+     * Returns the stored {@link Notification}s represented by the given notification identifier
+     * within the given range of editions, e.g. to fetch only the notifications missed before
+     * subscribing.
+     * 
+     * @param notificationId The notification identifier which represents the
+     *        {@link Notification} to get the {@link NotificationHeader} for.
+     * @param firstEdition The first edition to return; must not be null.
+     * @param lastEdition The last edition to return; must not be null.
+     * @return the {@link Notification}s, in ascending order of their editions.
+     * @throws IllegalArgumentException if one of the editions is null
+     */
+    Map<String, List<Notification>> getNotifications(String notificationId, Long firstEdition, Long lastEdition);
+
     /**
      * Returns the {@link Notification} belonging to the given {@link NotificationHeader}.
      * 
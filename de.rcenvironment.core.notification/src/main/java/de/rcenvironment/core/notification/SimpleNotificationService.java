@@ -22,6 +22,7 @@ import de.rcenvironment.core.utils.incubator.ServiceRegistryAccess;
  * abstraction of all distributed {@link NotificationService}s.
  * 
  * @author Doreen Seider
+ * @author agent (edition ranges)
  */
 public class SimpleNotificationService {
 
@@ -137,6 +138,22 @@ public class SimpleNotificationService {
         return distrNotificationService.getNotifications(notificationId, publishPlatform);
     }
 
+    /**
+     * Returns the stored {@link Notification}s represented by the given notification identifier within the given range of editions.
+     * 
+     * @param notificationId The notification identifier which represents the {@link Notification}
+     *        to get (can be regEx).
+     * @param firstEdition The first edition to return.
+     * @param lastEdition The last edition to return.
+     * @param publishPlatform The {@link NodeIdentifier} of the corresponding publisher.
+     *        <code>null</code> if local.
+     * @return the {@link Notification}s sorted by the matching notification identifier.
+     */
+    public Map<String, List<Notification>> getNotifications(String notificationId, long firstEdition, long lastEdition,
+        NodeIdentifier publishPlatform) {
+        return distrNotificationService.getNotifications(notificationId, firstEdition, lastEdition, publishPlatform);
+    }
+
     /**
      * Returns the {@link Notification} belonging to the given {@link NotificationHeader}.
      * 
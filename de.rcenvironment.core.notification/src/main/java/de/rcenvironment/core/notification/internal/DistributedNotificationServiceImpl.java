@@ -25,8 +25,10 @@ import org.osgi.framework.BundleContext;
 
 import de.rcenvironment.core.communication.api.CommunicationService;
 import de.rcenvironment.core.communication.common.NodeIdentifier;
+import de.rcenvironment.core.communication.utils.MessageCodecRegistry;
 import de.rcenvironment.core.notification.DistributedNotificationService;
 import de.rcenvironment.core.notification.Notification;
+import de.rcenvironment.core.notification.NotificationCodec;
 import de.rcenvironment.core.notification.NotificationHeader;
 import de.rcenvironment.core.notification.NotificationService;
 import de.rcenvironment.core.notification.NotificationSubscriber;
@@ -40,7 +42,7 @@ import de.rcenvironment.core.utils.common.concurrent.TaskDescription;
  * Implementation of {@link DistributedNotificationService}.
  * 
  * @author Doreen Seider
- * 
+ * @author agent (edition ranges)
  */
 // FIXME clarify behavior on failure: return null, empty collections or throw exceptions? -- misc_ro
 // (see related Mantis issue #6542)
@@ -58,6 +60,7 @@ public class DistributedNotificationServiceImpl implements DistributedNotificati
 
     protected void activate(BundleContext bundleContext) {
         context = bundleContext;
+        MessageCodecRegistry.register(new NotificationCodec());
     }
 
     protected void bindNotificationService(NotificationService newNotificationService) {
@@ -173,6 +176,19 @@ public class DistributedNotificationServiceImpl implements DistributedNotificati
         }
     }
 
+    @Override
+    public Map<String, List<Notification>> getNotifications(String notificationId, long firstEdition, long lastEdition,
+        NodeIdentifier publishPlatform) {
+        try {
+            return ((NotificationService) communicationService.getService(NotificationService.class, publishPlatform, context))
+                .getNotifications(notificationId, firstEdition, lastEdition);
+        } catch (RuntimeException e) {
+            String message = MessageFormat.format("Failed to get remote notifications @{0}: ", publishPlatform);
+            LOGGER.error(message, e);
+            throw new IllegalStateException(message, e);
+        }
+    }
+
     @Override
     public Notification getNotification(NotificationHeader header) {
         try {
@@ -0,0 +1,172 @@
+/*
+ * Copyright (C) 2006-2014 DLR, Germany
+ * 
+ * All rights reserved
+ * 
+ * http://www.rcenvironment.de/
+ */
+
+package de.rcenvironment.core.notification.internal;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+import de.rcenvironment.core.notification.Notification;
+import de.rcenvironment.core.notification.NotificationHeader;
+
+/**
+ * Ring buffer of the most recent {@link Notification}s of a single notification id. As the editions of a notification id are sequential,
+ * notifications are located by their edition without any lookup structure; appending and evicting the oldest notification take constant
+ * time.
+ * 
+ * A positive buffer size limits the number of retained notifications; otherwise, all notifications are retained. The slots are allocated
+ * as needed, up to the buffer size, as many buffers are configured with sizes that are rarely reached.
+ * 
+ * @author agent
+ */
+final class NotificationBuffer {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private Notification[] slots;
+
+    // the index of the oldest notification
+    private int head;
+
+    private int size;
+
+    private int maxSize;
+
+    /**
+     * @param bufferSize the maximum number of notifications to retain, or a negative value to retain all
+     */
+    NotificationBuffer(int bufferSize) {
+        maxSize = getMaxSize(bufferSize);
+        slots = new Notification[Math.min(INITIAL_CAPACITY, maxSize)];
+    }
+
+    /**
+     * Changes the maximum number of notifications to retain; if it is lowered, the oldest notifications are evicted.
+     * 
+     * @param bufferSize the maximum number of notifications to retain, or a negative value to retain all
+     */
+    public synchronized void setBufferSize(int bufferSize) {
+        maxSize = getMaxSize(bufferSize);
+        while (size > maxSize) {
+            evictOldest();
+        }
+        if (slots.length > maxSize) {
+            resize(maxSize);
+        }
+    }
+
+    /**
+     * Appends a notification, evicting the oldest one if the buffer is full. The notification is expected to have the edition following
+     * the one of the last appended notification; if it has not (for example, after the publisher was removed concurrently), the buffer
+     * is cleared before.
+     * 
+     * @param notification the notification to append
+     */
+    public synchronized void append(Notification notification) {
+        if (size > 0 && notification.getHeader().getNumber() != getLastEdition() + 1) {
+            clear();
+        }
+        if (size >= maxSize) {
+            evictOldest();
+        } else if (size == slots.length) {
+            resize((int) Math.min(slots.length * 2L, maxSize));
+        }
+        slots[(head + size) % slots.length] = notification;
+        size++;
+    }
+
+    /**
+     * @param edition the edition of the notification
+     * @return the retained notification with the given edition, or null if there is none
+     */
+    public synchronized Notification get(long edition) {
+        if (size == 0 || edition < getFirstEdition() || edition > getLastEdition()) {
+            return null;
+        }
+        return getAt((int) (edition - getFirstEdition()));
+    }
+
+    /**
+     * @param firstEdition the first edition to return
+     * @param lastEdition the last edition to return
+     * @return the retained notifications within the given range of editions, in ascending order
+     */
+    public synchronized List<Notification> getRange(long firstEdition, long lastEdition) {
+        if (size == 0 || firstEdition > getLastEdition() || lastEdition < getFirstEdition()) {
+            return new ArrayList<Notification>();
+        }
+        long firstRetainedEdition = getFirstEdition();
+        int from = (int) (Math.max(firstEdition, firstRetainedEdition) - firstRetainedEdition);
+        int to = (int) (Math.min(lastEdition, getLastEdition()) - firstRetainedEdition);
+        List<Notification> notifications = new ArrayList<Notification>(Math.max(to - from + 1, 0));
+        for (int i = from; i <= to; i++) {
+            notifications.add(getAt(i));
+        }
+        return notifications;
+    }
+
+    /**
+     * @return all retained notifications, in ascending order
+     */
+    public synchronized List<Notification> getAll() {
+        return getRange(Long.MIN_VALUE, Long.MAX_VALUE);
+    }
+
+    /**
+     * @return the headers of all retained notifications
+     */
+    public synchronized SortedSet<NotificationHeader> getHeaders() {
+        SortedSet<NotificationHeader> headers = new TreeSet<NotificationHeader>();
+        for (int i = 0; i < size; i++) {
+            headers.add(getAt(i).getHeader());
+        }
+        return headers;
+    }
+
+    private Notification getAt(int offset) {
+        return slots[(head + offset) % slots.length];
+    }
+
+    private long getFirstEdition() {
+        return getAt(0).getHeader().getNumber();
+    }
+
+    private long getLastEdition() {
+        return getAt(size - 1).getHeader().getNumber();
+    }
+
+    private void evictOldest() {
+        slots[head] = null;
+        head = (head + 1) % slots.length;
+        size--;
+    }
+
+    private void clear() {
+        slots = new Notification[slots.length];
+        head = 0;
+        size = 0;
+    }
+
+    private void resize(int capacity) {
+        Notification[] newSlots = new Notification[capacity];
+        for (int i = 0; i < size; i++) {
+            newSlots[i] = getAt(i);
+        }
+        slots = newSlots;
+        head = 0;
+    }
+
+    private static int getMaxSize(int bufferSize) {
+        if (bufferSize > 0) {
+            return bufferSize;
+        }
+        return Integer.MAX_VALUE;
+    }
+}
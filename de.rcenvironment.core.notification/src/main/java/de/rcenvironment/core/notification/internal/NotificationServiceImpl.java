@@ -11,17 +11,17 @@ package de.rcenvironment.core.notification.internal;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.SortedMap;
 import java.util.SortedSet;
-import java.util.TreeMap;
-import java.util.TreeSet;
 import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -131,28 +131,35 @@ public class NotificationServiceImpl implements NotificationService {
     // NOTE: arbitrary value; adjust when useful/necessary
     private static final long MAX_NOTIFICATION_LATENCY = 100;
 
+    // the maximum number of notification ids to cache the matching subscribers for; the cache is cleared when exceeded
+    private static final int MAX_CACHED_NOTIFICATION_IDS = 10000;
+
     private static final Log LOGGER = LogFactory.getLog(NotificationServiceImpl.class);
 
     /** Local topics. */
-    private Map<String, NotificationTopic> topics = Collections.synchronizedMap(new HashMap<String, NotificationTopic>());
+    private ConcurrentMap<String, NotificationTopic> topics = new ConcurrentHashMap<String, NotificationTopic>();
 
-    /** Current number of all notifications. */
-    private Map<String, Long> currentNumbers = Collections.synchronizedMap(new HashMap<String, Long>());
+    /** Index of the local topics by the notification ids they match. */
+    private final NotificationTopicIndex topicIndex = new NotificationTopicIndex();
+
+    /** The subscribers of all topics matching a notification id, by notification id; cleared on any subscription change. */
+    private final ConcurrentMap<String, Collection<NotificationSubscriber>> matchingSubscribersCache =
+        new ConcurrentHashMap<String, Collection<NotificationSubscriber>>();
 
-    /** Buffer sizes of all notifications. */
-    private Map<String, Integer> bufferSizes = Collections.synchronizedMap(new HashMap<String, Integer>());
+    /** Incremented on any subscription change, to detect cache entries computed from outdated subscriptions. */
+    private final AtomicLong subscriptionsVersion = new AtomicLong();
 
-    /** Stored notifications. */
-    private Map<String, SortedMap<NotificationHeader, Notification>> allNotifications =
-        Collections.synchronizedMap(new HashMap<String, SortedMap<NotificationHeader, Notification>>());
+    /** Current number of all notifications. */
+    private ConcurrentMap<String, Long> currentNumbers = new ConcurrentHashMap<String, Long>();
+
+    /** Stored notifications, by notification id; only present for notification ids with a buffer size set. */
+    private ConcurrentMap<String, NotificationBuffer> notificationBuffers = new ConcurrentHashMap<String, NotificationBuffer>();
 
     private WeakHashMap<NotificationSubscriber, LocalSubscriberMetaData> subscriberMap =
         new WeakHashMap<NotificationSubscriber, NotificationServiceImpl.LocalSubscriberMetaData>();
 
     private PlatformService platformService;
 
-    private Object lock = new Object();
-
     protected void bindPlatformService(PlatformService newPlatformService) {
         platformService = newPlatformService;
     }
@@ -160,12 +167,9 @@ public class NotificationServiceImpl implements NotificationService {
     @Override
     public void setBufferSize(String notificationId, int bufferSize) {
         if (bufferSize != 0) {
-            bufferSizes.put(notificationId, new Integer(bufferSize));
-            // synchronize explicitly to avoid potential "lost update" problem
-            synchronized (allNotifications) {
-                if (!allNotifications.containsKey(notificationId)) {
-                    allNotifications.put(notificationId, new TreeMap<NotificationHeader, Notification>());
-                }
+            NotificationBuffer buffer = notificationBuffers.putIfAbsent(notificationId, new NotificationBuffer(bufferSize));
+            if (buffer != null) {
+                buffer.setBufferSize(bufferSize);
             }
         }
     }
@@ -173,53 +177,50 @@ public class NotificationServiceImpl implements NotificationService {
     @Override
     public void removePublisher(String notificationId) {
 
-        synchronized (topics) {
-            NotificationTopic topic = getNotificationTopic(notificationId);
-            if (topic != null) {
-                topics.remove(topic.getName());
-                currentNumbers.remove(notificationId);
-                bufferSizes.remove(notificationId);
-                allNotifications.remove(notificationId);
-            }
+        NotificationTopic topic = topics.remove(notificationId);
+        if (topic != null) {
+            topicIndex.remove(topic);
+            currentNumbers.remove(notificationId);
+            notificationBuffers.remove(notificationId);
+            invalidateMatchingSubscribers();
         }
     }
 
     @Override
-    public synchronized <T extends Serializable> void send(String notificationId, T notificationBody) {
+    public <T extends Serializable> void send(String notificationId, T notificationBody) {
 
         StatsCounter.count("Notification Ids", notificationId);
         StatsCounter.countClass("Notification Body Types", notificationBody);
 
-        if (getNotificationTopic(notificationId) == null) {
-            registerNotificationTopic(notificationId);
+        NotificationTopic topic = getNotificationTopic(notificationId);
+        if (topic == null) {
+            topic = registerNotificationTopic(notificationId);
         }
+        Collection<NotificationSubscriber> subscribers = getMatchingSubscribers(notificationId);
+
+        // the topic of the notification id serves as the lock for assigning edition numbers, buffering and enqueueing, so the editions
+        // of each notification id are consistent and ordered, while notifications with different ids are sent concurrently
+        synchronized (topic) {
+            Long currentEdition = currentNumbers.get(notificationId);
+            if (currentEdition == null) {
+                // publisher removed concurrently
+                currentEdition = new Long(NO_MISSED);
+            }
+            Notification notification = new Notification(notificationId, currentEdition.longValue() + 1,
+                platformService.getLocalNodeId(), notificationBody);
 
-        Long currentEdition = currentNumbers.get(notificationId);
-        Notification notification = new Notification(notificationId, currentEdition.longValue() + 1,
-            platformService.getLocalNodeId(), notificationBody);
-
-        SortedMap<NotificationHeader, Notification> notifications = allNotifications.get(notificationId);
-        if (notifications != null) {
-            Integer bufferSize = bufferSizes.get(notificationId);
-
-            if (bufferSize > 0 && notifications.size() >= bufferSize) {
-                if (notifications.remove(notifications.firstKey()) != null) {
-                    notifications.put(notification.getHeader(), notification);
-                }
-            } else {
-                notifications.put(notification.getHeader(), notification);
+            NotificationBuffer buffer = notificationBuffers.get(notificationId);
+            if (buffer != null) {
+                buffer.append(notification);
             }
-        }
 
-        for (NotificationTopic matchingTopic : getMatchingNotificationTopics(notificationId)) {
-            for (NotificationSubscriber subscriber : matchingTopic.getSubscribers()) {
+            for (NotificationSubscriber subscriber : subscribers) {
                 StatsCounter.count("Notifications enqueued by type", notificationId);
                 sendNotificationToSubscriber(notification, subscriber);
             }
-        }
 
-        // TODO review: is this guaranteed to be consistent with asynchronous sending? -- misc_ro
-        currentNumbers.put(notificationId, notification.getHeader().getNumber());
+            currentNumbers.put(notificationId, notification.getHeader().getNumber());
+        }
     }
 
     private void sendNotificationToSubscriber(Notification notification, NotificationSubscriber subscriber) {
@@ -232,23 +233,19 @@ public class NotificationServiceImpl implements NotificationService {
 
         Map<String, Long> lastNumbers = new HashMap<String, Long>();
 
-        NotificationTopic topic;
-
-        synchronized (topics) {
-            topic = getNotificationTopic(notificationId);
-            if (topic == null) {
-                topic = registerNotificationTopic(notificationId);
-                StatsCounter.count("Register Topic", notificationId);
-            }
+        NotificationTopic topic = getNotificationTopic(notificationId);
+        if (topic == null) {
+            topic = registerNotificationTopic(notificationId);
+            StatsCounter.count("Register Topic", notificationId);
         }
         topic.add(subscriber);
         getLocalSubscriberMetaData(subscriber).addSubscribedTopic(topic);
+        invalidateMatchingSubscribers();
 
-        synchronized (currentNumbers) {
-            for (String tmpId : currentNumbers.keySet()) {
-                if (tmpId.matches(notificationId)) {
-                    lastNumbers.put(tmpId, currentNumbers.get(tmpId));
-                }
+        Pattern filter = topic.getNotificationIdFilter();
+        for (Map.Entry<String, Long> entry : currentNumbers.entrySet()) {
+            if (filter.matcher(entry.getKey()).matches()) {
+                lastNumbers.put(entry.getKey(), entry.getValue());
             }
         }
 
@@ -259,61 +256,58 @@ public class NotificationServiceImpl implements NotificationService {
     @AllowRemoteAccess
     public void unsubscribe(String notificationId, NotificationSubscriber subscriber) {
 
-        synchronized (topics) {
-            NotificationTopic topic = getNotificationTopic(notificationId);
-            if (topic != null) {
-                topic.remove(subscriber);
-                getLocalSubscriberMetaData(subscriber).removeSubscribedTopic(topic);
-            }
+        NotificationTopic topic = getNotificationTopic(notificationId);
+        if (topic != null) {
+            topic.remove(subscriber);
+            getLocalSubscriberMetaData(subscriber).removeSubscribedTopic(topic);
+            invalidateMatchingSubscribers();
         }
     }
 
     @Override
     public Notification getNotification(NotificationHeader header) {
 
-        Notification notification = null;
-        Map<NotificationHeader, Notification> notifications = allNotifications.get(header.getNotificationIdentifier());
-        if (notifications != null) {
-            notification = notifications.get(header);
+        NotificationBuffer buffer = notificationBuffers.get(header.getNotificationIdentifier());
+        if (buffer != null) {
+            Notification notification = buffer.get(header.getNumber());
+            if (notification != null && notification.getHeader().equals(header)) {
+                return notification;
+            }
         }
-        return notification;
+        return null;
     }
 
     @Override
     public Map<String, SortedSet<NotificationHeader>> getNotificationHeaders(String notificationId) {
 
         Map<String, SortedSet<NotificationHeader>> allHeaders = new HashMap<String, SortedSet<NotificationHeader>>();
-
-        // note: access to iterators of synchronized maps must be synchronized explicitly
-        synchronized (allNotifications) {
-            // TODO iterating over map entries would probably be more efficient
-            for (String tmpId : allNotifications.keySet()) {
-                if (tmpId.matches(notificationId)) {
-                    Map<NotificationHeader, Notification> notifications = allNotifications.get(tmpId);
-                    SortedSet<NotificationHeader> headers = new TreeSet<NotificationHeader>(notifications.keySet());
-                    allHeaders.put(tmpId, headers);
-                }
+        Pattern filter = Pattern.compile(notificationId);
+        for (Map.Entry<String, NotificationBuffer> entry : notificationBuffers.entrySet()) {
+            if (filter.matcher(entry.getKey()).matches()) {
+                allHeaders.put(entry.getKey(), entry.getValue().getHeaders());
             }
         }
-
         return allHeaders;
     }
 
     @Override
     @AllowRemoteAccess
     public Map<String, List<Notification>> getNotifications(String notificationId) {
+        return getNotifications(notificationId, Long.MIN_VALUE, Long.MAX_VALUE);
+    }
 
-        Map<String, List<Notification>> allNotificationsToGet = new HashMap<String, List<Notification>>();
+    @Override
+    @AllowRemoteAccess
+    public Map<String, List<Notification>> getNotifications(String notificationId, Long firstEdition, Long lastEdition) {
+        if (firstEdition == null || lastEdition == null) {
+            throw new IllegalArgumentException("The first and the last edition must not be null");
+        }
 
-        // note: access to iterators of synchronized maps must be synchronized explicitly
-        synchronized (allNotifications) {
-            // TODO iterating over map entries would probably be more efficient
-            for (String tmpId : allNotifications.keySet()) {
-                if (tmpId.matches(notificationId)) {
-                    Map<NotificationHeader, Notification> notifications = allNotifications.get(tmpId);
-                    List<Notification> notificationsToGet = new ArrayList<Notification>(notifications.values());
-                    allNotificationsToGet.put(tmpId, notificationsToGet);
-                }
+        Map<String, List<Notification>> allNotificationsToGet = new HashMap<String, List<Notification>>();
+        Pattern filter = Pattern.compile(notificationId);
+        for (Map.Entry<String, NotificationBuffer> entry : notificationBuffers.entrySet()) {
+            if (filter.matcher(entry.getKey()).matches()) {
+                allNotificationsToGet.put(entry.getKey(), entry.getValue().getRange(firstEdition, lastEdition));
             }
         }
         return allNotificationsToGet;
@@ -348,28 +342,21 @@ public class NotificationServiceImpl implements NotificationService {
 
     private NotificationTopic registerNotificationTopic(String notificationId) {
 
+        // initialize the edition number before the topic is published, so it cannot overwrite the number of a notification sent
+        // concurrently to the new topic; if the topic is registered concurrently, the number is already present and kept
+        currentNumbers.putIfAbsent(notificationId, new Long(NO_MISSED));
         NotificationTopic topic = new NotificationTopic(notificationId);
-        synchronized (topics) {
-            topics.put(topic.getName(), topic);            
+        NotificationTopic existingTopic = topics.putIfAbsent(notificationId, topic);
+        if (existingTopic != null) {
+            // registered concurrently
+            return existingTopic;
         }
-        currentNumbers.put(notificationId, new Long(NO_MISSED));
+        topicIndex.add(topic);
         return topic;
     }
 
     private NotificationTopic getNotificationTopic(String notificationId) {
-
-        NotificationTopic topic = null;
-        synchronized (topics) {
-            for (String topicName : topics.keySet()) {
-                if (topicName.equals(notificationId)) {
-                    topic = topics.get(topicName);
-                    break;
-                }
-            }
-        }
-        
-        return topic;
-
+        return topics.get(notificationId);
     }
 
     private LocalSubscriberMetaData getLocalSubscriberMetaData(NotificationSubscriber subscriber) {
@@ -387,17 +374,38 @@ public class NotificationServiceImpl implements NotificationService {
         }
     }
 
-    private Set<NotificationTopic> getMatchingNotificationTopics(String currentNotificationId) {
-
-        Set<NotificationTopic> matchingTopics = new HashSet<NotificationTopic>();
-        synchronized (topics) {
-            for (NotificationTopic topic : topics.values()) {
-                if (topic.getNotificationIdFilter().matcher(currentNotificationId).matches()) {
-                    matchingTopics.add(topic);
-                }
-            }
-            return matchingTopics;
+    /**
+     * Returns the subscribers of all topics matching the given notification id. The result is cached per notification id until the
+     * subscriptions change.
+     * 
+     * @param notificationId the notification id
+     * @return the matching subscribers; must not be modified
+     */
+    private Collection<NotificationSubscriber> getMatchingSubscribers(String notificationId) {
+        Collection<NotificationSubscriber> subscribers = matchingSubscribersCache.get(notificationId);
+        if (subscribers != null) {
+            return subscribers;
+        }
+        long version = subscriptionsVersion.get();
+        Set<NotificationSubscriber> matchingSubscribers = new HashSet<NotificationSubscriber>();
+        for (NotificationTopic matchingTopic : topicIndex.getMatchingTopics(notificationId)) {
+            matchingSubscribers.addAll(matchingTopic.getSubscribers());
+        }
+        subscribers = new ArrayList<NotificationSubscriber>(matchingSubscribers);
+        if (matchingSubscribersCache.size() >= MAX_CACHED_NOTIFICATION_IDS) {
+            matchingSubscribersCache.clear();
         }
+        matchingSubscribersCache.put(notificationId, subscribers);
+        if (subscriptionsVersion.get() != version) {
+            // the subscriptions changed while computing the result, so it may be outdated already
+            matchingSubscribersCache.remove(notificationId, subscribers);
+        }
+        return subscribers;
+    }
+
+    private void invalidateMatchingSubscribers() {
+        subscriptionsVersion.incrementAndGet();
+        matchingSubscribersCache.clear();
     }
 
 }
@@ -0,0 +1,121 @@
+/*
+ * Copyright (C) 2006-2014 DLR, Germany
+ * 
+ * All rights reserved
+ * 
+ * http://www.rcenvironment.de/
+ */
+
+package de.rcenvironment.core.notification.internal;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Index of {@link NotificationTopic}s to find the topics matching a notification id without evaluating the regular expression of each
+ * topic. Topics are separated into three kinds:
+ * <ul>
+ * <li>exact topics, which contain no regular expression operators and are looked up by their name;</li>
+ * <li>prefix topics, which consist of such a name followed by ".*" and are looked up by the prefixes of the notification id;</li>
+ * <li>pattern topics, which are matched by their regular expression.</li>
+ * </ul>
+ * As dots are only used as separators in notification ids, the dots of exact and prefix topics are matched literally.
+ * 
+ * @author agent
+ */
+final class NotificationTopicIndex {
+
+    private static final String PREFIX_WILDCARD = ".*";
+
+    // all regular expression operators except the dot
+    private static final String REGEX_OPERATORS = "\\[](){}*+?^$|";
+
+    private final Map<String, NotificationTopic> exactTopics = new ConcurrentHashMap<String, NotificationTopic>();
+
+    private final Map<String, NotificationTopic> prefixTopics = new ConcurrentHashMap<String, NotificationTopic>();
+
+    // the lengths of all prefixes that were registered; not cleaned up, as there are only a few different ones
+    private final Set<Integer> prefixLengths = new ConcurrentSkipListSet<Integer>();
+
+    private final List<NotificationTopic> patternTopics = new CopyOnWriteArrayList<NotificationTopic>();
+
+    /**
+     * Adds a topic to the index.
+     * 
+     * @param topic the topic to add
+     */
+    public void add(NotificationTopic topic) {
+        String name = topic.getName();
+        if (isLiteral(name)) {
+            exactTopics.put(name, topic);
+        } else if (name.endsWith(PREFIX_WILDCARD) && isLiteral(getPrefix(name))) {
+            String prefix = getPrefix(name);
+            prefixTopics.put(prefix, topic);
+            prefixLengths.add(prefix.length());
+        } else {
+            patternTopics.add(topic);
+        }
+    }
+
+    /**
+     * Removes a topic from the index.
+     * 
+     * @param topic the topic to remove
+     */
+    public void remove(NotificationTopic topic) {
+        String name = topic.getName();
+        if (isLiteral(name)) {
+            exactTopics.remove(name);
+        } else if (name.endsWith(PREFIX_WILDCARD) && isLiteral(getPrefix(name))) {
+            prefixTopics.remove(getPrefix(name));
+        } else {
+            patternTopics.remove(topic);
+        }
+    }
+
+    /**
+     * @param notificationId the notification id to match
+     * @return all indexed topics matching the given notification id
+     */
+    public Set<NotificationTopic> getMatchingTopics(String notificationId) {
+        Set<NotificationTopic> matchingTopics = new HashSet<NotificationTopic>();
+        NotificationTopic exactTopic = exactTopics.get(notificationId);
+        if (exactTopic != null) {
+            matchingTopics.add(exactTopic);
+        }
+        for (Integer prefixLength : prefixLengths) {
+            if (prefixLength > notificationId.length()) {
+                // the set is sorted, so all following prefixes are longer, too
+                break;
+            }
+            NotificationTopic prefixTopic = prefixTopics.get(notificationId.substring(0, prefixLength));
+            if (prefixTopic != null) {
+                matchingTopics.add(prefixTopic);
+            }
+        }
+        for (NotificationTopic patternTopic : patternTopics) {
+            if (patternTopic.getNotificationIdFilter().matcher(notificationId).matches()) {
+                matchingTopics.add(patternTopic);
+            }
+        }
+        return matchingTopics;
+    }
+
+    private static String getPrefix(String name) {
+        return name.substring(0, name.length() - PREFIX_WILDCARD.length());
+    }
+
+    private static boolean isLiteral(String name) {
+        for (int i = 0; i < name.length(); i++) {
+            if (REGEX_OPERATORS.indexOf(name.charAt(i)) >= 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -58,6 +58,12 @@ public class MockDistributedNotificationService implements DistributedNotificati
         return null;
     }
 
+    @Override
+    public Map<String, List<Notification>> getNotifications(String notificationId, long firstEdition, long lastEdition,
+        NodeIdentifier publishPlatform) {
+        return null;
+    }
+
     @Override
     public Notification getNotification(NotificationHeader header) {
         return null;
@@ -100,13 +100,9 @@ public final class ScriptDataTypeHelper {
                 }
             }
             if (allFloat) {
-                FloatTD[] values = new FloatTD[list.size()];
-                for (int i = 0; i < list.size(); i++) {
-                    if (list.get(i) instanceof Double) {
-                        values[i] = typedDatumFactory.createFloat((Double) list.get(i));
-                    } else {
-                        values[i] = typedDatumFactory.createFloat((Integer) list.get(i));
-                    }
+                double[] values = new double[list.size()];
+                for (int i = 0; i < values.length; i++) {
+                    values[i] = ((Number) list.get(i)).doubleValue();
                 }
                 returnValue = typedDatumFactory.createVector(values);
             }
@@ -237,14 +237,15 @@ public final class ScriptingUtils {
                 break;
             case Vector:
                 VectorTD vector = (VectorTD) input;
-                nameAndValue += openBracket;
-                for (int i = 0; i < vector.getRowDimension(); i++) {
-                    nameAndValue += vector.getFloatTDOfElement(i).getFloatValue() + COMMA;
-                }
-                if (vector.getRowDimension() > 0) {
-                    nameAndValue = nameAndValue.substring(0, nameAndValue.length() - 1);
+                StringBuilder vectorText = new StringBuilder(openBracket);
+                double[] vectorValues = vector.toDoubleArray();
+                for (int i = 0; i < vectorValues.length; i++) {
+                    if (i > 0) {
+                        vectorText.append(COMMA);
+                    }
+                    vectorText.append(vectorValues[i]);
                 }
-                nameAndValue += CLOSE_LIST_NEWLINE;
+                nameAndValue += vectorText.append(CLOSE_LIST_NEWLINE).toString();
                 break;
             case SmallTable:
                 SmallTableTD table = (SmallTableTD) input;
@@ -367,21 +368,13 @@ public final class ScriptingUtils {
             outputValue = handeFileOrDirectoryOutput(value, "directory ", name, workingPath, componentContext, outputValue);
             break;
         case Vector:
-            VectorTD vector = null;
             List<Object> vectorRow = (List<Object>) value;
-            vector = typedDatumFactory.createVector(vectorRow.size());
+            double[] vectorValues = new double[vectorRow.size()];
             int index = 0;
             for (Object element : vectorRow) {
-                double convertedValue = 0;
-                if (element instanceof Integer) {
-                    convertedValue = (Integer) element;
-                } else {
-                    convertedValue = (Double) element;
-                }
-                vector.setFloatTDForElement(typedDatumFactory.createFloat(convertedValue), index);
-                index++;
+                vectorValues[index++] = ((Number) element).doubleValue();
             }
-            outputValue = vector;
+            outputValue = typedDatumFactory.createVector(vectorValues);
             break;
         case SmallTable:
             List<Object> rowArray = (List<Object>) value;
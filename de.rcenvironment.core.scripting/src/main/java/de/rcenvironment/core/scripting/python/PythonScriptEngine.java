@@ -298,9 +298,10 @@ public class PythonScriptEngine implements ScriptEngine {
                 break;
             case Vector:
                 VectorTD vector = (VectorTD) compContext.readInput(inputName);
-                Object[] resultVector = new Object[vector.getRowDimension()];
-                for (int j = 0; j < vector.getRowDimension(); j++) {
-                    resultVector[j] = vector.getFloatTDOfElement(j).getFloatValue();
+                double[] vectorValues = vector.toDoubleArray();
+                Object[] resultVector = new Object[vectorValues.length];
+                for (int j = 0; j < vectorValues.length; j++) {
+                    resultVector[j] = vectorValues[j];
                 }
                 inputsToWrite.put(inputName, resultVector);
                 break;
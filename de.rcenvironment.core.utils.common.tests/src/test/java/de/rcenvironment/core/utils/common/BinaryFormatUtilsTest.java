@@ -0,0 +1,111 @@
+/*
+ * Copyright (C) 2006-2014 DLR, Germany
+ * 
+ * All rights reserved
+ * 
+ * http://www.rcenvironment.de/
+ */
+
+package de.rcenvironment.core.utils.common;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+import org.junit.Test;
+
+/**
+ * Test cases for {@link BinaryFormatUtils}.
+ * 
+ * @author agent
+ */
+public class BinaryFormatUtilsTest {
+
+    private static final int LARGE_ARRAY_SIZE = 20000;
+
+    private static final String NON_ASCII_STRING = "\u00e4\u00f6\u00fc \u20ac";
+
+    /**
+     * Tests round-trips of int and long boundary values.
+     * 
+     * @throws IOException on unexpected errors
+     */
+    @Test
+    public void testVarIntRoundTrips() throws IOException {
+        int[] intValues = { 0, 1, 127, 128, 16383, 16384, Integer.MAX_VALUE };
+        long[] longValues = { 0, 1, -1, 63, -64, 64, -65, Integer.MIN_VALUE, Long.MAX_VALUE, Long.MIN_VALUE };
+
+        ByteArrayOutputStream byteStream = new ByteArrayOutputStream();
+        DataOutputStream output = new DataOutputStream(byteStream);
+        for (int value : intValues) {
+            BinaryFormatUtils.writeUnsignedVarInt(output, value);
+        }
+        for (long value : longValues) {
+            BinaryFormatUtils.writeVarLong(output, value);
+        }
+
+        DataInputStream input = new DataInputStream(new ByteArrayInputStream(byteStream.toByteArray()));
+        for (int value : intValues) {
+            assertEquals(value, BinaryFormatUtils.readUnsignedVarInt(input));
+        }
+        for (long value : longValues) {
+            assertEquals(value, BinaryFormatUtils.readVarLong(input));
+        }
+        assertEquals(0, input.available());
+    }
+
+    /**
+     * Verifies that small values are encoded as single bytes.
+     * 
+     * @throws IOException on unexpected errors
+     */
+    @Test
+    public void testCompactEncodingOfSmallValues() throws IOException {
+        ByteArrayOutputStream byteStream = new ByteArrayOutputStream();
+        DataOutputStream output = new DataOutputStream(byteStream);
+        BinaryFormatUtils.writeUnsignedVarInt(output, 127);
+        BinaryFormatUtils.writeVarLong(output, -64);
+        assertEquals(2, byteStream.size());
+    }
+
+    /**
+     * Tests round-trips of null, empty, non-ASCII and long strings, and of double arrays spanning multiple conversion chunks.
+     * 
+     * @throws IOException on unexpected errors
+     */
+    @Test
+    public void testStringAndDoubleArrayRoundTrips() throws IOException {
+        StringBuilder longString = new StringBuilder();
+        double[] doubles = new double[LARGE_ARRAY_SIZE];
+        for (int i = 0; i < LARGE_ARRAY_SIZE; i++) {
+            longString.append((char) ('a' + i % 26));
+            doubles[i] = i * Math.PI;
+        }
+        doubles[1] = Double.NaN;
+        doubles[2] = Double.NEGATIVE_INFINITY;
+
+        ByteArrayOutputStream byteStream = new ByteArrayOutputStream();
+        DataOutputStream output = new DataOutputStream(byteStream);
+        BinaryFormatUtils.writeString(output, null);
+        BinaryFormatUtils.writeString(output, "");
+        BinaryFormatUtils.writeString(output, NON_ASCII_STRING);
+        BinaryFormatUtils.writeString(output, longString.toString());
+        BinaryFormatUtils.writeDoubles(output, doubles);
+
+        DataInputStream input = new DataInputStream(new ByteArrayInputStream(byteStream.toByteArray()));
+        assertNull(BinaryFormatUtils.readString(input));
+        assertEquals("", BinaryFormatUtils.readString(input));
+        assertEquals(NON_ASCII_STRING, BinaryFormatUtils.readString(input));
+        assertEquals(longString.toString(), BinaryFormatUtils.readString(input));
+        double[] restored = new double[LARGE_ARRAY_SIZE];
+        BinaryFormatUtils.readDoubles(input, restored);
+        assertArrayEquals(doubles, restored, 0.0);
+        assertEquals(0, input.available());
+    }
+}
@@ -35,6 +35,7 @@ import de.rcenvironment.core.utils.common.concurrent.BatchAggregator.BatchProces
  * Unit test for {@link BatchAggregator}.
  * 
  * @author Robert Mischke
+ * @author agent (flush test)
  */
 public class BatchAggregatorTest {
 
@@ -243,6 +244,43 @@ public class BatchAggregatorTest {
         assertEquals("msg100", collector.receivedBatches.get(numBatches - 1).get(maxBatchSize - 1));
     }
 
+    /**
+     * Tests that {@link BatchAggregator#flush()} returns after the current batch has been processed, without waiting for the maximum
+     * latency, that the pending timer of the flushed batch does not send anything, and that flushing without elements has no effect.
+     * 
+     * @throws InterruptedException on Thread interruption
+     */
+    @Test
+    public void testFlush() throws InterruptedException {
+        final CollectingBatchProcessor<String> collector = new CollectingBatchProcessor<String>();
+
+        final int maxLatency = 300;
+
+        final BatchAggregator<String> aggregator =
+            new BatchAggregator<String>(Integer.MAX_VALUE, maxLatency, collector);
+
+        aggregator.flush();
+        aggregator.enqueue("flush.msg1");
+        aggregator.enqueue("flush.msg2");
+        aggregator.flush();
+
+        assertEquals("Batch not processed when flush() returned", 1, collector.receivedBatches.size());
+        assertEquals(2, collector.receivedBatches.get(0).size());
+
+        aggregator.enqueue("flush.msg3");
+        aggregator.flush();
+        assertEquals("Batch not processed when flush() returned", 2, collector.receivedBatches.size());
+        aggregator.flush();
+
+        Thread.sleep(maxLatency * 2);
+
+        // one batch per flush with elements; neither the timers nor the empty flush may send a batch
+        assertEquals(2, collector.receivedBatches.size());
+        assertEquals("flush.msg1", collector.receivedBatches.get(0).get(0));
+        assertEquals("flush.msg2", collector.receivedBatches.get(0).get(1));
+        assertEquals("flush.msg3", collector.receivedBatches.get(1).get(0));
+    }
+
     /**
      * Verifies that elements can still be added after the processor failed for a batch triggered by maximum size.
      * 
@@ -0,0 +1,189 @@
+/*
+ * Copyright (C) 2006-2014 DLR, Germany
+ * 
+ * All rights reserved
+ * 
+ * http://www.rcenvironment.de/
+ */
+
+package de.rcenvironment.core.utils.common;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+
+/**
+ * Utility methods for compact binary encodings on top of {@link DataOutput} and {@link DataInput}: variable-length integers ("varints"),
+ * length-prefixed UTF-8 strings of arbitrary length, and raw IEEE-754 double arrays.
+ * 
+ * @author agent
+ */
+public final class BinaryFormatUtils {
+
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+
+    private static final int VARINT_PAYLOAD_BITS = 7;
+
+    private static final int VARINT_PAYLOAD_MASK = 0x7F;
+
+    private static final int VARINT_CONTINUATION_BIT = 0x80;
+
+    private static final int MAX_VARINT_SHIFT = 28;
+
+    private static final int MAX_VARLONG_SHIFT = 63;
+
+    private static final int BYTES_PER_DOUBLE = 8;
+
+    /**
+     * The number of doubles to convert per write/read operation; limits the size of the temporary buffer for large arrays.
+     */
+    private static final int DOUBLE_CHUNK_SIZE = 8192;
+
+    private BinaryFormatUtils() {}
+
+    /**
+     * Writes a non-negative int value using 1 to 5 bytes; smaller values use fewer bytes.
+     * 
+     * @param output the output to write to
+     * @param value the value to write; must not be negative
+     * @throws IOException on write errors
+     */
+    public static void writeUnsignedVarInt(DataOutput output, int value) throws IOException {
+        if (value < 0) {
+            throw new IllegalArgumentException("Negative value: " + value);
+        }
+        int remaining = value;
+        while ((remaining & ~VARINT_PAYLOAD_MASK) != 0) {
+            output.writeByte((remaining & VARINT_PAYLOAD_MASK) | VARINT_CONTINUATION_BIT);
+            remaining >>>= VARINT_PAYLOAD_BITS;
+        }
+        output.writeByte(remaining);
+    }
+
+    /**
+     * Reads a value written by {@link #writeUnsignedVarInt(DataOutput, int)}.
+     * 
+     * @param input the input to read from
+     * @return the value
+     * @throws IOException on read errors or malformed input
+     */
+    public static int readUnsignedVarInt(DataInput input) throws IOException {
+        int result = 0;
+        for (int shift = 0; shift <= MAX_VARINT_SHIFT; shift += VARINT_PAYLOAD_BITS) {
+            int b = input.readUnsignedByte();
+            result |= (b & VARINT_PAYLOAD_MASK) << shift;
+            if ((b & VARINT_CONTINUATION_BIT) == 0) {
+                return result;
+            }
+        }
+        throw new IOException("Malformed varint");
+    }
+
+    /**
+     * Writes a long value using 1 to 10 bytes; values with a small absolute value use fewer bytes ("zigzag" encoding).
+     * 
+     * @param output the output to write to
+     * @param value the value to write
+     * @throws IOException on write errors
+     */
+    public static void writeVarLong(DataOutput output, long value) throws IOException {
+        long remaining = (value << 1) ^ (value >> MAX_VARLONG_SHIFT);
+        while ((remaining & ~VARINT_PAYLOAD_MASK) != 0) {
+            output.writeByte((int) (remaining & VARINT_PAYLOAD_MASK) | VARINT_CONTINUATION_BIT);
+            remaining >>>= VARINT_PAYLOAD_BITS;
+        }
+        output.writeByte((int) remaining);
+    }
+
+    /**
+     * Reads a value written by {@link #writeVarLong(DataOutput, long)}.
+     * 
+     * @param input the input to read from
+     * @return the value
+     * @throws IOException on read errors or malformed input
+     */
+    public static long readVarLong(DataInput input) throws IOException {
+        long encoded = 0;
+        for (int shift = 0; shift <= MAX_VARLONG_SHIFT; shift += VARINT_PAYLOAD_BITS) {
+            int b = input.readUnsignedByte();
+            encoded |= (long) (b & VARINT_PAYLOAD_MASK) << shift;
+            if ((b & VARINT_CONTINUATION_BIT) == 0) {
+                return (encoded >>> 1) ^ -(encoded & 1);
+            }
+        }
+        throw new IOException("Malformed varlong");
+    }
+
+    /**
+     * Writes a string as its varint-prefixed UTF-8 representation. Unlike {@link DataOutput#writeUTF(String)}, there is no length limit,
+     * and null values are supported.
+     * 
+     * @param output the output to write to
+     * @param value the string to write; may be null
+     * @throws IOException on write errors
+     */
+    public static void writeString(DataOutput output, String value) throws IOException {
+        if (value == null) {
+            writeUnsignedVarInt(output, 0);
+            return;
+        }
+        byte[] bytes = value.getBytes(UTF8);
+        // shift by one to reserve zero for null
+        writeUnsignedVarInt(output, bytes.length + 1);
+        output.write(bytes);
+    }
+
+    /**
+     * Reads a value written by {@link #writeString(DataOutput, String)}.
+     * 
+     * @param input the input to read from
+     * @return the string; may be null
+     * @throws IOException on read errors or malformed input
+     */
+    public static String readString(DataInput input) throws IOException {
+        int lengthField = readUnsignedVarInt(input);
+        if (lengthField == 0) {
+            return null;
+        }
+        byte[] bytes = new byte[lengthField - 1];
+        input.readFully(bytes);
+        return new String(bytes, UTF8);
+    }
+
+    /**
+     * Writes the raw IEEE-754 representation of the given values; the array length is not written.
+     * 
+     * @param output the output to write to
+     * @param values the values to write
+     * @throws IOException on write errors
+     */
+    public static void writeDoubles(DataOutput output, double[] values) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(Math.min(values.length, DOUBLE_CHUNK_SIZE) * BYTES_PER_DOUBLE);
+        for (int offset = 0; offset < values.length; offset += DOUBLE_CHUNK_SIZE) {
+            int count = Math.min(values.length - offset, DOUBLE_CHUNK_SIZE);
+            buffer.clear();
+            buffer.asDoubleBuffer().put(values, offset, count);
+            output.write(buffer.array(), 0, count * BYTES_PER_DOUBLE);
+        }
+    }
+
+    /**
+     * Reads values written by {@link #writeDoubles(DataOutput, double[])} into the given array; its length determines the number of
+     * values to read.
+     * 
+     * @param input the input to read from
+     * @param target the array to fill
+     * @throws IOException on read errors
+     */
+    public static void readDoubles(DataInput input, double[] target) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(Math.min(target.length, DOUBLE_CHUNK_SIZE) * BYTES_PER_DOUBLE);
+        for (int offset = 0; offset < target.length; offset += DOUBLE_CHUNK_SIZE) {
+            int count = Math.min(target.length - offset, DOUBLE_CHUNK_SIZE);
+            input.readFully(buffer.array(), 0, count * BYTES_PER_DOUBLE);
+            buffer.clear();
+            buffer.asDoubleBuffer().get(target, offset, count);
+        }
+    }
+}
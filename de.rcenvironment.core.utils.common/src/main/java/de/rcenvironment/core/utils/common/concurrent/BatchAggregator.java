@@ -10,6 +10,7 @@ package de.rcenvironment.core.utils.common.concurrent;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -19,11 +20,12 @@ import de.rcenvironment.core.utils.common.StatsCounter;
 /**
  * A generic class to group sequentially-generated elements into ordered batches. A batch is returned (to a given {@link BatchProcessor})
  * when a maximum number of elements is reached, or after a specified time has elapsed since the batch was created. Batches are created
- * implicitly when an element is added while no batch is already active.
+ * implicitly when an element is added while no batch is already active. A batch can also be returned early by calling {@link #flush()}.
  * 
  * @param <T> the element type to aggregate
  * 
  * @author Robert Mischke
+ * @author agent (flush)
  */
 public class BatchAggregator<T> {
 
@@ -149,6 +151,33 @@ public class BatchAggregator<T> {
         }
     }
 
+    /**
+     * Ends the current batch, if any, and enqueues it for processing without waiting for the maximum latency to elapse. Then blocks until
+     * this batch and all batches enqueued before it have been passed to the {@link BatchProcessor}. Elements added afterwards start a new
+     * batch. Must not be called from {@link BatchProcessor#processBatch(List)}, as the dispatch of the batches would wait for itself.
+     * 
+     * @throws InterruptedException if interrupted while waiting; the batch is still processed
+     */
+    public void flush() throws InterruptedException {
+        final CountDownLatch dispatchedLatch = new CountDownLatch(1);
+        synchronized (this) {
+            if (currentBatch != null) {
+                // the latency timer of the flushed batch will find it already sent
+                endCurrentBatchAndEnqueueForProcessing();
+            }
+            // the dispatch queue is ordered, so this runs after all previously enqueued batches
+            dispatchQueue.enqueue(new Runnable() {
+
+                @Override
+                @TaskDescription("BatchAggregator flush")
+                public void run() {
+                    dispatchedLatch.countDown();
+                }
+            });
+        }
+        dispatchedLatch.await();
+    }
+
     /**
      * Logger access for unit tests.
      */